@@ -11,17 +11,21 @@ import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.rewriter.RewriterFactory;
 //import org.aksw.limes.core.gui.LimesGUI;
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.FileCache;
 import org.aksw.limes.core.io.cache.HybridCache;
 import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.config.Configuration;
+import org.aksw.limes.core.io.config.KBInfo;
 import org.aksw.limes.core.io.config.reader.AConfigurationReader;
 import org.aksw.limes.core.io.config.reader.rdf.RDFConfigurationReader;
 import org.aksw.limes.core.io.config.reader.xml.XMLConfigurationReader;
+import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.preprocessing.Preprocessor;
 import org.aksw.limes.core.io.serializer.ISerializer;
 import org.aksw.limes.core.io.serializer.SerializerFactory;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
 import org.apache.commons.cli.BasicParser;
 import org.apache.commons.cli.CommandLine;
@@ -32,10 +36,16 @@ import org.apache.commons.cli.ParseException;
 import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.function.Function;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * This is the default LIMES Controller used to run the software as CLI.
@@ -182,25 +192,39 @@ public class Controller {
         if (logger == null)
             logger = LoggerFactory.getLogger(Controller.class);
         AMapping results = null;
+        LinkingExecutor.configure(config.getLinkingThreads());
 
-        // 3. Fill Caches
-        ACache sourceCache = HybridCache.getData(config.getSourceInfo());
-        ACache targetCache = HybridCache.getData(config.getTargetInfo());
-        if (limit > 0) {
-            Function<ACache, ACache> getSubCache = c -> {
-                ACache reducedCache = new MemoryCache();
-                c.getAllInstances().subList(0, limit).forEach(reducedCache::addInstance);
-                return reducedCache;
-            };
-            sourceCache = getSubCache.apply(sourceCache);
-            targetCache = getSubCache.apply(targetCache);
+        // 3. Fill caches and 4. apply preprocessing, for source and target in parallel
+        long cachesStart = System.currentTimeMillis();
+        long[] sourceTimes = new long[2], targetTimes = new long[2];
+        Map<String, String> loggingContext = MDC.getCopyOfContextMap();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ACache sourceCache, targetCache;
+        try {
+            Future<ACache> source = executor.submit(
+                    () -> getPreprocessedCache(config.getSourceInfo(), limit, sourceTimes, loggingContext));
+            Future<ACache> target = executor.submit(
+                    () -> getPreprocessedCache(config.getTargetInfo(), limit, targetTimes, loggingContext));
+            sourceCache = source.get();
+            targetCache = target.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
-
-        System.out.println(sourceCache.getAllInstances().get(0));
-        // 4. Apply preprocessing 
-        sourceCache = Preprocessor.applyFunctionsToCache(sourceCache, config.getSourceInfo().getFunctions());
-        System.out.println(sourceCache.getAllInstances().get(0));
-        targetCache = Preprocessor.applyFunctionsToCache(targetCache, config.getTargetInfo().getFunctions());
+        Map<String, Long> stageTimes = new LinkedHashMap<>();
+        stageTimes.put("sourceLoading", sourceTimes[0]);
+        stageTimes.put("sourcePreprocessing", sourceTimes[1]);
+        stageTimes.put("targetLoading", targetTimes[0]);
+        stageTimes.put("targetPreprocessing", targetTimes[1]);
+        stageTimes.put("caches", System.currentTimeMillis() - cachesStart);
+        logger.info("Caches filled and preprocessed in " + stageTimes.get("caches") + " ms");
 
         // 5. Machine Learning or Planning
         StopWatch stopWatch = new StopWatch();
@@ -216,11 +240,13 @@ public class Controller {
                 e.printStackTrace();
             }
         } else {
-            results = LSPipeline.execute(sourceCache, targetCache, config.getMetricExpression(),
-                    config.getVerificationThreshold(), config.getSourceInfo().getVar(), config.getTargetInfo().getVar(),
+            results = LSPipeline.execute(sourceCache, targetCache,
+                    new LinkSpecification(config.getMetricExpression(), config.getVerificationThreshold()),
+                    config.getSourceInfo().getVar(), config.getTargetInfo().getVar(),
                     RewriterFactory.getRewriterType(config.getExecutionRewriter()),
                     ExecutionPlannerFactory.getExecutionPlannerType(config.getExecutionPlanner()),
-                    ExecutionEngineFactory.getExecutionEngineType(config.getExecutionEngine()));
+                    ExecutionEngineFactory.getExecutionEngineType(config.getExecutionEngine()),
+                    config.isCompactMappings());
         }
         long runTime = stopWatch.getTime();
         logger.info("Mapping task finished in " + runTime + " ms");
@@ -229,7 +255,53 @@ public class Controller {
         AMapping verificationMapping = MappingOperations.difference(results, acceptanceMapping);
         logger.info("Mapping size: " + acceptanceMapping.size() + " (accepted) + " + verificationMapping.size()
                 + " (need verification) = " + results.size() + " (total)");
-        return new LimesResult(verificationMapping, acceptanceMapping, sourceCache, targetCache, runTime);
+        return new LimesResult(verificationMapping, acceptanceMapping, sourceCache, targetCache, runTime, stageTimes);
+    }
+
+    /**
+     * Fills the cache of a knowledge base and applies its preprocessing
+     * functions. Runs in its own thread, so the logging context of the
+     * calling thread is copied.
+     *
+     * @param kb
+     *            knowledge base information
+     * @param limit
+     *            maximal number of instances, or -1 for all instances
+     * @param times
+     *            receives the time in ms for filling (index 0) and
+     *            preprocessing (index 1) the cache
+     * @param loggingContext
+     *            MDC context map of the calling thread, may be null
+     * @return the preprocessed cache
+     */
+    private static ACache getPreprocessedCache(KBInfo kb, int limit, long[] times, Map<String, String> loggingContext) {
+        if (loggingContext != null) {
+            MDC.setContextMap(loggingContext);
+        }
+        try {
+            long start = System.currentTimeMillis();
+            ACache cache;
+            if (Boolean.getBoolean(FileCache.ENABLED_PROPERTY)) {
+                if (!kb.getFunctions().isEmpty()) {
+                    logger.warn("Preprocessing " + kb.getId() + " keeps the modified instances of its file cache in memory");
+                }
+                cache = FileCache.getData(kb);
+            } else {
+                cache = HybridCache.getData(kb);
+            }
+            if (limit > 0) {
+                ACache reducedCache = new MemoryCache();
+                cache.getAllInstances().subList(0, limit).forEach(reducedCache::addInstance);
+                cache = reducedCache;
+            }
+            long loaded = System.currentTimeMillis();
+            times[0] = loaded - start;
+            cache = Preprocessor.applyFunctionsToCache(cache, kb.getFunctions());
+            times[1] = System.currentTimeMillis() - loaded;
+            return cache;
+        } finally {
+            MDC.clear();
+        }
     }
 
     private static void writeResults(LimesResult mappings, Configuration config) {
@@ -2,6 +2,7 @@ package org.aksw.limes.core.controller;
 
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
+import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.planning.planner.Planner;
 import org.aksw.limes.core.execution.rewriter.Rewriter;
@@ -9,6 +10,7 @@ import org.aksw.limes.core.execution.rewriter.RewriterFactory;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.CompactMapping;
 
 /**
  * Execution pipeline for generating mappings out of link specifications.
@@ -59,6 +61,29 @@ public class LSPipeline {
                                    String targetVar, RewriterFactory.RewriterType rewriterType,
                                    ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
                                    ExecutionEngineFactory.ExecutionEngineType executionEngineType) {
+        return execute(sourceCache, targetCache, ls, sourceVar, targetVar, rewriterType, executionPlannerType,
+                executionEngineType, false);
+    }
+
+    /**
+     * Execute a given LS, generating a mapping.
+     *
+     * @param sourceCache Resources from source KB
+     * @param targetCache Resources from target KB
+     * @param ls LIMES Link Specification
+     * @param sourceVar Name of SPARQL variable for resources from source KB
+     * @param targetVar Name of SPARQL variable for resources from target KB
+     * @param rewriterType Specifies rewriter module to use
+     * @param executionPlannerType Specifies executionPlanner module to use
+     * @param executionEngineType Specifies executionEngine module to use
+     * @param compactMappings Whether the links are stored in {@link CompactMapping}s
+     * @return Mapping of resources in sourceCache to resources in targetCache with similarity &gt; threshold
+     */
+    public static AMapping execute(ACache sourceCache, ACache targetCache, LinkSpecification ls, String sourceVar,
+                                   String targetVar, RewriterFactory.RewriterType rewriterType,
+                                   ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+                                   ExecutionEngineFactory.ExecutionEngineType executionEngineType,
+                                   boolean compactMappings) {
         // Optimize LS by rewriting
         Rewriter rw = RewriterFactory.getRewriter(rewriterType);
         assert rw != null;
@@ -70,6 +95,9 @@ public class LSPipeline {
         ExecutionEngine engine = ExecutionEngineFactory.getEngine(executionEngineType, sourceCache, targetCache,
                 sourceVar, targetVar);
         assert engine != null;
+        if (engine instanceof SimpleExecutionEngine) {
+            ((SimpleExecutionEngine) engine).setCompactMappings(compactMappings);
+        }
         return engine.execute(rwLs, planner);
     }
 
@@ -9,6 +9,8 @@ import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -20,6 +22,7 @@ public class LimesResult {
     private ACache sourceCache = null;
     private ACache targetCache = null;
     private long runTime = 0;
+    private Map<String, Long> stageTimes = new LinkedHashMap<>();
 
     /**
      * Constructor
@@ -56,6 +59,21 @@ public class LimesResult {
         this.runTime = runTime;
     }
 
+    /**
+     * Constructor
+     * @param verificationMapping Mapping where acceptanceThreshold &gt; sim &gt;= verificationThreshold
+     * @param acceptanceMapping Mapping where sim &gt;= acceptanceThreshold
+     * @param sourceCache source resources cache
+     * @param targetCache target resources cache
+     * @param runTime run time
+     * @param stageTimes run times in ms of the stages before the mapping, by stage name
+     */
+    public LimesResult(AMapping verificationMapping, AMapping acceptanceMapping, ACache sourceCache, ACache targetCache,
+            long runTime, Map<String, Long> stageTimes) {
+        this(verificationMapping, acceptanceMapping, sourceCache, targetCache, runTime);
+        this.stageTimes = stageTimes;
+    }
+
 
     /**
      * Getter for verification part
@@ -74,10 +92,23 @@ public class LimesResult {
         return acceptanceMapping;
     }
 
+    /**
+     * Getter for the run times of the stages before the mapping
+     * @return run times in ms by stage name
+     */
+    public Map<String, Long> getStageTimes() {
+        return stageTimes;
+    }
+
     public String getStatistics() {
         if (sourceCache == null) {
             return "";
         }
+        StringBuilder stages = new StringBuilder();
+        for (Map.Entry<String, Long> stage : stageTimes.entrySet()) {
+            stages.append(stages.length() == 0 ? "" : ",")
+                    .append("\n\t\t\"").append(stage.getKey()).append("\" : ").append(stage.getValue());
+        }
         GoldStandard goldStandard = new GoldStandard(null, sourceCache, targetCache);
         double pseudoPrecisionForAcceptance = new PseudoFMeasure().precision(acceptanceMapping, goldStandard);
         double pseudoRecallForAcceptance = new PseudoFMeasure().recall(acceptanceMapping, goldStandard);
@@ -89,6 +120,8 @@ public class LimesResult {
         return String.format(
                 "{" +
                 "\n\t\"mappingTime\" : %d," +
+                "\n\t\"stageTimes\" : {%s" +
+                "\n\t}," +
                 "\n\t\"inputSizes\" : {" +
                 "\n\t\t\"source\" : %d," +
                 "\n\t\t\"target\" : %d" +
@@ -110,7 +143,7 @@ public class LimesResult {
                 "\n\t\t}," +
                 "\n\t}" +
                 "\n}",
-                this.runTime, this.sourceCache.size(), this.targetCache.size(),
+                this.runTime, stages, this.sourceCache.size(), this.targetCache.size(),
                 this.verificationMapping.size(), this.acceptanceMapping.size(),
                 pseudoPrecisionForAcceptance, pseudoRecallForAcceptance, pseudoFMeasureForAcceptance,
                 pseudoPrecisionForAll, pseudoRecallForAll, pseudoFMeasureForAll);
@@ -1,23 +1,50 @@
 package org.aksw.limes.core.execution.engine;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import org.aksw.limes.core.execution.planning.plan.NestedPlan;
+import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
 import org.aksw.limes.core.execution.planning.planner.IPlanner;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Implements the default execution engine class. The idea is that the engine
+ * Implements the parallel execution engine class. The idea is that the engine
  * gets as input a link specification and a planner type, executes the
  * independent parts of the plan returned from the planner in parallel and
  * returns a MemoryMemoryMapping.
  *
+ * A nested plan is a tree in which the sub-plans of a complex plan do not
+ * depend on each other. Each node of the tree is hence scheduled as a task on
+ * the pool of the {@link LinkingExecutor}, which the parallel mappers run on
+ * as well, so that plans and mappers share one bounded set of worker
+ * threads. The sub-plans of a node are executed
+ * concurrently, and the operator and filtering instruction of the node are
+ * applied as soon as all of them are done. Atomic plans are executed
+ * sequentially by a dedicated {@link SimpleExecutionEngine}, so that no
+ * intermediate buffer is shared between tasks. The resulting mapping is
+ * identical to the one returned by the {@link SimpleExecutionEngine}.
+ *
+ * Dynamic plans are re-planned after each executed step and are therefore
+ * executed sequentially.
  *
  * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
  * @version 1.0
  */
-public class ParallelExecutionEngine extends ExecutionEngine {
+public class ParallelExecutionEngine extends SimpleExecutionEngine {
+
+    static Logger logger = LoggerFactory.getLogger(ParallelExecutionEngine.class);
+
     /**
-     * Constructor for a parallel execution engine.
+     * Constructor for a parallel execution engine. The number of threads is
+     * the parallelism of the {@link LinkingExecutor}.
      *
      * @param source
      *            Source cache
@@ -32,6 +59,21 @@ public class ParallelExecutionEngine extends ExecutionEngine {
         super(source, target, sourceVar, targetVar);
     }
 
+    /**
+     * Executes an immutable nested plan. The sub-plans of every complex plan
+     * are executed in parallel, the operator of the plan is applied on their
+     * mappings in the order of the sub-plans and the result is finally
+     * filtered using the filtering instruction of the plan (if any).
+     *
+     * @param plan
+     *            A nested plan created by a static planner (Canonical or
+     *            Helios)
+     * @return The mapping obtained from executing the plan
+     */
+    public AMapping executeParallel(NestedPlan plan) {
+        return LinkingExecutor.getPool().invoke(new PlanTask(plan));
+    }
+
     /**
      * Implementation of the execution of an execution plan. Independent parts
      * of the plan are executed in parallel.
@@ -44,7 +86,56 @@ public class ParallelExecutionEngine extends ExecutionEngine {
      */
     @Override
     public AMapping execute(LinkSpecification spec, IPlanner planner) {
-        throw new UnsupportedOperationException("Not implemented yet");
+        spec = planner.normalize(spec);
+        if (planner.isStatic() == false) {
+            logger.info("Dynamic plans are executed sequentially.");
+            return executeDynamic(spec, (DynamicPlanner) planner);
+        }
+        NestedPlan plan = planner.plan(spec);
+        return executeParallel(plan);
+    }
+
+    /**
+     * Task that executes a nested plan and all its sub-plans.
+     */
+    private class PlanTask extends RecursiveTask<AMapping> {
+
+        private static final long serialVersionUID = -3530851454125547306L;
+
+        private NestedPlan plan;
+
+        PlanTask(NestedPlan plan) {
+            this.plan = plan;
+        }
+
+        @Override
+        protected AMapping compute() {
+            if (plan.isEmpty()) {
+                return MappingFactory.createDefaultMapping();
+            }
+            if (plan.isAtomic()) {
+                // each atomic plan gets its own buffer of intermediate mappings
+                SimpleExecutionEngine engine = new SimpleExecutionEngine(source, target, sourceVariable,
+                        targetVariable);
+                engine.sourceIds = sourceIds;
+                engine.targetIds = targetIds;
+                return engine.executeInstructions(plan);
+            }
+            List<PlanTask> tasks = new ArrayList<>();
+            for (int i = 1; i < plan.getSubPlans().size(); i++) {
+                PlanTask task = new PlanTask(plan.getSubPlans().get(i));
+                task.fork();
+                tasks.add(task);
+            }
+            AMapping m = new PlanTask(plan.getSubPlans().get(0)).compute();
+            for (PlanTask task : tasks) {
+                m = executeOperator(plan, m, task.join());
+            }
+            if (plan.getFilteringInstruction() != null) {
+                m = executeFilter(plan.getFilteringInstruction(), m);
+            }
+            return m;
+        }
     }
 
 }
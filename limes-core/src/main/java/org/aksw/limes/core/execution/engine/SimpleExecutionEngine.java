@@ -1,8 +1,11 @@
 package org.aksw.limes.core.execution.engine;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.aksw.limes.core.datastrutures.LogicOperator;
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
@@ -17,8 +20,10 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
-import org.aksw.limes.core.io.mapping.MemoryMapping;
+import org.aksw.limes.core.io.mapping.UriDictionary;
+import org.aksw.limes.core.io.mapping.CompactMapping;
 import org.aksw.limes.core.measures.mapper.IMapper;
+import org.aksw.limes.core.measures.mapper.IndexCache;
 import org.aksw.limes.core.measures.mapper.MapperFactory;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
 import org.aksw.limes.core.measures.measure.MeasureFactory;
@@ -43,6 +48,105 @@ public class SimpleExecutionEngine extends ExecutionEngine {
      * Map of intermediate mappings. Used for dynamic planning.
      */
     private HashMap<String, AMapping> dynamicResults = new HashMap<String, AMapping>();
+    /**
+     * Dictionaries of the source and target URIs. Only set if the results of
+     * the RUN operator are stored as {@link CompactMapping}s.
+     */
+    protected UriDictionary sourceIds = null;
+    protected UriDictionary targetIds = null;
+
+    /**
+     * Measures whose mappers return exactly the pairs whose similarity
+     * reaches the threshold, with their exact similarities. The mapping of
+     * such a measure for a threshold contains the mapping for any higher
+     * threshold, which can thus be obtained by filtering.
+     */
+    private static final Set<MeasureType> THRESHOLD_MONOTONE_MEASURES = EnumSet.of(MeasureType.COSINE,
+            MeasureType.OVERLAP, MeasureType.TRIGRAM, MeasureType.JACCARD, MeasureType.QGRAMS,
+            MeasureType.LEVENSHTEIN, MeasureType.MONGEELKAN, MeasureType.EXACTMATCH);
+    /**
+     * Whether the mappings computed by the RUN operator are kept in the
+     * {@link IndexCache}.
+     */
+    private boolean runCache = false;
+
+    /**
+     * Mapping computed by the RUN operator for an atomic measure and a
+     * threshold. It is kept in the {@link IndexCache} under the measure
+     * expression and the caches as arrays of the links, which are shared by
+     * all engines and never modified.
+     */
+    private static class RunResult {
+
+        private final double threshold;
+        private final boolean monotone;
+        private final String[] sources;
+        /**
+         * The links of sources[i] are at the positions offsets[i] to
+         * offsets[i + 1] of targets and similarities
+         */
+        private final int[] offsets;
+        private final String[] targets;
+        private final double[] similarities;
+
+        RunResult(AMapping mapping, double threshold, boolean monotone) {
+            this.threshold = threshold;
+            this.monotone = monotone;
+            Map<String, HashMap<String, Double>> map = mapping.getMap();
+            sources = new String[map.size()];
+            offsets = new int[map.size() + 1];
+            int links = 0;
+            for (HashMap<String, Double> targetLinks : map.values()) {
+                links += targetLinks.size();
+            }
+            targets = new String[links];
+            similarities = new double[links];
+            int i = 0, j = 0;
+            for (Map.Entry<String, HashMap<String, Double>> entry : map.entrySet()) {
+                sources[i] = entry.getKey();
+                offsets[i++] = j;
+                for (Map.Entry<String, Double> link : entry.getValue().entrySet()) {
+                    targets[j] = link.getKey();
+                    similarities[j++] = link.getValue();
+                }
+            }
+            offsets[i] = j;
+        }
+
+        /**
+         * @return true if the RUN with the given threshold can be answered
+         *         from this result
+         */
+        boolean answers(double threshold) {
+            return threshold == this.threshold || (monotone && threshold > this.threshold);
+        }
+
+        /**
+         * @return a new mapping with the links whose similarity is at least
+         *         the given threshold, or all links for the threshold of the
+         *         run
+         */
+        AMapping getMapping(double threshold) {
+            AMapping m = MappingFactory.createDefaultMapping();
+            for (int i = 0; i < sources.length; i++) {
+                HashMap<String, Double> links = new HashMap<>();
+                for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                    if (threshold == this.threshold || similarities[j] >= threshold) {
+                        links.put(targets[j], similarities[j]);
+                    }
+                }
+                if (!links.isEmpty()) {
+                    m.add(sources[i], links);
+                }
+            }
+            return m;
+        }
+
+        long estimateSize() {
+            // the URIs are shared with the caches
+            return 64 + 12L * sources.length + 16L * targets.length;
+        }
+    }
 
     /**
      * Constructor for a simple execution engine.
@@ -60,6 +164,45 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         super(source, target, sourceVar, targetVar);
     }
 
+    /**
+     * Sets whether the mappings computed by the RUN operator are stored as
+     * {@link CompactMapping}s. The dictionaries of the compact mappings are
+     * initialized with the URIs of the source and target cache. As all set
+     * operations and filters preserve compact mappings, the intermediate and
+     * final mappings of a plan then require considerably less memory. The
+     * mappers that create their result by
+     * {@link MappingFactory#createResultMapping()} collect their links
+     * directly in compact mappings, the results of the other mappers are
+     * converted.
+     *
+     * @param compact
+     *            true if compact mappings are to be used
+     */
+    public void setCompactMappings(boolean compact) {
+        if (compact && sourceIds == null) {
+            sourceIds = new UriDictionary(source);
+            targetIds = new UriDictionary(target);
+        } else if (!compact) {
+            sourceIds = null;
+            targetIds = null;
+        }
+    }
+
+    /**
+     * Sets whether the mappings computed by the RUN operator are kept in the
+     * {@link IndexCache}. A RUN of a measure that was already run on the same
+     * caches with the same threshold, or for measures whose mappers are
+     * monotone in the threshold with a lower one, is then answered from the
+     * cache. Meant for learners, which run the same atomic measures over and
+     * over. Off by default.
+     *
+     * @param enabled
+     *            true if the results of RUNs are to be cached
+     */
+    public void setRunCache(boolean enabled) {
+        runCache = enabled;
+    }
+
     /**
      * Implementation of the execution of a plan. It receives a plan as a set of
      * instructions and executes them sequentially. This function does not
@@ -120,12 +263,12 @@ public class SimpleExecutionEngine extends ExecutionEngine {
             }
             // place resulting mapping in the buffer
             if (index < 0) {// add the new mapping at the end of the list
-                buffer.add((MemoryMapping) m);
+                buffer.add(m);
             } else {
                 // avoid overriding places in buffer
                 // by adding the result at the end
                 if (index < buffer.size()) {
-                    buffer.add((MemoryMapping) m);
+                    buffer.add(m);
                 } else {
                     // add placeholders to ensure that the mapping can be placed
                     // where the user wanted to have it
@@ -133,7 +276,7 @@ public class SimpleExecutionEngine extends ExecutionEngine {
                     while ((index + 1) > buffer.size()) {
                         buffer.add(MappingFactory.createDefaultMapping());
                     }
-                    buffer.set(index, (MemoryMapping) m);
+                    buffer.set(index, m);
                 }
 
             }
@@ -148,9 +291,23 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         }
     }
 
+    /**
+     * Runs a mapper. If compact mappings are used, the mapper collects its
+     * links directly in a compact mapping.
+     */
+    private AMapping run(IMapper mapper, String expression, double threshold) {
+        if (sourceIds == null) {
+            return mapper.getMapping(source, target, sourceVariable, targetVariable, expression, threshold);
+        }
+        return MappingFactory.withCompactMappings(sourceIds, targetIds,
+                () -> mapper.getMapping(source, target, sourceVariable, targetVariable, expression, threshold));
+    }
+
     /**
      * Implements the execution of the RUN operator. The input instruction must
-     * include an atomic link specification.
+     * include an atomic link specification. If the RUN cache is enabled (see
+     * {@link #setRunCache(boolean)}), the computed mappings are kept in the
+     * {@link IndexCache} and reused for later RUNs of the same measure.
      *
      * @param inst
      *            Atomic RUN instruction
@@ -166,10 +323,23 @@ public class SimpleExecutionEngine extends ExecutionEngine {
                 IMapper mapper;
                 //try {
                     MeasureType type = MeasureFactory.getMeasureType(inst.getMeasureExpression());
-                    mapper = MapperFactory.createMapper(type);
-
-                    return mapper.getMapping(source, target, sourceVariable, targetVariable,
-                            inst.getMeasureExpression(), threshold);
+                    String name = "run|" + sourceVariable + "|" + targetVariable + "|" + inst.getMeasureExpression();
+                    RunResult result = runCache ? IndexCache.getIfPresent(name, source, target) : null;
+                    AMapping m;
+                    if (result != null && result.answers(threshold)) {
+                        m = result.getMapping(threshold);
+                    } else {
+                        mapper = MapperFactory.createMapper(type);
+                        m = run(mapper, inst.getMeasureExpression(), threshold);
+                        if (runCache) {
+                            result = new RunResult(m, threshold, THRESHOLD_MONOTONE_MEASURES.contains(type));
+                            IndexCache.put(name, result, result.estimateSize(), source, target);
+                        }
+                    }
+                    if (sourceIds != null) {
+                        return CompactMapping.from(m, sourceIds, targetIds);
+                    }
+                    return m;
                /* } catch (InvalidMeasureException e) {
                     e.printStackTrace();
                     logger.info("Returning an empty mapping");
@@ -262,6 +432,42 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         return MappingOperations.union(m1, m2);
     }
 
+    /**
+     * Applies the operator of a complex nested plan to the mappings of two of
+     * its sub-plans. If the plan has no supported operator, the first mapping
+     * is returned unchanged.
+     *
+     * @param plan
+     *            A complex nested plan
+     * @param m1
+     *            Mapping of the left sub-plan(s)
+     * @param m2
+     *            Mapping of the right sub-plan
+     * @return The mapping obtained by applying the operator of the plan
+     */
+    protected AMapping executeOperator(NestedPlan plan, AMapping m1, AMapping m2) {
+        AMapping result = m1;
+        if (plan.getOperator().equals(Command.INTERSECTION)) {
+            result = executeIntersection(m1, m2);
+        } // union
+        else if (plan.getOperator().equals(Command.UNION)) {
+            result = executeUnion(m1, m2);
+        } // diff
+        else if (plan.getOperator().equals(Command.DIFF)) {
+            result = executeDifference(m1, m2);
+            // exclusive or
+        } else if (plan.getOperator().equals(Command.XOR)) {
+            LinearFilter f = new LinearFilter();
+            AMapping mleft = executeUnion(m1, m2);
+            mleft = f.filter(mleft, Double.parseDouble(plan.getThreshold()));
+
+            AMapping mright = executeIntersection(m1, m2);
+            mright = f.filter(mright, Double.parseDouble(plan.getThreshold()));
+            result = executeDifference(mleft, mright);
+        }
+        return result;
+    }
+
     /**
      * Executes an immutable nested plan in lNr depth first oder. See
      * {@link #execute(LinkSpecification, IPlanner)}. If a plan is atomic, it is
@@ -288,28 +494,10 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         else {
             // run all the subplans
             m = executeStatic(plan.getSubPlans().get(0));
-            AMapping m2, result = m;
+            AMapping m2;
             for (int i = 1; i < plan.getSubPlans().size(); i++) {
                 m2 = executeStatic(plan.getSubPlans().get(i));
-                if (plan.getOperator().equals(Command.INTERSECTION)) {
-                    result = executeIntersection(m, m2);
-                } // union
-                else if (plan.getOperator().equals(Command.UNION)) {
-                    result = executeUnion(m, m2);
-                } // diff
-                else if (plan.getOperator().equals(Command.DIFF)) {
-                    result = executeDifference(m, m2);
-                    // exclusive or
-                } else if (plan.getOperator().equals(Command.XOR)) {
-                    LinearFilter f = new LinearFilter();
-                    AMapping mleft = executeUnion(m, m2);
-                    mleft = f.filter(mleft, Double.parseDouble(plan.getThreshold()));
-
-                    AMapping mright = executeIntersection(m, m2);
-                    mright = f.filter(mright, Double.parseDouble(plan.getThreshold()));
-                    result = executeDifference(mleft, mright);
-                }
-                m = result;
+                m = executeOperator(plan, m, m2);
             }
             // only run filtering if there is a filter indeed, else simply
             // return MemoryMapping
@@ -5,7 +5,7 @@ import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
-import org.aksw.limes.core.measures.measure.MeasureProcessor;
+import org.aksw.limes.core.measures.measure.CompiledExpression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,21 +32,17 @@ public class LinearFilter implements IFilter {
      * @return a filtered mapping that satisfies sim {@literal >}= threshold
      */
     public AMapping filter(AMapping map, double threshold) {
-        double sim = 0.0;
         if (threshold <= 0.0) {
             return map;
         } else {
-            AMapping result = MappingFactory.createDefaultMapping();
+            AMapping result = MappingFactory.createMapping(map);
             // run on all pairs and remove those whose similarity is below
             // the threshold
-            for (String key : map.getMap().keySet()) {
-                for (String value : map.getMap().get(key).keySet()) {
-                    sim = map.getConfidence(key, value);
-                    if (sim >= threshold) {
-                        result.add(key, value, sim);
-                    }
+            map.forEachLink((key, value, sim) -> {
+                if (sim >= threshold) {
+                    result.add(key, value, sim);
                 }
-            }
+            });
             return result;
         }
     }
@@ -76,27 +72,22 @@ public class LinearFilter implements IFilter {
      */
     public AMapping filter(AMapping map, String condition, double threshold, ACache source, ACache target,
             String sourceVar, String targetVar) {
-        double sim = 0.0;
-        Instance s, t;
-
         if (condition == null) {
             logger.error("Null condition in filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
+        CompiledExpression compiled = CompiledExpression.compile(condition, threshold, sourceVar, targetVar);
 
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createMapping(map);
         // 2. run on all pairs and remove those
-        for (String key : map.getMap().keySet()) {
-            s = source.getInstance(key);
-            for (String value : map.getMap().get(key).keySet()) {
-                t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
-                if (sim >= threshold) {
-                    result.add(s.getUri(), t.getUri(), sim);
-                }
+        map.forEachLink((key, value, confidence) -> {
+            Instance s = source.getInstance(key);
+            Instance t = target.getInstance(value);
+            double sim = compiled.getSimilarity(s, t);
+            if (sim >= threshold) {
+                result.add(s.getUri(), t.getUri(), sim);
             }
-
-        }
+        });
         return result;
     }
 
@@ -131,32 +122,25 @@ public class LinearFilter implements IFilter {
      */
     public AMapping filter(AMapping map, String condition, double threshold, double mainThreshold, ACache source,
             ACache target, String sourceVar, String targetVar) {
-        double sim = 0.0;
-        Instance s, t;
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createMapping(map);
         if (condition == null) {
             logger.info("Null condition in extended filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
-
-        for (String key : map.getMap().keySet()) {
-            s = source.getInstance(key);
-            for (String value : map.getMap().get(key).keySet()) {
-                t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
-                // result must pass the filter threshold first!
-                if (sim >= threshold) {
-                    double sim2 = map.getConfidence(key, value);
-                    double minSimilarity = Math.min(sim, sim2);
-                    // min similarity because of AND operator
-                    // check if min sim passes the bigger threshold
-                    if (minSimilarity >= mainThreshold) {
-                        result.add(key, value, minSimilarity);
-                    }
+        CompiledExpression compiled = CompiledExpression.compile(condition, threshold, sourceVar, targetVar);
+
+        map.forEachLink((key, value, sim2) -> {
+            double sim = compiled.getSimilarity(source.getInstance(key), target.getInstance(value));
+            // result must pass the filter threshold first!
+            if (sim >= threshold) {
+                double minSimilarity = Math.min(sim, sim2);
+                // min similarity because of AND operator
+                // check if min sim passes the bigger threshold
+                if (minSimilarity >= mainThreshold) {
+                    result.add(key, value, minSimilarity);
                 }
-
             }
-        }
+        });
         return result;
 
     }
@@ -192,30 +176,23 @@ public class LinearFilter implements IFilter {
     public AMapping reversefilter(AMapping map, String condition, double threshold, double mainThreshold, ACache source,
             ACache target, String sourceVar, String targetVar) {
 
-        double sim = 0.0;
-        Instance s, t;
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createMapping(map);
         if (condition == null) {
             System.err.println("Null condition in extended reverse filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
+        CompiledExpression compiled = CompiledExpression.compile(condition, threshold, sourceVar, targetVar);
 
         // 2. run on all pairs and remove those
-        for (String key : map.getMap().keySet()) {
-            s = source.getInstance(key);
-            for (String value : map.getMap().get(key).keySet()) {
-                t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
-
-                // similarity of s and t must be 0 to be accepted
-                if (sim == 0) {
-                    double sim2 = map.getConfidence(key, value);
-                    if (sim2 >= mainThreshold) {
-                        result.add(key, value, sim2);
-                    }
+        map.forEachLink((key, value, sim2) -> {
+            double sim = compiled.getSimilarity(source.getInstance(key), target.getInstance(value));
+            // similarity of s and t must be 0 to be accepted
+            if (sim == 0) {
+                if (sim2 >= mainThreshold) {
+                    result.add(key, value, sim2);
                 }
             }
-        }
+        });
         return result;
 
     }
@@ -250,28 +227,23 @@ public class LinearFilter implements IFilter {
     public AMapping filter(AMapping map1, AMapping map2, double coef1, double coef2, double threshold,
             String operation) {
         AMapping m = MappingOperations.intersection(map1, map2);
-        AMapping result = MappingFactory.createDefaultMapping();
-        double sim;
+        AMapping result = MappingFactory.createMapping(m);
         // we can be sure that each key in m is also in m1 and m2 as we used
         // intersection
         if (operation.equalsIgnoreCase("add")) {
-            for (String key : m.getMap().keySet()) {
-                for (String value : m.getMap().get(key).keySet()) {
-                    sim = coef1 * map1.getConfidence(key, value) + coef2 * map2.getConfidence(key, value);
-                    if (sim >= threshold) {
-                        result.add(key, value, sim);
-                    }
+            m.forEachLink((key, value, confidence) -> {
+                double sim = coef1 * map1.getConfidence(key, value) + coef2 * map2.getConfidence(key, value);
+                if (sim >= threshold) {
+                    result.add(key, value, sim);
                 }
-            }
+            });
         } else {
-            for (String key : m.getMap().keySet()) {
-                for (String value : m.getMap().get(key).keySet()) {
-                    sim = coef1 * coef2 * map1.getConfidence(key, value) * map2.getConfidence(key, value);
-                    if (sim >= threshold) {
-                        result.add(key, value, sim);
-                    }
+            m.forEachLink((key, value, confidence) -> {
+                double sim = coef1 * coef2 * map1.getConfidence(key, value) * map2.getConfidence(key, value);
+                if (sim >= threshold) {
+                    result.add(key, value, sim);
                 }
-            }
+            });
         }
         return result;
     }
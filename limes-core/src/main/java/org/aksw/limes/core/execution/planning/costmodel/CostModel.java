@@ -0,0 +1,315 @@
+package org.aksw.limes.core.execution.planning.costmodel;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implements a calibrated cost model for the planners. For each measure, the
+ * model may contain three regression models that are fitted by
+ * {@link CostModelCalibrator} on benchmarks of the mapper and the measure:
+ * <ul>
+ * <li>the runtime of the mapper in ms, as ln(1 + runtime)</li>
+ * <li>the size of the mapping returned by the mapper, as ln(1 + size)</li>
+ * <li>the runtime of filtering a mapping with the measure in ms</li>
+ * </ul>
+ * The features of the mapper models are ln(|source|), ln(|target|) and the
+ * threshold, the feature of the filter model is the size of the mapping.
+ * Measures without models are estimated by the static approximations of the
+ * mappers and measures.
+ *
+ * @version 1.0
+ */
+public class CostModel {
+
+    static Logger logger = LoggerFactory.getLogger(CostModel.class);
+
+    /**
+     * System property with the path of the profile file that is loaded as
+     * default cost model.
+     */
+    public static final String PROFILE_PROPERTY = "limes.costModel";
+
+    private static final String RUNTIME = "runtime.";
+    private static final String SIZE = "size.";
+    private static final String FILTER = "filter.";
+
+    private static CostModel defaultModel = null;
+
+    private final Map<MeasureType, RegressionModel> runtimeModels = new EnumMap<>(MeasureType.class);
+    private final Map<MeasureType, RegressionModel> sizeModels = new EnumMap<>(MeasureType.class);
+    private final Map<MeasureType, RegressionModel> filterModels = new EnumMap<>(MeasureType.class);
+
+    /**
+     * Returns the default cost model. It is loaded from the profile file set
+     * in the system property {@value #PROFILE_PROPERTY}, and is empty if the
+     * property is not set or the file can not be read.
+     *
+     * @return the default cost model
+     */
+    public static synchronized CostModel getDefault() {
+        if (defaultModel == null) {
+            defaultModel = new CostModel();
+            String profile = System.getProperty(PROFILE_PROPERTY);
+            if (profile != null) {
+                try {
+                    defaultModel = load(new File(profile));
+                    logger.info("Cost model loaded from " + profile);
+                } catch (IOException e) {
+                    logger.warn("Could not load cost model from " + profile + ": " + e.getMessage());
+                }
+            }
+        }
+        return defaultModel;
+    }
+
+    /**
+     * Sets the default cost model used by newly created planners.
+     *
+     * @param costModel
+     *            The cost model
+     */
+    public static synchronized void setDefault(CostModel costModel) {
+        defaultModel = costModel;
+    }
+
+    static double[] getMapperFeatures(int sourceSize, int targetSize, double threshold) {
+        return new double[] { Math.log(Math.max(sourceSize, 1)), Math.log(Math.max(targetSize, 1)), threshold };
+    }
+
+    /**
+     * @param type
+     *            Measure type
+     * @return true if the model contains runtime and mapping size models for
+     *         the mapper of the measure
+     */
+    public boolean hasMapperModel(MeasureType type) {
+        return runtimeModels.containsKey(type) && sizeModels.containsKey(type);
+    }
+
+    /**
+     * @param type
+     *            Measure type
+     * @return true if the model contains a filter runtime model for the
+     *         measure
+     */
+    public boolean hasFilterModel(MeasureType type) {
+        return filterModels.containsKey(type);
+    }
+
+    /**
+     * Checks whether the model contains the mapper and filter models of all
+     * measures of a link specification.
+     *
+     * @param spec
+     *            Link specification
+     * @return true if all measures of spec are covered by the model
+     */
+    public boolean covers(LinkSpecification spec) {
+        for (MeasureType type : getMeasureTypes(spec)) {
+            if (!hasMapperModel(type) || !hasFilterModel(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the model contains the mapper or filter model of at
+     * least one measure of a link specification.
+     *
+     * @param spec
+     *            Link specification
+     * @return true if any measure of spec is covered by the model
+     */
+    public boolean coversAny(LinkSpecification spec) {
+        for (MeasureType type : getMeasureTypes(spec)) {
+            if (hasMapperModel(type) || hasFilterModel(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<MeasureType> getMeasureTypes(LinkSpecification spec) {
+        Set<MeasureType> types = EnumSet.noneOf(MeasureType.class);
+        if (spec == null || spec.isEmpty()) {
+            return types;
+        }
+        for (LinkSpecification leaf : spec.getAllLeaves()) {
+            types.add(MeasureFactory.getMeasureType(leaf.getFilterExpression()));
+        }
+        return types;
+    }
+
+    /**
+     * Sets the models of the mapper of a measure.
+     *
+     * @param type
+     *            Measure type
+     * @param runtimeModel
+     *            Model of ln(1 + runtime in ms)
+     * @param sizeModel
+     *            Model of ln(1 + mapping size)
+     */
+    public void setMapperModels(MeasureType type, RegressionModel runtimeModel, RegressionModel sizeModel) {
+        runtimeModels.put(type, runtimeModel);
+        sizeModels.put(type, sizeModel);
+    }
+
+    /**
+     * Sets the filter runtime model of a measure.
+     *
+     * @param type
+     *            Measure type
+     * @param filterModel
+     *            Model of the runtime in ms
+     */
+    public void setFilterModel(MeasureType type, RegressionModel filterModel) {
+        filterModels.put(type, filterModel);
+    }
+
+    /**
+     * Estimates the runtime of the mapper of a measure. Only defined if
+     * {@link #hasMapperModel(MeasureType)} is true.
+     *
+     * @param type
+     *            Measure type
+     * @param sourceSize
+     *            Size of the source cache
+     * @param targetSize
+     *            Size of the target cache
+     * @param threshold
+     *            Threshold of the measure
+     * @return the estimated runtime in ms
+     */
+    public double getRuntimeApproximation(MeasureType type, int sourceSize, int targetSize, double threshold) {
+        double y = runtimeModels.get(type).predict(getMapperFeatures(sourceSize, targetSize, threshold));
+        return Math.max(0d, Math.expm1(y));
+    }
+
+    /**
+     * Estimates the size of the mapping returned by the mapper of a measure.
+     * Only defined if {@link #hasMapperModel(MeasureType)} is true.
+     *
+     * @param type
+     *            Measure type
+     * @param sourceSize
+     *            Size of the source cache
+     * @param targetSize
+     *            Size of the target cache
+     * @param threshold
+     *            Threshold of the measure
+     * @return the estimated mapping size, at most sourceSize * targetSize
+     */
+    public double getMappingSizeApproximation(MeasureType type, int sourceSize, int targetSize, double threshold) {
+        double y = sizeModels.get(type).predict(getMapperFeatures(sourceSize, targetSize, threshold));
+        return Math.min((double) sourceSize * targetSize, Math.max(0d, Math.expm1(y)));
+    }
+
+    /**
+     * Estimates the runtime of filtering a mapping with a measure. Only
+     * defined if {@link #hasFilterModel(MeasureType)} is true.
+     *
+     * @param type
+     *            Measure type
+     * @param mappingSize
+     *            Size of the filtered mapping
+     * @return the estimated runtime in ms
+     */
+    public double getFilterRuntimeApproximation(MeasureType type, double mappingSize) {
+        return Math.max(0d, filterModels.get(type).predict(mappingSize));
+    }
+
+    /**
+     * Writes the model into a profile file.
+     *
+     * @param file
+     *            The profile file
+     * @throws IOException
+     *             if the file can not be written
+     */
+    public void save(File file) throws IOException {
+        Properties properties = new Properties();
+        runtimeModels.forEach((type, model) -> properties.setProperty(RUNTIME + type, model.toString()));
+        sizeModels.forEach((type, model) -> properties.setProperty(SIZE + type, model.toString()));
+        filterModels.forEach((type, model) -> properties.setProperty(FILTER + type, model.toString()));
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, "LIMES cost model");
+        }
+    }
+
+    /**
+     * Reads a model from a profile file written by {@link #save(File)}.
+     * Entries of unknown measures are ignored.
+     *
+     * @param file
+     *            The profile file
+     * @return the model
+     * @throws IOException
+     *             if the file can not be read
+     */
+    public static CostModel load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        CostModel costModel = new CostModel();
+        for (String key : properties.stringPropertyNames()) {
+            int dot = key.indexOf('.');
+            MeasureType type;
+            try {
+                type = MeasureType.valueOf(key.substring(dot + 1));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring cost model entry " + key);
+                continue;
+            }
+            RegressionModel model;
+            try {
+                model = RegressionModel.parse(properties.getProperty(key));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed cost model entry " + key, e);
+            }
+            String kind = key.substring(0, dot + 1);
+            if (kind.equals(RUNTIME)) {
+                costModel.runtimeModels.put(type, model);
+            } else if (kind.equals(SIZE)) {
+                costModel.sizeModels.put(type, model);
+            } else if (kind.equals(FILTER)) {
+                costModel.filterModels.put(type, model);
+            } else {
+                logger.warn("Ignoring cost model entry " + key);
+            }
+        }
+        return costModel;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof CostModel)) {
+            return false;
+        }
+        CostModel other = (CostModel) obj;
+        return runtimeModels.equals(other.runtimeModels) && sizeModels.equals(other.sizeModels)
+                && filterModels.equals(other.filterModels);
+    }
+
+    @Override
+    public int hashCode() {
+        return runtimeModels.hashCode() + 31 * sizeModels.hashCode() + 961 * filterModels.hashCode();
+    }
+}
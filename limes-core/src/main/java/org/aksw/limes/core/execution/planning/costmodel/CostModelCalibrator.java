@@ -0,0 +1,295 @@
+package org.aksw.limes.core.execution.planning.costmodel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.aksw.limes.core.execution.engine.filter.LinearFilter;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.IndexCache;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomStringGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fits a {@link CostModel} by benchmarking the mappers and measures on
+ * synthetic data. Each mapper is run on every combination of the source
+ * sizes, target sizes and thresholds, and each measure is used to compare
+ * random pairs of instances for every filter size. The resulting profile can
+ * be written into a file and loaded with {@link CostModel#load(File)} or via
+ * the system property {@value CostModel#PROFILE_PROPERTY}.
+ *
+ * @version 1.0
+ */
+public class CostModelCalibrator {
+
+    static Logger logger = LoggerFactory.getLogger(CostModelCalibrator.class);
+
+    /**
+     * Measures of which mappers work on strings.
+     */
+    public static final List<MeasureType> STRING_MEASURES = Arrays.asList(MeasureType.COSINE,
+            MeasureType.EXACTMATCH, MeasureType.JACCARD, MeasureType.JARO, MeasureType.JAROWINKLER,
+            MeasureType.LEVENSHTEIN, MeasureType.MONGEELKAN, MeasureType.OVERLAP, MeasureType.QGRAMS,
+            MeasureType.RATCLIFF, MeasureType.SOUNDEX, MeasureType.DOUBLEMETA, MeasureType.KOELN,
+            MeasureType.TRIGRAM);
+
+    /**
+     * Measures of which mappers work on numbers.
+     */
+    public static final List<MeasureType> NUMERIC_MEASURES = Arrays.asList(MeasureType.EUCLIDEAN,
+            MeasureType.MANHATTAN);
+
+    private static final String SOURCE_VAR = "?x";
+    private static final String TARGET_VAR = "?y";
+
+    private int[] sizes = { 250, 500, 1000, 2000 };
+    private double[] thresholds = { 0.5, 0.7, 0.9 };
+    private int[] filterSizes = { 1000, 10000, 50000 };
+    private final Random random;
+
+    /**
+     * Constructor of the CostModelCalibrator class.
+     */
+    public CostModelCalibrator() {
+        this(new Random());
+    }
+
+    /**
+     * Constructor of the CostModelCalibrator class.
+     *
+     * @param random
+     *            Source of randomness for the generated data
+     */
+    public CostModelCalibrator(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Sets the sizes of the generated source and target caches.
+     *
+     * @param sizes
+     *            Cache sizes, at least two different ones
+     */
+    public void setSizes(int... sizes) {
+        this.sizes = sizes.clone();
+    }
+
+    /**
+     * Sets the thresholds with which the mappers are run.
+     *
+     * @param thresholds
+     *            Thresholds in (0, 1]
+     */
+    public void setThresholds(double... thresholds) {
+        this.thresholds = thresholds.clone();
+    }
+
+    /**
+     * Sets the sizes of the mappings for which the filter costs are measured.
+     *
+     * @param filterSizes
+     *            Mapping sizes
+     */
+    public void setFilterSizes(int... filterSizes) {
+        this.filterSizes = filterSizes.clone();
+    }
+
+    /**
+     * Calibrates the cost model for all supported string and numeric
+     * measures.
+     *
+     * @return the calibrated cost model
+     */
+    public CostModel calibrate() {
+        List<MeasureType> types = new ArrayList<MeasureType>(STRING_MEASURES);
+        types.addAll(NUMERIC_MEASURES);
+        return calibrate(types);
+    }
+
+    /**
+     * Calibrates the cost model for a set of measures. Measures that are not
+     * supported or fail on the generated data are skipped, so the planners
+     * fall back to their static approximations for them.
+     *
+     * @param types
+     *            The measures to calibrate
+     * @return the calibrated cost model
+     */
+    public CostModel calibrate(Collection<MeasureType> types) {
+        CostModel costModel = new CostModel();
+        ACache[] stringSources = new ACache[sizes.length];
+        ACache[] stringTargets = new ACache[sizes.length];
+        ACache[] numericSources = new ACache[sizes.length];
+        ACache[] numericTargets = new ACache[sizes.length];
+        for (MeasureType type : types) {
+            boolean numeric = NUMERIC_MEASURES.contains(type);
+            if (!numeric && !STRING_MEASURES.contains(type)) {
+                logger.warn("Cost model calibration is not supported for " + type);
+                continue;
+            }
+            // the data is generated lazily and shared by all measures
+            ACache[] sources = numeric ? numericSources : stringSources;
+            ACache[] targets = numeric ? numericTargets : stringTargets;
+            for (int i = 0; i < sizes.length; i++) {
+                if (sources[i] == null) {
+                    sources[i] = numeric ? generateNumericData(sizes[i]) : generateStringData(sizes[i]);
+                    targets[i] = numeric ? generateNumericTargetData(sources[i], sizes[i])
+                            : generateStringTargetData(sources[i], sizes[i]);
+                }
+            }
+            try {
+                calibrateMapper(costModel, type, sources, targets);
+                calibrateFilter(costModel, type, sources[sources.length - 1], targets[targets.length - 1]);
+                logger.info("Calibrated cost model for " + type);
+            } catch (RuntimeException e) {
+                logger.warn("Could not calibrate cost model for " + type + ": " + e.getMessage());
+            }
+        }
+        return costModel;
+    }
+
+    private void calibrateMapper(CostModel costModel, MeasureType type, ACache[] sources, ACache[] targets) {
+        AMapper mapper = MapperFactory.createMapper(type);
+        String expression = getExpression(type);
+        // warm up
+        mapper.getMapping(sources[0], targets[0], SOURCE_VAR, TARGET_VAR, expression, thresholds[0]);
+        List<double[]> features = new ArrayList<double[]>();
+        List<Double> runtimes = new ArrayList<Double>();
+        List<Double> mappingSizes = new ArrayList<Double>();
+        for (int i = 0; i < sources.length; i++) {
+            for (int j = 0; j < targets.length; j++) {
+                for (double threshold : thresholds) {
+                    // the mappers would otherwise reuse the indexes of the
+                    // previous runs on the same caches
+                    IndexCache.clear();
+                    long begin = System.nanoTime();
+                    int mappingSize = mapper.getMapping(sources[i], targets[j], SOURCE_VAR, TARGET_VAR, expression,
+                            threshold).getNumberofMappings();
+                    double runtime = (System.nanoTime() - begin) / 1e6;
+                    features.add(CostModel.getMapperFeatures(sources[i].size(), targets[j].size(), threshold));
+                    runtimes.add(Math.log1p(runtime));
+                    mappingSizes.add(Math.log1p(mappingSize));
+                }
+            }
+        }
+        costModel.setMapperModels(type, RegressionModel.fit(features, runtimes),
+                RegressionModel.fit(features, mappingSizes));
+    }
+
+    /**
+     * Times the filter of the execution engine, which evaluates the compiled
+     * expression of the measure on every link of the input mapping.
+     */
+    private void calibrateFilter(CostModel costModel, MeasureType type, ACache source, ACache target) {
+        String expression = getExpression(type);
+        LinearFilter filter = new LinearFilter();
+        List<String> sourceUris = source.getAllUris();
+        List<String> targetUris = target.getAllUris();
+        List<double[]> features = new ArrayList<double[]>();
+        List<Double> runtimes = new ArrayList<Double>();
+        long checksum = 0;
+        for (int filterSize : filterSizes) {
+            AMapping links = MappingFactory.createDefaultMapping();
+            for (int k = 0; k < filterSize; k++) {
+                links.add(sourceUris.get(random.nextInt(sourceUris.size())),
+                        targetUris.get(random.nextInt(targetUris.size())), 1d);
+            }
+            long begin = System.nanoTime();
+            checksum += filter.filter(links, expression, thresholds[0], source, target, SOURCE_VAR, TARGET_VAR)
+                    .size();
+            features.add(new double[] { links.size() });
+            runtimes.add((System.nanoTime() - begin) / 1e6);
+        }
+        logger.debug("Filter checksum for " + type + ": " + checksum);
+        costModel.setFilterModel(type, RegressionModel.fit(features, runtimes));
+    }
+
+    private static String getExpression(MeasureType type) {
+        return type.name().toLowerCase() + "(x." + DataGenerator.LABEL + ", y." + DataGenerator.LABEL + ")";
+    }
+
+    private ACache generateStringData(int size) {
+        return new RandomStringGenerator(5, 20).generateData(size);
+    }
+
+    /**
+     * Half of the generated target strings are copies of source strings with
+     * up to three edits, so that the mappers return non-trivial mappings.
+     */
+    private ACache generateStringTargetData(ACache source, int size) {
+        RandomStringGenerator generator = new RandomStringGenerator(5, 20);
+        List<Instance> instances = source.getAllInstances();
+        ACache target = new MemoryCache();
+        for (int i = 0; i < size; i++) {
+            String value;
+            if (i % 2 == 0) {
+                value = instances.get(random.nextInt(instances.size())).getProperty(DataGenerator.LABEL).first();
+                char[] chars = value.toCharArray();
+                int edits = 1 + random.nextInt(3);
+                for (int e = 0; e < edits; e++) {
+                    chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+                }
+                value = new String(chars);
+            } else {
+                value = generator.generateString();
+            }
+            target.addTriple("t" + i, DataGenerator.LABEL, value);
+        }
+        return target;
+    }
+
+    private ACache generateNumericData(int size) {
+        ACache cache = new MemoryCache();
+        for (int i = 0; i < size; i++) {
+            cache.addTriple("s" + i, DataGenerator.LABEL, Double.toString(random.nextDouble() * 1000d));
+        }
+        return cache;
+    }
+
+    private ACache generateNumericTargetData(ACache source, int size) {
+        List<Instance> instances = source.getAllInstances();
+        ACache target = new MemoryCache();
+        for (int i = 0; i < size; i++) {
+            double value;
+            if (i % 2 == 0) {
+                value = Double.parseDouble(
+                        instances.get(random.nextInt(instances.size())).getProperty(DataGenerator.LABEL).first())
+                        + random.nextDouble();
+            } else {
+                value = random.nextDouble() * 1000d;
+            }
+            target.addTriple("t" + i, DataGenerator.LABEL, Double.toString(value));
+        }
+        return target;
+    }
+
+    /**
+     * Calibrates the cost model for all supported measures and writes it into
+     * a profile file.
+     *
+     * @param args
+     *            The path of the profile file
+     * @throws IOException
+     *             if the profile file can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: CostModelCalibrator <profile file>");
+            System.exit(1);
+        }
+        new CostModelCalibrator().calibrate().save(new File(args[0]));
+    }
+}
@@ -0,0 +1,168 @@
+package org.aksw.limes.core.execution.planning.costmodel;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implements a linear regression model y = c0 + c1 * x1 + ... + cn * xn that
+ * is fitted by (slightly regularized) least squares.
+ *
+ * @version 1.0
+ */
+public class RegressionModel {
+
+    /**
+     * Ridge factor that keeps the normal equations solvable if features are
+     * collinear. Small enough to not change well-conditioned fits.
+     */
+    private static final double RIDGE = 1e-9;
+
+    private final double[] coefficients;
+
+    /**
+     * Constructor of the RegressionModel class.
+     *
+     * @param coefficients
+     *            The intercept followed by one coefficient per feature
+     */
+    public RegressionModel(double... coefficients) {
+        this.coefficients = coefficients.clone();
+    }
+
+    /**
+     * Fits a model to observations.
+     *
+     * @param features
+     *            The feature vectors of the observations, all of the same
+     *            length
+     * @param values
+     *            The observed values
+     * @return the model with the least squared error
+     */
+    public static RegressionModel fit(List<double[]> features, List<Double> values) {
+        if (features.isEmpty() || features.size() != values.size()) {
+            throw new IllegalArgumentException("Need the same positive number of feature vectors and values");
+        }
+        int n = features.get(0).length + 1;
+        double[][] a = new double[n][n + 1];
+        double[] x = new double[n];
+        for (int k = 0; k < features.size(); k++) {
+            x[0] = 1d;
+            System.arraycopy(features.get(k), 0, x, 1, n - 1);
+            double y = values.get(k);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    a[i][j] += x[i] * x[j];
+                }
+                a[i][n] += x[i] * y;
+            }
+        }
+        double scale = 0d;
+        for (int i = 0; i < n; i++) {
+            scale = Math.max(scale, a[i][i]);
+        }
+        for (int i = 1; i < n; i++) {
+            a[i][i] += RIDGE * Math.max(scale, 1d);
+        }
+        return new RegressionModel(solve(a));
+    }
+
+    /**
+     * Solves a system of linear equations by Gaussian elimination with partial
+     * pivoting.
+     *
+     * @param a
+     *            The augmented matrix of the system, is changed
+     * @return the solution
+     */
+    private static double[] solve(double[][] a) {
+        int n = a.length;
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            double[] tmp = a[col];
+            a[col] = a[pivot];
+            a[pivot] = tmp;
+            if (a[col][col] == 0d) {
+                continue;
+            }
+            for (int row = col + 1; row < n; row++) {
+                double factor = a[row][col] / a[col][col];
+                for (int k = col; k <= n; k++) {
+                    a[row][k] -= factor * a[col][k];
+                }
+            }
+        }
+        double[] solution = new double[n];
+        for (int row = n - 1; row >= 0; row--) {
+            double sum = a[row][n];
+            for (int k = row + 1; k < n; k++) {
+                sum -= a[row][k] * solution[k];
+            }
+            solution[row] = a[row][row] == 0d ? 0d : sum / a[row][row];
+        }
+        return solution;
+    }
+
+    /**
+     * Predicts the value for a feature vector.
+     *
+     * @param features
+     *            The features
+     * @return the predicted value
+     */
+    public double predict(double... features) {
+        double y = coefficients[0];
+        for (int i = 0; i < features.length && i + 1 < coefficients.length; i++) {
+            y += coefficients[i + 1] * features[i];
+        }
+        return y;
+    }
+
+    /**
+     * @return a copy of the coefficients, starting with the intercept
+     */
+    public double[] getCoefficients() {
+        return coefficients.clone();
+    }
+
+    /**
+     * Parses a model from its string representation.
+     *
+     * @param s
+     *            The coefficients separated by whitespace, as returned by
+     *            {@link #toString()}
+     * @return the model
+     */
+    public static RegressionModel parse(String s) {
+        String[] split = s.trim().split("\\s+");
+        double[] coefficients = new double[split.length];
+        for (int i = 0; i < split.length; i++) {
+            coefficients[i] = Double.parseDouble(split[i]);
+        }
+        return new RegressionModel(coefficients);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (double c : coefficients) {
+            sb.append(sb.length() == 0 ? "" : " ").append(c);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof RegressionModel && Arrays.equals(coefficients, ((RegressionModel) obj).coefficients);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(coefficients);
+    }
+}
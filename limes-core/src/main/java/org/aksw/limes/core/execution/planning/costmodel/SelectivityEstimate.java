@@ -0,0 +1,82 @@
+package org.aksw.limes.core.execution.planning.costmodel;
+
+/**
+ * Selectivity of an atomic link specification that is estimated on samples of
+ * the source and target caches, together with a confidence interval.
+ *
+ * @version 1.0
+ */
+public class SelectivityEstimate {
+
+    private final double selectivity;
+    private final double lowerBound;
+    private final double upperBound;
+    private final double crossProductSize;
+
+    /**
+     * Constructor of the SelectivityEstimate class.
+     *
+     * @param selectivity
+     *            Estimated fraction of the source x target pairs that are
+     *            returned
+     * @param lowerBound
+     *            Lower bound of the confidence interval of the selectivity
+     * @param upperBound
+     *            Upper bound of the confidence interval of the selectivity
+     * @param crossProductSize
+     *            Number of source x target pairs
+     */
+    public SelectivityEstimate(double selectivity, double lowerBound, double upperBound, double crossProductSize) {
+        this.selectivity = selectivity;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.crossProductSize = crossProductSize;
+    }
+
+    /**
+     * @return the estimated selectivity
+     */
+    public double getSelectivity() {
+        return selectivity;
+    }
+
+    /**
+     * @return the lower bound of the selectivity
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * @return the upper bound of the selectivity
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return the estimated size of the mapping
+     */
+    public double getMappingSize() {
+        return selectivity * crossProductSize;
+    }
+
+    /**
+     * @return the lower bound of the size of the mapping
+     */
+    public double getMappingSizeLowerBound() {
+        return lowerBound * crossProductSize;
+    }
+
+    /**
+     * @return the upper bound of the size of the mapping
+     */
+    public double getMappingSizeUpperBound() {
+        return upperBound * crossProductSize;
+    }
+
+    @Override
+    public String toString() {
+        return selectivity + " [" + lowerBound + ", " + upperBound + "]";
+    }
+}
@@ -0,0 +1,180 @@
+package org.aksw.limes.core.execution.planning.costmodel;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Estimates the selectivity of atomic link specifications on the actual data.
+ * A random sample is drawn once from the source and the target cache, the
+ * mapper of the measure is run on the samples and the result is extrapolated
+ * to the full caches. The confidence interval is derived from the variance of
+ * the per instance selectivities in both samples, as pairs that share an
+ * instance are not independent. Estimates are cached per measure, properties
+ * and threshold.
+ *
+ * @version 1.0
+ */
+public class SelectivityEstimator {
+
+    static Logger logger = LoggerFactory.getLogger(SelectivityEstimator.class);
+
+    /**
+     * Default number of instances sampled from each cache.
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 500;
+
+    /**
+     * Quantile of the standard normal distribution for 95% confidence.
+     */
+    private static final double Z = 1.96;
+
+    private final ACache source;
+    private final ACache target;
+    private final int sampleSize;
+    private ACache sourceSample = null;
+    private ACache targetSample = null;
+    private final ConcurrentHashMap<String, SelectivityEstimate> estimates = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor of the SelectivityEstimator class.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     */
+    public SelectivityEstimator(ACache source, ACache target) {
+        this(source, target, DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * Constructor of the SelectivityEstimator class.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sampleSize
+     *            Number of instances sampled from each cache. Caches that are
+     *            not larger are used completely, which makes the estimates
+     *            exact.
+     */
+    public SelectivityEstimator(ACache source, ACache target, int sampleSize) {
+        this.source = source;
+        this.target = target;
+        this.sampleSize = sampleSize;
+    }
+
+    private synchronized ACache[] getSamples() {
+        if (sourceSample == null) {
+            sourceSample = source.size() <= sampleSize ? source : source.getSample(sampleSize);
+            targetSample = target.size() <= sampleSize ? target : target.getSample(sampleSize);
+        }
+        return new ACache[] { sourceSample, targetSample };
+    }
+
+    /**
+     * Estimates the selectivity of an atomic link specification.
+     *
+     * @param expression
+     *            Metric expression of the atomic link specification, e.g.
+     *            trigram(x.name, y.name)
+     * @param threshold
+     *            Threshold of the atomic link specification
+     * @return the estimated selectivity
+     */
+    public SelectivityEstimate estimate(String expression, double threshold) {
+        Parser p = new Parser(expression, threshold);
+        String key = p.getOperator().toLowerCase() + "(" + p.getLeftTerm() + "," + p.getRightTerm() + ")|" + threshold;
+        SelectivityEstimate estimate = estimates.get(key);
+        if (estimate == null) {
+            estimate = computeEstimate(p, expression, threshold);
+            SelectivityEstimate previous = estimates.putIfAbsent(key, estimate);
+            if (previous != null) {
+                estimate = previous;
+            }
+        }
+        return estimate;
+    }
+
+    private SelectivityEstimate computeEstimate(Parser p, String expression, double threshold) {
+        ACache[] samples = getSamples();
+        double crossProductSize = (double) source.size() * target.size();
+        int sampledSources = samples[0].size();
+        int sampledTargets = samples[1].size();
+        if (sampledSources == 0 || sampledTargets == 0) {
+            return new SelectivityEstimate(0d, 0d, 0d, crossProductSize);
+        }
+        MeasureType type = MeasureFactory.getMeasureType(p.getOperator());
+        AMapping mapping = MapperFactory.createMapper(type).getMapping(samples[0], samples[1],
+                getVariable(p.getLeftTerm()), getVariable(p.getRightTerm()), expression, threshold);
+        // number of matches per sampled source and target instance
+        Map<String, Integer> sourceMatches = new HashMap<>();
+        Map<String, Integer> targetMatches = new HashMap<>();
+        long total = 0;
+        for (Map.Entry<String, HashMap<String, Double>> entry : mapping.getMap().entrySet()) {
+            for (Map.Entry<String, Double> link : entry.getValue().entrySet()) {
+                if (link.getValue() >= threshold) {
+                    sourceMatches.merge(entry.getKey(), 1, Integer::sum);
+                    targetMatches.merge(link.getKey(), 1, Integer::sum);
+                    total++;
+                }
+            }
+        }
+        double selectivity = total / ((double) sampledSources * sampledTargets);
+        // first order variance of the two sample estimator: the variances of
+        // the per instance selectivities of both samples, each with finite
+        // population correction
+        double variance = getVarianceOfMean(sourceMatches, sampledSources, sampledTargets, selectivity,
+                source.size())
+                + getVarianceOfMean(targetMatches, sampledTargets, sampledSources, selectivity, target.size());
+        double margin = Z * Math.sqrt(variance);
+        double lower = Math.max(0d, selectivity - margin);
+        double upper = Math.min(1d, selectivity + margin);
+        if (total == 0 && (sampledSources < source.size() || sampledTargets < target.size())) {
+            // rule of three for samples without matches
+            upper = Math.min(1d, 3d / Math.min(sampledSources, sampledTargets));
+        }
+        SelectivityEstimate estimate = new SelectivityEstimate(selectivity, lower, upper, crossProductSize);
+        logger.debug("Estimated selectivity of " + expression + " at " + threshold + ": " + estimate);
+        return estimate;
+    }
+
+    private static double getVarianceOfMean(Map<String, Integer> matches, int sampled, int sampledOther,
+            double selectivity, int populationSize) {
+        if (sampled < 2) {
+            return 0d;
+        }
+        double sumOfSquares = (sampled - matches.size()) * selectivity * selectivity;
+        for (int count : matches.values()) {
+            double d = count / (double) sampledOther - selectivity;
+            sumOfSquares += d * d;
+        }
+        return sumOfSquares / (sampled - 1) / sampled * Math.max(0d, 1d - sampled / (double) populationSize);
+    }
+
+    private static String getVariable(String term) {
+        int dot = term.indexOf('.');
+        return "?" + (dot < 0 ? term : term.substring(0, dot));
+    }
+
+    /**
+     * Removes all cached estimates and samples, e.g. after the caches were
+     * changed.
+     */
+    public synchronized void clear() {
+        estimates.clear();
+        sourceSample = null;
+        targetSample = null;
+    }
+}
@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import org.aksw.limes.core.datastrutures.LogicOperator;
+import org.aksw.limes.core.execution.planning.costmodel.SelectivityEstimate;
 import org.aksw.limes.core.execution.planning.plan.Instruction;
 import org.aksw.limes.core.execution.planning.plan.NestedPlan;
 import org.aksw.limes.core.io.cache.ACache;
@@ -144,7 +145,8 @@ public class DynamicPlanner extends Planner {
     /**
      * Computes atomic costs for a metric expression. If the metric expression
      * of is not supported by the framework, it throws an
-     * InvalidMeasureException exception.
+     * InvalidMeasureException exception. The calibrated cost model is used if
+     * it covers all measures of the planned specification.
      *
      * @param measure
      *            Measure of metric expression
@@ -156,6 +158,9 @@ public class DynamicPlanner extends Planner {
     public double getAtomicRuntimeCosts(String measure, double threshold) {
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (calibrated && costModel.hasMapperModel(type)) {
+            return costModel.getRuntimeApproximation(type, source.size(), target.size(), threshold);
+        }
         mapper = MapperFactory.createMapper(type);
         return mapper.getRuntimeApproximation(source.size(), target.size(), threshold, lang);
     }
@@ -175,6 +180,9 @@ public class DynamicPlanner extends Planner {
     public double getAtomicMappingSizes(String measure, double threshold) {
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (calibrated && costModel.hasMapperModel(type)) {
+            return costModel.getMappingSizeApproximation(type, source.size(), target.size(), threshold);
+        }
         mapper = MapperFactory.createMapper(type);
         return mapper.getMappingSizeApproximation(source.size(), target.size(), threshold, lang);
     }
@@ -207,7 +215,11 @@ public class DynamicPlanner extends Planner {
             for (String measure : measures) {
                 double tempCost = 0;
                 MeasureType type = MeasureFactory.getMeasureType(measure);
-                tempCost = MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
+                if (calibrated && costModel.hasFilterModel(type)) {
+                    tempCost = costModel.getFilterRuntimeApproximation(type, mappingSize);
+                } else {
+                    tempCost = MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
+                }
                 cost += tempCost;
             }
         }
@@ -280,6 +292,7 @@ public class DynamicPlanner extends Planner {
      */
     @Override
     public NestedPlan plan(LinkSpecification spec) {
+        selectCostModel(spec);
         return plan(spec, source, target, MappingFactory.createDefaultMapping(), MappingFactory.createDefaultMapping());
 
     }
@@ -321,8 +334,15 @@ public class DynamicPlanner extends Planner {
             plan.addInstruction(new Instruction(Instruction.Command.RUN, spec.getFilterExpression(),
                     spec.getThreshold() + "", -1, -1, 0));
             plan.setRuntimeCost(getAtomicRuntimeCosts(p.getOperator(), spec.getThreshold()));
-            plan.setMappingSize(getAtomicMappingSizes(p.getOperator(), spec.getThreshold()));
-            plan.setSelectivity(plan.getMappingSize() / (double) (source.size() * target.size()));
+            if (selectivityEstimator != null) {
+                SelectivityEstimate estimate = selectivityEstimator.estimate(spec.getFilterExpression(),
+                        spec.getThreshold());
+                plan.setMappingSize(estimate.getMappingSize());
+                plan.setSelectivity(estimate.getSelectivity());
+            } else {
+                plan.setMappingSize(getAtomicMappingSizes(p.getOperator(), spec.getThreshold()));
+                plan.setSelectivity(plan.getMappingSize() / (double) (source.size() * target.size()));
+            }
 
         } else {
             if (spec.getOperator().equals(LogicOperator.OR)) {
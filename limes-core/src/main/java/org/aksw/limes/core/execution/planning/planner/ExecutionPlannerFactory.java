@@ -1,5 +1,6 @@
 package org.aksw.limes.core.execution.planning.planner;
 
+import org.aksw.limes.core.execution.planning.costmodel.SelectivityEstimator;
 import org.aksw.limes.core.io.cache.ACache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,7 +65,9 @@ public class ExecutionPlannerFactory {
     }
 
     /**
-     * Factory function for retrieving the desired planner instance.
+     * Factory function for retrieving the desired planner instance. The
+     * selectivities of the HELIOS and DYNAMIC planners are estimated on samples
+     * of the source and target cache, if both are given.
      * 
      * @param type
      *            Type of the Planner
@@ -84,9 +87,9 @@ public class ExecutionPlannerFactory {
         case CANONICAL:
             return new CanonicalPlanner();
         case HELIOS:
-            return new HeliosPlanner(source, target);
+            return withSelectivityEstimator(new HeliosPlanner(source, target), source, target);
         case DYNAMIC:
-            return new DynamicPlanner(source, target);
+            return withSelectivityEstimator(new DynamicPlanner(source, target), source, target);
         default:
             logger.warn(
                     "Sorry, " + type.toString() + " is not yet implemented. Returning the default planner instead...");
@@ -94,4 +97,11 @@ public class ExecutionPlannerFactory {
         }
     }
 
+    private static Planner withSelectivityEstimator(Planner planner, ACache source, ACache target) {
+        if (source != null && target != null) {
+            planner.setSelectivityEstimator(new SelectivityEstimator(source, target));
+        }
+        return planner;
+    }
+
 }
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.aksw.limes.core.datastrutures.LogicOperator;
+import org.aksw.limes.core.execution.planning.costmodel.SelectivityEstimate;
 import org.aksw.limes.core.execution.planning.plan.Instruction;
 import org.aksw.limes.core.execution.planning.plan.NestedPlan;
 import org.aksw.limes.core.io.cache.ACache;
@@ -61,7 +62,8 @@ public class HeliosPlanner extends Planner {
     /**
      * Computes atomic costs for a metric expression. If the metric expression
      * of is not supported by the framework, it throws an
-     * InvalidMeasureException exception.
+     * InvalidMeasureException exception. The calibrated cost model is used if
+     * it covers all measures of the planned specification.
      *
      * @param measure
      *            Measure of metric expression
@@ -73,6 +75,9 @@ public class HeliosPlanner extends Planner {
 
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (calibrated && costModel.hasMapperModel(type)) {
+            return costModel.getRuntimeApproximation(type, source.size(), target.size(), threshold);
+        }
         mapper = MapperFactory.createMapper(type);
         return mapper.getRuntimeApproximation(source.size(), target.size(), threshold, lang);
 
@@ -92,6 +97,9 @@ public class HeliosPlanner extends Planner {
     public double getAtomicMappingSizes(String measure, double threshold) {
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (calibrated && costModel.hasMapperModel(type)) {
+            return costModel.getMappingSizeApproximation(type, source.size(), target.size(), threshold);
+        }
         mapper = MapperFactory.createMapper(type);
         return mapper.getMappingSizeApproximation(source.size(), target.size(), threshold, lang);
     }
@@ -113,7 +121,11 @@ public class HeliosPlanner extends Planner {
             for (String measure : measures) {
                 double tempCost = 0;
                 MeasureType type = MeasureFactory.getMeasureType(measure);
-                tempCost = MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
+                if (calibrated && costModel.hasFilterModel(type)) {
+                    tempCost = costModel.getFilterRuntimeApproximation(type, mappingSize);
+                } else {
+                    tempCost = MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
+                }
                 cost += tempCost;
             }
         }
@@ -129,6 +141,7 @@ public class HeliosPlanner extends Planner {
      */
     @Override
     public NestedPlan plan(LinkSpecification spec) {
+        selectCostModel(spec);
         return plan(spec, source, target, MappingFactory.createDefaultMapping(), MappingFactory.createDefaultMapping());
     }
 
@@ -166,8 +179,15 @@ public class HeliosPlanner extends Planner {
             plan.addInstruction(new Instruction(Instruction.Command.RUN, spec.getFilterExpression(),
                     spec.getThreshold() + "", -1, -1, 0));
             plan.setRuntimeCost(getAtomicRuntimeCosts(p.getOperator(), spec.getThreshold()));
-            plan.setMappingSize(getAtomicMappingSizes(p.getOperator(), spec.getThreshold()));
-            plan.setSelectivity(plan.getMappingSize() / (double) (source.size() * target.size()));
+            if (selectivityEstimator != null) {
+                SelectivityEstimate estimate = selectivityEstimator.estimate(spec.getFilterExpression(),
+                        spec.getThreshold());
+                plan.setMappingSize(estimate.getMappingSize());
+                plan.setSelectivity(estimate.getSelectivity());
+            } else {
+                plan.setMappingSize(getAtomicMappingSizes(p.getOperator(), spec.getThreshold()));
+                plan.setSelectivity(plan.getMappingSize() / (double) (source.size() * target.size()));
+            }
         } else {
             // no optimization for non AND operators really
             if (!spec.getOperator().equals(LogicOperator.AND)) {
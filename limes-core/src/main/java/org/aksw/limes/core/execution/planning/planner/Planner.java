@@ -1,5 +1,11 @@
 package org.aksw.limes.core.execution.planning.planner;
 
+import org.aksw.limes.core.execution.planning.costmodel.CostModel;
+import org.aksw.limes.core.execution.planning.costmodel.SelectivityEstimator;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * Implements the planner abstract class. It takes as input a link specification
  * and generates a corresponding NestedPlan.
@@ -9,4 +15,78 @@ package org.aksw.limes.core.execution.planning.planner;
  */
 public abstract class Planner implements IPlanner {
 
+    static Logger logger = LoggerFactory.getLogger(Planner.class);
+
+    /**
+     * Calibrated cost model. Measures without a calibrated model are estimated
+     * by the static approximations of their mappers and measures.
+     */
+    protected CostModel costModel = CostModel.getDefault();
+
+    /**
+     * True if the calibrated cost model is used for the specification that is
+     * planned, see {@link #selectCostModel(LinkSpecification)}.
+     */
+    protected boolean calibrated = false;
+
+    /**
+     * Estimator of the selectivities of atomic link specifications on samples
+     * of the data. If null, the selectivities are derived from the estimated
+     * mapping sizes.
+     */
+    protected SelectivityEstimator selectivityEstimator = null;
+
+    /**
+     * @return the cost model of the planner
+     */
+    public CostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * Sets the cost model of the planner.
+     *
+     * @param costModel
+     *            The cost model
+     */
+    public void setCostModel(CostModel costModel) {
+        this.costModel = costModel;
+    }
+
+    /**
+     * Decides whether the calibrated cost model is used for planning a link
+     * specification. Calibrated costs are in ms, whereas the static
+     * approximations have no unit, so the two can not be compared. The
+     * calibrated model is hence only used if it covers all measures of the
+     * specification, otherwise all costs are static approximations.
+     *
+     * @param spec
+     *            The link specification to be planned
+     */
+    protected void selectCostModel(LinkSpecification spec) {
+        calibrated = costModel.covers(spec);
+        if (!calibrated && costModel.coversAny(spec)) {
+            logger.warn("The cost model does not cover all measures of " + spec.getFullExpression()
+                    + ", using the static cost approximations instead.");
+        }
+    }
+
+    /**
+     * @return the selectivity estimator of the planner, or null
+     */
+    public SelectivityEstimator getSelectivityEstimator() {
+        return selectivityEstimator;
+    }
+
+    /**
+     * Sets the selectivity estimator of the planner. The estimator must have
+     * been created for the source and target caches of the planner.
+     *
+     * @param selectivityEstimator
+     *            The selectivity estimator, or null to use the estimated
+     *            mapping sizes
+     */
+    public void setSelectivityEstimator(SelectivityEstimator selectivityEstimator) {
+        this.selectivityEstimator = selectivityEstimator;
+    }
 }
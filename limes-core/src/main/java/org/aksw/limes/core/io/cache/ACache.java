@@ -3,6 +3,7 @@ package org.aksw.limes.core.io.cache;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.jena.rdf.model.Model;
 
@@ -11,6 +12,43 @@ import org.apache.jena.rdf.model.Model;
  * @version Jul 8, 2015
  */
 public abstract class ACache implements ICache {
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Returns the version of the cache, which changes whenever the cache or
+     * one of its instances is modified. Indexes that are derived from the data
+     * of the cache, e.g. by the mappers, stay valid as long as the version
+     * does not change. Instances that are modified in place through their
+     * methods, e.g. by preprocessing, change the version of the caches they
+     * were added to, see {@link #track(Instance)}. The value sets returned by
+     * {@link Instance#getProperty(String)} must not be modified.
+     *
+     * @return the version of the cache
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Increments the version of the cache. Called by the methods that change
+     * the data of the cache.
+     */
+    protected void modified() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Makes the modifications of an instance of the cache change the version
+     * of the cache. Called by the caches that hold the instances they are
+     * given or create.
+     *
+     * @param i instance of the cache
+     */
+    protected void track(Instance i) {
+        i.addCache(this);
+    }
+
     public abstract void addInstance(Instance i);
 
     public abstract Instance getNextInstance();
@@ -0,0 +1,350 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.aksw.limes.core.io.mapping.UriDictionary;
+import org.aksw.limes.core.io.preprocessing.Preprocessor;
+import org.apache.jena.rdf.model.Model;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implements a cache that stores its data column-wise. The URIs of the
+ * instances are mapped to consecutive int IDs, and the values of each property
+ * are stored in a dictionary-encoded {@link PropertyColumn}. In contrast to
+ * {@link MemoryCache}, no objects are kept per instance, which reduces the
+ * memory footprint of large caches considerably.
+ *
+ * The {@link Instance} objects returned by this cache are views that are
+ * created on demand. Changes to them are not reflected in the cache unless
+ * they are written back using {@link #replaceInstance(String, Instance)}.
+ * Code that only needs the values of a property should read the
+ * {@link PropertyColumn} returned by {@link #getColumn(String)} instead of
+ * creating instances.
+ *
+ * @version 1.0
+ */
+public class ColumnarCache extends ACache implements Serializable {
+
+    private static final long serialVersionUID = -1504425632802316128L;
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarCache.class);
+
+    private UriDictionary uris;
+    private LinkedHashMap<String, PropertyColumn> columns;
+    // true iff all columns are sealed
+    private boolean sealed;
+    // ID of the next instance returned by getNextInstance
+    private int nextInstance;
+
+    public ColumnarCache() {
+        this.uris = new UriDictionary();
+        this.columns = new LinkedHashMap<>();
+        this.sealed = true;
+        this.nextInstance = 0;
+    }
+
+    /**
+     * Constructor for a columnar cache that contains all instances of a cache.
+     *
+     * @param cache
+     *            the cache to copy
+     */
+    public ColumnarCache(ACache cache) {
+        this();
+        for (Instance i : cache.getAllInstances()) {
+            addInstance(i);
+        }
+    }
+
+    /**
+     * Merges all buffered values into the columns.
+     */
+    private synchronized void seal() {
+        if (!sealed) {
+            int instanceCount = uris.size();
+            for (PropertyColumn column : columns.values()) {
+                column.seal(instanceCount);
+            }
+            sealed = true;
+        }
+    }
+
+    private PropertyColumn getOrCreateColumn(String property) {
+        PropertyColumn column = columns.get(property);
+        if (column == null) {
+            column = new PropertyColumn();
+            columns.put(property, column);
+        }
+        return column;
+    }
+
+    /**
+     * Returns the URI dictionary of the cache. The IDs of the dictionary are
+     * the instance IDs used by the columns of the cache.
+     *
+     * @return the URI dictionary of the cache
+     */
+    public UriDictionary getUriDictionary() {
+        return uris;
+    }
+
+    /**
+     * Returns the column of a property.
+     *
+     * @param property
+     *            the property
+     * @return the column of the property or null if no instance of the cache
+     *         has the property
+     */
+    public PropertyColumn getColumn(String property) {
+        seal();
+        return columns.get(property);
+    }
+
+    /**
+     * Returns a map from the values of a property to the URIs of the instances
+     * that have them. Computed by scanning the column of the property.
+     *
+     * @param property
+     *            the property
+     * @return a map from values to URIs
+     */
+    public Map<String, Set<String>> getValueToUriMap(String property) {
+        Map<String, Set<String>> result = new HashMap<>();
+        PropertyColumn column = getColumn(property);
+        if (column == null) {
+            return result;
+        }
+        int instanceCount = uris.size();
+        for (int id = 0; id < instanceCount; id++) {
+            for (int k = column.getStart(id); k < column.getEnd(id); k++) {
+                String value = column.getValue(column.getValueId(k));
+                Set<String> valueUris = result.get(value);
+                if (valueUris == null) {
+                    valueUris = new HashSet<>();
+                    result.put(value, valueUris);
+                }
+                valueUris.add(uris.getUri(id));
+            }
+        }
+        return result;
+    }
+
+    private Instance createInstance(int id) {
+        seal();
+        Instance instance = new Instance(uris.getUri(id));
+        for (Map.Entry<String, PropertyColumn> entry : columns.entrySet()) {
+            PropertyColumn column = entry.getValue();
+            int start = column.getStart(id), end = column.getEnd(id);
+            if (start < end) {
+                TreeSet<String> values = new TreeSet<>();
+                for (int k = start; k < end; k++) {
+                    values.add(column.getValue(column.getValueId(k)));
+                }
+                instance.addProperty(entry.getKey(), values);
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public void addInstance(Instance i) {
+        if (containsUri(i.getUri())) {
+            return;
+        }
+        int id = uris.getId(i.getUri());
+        for (String property : i.getAllProperties()) {
+            PropertyColumn column = getOrCreateColumn(property);
+            for (String value : i.getProperty(property)) {
+                column.add(id, value);
+            }
+        }
+        sealed = false;
+        modified();
+    }
+
+    @Override
+    public void addTriple(String s, String p, String o) {
+        getOrCreateColumn(p).add(uris.getId(s), o);
+        sealed = false;
+        modified();
+    }
+
+    /**
+     * Replaces the values of the instance with the URI uri by the ones of the
+     * instance a. The columns are updated lazily, so that replacing all
+     * instances of the cache costs a single pass over the columns.
+     */
+    @Override
+    public void replaceInstance(String uri, Instance a) {
+        int id = uris.getId(uri);
+        int instanceCount = uris.size();
+        for (PropertyColumn column : columns.values()) {
+            column.clear(id, instanceCount);
+        }
+        for (String property : a.getAllProperties()) {
+            PropertyColumn column = getOrCreateColumn(property);
+            for (String value : a.getProperty(property)) {
+                column.add(id, value);
+            }
+        }
+        sealed = false;
+        modified();
+    }
+
+    @Override
+    public Instance getNextInstance() {
+        if (nextInstance < uris.size()) {
+            return createInstance(nextInstance++);
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public void resetIterator() {
+        nextInstance = 0;
+    }
+
+    @Override
+    public ArrayList<Instance> getAllInstances() {
+        int instanceCount = uris.size();
+        ArrayList<Instance> instances = new ArrayList<>(instanceCount);
+        for (int id = 0; id < instanceCount; id++) {
+            instances.add(createInstance(id));
+        }
+        return instances;
+    }
+
+    @Override
+    public ArrayList<String> getAllUris() {
+        int instanceCount = uris.size();
+        ArrayList<String> result = new ArrayList<>(instanceCount);
+        for (int id = 0; id < instanceCount; id++) {
+            result.add(uris.getUri(id));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean containsInstance(Instance i) {
+        return containsUri(i.getUri());
+    }
+
+    @Override
+    public boolean containsUri(String uri) {
+        return uris.lookup(uri) >= 0;
+    }
+
+    /**
+     * @param uri
+     *            URI to look for
+     * @return A view of the instance with the URI uri if it is in the cache,
+     *         else null
+     */
+    @Override
+    public Instance getInstance(String uri) {
+        int id = uris.lookup(uri);
+        return id < 0 ? null : createInstance(id);
+    }
+
+    @Override
+    public int size() {
+        return uris.size();
+    }
+
+    @Override
+    public ACache getSample(int size) {
+        ColumnarCache c = new ColumnarCache();
+        size = Math.min(size, size());
+        while (c.size() < size) {
+            int index = (int) Math.floor(Math.random() * size());
+            c.addInstance(createInstance(index));
+        }
+        return c;
+    }
+
+    /**
+     * Returns the set of properties of the instances of the cache.
+     *
+     * @return set of all properties
+     */
+    @Override
+    public Set<String> getAllProperties() {
+        seal();
+        HashSet<String> properties = new HashSet<>();
+        for (Map.Entry<String, PropertyColumn> entry : columns.entrySet()) {
+            if (entry.getValue().size() > 0) {
+                properties.add(entry.getKey());
+            }
+        }
+        return properties;
+    }
+
+    @Override
+    public ACache addProperty(String sourcePropertyName, String targetPropertyName, String processingChain) {
+        LinkedHashMap<String, Map<String, String>> functions = new LinkedHashMap<>();
+        HashMap<String, String> f1 = new HashMap<>();
+        f1.put(targetPropertyName, processingChain);
+        functions.put(sourcePropertyName, f1);
+        ACache c = Preprocessor.applyFunctionsToCache(this, functions, true);
+        logger.debug("Cache is ready");
+        return c;
+    }
+
+    @Override
+    public Model parseCSVtoRDFModel(String baseURI, String IDbaseURI, String rdfType) {
+        MemoryCache c = new MemoryCache();
+        for (Instance i : getAllInstances()) {
+            c.addInstance(i);
+        }
+        return c.parseCSVtoRDFModel(baseURI, IDbaseURI, rdfType);
+    }
+
+    @Override
+    public ColumnarCache clone() {
+        seal();
+        ColumnarCache clone = new ColumnarCache();
+        for (String uri : getAllUris()) {
+            clone.uris.getId(uri);
+        }
+        for (Map.Entry<String, PropertyColumn> entry : columns.entrySet()) {
+            clone.columns.put(entry.getKey(), entry.getValue().copy());
+        }
+        return clone;
+    }
+
+    private HashMap<String, Instance> toInstanceMap() {
+        HashMap<String, Instance> instances = new HashMap<>();
+        for (Instance i : getAllInstances()) {
+            instances.put(i.getUri(), i);
+        }
+        return instances;
+    }
+
+    @Override
+    public int hashCode() {
+        return toInstanceMap().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof ColumnarCache) {
+            return toInstanceMap().equals(((ColumnarCache) obj).toInstanceMap());
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toInstanceMap().toString();
+    }
+}
@@ -1,13 +1,678 @@
 package org.aksw.limes.core.io.cache;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.aksw.limes.core.io.config.KBInfo;
+import org.aksw.limes.core.io.preprocessing.Preprocessor;
+import org.aksw.limes.core.io.query.IQueryModule;
+import org.aksw.limes.core.io.query.QueryModuleFactory;
+import org.apache.jena.rdf.model.Model;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
- * Not yet implemented. Will be an elaborate cache for very large data sets
- * that do not fit in memory.
+ * Implements a cache for very large data sets that is backed by a binary file.
+ * The file is memory-mapped and read lazily, so that opening a cache does not
+ * depend on its size and only the parts of the file that are accessed are
+ * loaded into memory.
+ *
+ * The file consists of a header, a dictionary of all strings (URIs, property
+ * names and values), the string IDs of the instance URIs, a hash table from
+ * URIs to instance IDs, and one block per property. A property block stores
+ * the string IDs of the values of all instances, in which the values of
+ * instance i are found between the offsets i and i+1 of the block. See
+ * {@link #write(ACache, File)}.
+ *
+ * Instances that are added or modified after the file has been opened are
+ * kept in memory. As for {@link ColumnarCache}, the instances returned by
+ * this cache are views: changes to them have to be written back using
+ * {@link #replaceInstance(String, Instance)}.
  *
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
  * @version Nov 23, 2015
  */
-public class FileCache {
+public class FileCache extends ACache {
+    private static final Logger logger = LoggerFactory.getLogger(FileCache.class);
+
+    /**
+     * First bytes of every cache file ("LMCF").
+     */
+    public static final int MAGIC = 0x4C4D4346;
+    /**
+     * Version of the file format.
+     */
+    public static final int VERSION = 1;
+    /**
+     * File extension of binary cache files.
+     */
+    public static final String EXTENSION = ".bin";
+    /**
+     * System property that makes the {@link org.aksw.limes.core.controller.Controller}
+     * load the knowledge bases into file caches instead of {@link HybridCache}s.
+     * Off by default: preprocessing replaces every instance it modifies, and
+     * replaced instances are kept in memory.
+     */
+    public static final String ENABLED_PROPERTY = "limes.fileCache";
+
+    private static final int HEADER_SIZE = 32;
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    private MappedByteBuffer[] segments;
+    private int instanceCount;
+    private int stringCount;
+    private int hashTableSize;
+    private long stringOffsetsPosition;
+    private long uriIdsPosition;
+    private long hashTablePosition;
+    // property name -> position of its offsets. The values follow the offsets.
+    private LinkedHashMap<String, Long> properties;
+
+    // instances that were added or modified after opening the file
+    private HashMap<String, Instance> changed;
+    private ArrayList<String> addedUris;
+    private int nextInstance;
+
+    /**
+     * Opens a binary cache file.
+     *
+     * @param file
+     *            the cache file
+     * @throws IOException
+     *             if the file can not be read or has an unsupported format
+     */
+    public FileCache(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException(file + " is not a cache file");
+            }
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(SEGMENT_SIZE, size - position));
+            }
+        }
+        if (getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a cache file");
+        }
+        if (getInt(4) != VERSION) {
+            throw new IOException("Unsupported version " + getInt(4) + " of cache file " + file);
+        }
+        instanceCount = getInt(8);
+        int propertyCount = getInt(12);
+        stringCount = getInt(16);
+        hashTableSize = getInt(20);
+        long stringDataLength = getLong(24);
+        stringOffsetsPosition = HEADER_SIZE + stringDataLength;
+        uriIdsPosition = stringOffsetsPosition + 8L * (stringCount + 1);
+        hashTablePosition = uriIdsPosition + 4L * instanceCount;
+        properties = new LinkedHashMap<>();
+        long position = hashTablePosition + 4L * hashTableSize;
+        for (int p = 0; p < propertyCount; p++) {
+            properties.put(getString(getInt(position)), position + 4);
+            position += 4 + 4L * (instanceCount + 1);
+            position += 4L * getInt(position - 4);
+        }
+        changed = new HashMap<>();
+        addedUris = new ArrayList<>();
+        nextInstance = 0;
+    }
+
+    private FileCache(FileCache other) {
+        segments = other.segments;
+        instanceCount = other.instanceCount;
+        stringCount = other.stringCount;
+        hashTableSize = other.hashTableSize;
+        stringOffsetsPosition = other.stringOffsetsPosition;
+        uriIdsPosition = other.uriIdsPosition;
+        hashTablePosition = other.hashTablePosition;
+        properties = other.properties;
+        changed = new HashMap<>();
+        for (Map.Entry<String, Instance> entry : other.changed.entrySet()) {
+            changed.put(entry.getKey(), entry.getValue().copy());
+        }
+        addedUris = new ArrayList<>(other.addedUris);
+        nextInstance = 0;
+    }
+
+    /**
+     * Loads the data of a knowledge base from the "cache" folder in the folder
+     * specified. Binary cache files are memory-mapped. If only a serialized
+     * {@link HybridCache} is found, it is loaded and converted into a binary
+     * cache file. Else, the data is retrieved from the knowledge base and
+     * written into a binary cache file.
+     *
+     * @param folder
+     *            Path to the parent folder of the "cache" folder.
+     * @param kb
+     *            Endpoint specification.
+     * @return cache of the data
+     */
+    public static ACache getData(File folder, KBInfo kb) {
+        File cacheFolder = new File(folder.getAbsolutePath() + File.separatorChar + "cache");
+        String hash = kb.hashCode() + "";
+        File binFile = new File(cacheFolder, hash + EXTENSION);
+        File serFile = new File(cacheFolder, hash + ".ser");
+        if (binFile.exists()) {
+            try {
+                FileCache cache = new FileCache(binFile);
+                if (cache.size() > 0) {
+                    logger.info("Cached data loaded successfully from file " + binFile.getAbsolutePath());
+                    logger.info("Size = " + cache.size());
+                    return cache;
+                }
+            } catch (IOException e) {
+                logger.warn("Could not read cache file " + binFile.getAbsolutePath() + ": " + e.getMessage());
+            }
+        }
+        ACache cache = null;
+        if (serFile.exists()) {
+            try {
+                logger.info("Found serialized data. Loading data from file " + serFile.getAbsolutePath());
+                cache = HybridCache.loadFromFile(serFile);
+            } catch (IOException e) {
+                logger.warn("Could not read cache file " + serFile.getAbsolutePath() + ": " + e.getMessage());
+            }
+        }
+        if (cache == null || cache.size() == 0) {
+            logger.info("No cached data found for " + kb.getId());
+            cache = new HybridCache(folder);
+            IQueryModule module = QueryModuleFactory.getQueryModule(kb.getType(), kb);
+            module.fillCache(cache);
+        }
+        if (!cacheFolder.isDirectory()) {
+            cacheFolder.mkdir();
+        }
+        try {
+            write(cache, binFile);
+        } catch (IOException e) {
+            logger.warn("Could not write cache file " + binFile.getAbsolutePath() + ": " + e.getMessage());
+        }
+        return cache;
+    }
+
+    public static ACache getData(KBInfo kb) {
+        return getData(new File(""), kb);
+    }
+
+    /**
+     * Writes the content of a cache into a binary cache file. The file is
+     * first written to a temporary file, so that a failure does not corrupt
+     * an existing cache file.
+     *
+     * @param cache
+     *            the cache to write
+     * @param file
+     *            the cache file
+     * @throws IOException
+     *             if the file can not be written
+     */
+    public static void write(ACache cache, File file) throws IOException {
+        logger.info("Writing " + cache.size() + " instances to " + file.getAbsolutePath());
+        HashMap<String, Integer> stringIds = new HashMap<>();
+        ArrayList<String> strings = new ArrayList<>();
+        ArrayList<String> uris = cache.getAllUris();
+        int n = uris.size();
+        int[] uriIds = new int[n];
+        for (int i = 0; i < n; i++) {
+            uriIds[i] = intern(uris.get(i), stringIds, strings);
+        }
+        TreeSet<String> propertyNames = new TreeSet<>(cache.getAllProperties());
+        ArrayList<int[]> offsets = new ArrayList<>();
+        ArrayList<int[]> values = new ArrayList<>();
+        for (String property : propertyNames) {
+            intern(property, stringIds, strings);
+            offsets.add(new int[n + 1]);
+            values.add(new int[16]);
+        }
+        for (int i = 0; i < n; i++) {
+            Instance instance = cache.getInstance(uris.get(i));
+            int p = 0;
+            for (String property : propertyNames) {
+                int[] propertyOffsets = offsets.get(p);
+                int[] propertyValues = values.get(p);
+                int position = propertyOffsets[i];
+                for (String value : instance.getProperty(property)) {
+                    if (position == propertyValues.length) {
+                        propertyValues = Arrays.copyOf(propertyValues, 2 * position);
+                        values.set(p, propertyValues);
+                    }
+                    propertyValues[position++] = intern(value, stringIds, strings);
+                }
+                propertyOffsets[i + 1] = position;
+                p++;
+            }
+        }
+        int hashTableSize = Integer.highestOneBit(Math.max(2 * n, 1)) * 2;
+        int[] hashTable = new int[hashTableSize];
+        for (int i = 0; i < n; i++) {
+            int slot = slot(uris.get(i), hashTableSize);
+            while (hashTable[slot] != 0) {
+                slot = (slot + 1) & (hashTableSize - 1);
+            }
+            hashTable[slot] = i + 1;
+        }
+
+        // unique, so that the same cache file can be written by several threads
+        File tmp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            long[] stringOffsets = new long[strings.size() + 1];
+            for (int s = 0; s < strings.size(); s++) {
+                stringOffsets[s + 1] = stringOffsets[s] + utf8Length(strings.get(s));
+            }
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(propertyNames.size());
+            out.writeInt(strings.size());
+            out.writeInt(hashTableSize);
+            out.writeLong(stringOffsets[strings.size()]);
+            for (String string : strings) {
+                out.write(string.getBytes(StandardCharsets.UTF_8));
+            }
+            for (long offset : stringOffsets) {
+                out.writeLong(offset);
+            }
+            for (int id : uriIds) {
+                out.writeInt(id);
+            }
+            for (int slot : hashTable) {
+                out.writeInt(slot);
+            }
+            int p = 0;
+            for (String property : propertyNames) {
+                out.writeInt(stringIds.get(property));
+                int[] propertyOffsets = offsets.get(p);
+                int[] propertyValues = values.get(p);
+                for (int offset : propertyOffsets) {
+                    out.writeInt(offset);
+                }
+                for (int k = 0; k < propertyOffsets[n]; k++) {
+                    out.writeInt(propertyValues[k]);
+                }
+                p++;
+            }
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static int intern(String s, HashMap<String, Integer> stringIds, ArrayList<String> strings) {
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            id = strings.size();
+            strings.add(s);
+            stringIds.put(s, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the length of the UTF-8 encoding of a string without encoding
+     * it. Unpaired surrogates are encoded as '?' by {@link String#getBytes}.
+     */
+    private static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int slot(String uri, int hashTableSize) {
+        int h = uri.hashCode();
+        return (h ^ (h >>> 16)) & (hashTableSize - 1);
+    }
+
+    private int getInt(long position) {
+        ByteBuffer segment = segments[(int) (position >>> SEGMENT_BITS)];
+        int offset = (int) (position & (SEGMENT_SIZE - 1));
+        if (offset + 4 <= segment.limit()) {
+            return segment.getInt(offset);
+        }
+        // the int crosses the border of two segments
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (getByte(position + i) & 0xff);
+        }
+        return value;
+    }
+
+    private long getLong(long position) {
+        return ((long) getInt(position) << 32) | (getInt(position + 4) & 0xffffffffL);
+    }
+
+    private byte getByte(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    private String getString(int id) {
+        long start = getLong(stringOffsetsPosition + 8L * id);
+        long end = getLong(stringOffsetsPosition + 8L * (id + 1));
+        byte[] bytes = new byte[(int) (end - start)];
+        long position = HEADER_SIZE + start;
+        int read = 0;
+        while (read < bytes.length) {
+            // duplicates do not share their position, which keeps reads thread-safe
+            ByteBuffer segment = segments[(int) ((position + read) >>> SEGMENT_BITS)].duplicate();
+            int offset = (int) ((position + read) & (SEGMENT_SIZE - 1));
+            int length = Math.min(bytes.length - read, segment.limit() - offset);
+            segment.position(offset);
+            segment.get(bytes, read, length);
+            read += length;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String getUri(int id) {
+        return getString(getInt(uriIdsPosition + 4L * id));
+    }
+
+    /**
+     * @return the ID of the URI in the file or -1 if the file does not
+     *         contain it
+     */
+    private int getId(String uri) {
+        if (hashTableSize == 0) {
+            return -1;
+        }
+        int slot = slot(uri, hashTableSize);
+        int entry;
+        while ((entry = getInt(hashTablePosition + 4L * slot)) != 0) {
+            if (getUri(entry - 1).equals(uri)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & (hashTableSize - 1);
+        }
+        return -1;
+    }
+
+    private Instance createInstance(int id) {
+        String uri = getUri(id);
+        Instance instance = changed.get(uri);
+        if (instance != null) {
+            return instance;
+        }
+        instance = new Instance(uri);
+        for (Map.Entry<String, Long> property : properties.entrySet()) {
+            long offsetsPosition = property.getValue();
+            int start = getInt(offsetsPosition + 4L * id);
+            int end = getInt(offsetsPosition + 4L * (id + 1));
+            long valuesPosition = offsetsPosition + 4L * (instanceCount + 1);
+            for (int k = start; k < end; k++) {
+                instance.addProperty(property.getKey(), getString(getInt(valuesPosition + 4L * k)));
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns a map from the values of a property to the URIs of the instances
+     * that have them. Computed by scanning the block of the property in the
+     * file without creating instances.
+     *
+     * @param property
+     *            the property
+     * @return a map from values to URIs
+     */
+    public Map<String, Set<String>> getValueToUriMap(String property) {
+        Map<String, Set<String>> result = new HashMap<>();
+        Long offsetsPosition = properties.get(property);
+        for (int id = 0; id < instanceCount; id++) {
+            String uri = getUri(id);
+            if (changed.containsKey(uri)) {
+                addValues(result, changed.get(uri), property);
+            } else if (offsetsPosition != null) {
+                int start = getInt(offsetsPosition + 4L * id);
+                int end = getInt(offsetsPosition + 4L * (id + 1));
+                long valuesPosition = offsetsPosition + 4L * (instanceCount + 1);
+                for (int k = start; k < end; k++) {
+                    String value = getString(getInt(valuesPosition + 4L * k));
+                    if (!result.containsKey(value)) {
+                        result.put(value, new HashSet<>());
+                    }
+                    result.get(value).add(uri);
+                }
+            }
+        }
+        for (String uri : addedUris) {
+            addValues(result, changed.get(uri), property);
+        }
+        return result;
+    }
+
+    private static void addValues(Map<String, Set<String>> result, Instance instance, String property) {
+        for (String value : instance.getProperty(property)) {
+            if (!result.containsKey(value)) {
+                result.put(value, new HashSet<>());
+            }
+            result.get(value).add(instance.getUri());
+        }
+    }
+
+    @Override
+    public void addInstance(Instance i) {
+        if (!containsUri(i.getUri())) {
+            changed.put(i.getUri(), i);
+            addedUris.add(i.getUri());
+            track(i);
+            modified();
+        }
+    }
+
+    @Override
+    public void addTriple(String s, String p, String o) {
+        Instance instance = changed.get(s);
+        if (instance == null) {
+            int id = getId(s);
+            if (id >= 0) {
+                instance = createInstance(id);
+            } else {
+                instance = new Instance(s);
+                addedUris.add(s);
+            }
+            changed.put(s, instance);
+            track(instance);
+        }
+        instance.addProperty(p, o);
+        modified();
+    }
+
+    @Override
+    public void replaceInstance(String uri, Instance a) {
+        if (!changed.containsKey(uri) && getId(uri) < 0) {
+            addedUris.add(uri);
+        }
+        changed.put(uri, a);
+        track(a);
+        modified();
+    }
+
+    @Override
+    public Instance getNextInstance() {
+        if (nextInstance < instanceCount) {
+            return createInstance(nextInstance++);
+        } else if (nextInstance < size()) {
+            return changed.get(addedUris.get(nextInstance++ - instanceCount));
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public void resetIterator() {
+        nextInstance = 0;
+    }
+
+    @Override
+    public ArrayList<Instance> getAllInstances() {
+        ArrayList<Instance> instances = new ArrayList<>(size());
+        for (int id = 0; id < instanceCount; id++) {
+            instances.add(createInstance(id));
+        }
+        for (String uri : addedUris) {
+            instances.add(changed.get(uri));
+        }
+        return instances;
+    }
+
+    @Override
+    public ArrayList<String> getAllUris() {
+        ArrayList<String> uris = new ArrayList<>(size());
+        for (int id = 0; id < instanceCount; id++) {
+            uris.add(getUri(id));
+        }
+        uris.addAll(addedUris);
+        return uris;
+    }
+
+    @Override
+    public boolean containsInstance(Instance i) {
+        return containsUri(i.getUri());
+    }
+
+    @Override
+    public boolean containsUri(String uri) {
+        return changed.containsKey(uri) || getId(uri) >= 0;
+    }
+
+    /**
+     * @param uri
+     *            URI to look for
+     * @return The instance with the URI uri if it is in the cache, else null
+     */
+    @Override
+    public Instance getInstance(String uri) {
+        Instance instance = changed.get(uri);
+        if (instance != null) {
+            return instance;
+        }
+        int id = getId(uri);
+        return id < 0 ? null : createInstance(id);
+    }
+
+    @Override
+    public int size() {
+        return instanceCount + addedUris.size();
+    }
+
+    @Override
+    public ACache getSample(int size) {
+        ACache c = new MemoryCache();
+        ArrayList<String> uris = getAllUris();
+        size = Math.min(size, size());
+        while (c.size() < size) {
+            int index = (int) Math.floor(Math.random() * size());
+            c.addInstance(getInstance(uris.get(index)));
+        }
+        return c;
+    }
+
+    @Override
+    public Set<String> getAllProperties() {
+        HashSet<String> result = new HashSet<>();
+        for (Map.Entry<String, Long> property : properties.entrySet()) {
+            long offsetsPosition = property.getValue();
+            if (getInt(offsetsPosition + 4L * instanceCount) > 0) {
+                result.add(property.getKey());
+            }
+        }
+        for (Instance i : changed.values()) {
+            result.addAll(i.getAllProperties());
+        }
+        return result;
+    }
+
+    @Override
+    public ACache addProperty(String sourcePropertyName, String targetPropertyName, String processingChain) {
+        LinkedHashMap<String, Map<String, String>> functions = new LinkedHashMap<>();
+        HashMap<String, String> f1 = new HashMap<>();
+        f1.put(targetPropertyName, processingChain);
+        functions.put(sourcePropertyName, f1);
+        ACache c = Preprocessor.applyFunctionsToCache(this, functions, true);
+        logger.debug("Cache is ready");
+        return c;
+    }
+
+    @Override
+    public Model parseCSVtoRDFModel(String baseURI, String IDbaseURI, String rdfType) {
+        MemoryCache c = new MemoryCache();
+        for (Instance i : getAllInstances()) {
+            c.addInstance(i);
+        }
+        return c.parseCSVtoRDFModel(baseURI, IDbaseURI, rdfType);
+    }
+
+    /**
+     * The clone shares the read-only file with this cache and copies the
+     * instances that are kept in memory.
+     */
+    @Override
+    public FileCache clone() {
+        return new FileCache(this);
+    }
+
+    private HashMap<String, Instance> toInstanceMap() {
+        HashMap<String, Instance> instances = new HashMap<>();
+        for (Instance i : getAllInstances()) {
+            instances.put(i.getUri(), i);
+        }
+        return instances;
+    }
+
+    @Override
+    public int hashCode() {
+        return toInstanceMap().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof FileCache) {
+            return toInstanceMap().equals(((FileCache) obj).toInstanceMap());
+        } else {
+            return false;
+        }
+    }
 
+    @Override
+    public String toString() {
+        return toInstanceMap().toString();
+    }
 }
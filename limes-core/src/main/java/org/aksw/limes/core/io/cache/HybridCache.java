@@ -81,6 +81,9 @@ public class HybridCache extends MemoryCache implements Serializable {
         try {
             cache = (HybridCache) deSerializer.readObject();
             cache.setFolder(parent);
+            for (Instance i : cache.instanceMap.values()) {
+                cache.track(i);
+            }
             return cache;
         } catch (ClassNotFoundException e) {
             throw new IOException(e);
@@ -217,6 +220,8 @@ public class HybridCache extends MemoryCache implements Serializable {
     public void addInstance(Instance i) {
         if (!instanceMap.containsKey(i.getUri())) {
             instanceMap.put(i.getUri(), i);
+            track(i);
+            modified();
         }
     }
 
@@ -258,7 +263,15 @@ public class HybridCache extends MemoryCache implements Serializable {
             Instance m = new Instance(s);
             m.addProperty(p, o);
             instanceMap.put(s, m);
+            track(m);
         }
+        modified();
+    }
+
+    public void replaceInstance(String uri, Instance a) {
+        instanceMap.put(uri, a);
+        track(a);
+        modified();
     }
 
     /**
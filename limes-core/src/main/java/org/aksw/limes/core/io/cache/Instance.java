@@ -1,8 +1,11 @@
 package org.aksw.limes.core.io.cache;
 
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -25,6 +28,11 @@ public class Instance implements Comparable<Object>, Serializable {
      *
      */
     private static final long serialVersionUID = -8613951110508439148L;
+    /**
+     * Caches that contain this instance. Their versions change when the
+     * instance is modified, see {@link ACache#getVersion()}.
+     */
+    private transient List<WeakReference<ACache>> caches;
     public double distance;
     private String uri;
     private HashMap<String, TreeSet<String>> properties;
@@ -51,6 +59,7 @@ public class Instance implements Comparable<Object>, Serializable {
      *         value of the property for this instance
      */
     public void addProperty(String propUri, String value) {
+        modified();
         if (properties.containsKey(propUri)) {
             properties.get(propUri).add(value);
         } else {
@@ -62,6 +71,7 @@ public class Instance implements Comparable<Object>, Serializable {
 
     public void addProperty(String propUri, TreeSet<String> values) {
         // propUri = propUri.toLowerCase();
+        modified();
         if (properties.containsKey(propUri)) {
             Iterator<String> iter = values.iterator();
             while (iter.hasNext()) {
@@ -82,6 +92,46 @@ public class Instance implements Comparable<Object>, Serializable {
         addProperty(propUri, values);
     }
 
+    /**
+     * Registers a cache that contains this instance. Modifications through
+     * {@link #addProperty(String, String)}, {@link #addProperty(String, TreeSet)},
+     * {@link #replaceProperty(String, TreeSet)} and {@link #removePropery(String)}
+     * change the version of the cache. Changes of the value sets returned by
+     * {@link #getProperty(String)} are not tracked.
+     *
+     * @param cache containing this instance
+     */
+    synchronized void addCache(ACache cache) {
+        if (caches == null) {
+            caches = new ArrayList<>(1);
+        }
+        Iterator<WeakReference<ACache>> iter = caches.iterator();
+        while (iter.hasNext()) {
+            ACache c = iter.next().get();
+            if (c == cache) {
+                return;
+            }
+            if (c == null) {
+                iter.remove();
+            }
+        }
+        caches.add(new WeakReference<>(cache));
+    }
+
+    /**
+     * Changes the versions of the caches that contain this instance.
+     */
+    private synchronized void modified() {
+        if (caches != null) {
+            for (WeakReference<ACache> ref : caches) {
+                ACache cache = ref.get();
+                if (cache != null) {
+                    cache.modified();
+                }
+            }
+        }
+    }
+
     /**
      * Returns the URI of this instance
      *
@@ -167,6 +217,7 @@ public class Instance implements Comparable<Object>, Serializable {
      * @param uri of the property to be removed
      */
     public void removePropery(String uri) {
+        modified();
         if (properties.containsKey(uri)) {
             properties.remove(uri);
         }
@@ -74,6 +74,8 @@ public class MemoryCache extends ACache {
             // Instance m = instanceMap.get(i.getUri());
         } else {
             instanceMap.put(i.getUri(), i);
+            track(i);
+            modified();
         }
     }
 
@@ -118,7 +120,9 @@ public class MemoryCache extends ACache {
             Instance m = new Instance(s);
             m.addProperty(p, o);
             instanceMap.put(s, m);
+            track(m);
         }
+        modified();
     }
 
     /**
@@ -157,6 +161,7 @@ public class MemoryCache extends ACache {
     public ACache getSample(int size) {
         ACache c = new MemoryCache();
         ArrayList<String> uris = getAllUris();
+        size = Math.min(size, size());
         while (c.size() < size) {
             int index = (int) Math.floor(Math.random() * size());
             Instance i = getInstance(uris.get(index));
@@ -199,6 +204,8 @@ public class MemoryCache extends ACache {
             instanceMap.remove(uri);
         }
         instanceMap.put(uri, a);
+        track(a);
+        modified();
     }
 
     public Model parseCSVtoRDFModel(String baseURI, String IDbaseURI, String rdfType) {
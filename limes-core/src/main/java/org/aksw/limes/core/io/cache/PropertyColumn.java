@@ -0,0 +1,234 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Stores the values of a single property for all instances of a
+ * {@link ColumnarCache}. Each distinct value is stored once and referred to by
+ * its value ID. The value IDs of the instances are stored in a single int
+ * array, in which the values of the instance with ID i are found between the
+ * positions {@link #getStart(int) getStart(i)} (inclusive) and
+ * {@link #getEnd(int) getEnd(i)} (exclusive).
+ *
+ * New values are first appended to a buffer and merged into the arrays by
+ * {@link #seal(int)}. The columns of a cache are sealed by the cache before
+ * they are read.
+ *
+ * @version 1.0
+ */
+public class PropertyColumn implements Serializable {
+
+    private static final long serialVersionUID = 3207936212858930473L;
+
+    private HashMap<String, Integer> valueIds;
+    private ArrayList<String> values;
+
+    /**
+     * Positions of the values of each instance. Has length (number of
+     * instances + 1).
+     */
+    private int[] offsets;
+    private int[] instanceValues;
+
+    /**
+     * Values that are not yet merged into the arrays, as (instance ID, value
+     * ID) pairs.
+     */
+    private int[] bufferedInstances;
+    private int[] bufferedValues;
+    private int bufferSize;
+    /**
+     * For each instance whose values have been cleared, the buffer size at
+     * the time of clearing, else -1. Null if no instance was cleared.
+     */
+    private int[] clearedAt;
+
+    public PropertyColumn() {
+        this.valueIds = new HashMap<>();
+        this.values = new ArrayList<>();
+        this.offsets = new int[1];
+        this.instanceValues = new int[0];
+        this.bufferedInstances = new int[16];
+        this.bufferedValues = new int[16];
+        this.bufferSize = 0;
+        this.clearedAt = null;
+    }
+
+    /**
+     * Adds a value to an instance.
+     *
+     * @param instanceId
+     *            ID of the instance
+     * @param value
+     *            value of the property for the instance
+     */
+    public void add(int instanceId, String value) {
+        Integer valueId = valueIds.get(value);
+        if (valueId == null) {
+            valueId = values.size();
+            values.add(value);
+            valueIds.put(value, valueId);
+        }
+        if (bufferSize == bufferedInstances.length) {
+            bufferedInstances = Arrays.copyOf(bufferedInstances, 2 * bufferSize);
+            bufferedValues = Arrays.copyOf(bufferedValues, 2 * bufferSize);
+        }
+        bufferedInstances[bufferSize] = instanceId;
+        bufferedValues[bufferSize++] = valueId;
+    }
+
+    /**
+     * Removes all values of an instance that were added so far.
+     *
+     * @param instanceId
+     *            ID of the instance
+     * @param instanceCount
+     *            number of instances of the cache
+     */
+    public void clear(int instanceId, int instanceCount) {
+        if (clearedAt == null || clearedAt.length < instanceCount) {
+            int oldLength = clearedAt == null ? 0 : clearedAt.length;
+            clearedAt = clearedAt == null ? new int[instanceCount] : Arrays.copyOf(clearedAt, instanceCount);
+            Arrays.fill(clearedAt, oldLength, instanceCount, -1);
+        }
+        clearedAt[instanceId] = bufferSize;
+    }
+
+    /**
+     * Merges the buffered values into the arrays. The values of each instance
+     * are stored without duplicates.
+     *
+     * @param instanceCount
+     *            number of instances of the cache
+     */
+    public void seal(int instanceCount) {
+        if (bufferSize == 0 && clearedAt == null && offsets.length == instanceCount + 1) {
+            return;
+        }
+        int oldInstances = offsets.length - 1;
+        int[] counts = new int[instanceCount + 1];
+        for (int i = 0; i < oldInstances; i++) {
+            if (!isCleared(i)) {
+                counts[i + 1] = offsets[i + 1] - offsets[i];
+            }
+        }
+        for (int j = 0; j < bufferSize; j++) {
+            if (!isClearedAfter(bufferedInstances[j], j)) {
+                counts[bufferedInstances[j] + 1]++;
+            }
+        }
+        for (int i = 0; i < instanceCount; i++) {
+            counts[i + 1] += counts[i];
+        }
+        int[] newValues = new int[counts[instanceCount]];
+        int[] next = Arrays.copyOf(counts, instanceCount);
+        for (int i = 0; i < oldInstances; i++) {
+            if (!isCleared(i)) {
+                for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                    newValues[next[i]++] = instanceValues[k];
+                }
+            }
+        }
+        for (int j = 0; j < bufferSize; j++) {
+            if (!isClearedAfter(bufferedInstances[j], j)) {
+                newValues[next[bufferedInstances[j]]++] = bufferedValues[j];
+            }
+        }
+        // sort the values of each instance and remove duplicates
+        int[] newOffsets = new int[instanceCount + 1];
+        int position = 0;
+        for (int i = 0; i < instanceCount; i++) {
+            newOffsets[i] = position;
+            Arrays.sort(newValues, counts[i], counts[i + 1]);
+            for (int k = counts[i]; k < counts[i + 1]; k++) {
+                if (k == counts[i] || newValues[k] != newValues[k - 1]) {
+                    newValues[position++] = newValues[k];
+                }
+            }
+        }
+        newOffsets[instanceCount] = position;
+        offsets = newOffsets;
+        instanceValues = position == newValues.length ? newValues : Arrays.copyOf(newValues, position);
+        bufferedInstances = new int[16];
+        bufferedValues = new int[16];
+        bufferSize = 0;
+        clearedAt = null;
+    }
+
+    private boolean isCleared(int instanceId) {
+        return clearedAt != null && instanceId < clearedAt.length && clearedAt[instanceId] >= 0;
+    }
+
+    private boolean isClearedAfter(int instanceId, int bufferPosition) {
+        return isCleared(instanceId) && bufferPosition < clearedAt[instanceId];
+    }
+
+    /**
+     * @param instanceId
+     *            ID of an instance
+     * @return the position of the first value of the instance
+     */
+    public int getStart(int instanceId) {
+        return instanceId < offsets.length - 1 ? offsets[instanceId] : 0;
+    }
+
+    /**
+     * @param instanceId
+     *            ID of an instance
+     * @return the position after the last value of the instance
+     */
+    public int getEnd(int instanceId) {
+        return instanceId < offsets.length - 1 ? offsets[instanceId + 1] : 0;
+    }
+
+    /**
+     * @param position
+     *            a position between getStart(i) and getEnd(i) of an instance i
+     * @return the value ID stored at the position
+     */
+    public int getValueId(int position) {
+        return instanceValues[position];
+    }
+
+    /**
+     * @param valueId
+     *            a value ID
+     * @return the value with the ID
+     */
+    public String getValue(int valueId) {
+        return values.get(valueId);
+    }
+
+    /**
+     * @return the number of distinct values of the column
+     */
+    public int getValueCount() {
+        return values.size();
+    }
+
+    /**
+     * @return the number of (instance, value) pairs of the column
+     */
+    public int size() {
+        return instanceValues.length;
+    }
+
+    /**
+     * @return a deep copy of the column
+     */
+    public PropertyColumn copy() {
+        PropertyColumn copy = new PropertyColumn();
+        copy.valueIds = new HashMap<>(valueIds);
+        copy.values = new ArrayList<>(values);
+        copy.offsets = offsets.clone();
+        copy.instanceValues = instanceValues.clone();
+        copy.bufferedInstances = bufferedInstances.clone();
+        copy.bufferedValues = bufferedValues.clone();
+        copy.bufferSize = bufferSize;
+        copy.clearedAt = clearedAt == null ? null : clearedAt.clone();
+        return copy;
+    }
+}
@@ -48,6 +48,8 @@ public class Configuration implements IConfiguration {
     protected String executionRewriter = DEFAULT;
     protected String executionPlanner = DEFAULT;
     protected String executionEngine = DEFAULT;
+    protected boolean compactMappings = false;
+    protected int linkingThreads = 0;
 
     protected int granularity = 2;
 
@@ -288,6 +290,22 @@ public class Configuration implements IConfiguration {
         this.executionEngine = executionEngine;
     }
 
+    public boolean isCompactMappings() {
+        return compactMappings;
+    }
+
+    public void setCompactMappings(boolean compactMappings) {
+        this.compactMappings = compactMappings;
+    }
+
+    public int getLinkingThreads() {
+        return linkingThreads;
+    }
+
+    public void setLinkingThreads(int linkingThreads) {
+        this.linkingThreads = linkingThreads;
+    }
+
     public String getMlTrainingDataFile() {
         return mlTrainingDataFile;
     }
@@ -300,7 +318,7 @@ public class Configuration implements IConfiguration {
                 + acceptanceFile + ", verificationThreshold=" + verificationThreshold + ", verificationFile="
                 + verificationFile + ", prefixes=" + prefixes + ", outputFormat=" + outputFormat
                 + ", executionRewriter=" + executionRewriter + ", executionPlanner=" + executionPlanner
-                + ", executionEngine=" + executionEngine + ", granularity=" + granularity + ", mlAlgorithmName="
+                + ", executionEngine=" + executionEngine + ", compactMappings=" + compactMappings + ", linkingThreads=" + linkingThreads + ", granularity=" + granularity + ", mlAlgorithmName="
                 + mlAlgorithmName + ", mlParameters=" + mlAlgorithmParameters + ", mlImplementationType=" + mlImplementationType
                 + ", mlTrainingDataFile=" + mlTrainingDataFile + ", mlPseudoFMeasure=" + mlPseudoFMeasure + "]";
     }
@@ -314,6 +332,8 @@ public class Configuration implements IConfiguration {
         long temp;
         temp = Double.doubleToLongBits(acceptanceThreshold);
         result = prime * result + (int) (temp ^ (temp >>> 32));
+        result = prime * result + (compactMappings ? 1231 : 1237);
+        result = prime * result + linkingThreads;
         result = prime * result + ((executionEngine == null) ? 0 : executionEngine.hashCode());
         result = prime * result + ((executionPlanner == null) ? 0 : executionPlanner.hashCode());
         result = prime * result + ((executionRewriter == null) ? 0 : executionRewriter.hashCode());
@@ -356,6 +376,10 @@ public class Configuration implements IConfiguration {
             return false;
         if (Double.doubleToLongBits(acceptanceThreshold) != Double.doubleToLongBits(other.acceptanceThreshold))
             return false;
+        if (compactMappings != other.compactMappings)
+            return false;
+        if (linkingThreads != other.linkingThreads)
+            return false;
         if (executionEngine == null) {
             if (other.executionEngine != null)
                 return false;
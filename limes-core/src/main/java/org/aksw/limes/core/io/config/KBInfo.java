@@ -39,6 +39,7 @@ public class KBInfo implements Serializable {
     protected String type;
     protected int maxoffset;
     protected int minoffset;
+    protected int concurrentPages;
 
     /**
      * Constructor
@@ -56,6 +57,7 @@ public class KBInfo implements Serializable {
         type = DEFAULT_QUERY_TYPE;    //default value
         maxoffset  = -1;
         minoffset = -1;
+        concurrentPages = 1;    //1 means one page at a time
     }
 
     /**
@@ -82,6 +84,7 @@ public class KBInfo implements Serializable {
         this.prefixes = prefixes;
         this.pageSize = pageSize;
         this.type = type;
+        this.concurrentPages = 1;
     }
 
     public KBInfo(String id, String endpoint, String graph, String var,
@@ -186,6 +189,25 @@ public class KBInfo implements Serializable {
         this.pageSize = pageSize;
     }
 
+    /**
+     * @return the number of pages that are requested from the endpoint
+     *         concurrently
+     */
+    public int getConcurrentPages() {
+        return concurrentPages;
+    }
+
+    /**
+     * Sets the number of pages that are requested from the endpoint
+     * concurrently. Only used if the page size is positive.
+     *
+     * @param concurrentPages
+     *            number of concurrent pages, 1 to request one page at a time
+     */
+    public void setConcurrentPages(int concurrentPages) {
+        this.concurrentPages = concurrentPages;
+    }
+
     public String getType() {
         return type;
     }
@@ -225,6 +247,7 @@ public class KBInfo implements Serializable {
         s = s + "OptionalProperties: " + optionalProperties + "\n";
         s = s + "Functions: " + functions + "\n";
         s = s + "Page size: " + pageSize + "\n";
+        s = s + "Concurrent pages: " + concurrentPages + "\n";
         s = s + "Type: " + type + "\n";
         s = s + "MinOffset: " + minoffset + "\n";
         s = s + "MaxOffset: " + maxoffset + "\n";
@@ -23,6 +23,7 @@ public class LIMES {
     public static final Property endPoint = property("endPoint");
     public static final Property variable = property("variable");
     public static final Property pageSize = property("pageSize");
+    public static final Property concurrentPages = property("concurrentPages");
     public static final Property restriction = property("restriction");
     public static final Property property = property("property");
     public static final Property optionalProperty = property("optionalProperty");  
@@ -35,6 +36,8 @@ public class LIMES {
     public static final Property executionPlanner = property("executionPlanner");
     public static final Property executionRewriter = property("executionRewriter");
     public static final Property executionEngine = property("executionEngine");
+    public static final Property compactMappings = property("compactMappings");
+    public static final Property linkingThreads = property("linkingThreads");
     public static final Property granularity = property("granularity");
     public static final Property outputFormat = property("outputFormat");
     public static final Property mlParameterName = property("mlParameterName");
@@ -169,6 +169,14 @@ public class RDFConfigurationReader extends AConfigurationReader {
             } else {
                 logger.info("Use default execution engine.");
             } 
+            RDFNode compactMappings = getObject(exeParamResource, LIMES.compactMappings, false);
+            if (compactMappings != null) {
+                configuration.setCompactMappings(Boolean.parseBoolean(compactMappings.toString()));
+            }
+            RDFNode linkingThreads = getObject(exeParamResource, LIMES.linkingThreads, false);
+            if (linkingThreads != null) {
+                configuration.setLinkingThreads(Integer.parseInt(linkingThreads.toString()));
+            }
         }else {
             logger.info("Use default execution parameters.");
         }
@@ -275,6 +283,12 @@ public class RDFConfigurationReader extends AConfigurationReader {
         // Page size
         kbinfo.setPageSize(parseInt(getObject(kb, LIMES.pageSize, true).toString()));
 
+        // Concurrent pages
+        RDFNode concurrentPages = getObject(kb, LIMES.concurrentPages, false);
+        if (concurrentPages != null) {
+            kbinfo.setConcurrentPages(parseInt(concurrentPages.toString()));
+        }
+
         // KB variable
         kbinfo.setVar(getObject(kb, LIMES.variable, true).toString());
 
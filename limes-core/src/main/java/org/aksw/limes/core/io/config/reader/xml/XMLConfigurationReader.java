@@ -68,6 +68,8 @@ public class XMLConfigurationReader extends AConfigurationReader {
     protected static final String REWRITER = "REWRITER";
     protected static final String PLANNER = "PLANNER";
     protected static final String ENGINE = "ENGINE";
+    protected static final String COMPACTMAPPINGS = "COMPACTMAPPINGS";
+    protected static final String THREADS = "THREADS";
     protected static final String MLALGORITHM = "MLALGORITHM";
     protected static final String NAME = "NAME";
     protected static final String TRAINING = "TRAINING";
@@ -75,6 +77,7 @@ public class XMLConfigurationReader extends AConfigurationReader {
     protected static final String PARAMETER = "PARAMETER";
     protected static final String MAXOFFSET = "MAXOFFSET";
     protected static final String MINOFFSET = "MINOFFSET";
+    protected static final String CONCURRENTPAGES = "CONCURRENTPAGES";
     protected static final String FUNCTION = "FUNCTION";
 
     /**
@@ -254,6 +257,8 @@ public class XMLConfigurationReader extends AConfigurationReader {
                 processOptionalProperty(kbinfo, property);
             } else if (child.getNodeName().equals(PAGESIZE)) {
                 kbinfo.setPageSize(Integer.parseInt(getText(child)));
+            } else if (child.getNodeName().equals(CONCURRENTPAGES)) {
+                kbinfo.setConcurrentPages(Integer.parseInt(getText(child)));
             } else if (child.getNodeName().equals(VAR)) {
                 kbinfo.setVar(getText(child));
             } else if (child.getNodeName().equals(TYPE)) {
@@ -444,6 +449,10 @@ public class XMLConfigurationReader extends AConfigurationReader {
                                 configuration.setExecutionPlanner(getText(child));
                             } else if (child.getNodeName().equals(ENGINE)) {
                                 configuration.setExecutionEngine(getText(child));
+                            } else if (child.getNodeName().equals(COMPACTMAPPINGS)) {
+                                configuration.setCompactMappings(Boolean.parseBoolean(getText(child)));
+                            } else if (child.getNodeName().equals(THREADS)) {
+                                configuration.setLinkingThreads(Integer.parseInt(getText(child)));
                             }
                         }
                     }
@@ -133,6 +133,10 @@ public class RDFConfigurationWriter implements IConfigurationWriter {
 		m.add(s, LIMES.executionPlanner, configuration.getExecutionPlanner());
 		m.add(s, LIMES.executionRewriter, configuration.getExecutionRewriter());
 		m.add(s, LIMES.executionEngine, configuration.getExecutionEngine());
+		m.add(s, LIMES.compactMappings, String.valueOf(configuration.isCompactMappings()));
+		if (configuration.getLinkingThreads() > 0) {
+			m.add(s, LIMES.linkingThreads, String.valueOf(configuration.getLinkingThreads()));
+		}
 
 		//7. TILING if necessary
 		m.add(s, LIMES.granularity, String.valueOf(configuration.getGranularity()));
@@ -1,6 +1,7 @@
 package org.aksw.limes.core.io.mapping;
 
 import java.util.HashMap;
+import java.util.Map;
 import java.util.TreeSet;
 
 import org.apache.jena.vocabulary.OWL;
@@ -69,6 +70,22 @@ public abstract class AMapping implements IMapping {
         m2 = m2.reverseSourceTarget();
         return m2;
     }
+    /**
+     * Calls the consumer for every link (source, target, confidence) of the
+     * mapping. Implementations that do not store their links in the map
+     * returned by {@link #getMap()} override this method, so that iterating
+     * over their links does not materialize that map.
+     *
+     * @param consumer, the consumer of the links
+     */
+    public void forEachLink(ILinkConsumer consumer) {
+        for (Map.Entry<String, HashMap<String, Double>> sourceEntry : getMap().entrySet()) {
+            for (Map.Entry<String, Double> targetEntry : sourceEntry.getValue().entrySet()) {
+                consumer.accept(sourceEntry.getKey(), targetEntry.getKey(), targetEntry.getValue());
+            }
+        }
+    }
+
     /**
      * Get the predicate URI, which defaults to OWL.sameAs.
      *
@@ -125,6 +142,9 @@ public abstract class AMapping implements IMapping {
             return true;
         if (obj == null)
             return false;
+        // compact mappings are compared by their links
+        if (obj instanceof CompactMapping)
+            return obj.equals(this);
         if (getClass() != obj.getClass())
             return false;
         AMapping other = (AMapping) obj;
@@ -0,0 +1,628 @@
+package org.aksw.limes.core.io.mapping;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Memory efficient mapping. The source and target URIs of each link are
+ * replaced by their IDs in a {@link UriDictionary}, and the links are stored
+ * as a single primitive column of (source ID, target ID) keys and a primitive
+ * column of confidences. The columns are kept sorted by key, so that
+ * look-ups are binary searches and set operations between mappings that
+ * share their dictionaries are linear sort-merges. As in
+ * {@link MemoryMapping}, adding (s, t, sim2) to a mapping that contains
+ * (s, t, sim1) results in (s, t, max(sim1, sim2)).
+ *
+ * A link costs 16 bytes plus the dictionary entries of its URIs, which are
+ * shared by all links and by all mappings using the same dictionaries.
+ * {@link #getMap()} and {@link #getReversedMap()} are only supported for
+ * compatibility: they materialize copies of the links, which are as big as
+ * the ones of a {@link MemoryMapping}. The map returned by {@link #getMap()}
+ * throws an {@link UnsupportedOperationException} on modification, so code
+ * that changes mappings through it has to use {@link #add(String, String, double)}
+ * or {@link #setMap(HashMap)} instead. Use
+ * {@link #forEachLink(ILinkConsumer)} to iterate over the links.
+ *
+ * Links can be added by several threads at the same time, for example by the
+ * tasks of a parallel mapper. Reading the mapping is only safe once no links
+ * are added anymore, as for the other mappings.
+ *
+ * @version 1.0
+ */
+public class CompactMapping extends AMapping {
+
+    private static final long serialVersionUID = -6526389431850325727L;
+
+    private UriDictionary sourceIds;
+    private UriDictionary targetIds;
+    /**
+     * Links as (source ID {@literal <}{@literal <} 32 | target ID) keys.
+     */
+    private long[] links;
+    private double[] confidences;
+    private int count;
+    /**
+     * True iff the first count keys are sorted and free of duplicates.
+     */
+    private boolean sorted;
+    /**
+     * True iff map contains the current links.
+     */
+    private boolean materialized;
+
+    /**
+     * Map that rejects all modifications once it is frozen.
+     */
+    private static class ReadOnlyMap<K, V> extends HashMap<K, V> {
+
+        private static final long serialVersionUID = 4172394170525186377L;
+
+        private boolean frozen = false;
+
+        ReadOnlyMap<K, V> freeze() {
+            frozen = true;
+            return this;
+        }
+
+        private void checkModification() {
+            if (frozen) {
+                throw new UnsupportedOperationException(
+                        "The links of a compact mapping can not be modified through getMap()");
+            }
+        }
+
+        @Override
+        public V put(K key, V value) {
+            checkModification();
+            return super.put(key, value);
+        }
+
+        @Override
+        public void putAll(Map<? extends K, ? extends V> m) {
+            checkModification();
+            super.putAll(m);
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            checkModification();
+            return super.putIfAbsent(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            checkModification();
+            return super.remove(key);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            checkModification();
+            return super.remove(key, value);
+        }
+
+        @Override
+        public void clear() {
+            checkModification();
+            super.clear();
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            checkModification();
+            return super.replace(key, value);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            checkModification();
+            return super.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+            checkModification();
+            super.replaceAll(function);
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            checkModification();
+            return super.computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            checkModification();
+            return super.computeIfPresent(key, remappingFunction);
+        }
+
+        @Override
+        public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            checkModification();
+            return super.compute(key, remappingFunction);
+        }
+
+        @Override
+        public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            checkModification();
+            return super.merge(key, value, remappingFunction);
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return frozen ? Collections.unmodifiableSet(super.keySet()) : super.keySet();
+        }
+
+        @Override
+        public Collection<V> values() {
+            return frozen ? Collections.unmodifiableCollection(super.values()) : super.values();
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return frozen ? Collections.unmodifiableSet(super.entrySet()) : super.entrySet();
+        }
+
+        /**
+         * @return a modifiable copy of the map
+         */
+        @Override
+        public Object clone() {
+            return new HashMap<>(this);
+        }
+    }
+
+    /**
+     * Constructor for an empty compact mapping.
+     *
+     * @param sourceIds
+     *            dictionary of the source URIs
+     * @param targetIds
+     *            dictionary of the target URIs
+     */
+    public CompactMapping(UriDictionary sourceIds, UriDictionary targetIds) {
+        super();
+        this.sourceIds = sourceIds;
+        this.targetIds = targetIds;
+        this.links = new long[16];
+        this.confidences = new double[16];
+        this.count = 0;
+        this.sorted = true;
+        this.materialized = false;
+    }
+
+    /**
+     * Converts a mapping into a compact mapping.
+     *
+     * @param m
+     *            the mapping to convert
+     * @param sourceIds
+     *            dictionary of the source URIs
+     * @param targetIds
+     *            dictionary of the target URIs
+     * @return m, if it is a compact mapping using the given dictionaries, else
+     *         a compact mapping containing the links of m
+     */
+    public static CompactMapping from(AMapping m, UriDictionary sourceIds, UriDictionary targetIds) {
+        if (m instanceof CompactMapping && ((CompactMapping) m).sourceIds == sourceIds
+                && ((CompactMapping) m).targetIds == targetIds) {
+            return (CompactMapping) m;
+        }
+        CompactMapping result = new CompactMapping(sourceIds, targetIds);
+        result.predicate = m.getPredicate();
+        m.forEachLink(result::add);
+        return result;
+    }
+
+    /**
+     * Converts a mapping into a compact mapping that uses the dictionaries of
+     * this mapping.
+     *
+     * @param m
+     *            the mapping to convert
+     * @return m as compact mapping using the dictionaries of this mapping
+     */
+    public CompactMapping toCompactMapping(AMapping m) {
+        return from(m, sourceIds, targetIds);
+    }
+
+    public UriDictionary getSourceDictionary() {
+        return sourceIds;
+    }
+
+    public UriDictionary getTargetDictionary() {
+        return targetIds;
+    }
+
+    private static long key(int sourceId, int targetId) {
+        return ((long) sourceId << 32) | (targetId & 0xffffffffL);
+    }
+
+    private static int sourceId(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int targetId(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Appends a link. Links that are appended in ascending key order keep the
+     * columns sorted.
+     */
+    private synchronized void append(long key, double confidence) {
+        if (count > 0 && sorted && key <= links[count - 1]) {
+            if (key == links[count - 1]) {
+                confidences[count - 1] = Math.max(confidences[count - 1], confidence);
+                return;
+            }
+            sorted = false;
+        }
+        if (count == links.length) {
+            links = Arrays.copyOf(links, 2 * count);
+            confidences = Arrays.copyOf(confidences, 2 * count);
+        }
+        links[count] = key;
+        confidences[count] = confidence;
+        count++;
+        size = count;
+        materialized = false;
+    }
+
+    /**
+     * Sorts the columns by key and merges duplicate links by keeping their
+     * maximal confidence.
+     */
+    private synchronized void normalize() {
+        if (sorted) {
+            return;
+        }
+        // bottom-up merge sort of both columns
+        long[] keys = links, keyBuffer = new long[count];
+        double[] sims = confidences, simBuffer = new double[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int low = 0; low < count; low += 2 * width) {
+                int middle = Math.min(low + width, count);
+                int high = Math.min(low + 2 * width, count);
+                int i = low, j = middle, k = low;
+                while (i < middle && j < high) {
+                    if (keys[i] <= keys[j]) {
+                        keyBuffer[k] = keys[i];
+                        simBuffer[k++] = sims[i++];
+                    } else {
+                        keyBuffer[k] = keys[j];
+                        simBuffer[k++] = sims[j++];
+                    }
+                }
+                while (i < middle) {
+                    keyBuffer[k] = keys[i];
+                    simBuffer[k++] = sims[i++];
+                }
+                while (j < high) {
+                    keyBuffer[k] = keys[j];
+                    simBuffer[k++] = sims[j++];
+                }
+            }
+            long[] swapKeys = keys;
+            keys = keyBuffer;
+            keyBuffer = swapKeys;
+            double[] swapSims = sims;
+            sims = simBuffer;
+            simBuffer = swapSims;
+        }
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique > 0 && keys[unique - 1] == keys[i]) {
+                sims[unique - 1] = Math.max(sims[unique - 1], sims[i]);
+            } else {
+                keys[unique] = keys[i];
+                sims[unique++] = sims[i];
+            }
+        }
+        // release the space of the merged duplicates
+        if (unique < keys.length - keys.length / 8) {
+            keys = Arrays.copyOf(keys, Math.max(unique, 16));
+            sims = Arrays.copyOf(sims, Math.max(unique, 16));
+        }
+        links = keys;
+        confidences = sims;
+        count = unique;
+        size = count;
+        sorted = true;
+    }
+
+    private int indexOf(String source, String target) {
+        int sourceId = sourceIds.lookup(source);
+        int targetId = targetIds.lookup(target);
+        if (sourceId < 0 || targetId < 0) {
+            return -1;
+        }
+        normalize();
+        int index = Arrays.binarySearch(links, 0, count, key(sourceId, targetId));
+        return index < 0 ? -1 : index;
+    }
+
+    @Override
+    public double getConfidence(String source, String target) {
+        int index = indexOf(source, target);
+        return index < 0 ? 0 : confidences[index];
+    }
+
+    @Override
+    public boolean contains(String source, String target) {
+        return indexOf(source, target) >= 0;
+    }
+
+    @Override
+    public void add(String source, String target, double confidence) {
+        append(key(sourceIds.getId(source), targetIds.getId(target)), confidence);
+    }
+
+    @Override
+    public void add(String source, HashMap<String, Double> targets) {
+        int sourceId = sourceIds.getId(source);
+        for (String target : targets.keySet()) {
+            append(key(sourceId, targetIds.getId(target)), targets.get(target));
+        }
+    }
+
+    @Override
+    public int size() {
+        normalize();
+        return count;
+    }
+
+    @Override
+    public int getSize() {
+        return size();
+    }
+
+    @Override
+    public int getNumberofMappings() {
+        return size();
+    }
+
+    @Override
+    public int getNumberofPositiveMappings() {
+        normalize();
+        int positive = 0;
+        for (int i = 0; i < count; i++) {
+            if (confidences[i] > 0) {
+                positive++;
+            }
+        }
+        return positive;
+    }
+
+    @Override
+    public void forEachLink(ILinkConsumer consumer) {
+        normalize();
+        for (int i = 0; i < count; i++) {
+            consumer.accept(sourceIds.getUri(sourceId(links[i])), targetIds.getUri(targetId(links[i])),
+                    confidences[i]);
+        }
+    }
+
+    /**
+     * Returns a copy of the links whose confidence is at least the threshold.
+     */
+    private CompactMapping select(double threshold, boolean inclusive) {
+        normalize();
+        CompactMapping result = new CompactMapping(sourceIds, targetIds);
+        for (int i = 0; i < count; i++) {
+            if (confidences[i] > threshold || (inclusive && confidences[i] == threshold)) {
+                result.append(links[i], confidences[i]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public AMapping getSubMap(double threshold) {
+        return select(threshold, true);
+    }
+
+    @Override
+    public AMapping getOnlyPositiveExamples() {
+        return select(0, false);
+    }
+
+    @Override
+    public AMapping getBestOneToNMapping() {
+        normalize();
+        CompactMapping result = new CompactMapping(sourceIds, targetIds);
+        int start = 0;
+        while (start < count) {
+            int end = start;
+            double maxSim = 0;
+            while (end < count && sourceId(links[end]) == sourceId(links[start])) {
+                maxSim = Math.max(maxSim, confidences[end++]);
+            }
+            for (int i = start; i < end; i++) {
+                if (confidences[i] == maxSim) {
+                    result.append(links[i], maxSim);
+                }
+            }
+            start = end;
+        }
+        return result;
+    }
+
+    @Override
+    public AMapping reverseSourceTarget() {
+        normalize();
+        CompactMapping result = new CompactMapping(targetIds, sourceIds);
+        for (int i = 0; i < count; i++) {
+            result.append(key(targetId(links[i]), sourceId(links[i])), confidences[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the union of this mapping and m. In case an entry exists in
+     * both mappings the maximal similarity is taken.
+     *
+     * @param m
+     *            the second mapping
+     * @return the union of this mapping and m
+     */
+    public CompactMapping union(AMapping m) {
+        CompactMapping other = toCompactMapping(m);
+        normalize();
+        other.normalize();
+        CompactMapping result = new CompactMapping(sourceIds, targetIds);
+        int i = 0, j = 0;
+        while (i < count && j < other.count) {
+            if (links[i] < other.links[j]) {
+                result.append(links[i], confidences[i++]);
+            } else if (links[i] > other.links[j]) {
+                result.append(other.links[j], other.confidences[j++]);
+            } else {
+                result.append(links[i], Math.max(confidences[i++], other.confidences[j++]));
+            }
+        }
+        while (i < count) {
+            result.append(links[i], confidences[i++]);
+        }
+        while (j < other.count) {
+            result.append(other.links[j], other.confidences[j++]);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the intersection of this mapping and m. In case an entry exists
+     * in both mappings the minimal similarity is taken.
+     *
+     * @param m
+     *            the second mapping
+     * @return the intersection of this mapping and m
+     */
+    public CompactMapping intersection(AMapping m) {
+        CompactMapping other = toCompactMapping(m);
+        normalize();
+        other.normalize();
+        CompactMapping result = new CompactMapping(sourceIds, targetIds);
+        int i = 0, j = 0;
+        while (i < count && j < other.count) {
+            if (links[i] < other.links[j]) {
+                i++;
+            } else if (links[i] > other.links[j]) {
+                j++;
+            } else {
+                result.append(links[i], Math.min(confidences[i++], other.confidences[j++]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the difference of this mapping and m.
+     *
+     * @param m
+     *            the second mapping
+     * @return this mapping \ m
+     */
+    public CompactMapping difference(AMapping m) {
+        CompactMapping other = toCompactMapping(m);
+        normalize();
+        other.normalize();
+        CompactMapping result = new CompactMapping(sourceIds, targetIds);
+        int i = 0, j = 0;
+        while (i < count) {
+            while (j < other.count && other.links[j] < links[i]) {
+                j++;
+            }
+            if (j == other.count || other.links[j] != links[i]) {
+                result.append(links[i], confidences[i]);
+            }
+            i++;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a copy of the links as map of maps. The returned maps can not be
+     * modified.
+     */
+    @Override
+    public synchronized HashMap<String, HashMap<String, Double>> getMap() {
+        if (!materialized) {
+            ReadOnlyMap<String, HashMap<String, Double>> links = new ReadOnlyMap<>();
+            forEachLink((s, t, sim) -> links.computeIfAbsent(s, k -> new ReadOnlyMap<>()).put(t, sim));
+            for (HashMap<String, Double> targets : links.values()) {
+                ((ReadOnlyMap<String, Double>) targets).freeze();
+            }
+            map = links.freeze();
+            materialized = true;
+        }
+        return map;
+    }
+
+    /**
+     * Replaces the links of this mapping by the ones of the input map.
+     */
+    @Override
+    public synchronized void setMap(HashMap<String, HashMap<String, Double>> map) {
+        count = 0;
+        size = 0;
+        sorted = true;
+        materialized = false;
+        for (String s : map.keySet()) {
+            add(s, map.get(s));
+        }
+    }
+
+    /**
+     * Returns a copy of the links indexed by their confidence. Changes to the
+     * returned map are not reflected in the mapping.
+     */
+    @Override
+    public HashMap<Double, HashMap<String, TreeSet<String>>> getReversedMap() {
+        HashMap<Double, HashMap<String, TreeSet<String>>> reversed = new HashMap<>();
+        forEachLink((s, t, sim) -> reversed.computeIfAbsent(sim, k -> new HashMap<>())
+                .computeIfAbsent(s, k -> new TreeSet<>()).add(t));
+        reversedMap = reversed;
+        return reversedMap;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * getMap().hashCode() + ((predicate == null) ? 0 : predicate.hashCode());
+    }
+
+    /**
+     * Compares the links and the predicate with the ones of any mapping.
+     * Note that {@link #hashCode()} is only consistent with this method for
+     * compact mappings.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof AMapping))
+            return false;
+        AMapping other = (AMapping) obj;
+        if (predicate == null) {
+            if (other.predicate != null)
+                return false;
+        } else if (!predicate.equals(other.predicate))
+            return false;
+        return getMap().equals(other.getMap());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        forEachLink((source, target, sim) -> s.append("[" + source + " -> (" + target + "|" + sim + ")]\n"));
+        return s.toString();
+    }
+}
@@ -0,0 +1,23 @@
+package org.aksw.limes.core.io.mapping;
+
+/**
+ * Callback used to iterate over the links of a mapping without accessing its
+ * internal representation. See {@link AMapping#forEachLink(ILinkConsumer)}.
+ *
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ILinkConsumer {
+
+    /**
+     * Processes a single link.
+     *
+     * @param source
+     *            URI of the source resource
+     * @param target
+     *            URI of the target resource
+     * @param confidence
+     *            confidence of the link
+     */
+    void accept(String source, String target, double confidence);
+}
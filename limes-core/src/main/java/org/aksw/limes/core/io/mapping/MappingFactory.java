@@ -1,6 +1,9 @@
 package org.aksw.limes.core.io.mapping;
 
 
+import java.util.function.Supplier;
+
+import org.aksw.limes.core.io.cache.ACache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,6 +15,12 @@ import org.slf4j.LoggerFactory;
 public class MappingFactory {
     private static final Logger logger = LoggerFactory.getLogger(MappingFactory.class.getName());
 
+    /**
+     * Source and target dictionaries of the mappings returned by
+     * {@link #createResultMapping()} on the current thread, or null
+     */
+    private static final ThreadLocal<UriDictionary[]> resultDictionaries = new ThreadLocal<>();
+
     /**
      * @return the default Mapping implementation
      */
@@ -19,6 +28,47 @@ public class MappingFactory {
         return new MemoryMapping();
     }
 
+    /**
+     * Creates the mapping in which a mapper collects the links it returns. It
+     * is a compact mapping if the mapper is called by
+     * {@link #withCompactMappings(UriDictionary, UriDictionary, Supplier)},
+     * else the default mapping. Must be called on the thread that called the
+     * mapper, not by the tasks the mapper runs in parallel, and only for
+     * mappings between source and target URIs.
+     *
+     * @return an empty mapping for the result of a mapper
+     */
+    public static AMapping createResultMapping() {
+        UriDictionary[] dictionaries = resultDictionaries.get();
+        if (dictionaries != null)
+            return new CompactMapping(dictionaries[0], dictionaries[1]);
+        return createDefaultMapping();
+    }
+
+    /**
+     * Runs a task, typically a mapper call, in which
+     * {@link #createResultMapping()} returns compact mappings that use the
+     * given dictionaries.
+     *
+     * @param sourceIds dictionary of the source URIs
+     * @param targetIds dictionary of the target URIs
+     * @param task the task to run
+     * @param <T> type of the result of the task
+     * @return the result of the task
+     */
+    public static <T> T withCompactMappings(UriDictionary sourceIds, UriDictionary targetIds, Supplier<T> task) {
+        UriDictionary[] previous = resultDictionaries.get();
+        resultDictionaries.set(new UriDictionary[] { sourceIds, targetIds });
+        try {
+            return task.get();
+        } finally {
+            if (previous == null)
+                resultDictionaries.remove();
+            else
+                resultDictionaries.set(previous);
+        }
+    }
+
     /**
      * @param type of mapping
      * @return a specific module instance given its module's name
@@ -33,15 +83,39 @@ public class MappingFactory {
             return new HybridMapping();
         if (type == MappingType.FILE_MAPPING)
             return new FileMapping();
+        if (type == MappingType.COMPACT_MAPPING)
+            return new CompactMapping(new UriDictionary(), new UriDictionary());
         logger.warn("Sorry, " + type + " is not yet implemented. Generating " + MappingType.DEFAULT + " map ...");
         return createDefaultMapping();
     }
 
+    /**
+     * @param source cache whose URIs are interned as source IDs
+     * @param target cache whose URIs are interned as target IDs
+     * @return an empty compact mapping whose dictionaries contain the URIs of the caches
+     */
+    public static CompactMapping createCompactMapping(ACache source, ACache target) {
+        return new CompactMapping(new UriDictionary(source), new UriDictionary(target));
+    }
+
+    /**
+     * @param template mapping whose type is to be used
+     * @return an empty mapping of the same type as template. Compact mappings
+     * share the dictionaries of the template.
+     */
+    public static AMapping createMapping(AMapping template) {
+        if (template instanceof CompactMapping)
+            return new CompactMapping(((CompactMapping) template).getSourceDictionary(),
+                    ((CompactMapping) template).getTargetDictionary());
+        return createDefaultMapping();
+    }
+
     public enum MappingType {
         DEFAULT, // currently memory mapping
         MEMORY_MAPPING,
         HYBIRD_MAPPING,
-        FILE_MAPPING
+        FILE_MAPPING,
+        COMPACT_MAPPING
     }
 
 
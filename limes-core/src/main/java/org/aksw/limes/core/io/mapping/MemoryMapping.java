@@ -329,8 +329,8 @@ public class MemoryMapping extends AMapping{
         AMapping result = MappingFactory.createDefaultMapping();
         result.map.putAll(this.map);
         result.size = size();
-        for (String s : other.map.keySet()) {
-            result.add(s, other.map.get(s));
+        for (String s : other.getMap().keySet()) {
+            result.add(s, other.getMap().get(s));
             // for(Entry<String, Double> t : other.map.get(s).entrySet()) {
             // if(result.contains(s, t.getKey())) {
             // double val = Math.max(result.getSimilarity(s,
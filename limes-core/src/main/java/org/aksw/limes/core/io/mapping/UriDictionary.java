@@ -0,0 +1,98 @@
+package org.aksw.limes.core.io.mapping;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.aksw.limes.core.io.cache.ACache;
+
+/**
+ * Assigns consecutive int IDs to URIs. Used by {@link CompactMapping} to
+ * store the source and target resources of its links as primitive ints. IDs
+ * are never reassigned, so all mappings that share a dictionary can be
+ * combined by comparing IDs only.
+ *
+ * @version 1.0
+ */
+public class UriDictionary implements Serializable {
+
+    private static final long serialVersionUID = 4163853024532811937L;
+
+    private HashMap<String, Integer> ids;
+    private String[] uris;
+    private int size;
+
+    /**
+     * Constructor for an empty dictionary.
+     */
+    public UriDictionary() {
+        this.ids = new HashMap<>();
+        this.uris = new String[16];
+        this.size = 0;
+    }
+
+    /**
+     * Constructor for a dictionary that already contains all URIs of a cache.
+     *
+     * @param cache
+     *            the cache whose URIs are to be interned
+     */
+    public UriDictionary(ACache cache) {
+        this();
+        for (String uri : cache.getAllUris()) {
+            getId(uri);
+        }
+    }
+
+    /**
+     * Returns the ID of a URI. URIs that are not yet contained in the
+     * dictionary are added to it.
+     *
+     * @param uri
+     *            the URI
+     * @return the ID of the URI
+     */
+    public synchronized int getId(String uri) {
+        Integer id = ids.get(uri);
+        if (id == null) {
+            if (size == uris.length) {
+                uris = Arrays.copyOf(uris, 2 * size);
+            }
+            id = size;
+            uris[size++] = uri;
+            ids.put(uri, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the ID of a URI without adding it to the dictionary.
+     *
+     * @param uri
+     *            the URI
+     * @return the ID of the URI or -1 if the URI is not contained in the
+     *         dictionary
+     */
+    public synchronized int lookup(String uri) {
+        Integer id = ids.get(uri);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the URI of an ID.
+     *
+     * @param id
+     *            the ID
+     * @return the URI that was assigned the ID
+     */
+    public synchronized String getUri(int id) {
+        return uris[id];
+    }
+
+    /**
+     * @return the number of URIs contained in the dictionary
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
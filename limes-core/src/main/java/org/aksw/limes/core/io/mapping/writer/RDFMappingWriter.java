@@ -60,13 +60,11 @@ public class RDFMappingWriter implements IMappingWriter {
     @Override
     public void write(AMapping mapping, String outputFile, String format) throws IOException {
         Property p = ResourceFactory.createProperty(mapping.getPredicate());
-        for (String source : mapping.getMap().keySet()) {
-            for (String target : mapping.getMap().get(source).keySet()) {
-                Resource s = ResourceFactory.createResource(source);
-                Resource o = ResourceFactory.createResource(target);
-                mappingModel.add(s, p, o);
-            }
-        }
+        mapping.forEachLink((source, target, confidence) -> {
+            Resource s = ResourceFactory.createResource(source);
+            Resource o = ResourceFactory.createResource(target);
+            mappingModel.add(s, p, o);
+        });
         writeModel(mappingModel, format, outputFile);
     }
 
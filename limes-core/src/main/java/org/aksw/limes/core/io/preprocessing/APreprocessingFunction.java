@@ -27,6 +27,18 @@ public abstract class APreprocessingFunction implements IPreprocessingFunction {
 
 	public abstract Instance applyFunctionAfterCheck(Instance inst, String property, String... arguments);
 
+	/**
+	 * Called once before the function is applied to many instances with the
+	 * same arguments, e.g. to precompile patterns. Functions must still work
+	 * if they are applied without being prepared or with other arguments.
+	 * Does nothing by default.
+	 * 
+	 * @param arguments
+	 *            the arguments the function will be applied with
+	 */
+	public void prepare(String... arguments) {
+	}
+
 	public void testIfNumberOfArgumentsIsLegal(String... arguments) throws IllegalNumberOfParametersException {
 		if (arguments.length < minNumberOfArguments()) {
 			throw new IllegalNumberOfParametersException("The function "
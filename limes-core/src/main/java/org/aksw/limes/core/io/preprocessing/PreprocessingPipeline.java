@@ -0,0 +1,73 @@
+package org.aksw.limes.core.io.preprocessing;
+
+import org.aksw.limes.core.io.cache.Instance;
+
+/**
+ * A function chain of the configuration, e.g.
+ * <code>lowercase-&gt;replace(test,)</code>, that is parsed once and can then
+ * be applied to any number of instances. The functions of the chain are
+ * resolved, their arguments are parsed and checked, and the functions are
+ * {@link APreprocessingFunction#prepare(String...) prepared} when the pipeline
+ * is created. The pipeline does not change after its creation, so it can be
+ * applied by several threads at the same time.
+ */
+public class PreprocessingPipeline {
+
+	private final String property;
+	private final String propertyDub;
+	private final APreprocessingFunction rename;
+	private final APreprocessingFunction[] functions;
+	private final String[][] arguments;
+
+	/**
+	 * @param property
+	 *            the property the functions are applied to
+	 * @param propertyDub
+	 *            the property in which the result is stored, the property is
+	 *            renamed if it differs
+	 * @param functionChain
+	 *            the functions separated by <code>-&gt;</code>, may be null or
+	 *            empty
+	 */
+	public PreprocessingPipeline(String property, String propertyDub, String functionChain) {
+		this.property = property;
+		this.propertyDub = propertyDub;
+		if (property != null && !property.equals("") && propertyDub != null && !propertyDub.equals("")
+				&& !property.equals(propertyDub)) {
+			rename = PreprocessingFunctionFactory.getPreprocessingFunction(PreprocessingFunctionFactory
+					.getPreprocessingType(PreprocessingFunctionFactory.RENAME_PROPERTY));
+			rename.testIfNumberOfArgumentsIsLegal(propertyDub);
+		} else {
+			rename = null;
+		}
+		String[] split = functionChain == null || functionChain.equals("") ? new String[0]
+				: functionChain.split("->");
+		functions = new APreprocessingFunction[split.length];
+		arguments = new String[split.length][];
+		for (int i = 0; i < split.length; i++) {
+			PreprocessingFunctionType type = PreprocessingFunctionFactory
+					.getPreprocessingType(Preprocessor.getFunctionId(split[i]));
+			functions[i] = PreprocessingFunctionFactory.getPreprocessingFunction(type);
+			arguments[i] = functions[i].retrieveArguments(split[i]);
+			functions[i].testIfNumberOfArgumentsIsLegal(arguments[i]);
+			functions[i].prepare(arguments[i]);
+		}
+	}
+
+	/**
+	 * Applies the renaming and the functions of the chain to an instance
+	 *
+	 * @param inst
+	 *            the instance that will be preprocessed
+	 * @return the preprocessed instance
+	 */
+	public Instance apply(Instance inst) {
+		if (rename != null) {
+			rename.applyFunctionAfterCheck(inst, property, propertyDub);
+		}
+		for (int i = 0; i < functions.length; i++) {
+			functions[i].applyFunctionAfterCheck(inst, propertyDub, arguments[i]);
+		}
+		return inst;
+	}
+}
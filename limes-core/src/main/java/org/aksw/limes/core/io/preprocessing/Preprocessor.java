@@ -1,9 +1,12 @@
 package org.aksw.limes.core.io.preprocessing;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,6 +17,11 @@ import org.slf4j.LoggerFactory;
  */
 public class Preprocessor {
 	static Logger logger = LoggerFactory.getLogger(Preprocessor.class.getName());
+
+	/**
+	 * Number of instances that are preprocessed by one task
+	 */
+	public static final int PARTITION_SIZE = 1000;
 	
 
 	/**
@@ -27,6 +35,11 @@ public class Preprocessor {
 	}
 
 	/**
+	 * Applies the functions to all instances of the cache. Each function chain
+	 * is compiled once into a {@link PreprocessingPipeline}. The instances are
+	 * split into partitions of {@link #PARTITION_SIZE} instances that are
+	 * processed in parallel on the pool of the {@link LinkingExecutor}, each
+	 * instance by all pipelines in the order of the functions map.
 	 * 
 	 * @param cache cache that should be processed
 	 * @param functions preprocessing functions that will be applied
@@ -40,32 +53,34 @@ public class Preprocessor {
 		}else{
 			cacheClone = cache;
 		}
+		List<PreprocessingPipeline> pipelines = new ArrayList<>();
 		functions.forEach((property, innerMap) -> {
 			innerMap.forEach((propertyDub, functionChain) -> {
-				System.out.println(property);
-				for(Instance inst : cacheClone.getAllInstances()){
-                    logger.debug("Function chain = " + functionChain);
-                    applyRenameIfNecessary(inst, property, propertyDub);
-                    if (functionChain != null) {
-                        if (!functionChain.equals("")) {
-                            String split[] = functionChain.split("->");
-                            for (int i = 0; i < split.length; i++) {
-                                String functionId = getFunctionId(split[i]);
-                                PreprocessingFunctionType type = PreprocessingFunctionFactory
-                                        .getPreprocessingType(functionId);
-                                APreprocessingFunction func = PreprocessingFunctionFactory.getPreprocessingFunction(type);
-                                String[] arguments = func.retrieveArguments(split[i]);
-                                if (arguments.length > 0) {
-                                    func.applyFunction(inst, propertyDub, arguments);
-                                } else {
-                                    func.applyFunction(inst, propertyDub);
-                                }
-                            }
-                        }
-                    }
-				}
+				logger.debug("Function chain = " + functionChain);
+				pipelines.add(new PreprocessingPipeline(property, propertyDub, functionChain));
 			});
 		});
+		if (pipelines.isEmpty()) {
+			return cacheClone;
+		}
+		List<Instance> instances = cacheClone.getAllInstances();
+		int partitions = (instances.size() + PARTITION_SIZE - 1) / PARTITION_SIZE;
+		LinkingExecutor.map("preprocessing", partitions, p -> {
+			List<Instance> partition = instances.subList(p * PARTITION_SIZE,
+					Math.min(instances.size(), (p + 1) * PARTITION_SIZE));
+			for (Instance inst : partition) {
+				for (PreprocessingPipeline pipeline : pipelines) {
+					pipeline.apply(inst);
+				}
+			}
+			// instances of some caches are views on the data of the cache
+			synchronized (cacheClone) {
+				for (Instance inst : partition) {
+					cacheClone.replaceInstance(inst.getUri(), inst);
+				}
+			}
+			return null;
+		});
 		return cacheClone;
 	}
 
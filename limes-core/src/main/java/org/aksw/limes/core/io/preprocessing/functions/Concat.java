@@ -11,13 +11,11 @@ import org.apache.commons.lang.ArrayUtils;
 
 public class Concat extends APreprocessingFunction implements IPreprocessingFunction {
 	public static final String GLUE_KEYWORD = "glue=";
-	private String resultProperty;
-	private String glue;
 
 	@Override
 	public Instance applyFunctionAfterCheck(Instance inst, String property, String... arguments) {
-		resultProperty = property;
-		glue = retrieveKeywordArgumentValue(arguments[arguments.length-1], GLUE_KEYWORD);
+		String resultProperty = property;
+		String glue = retrieveKeywordArgumentValue(arguments[arguments.length-1], GLUE_KEYWORD);
 		if (!glue.equals("")) {
 			//Remaining arguments are the properties that will be concatenated
 			arguments = (String[]) ArrayUtils.removeElement(arguments, arguments[arguments.length-1]);
@@ -1,6 +1,7 @@
 package org.aksw.limes.core.io.preprocessing.functions;
 
 import java.util.TreeSet;
+import java.util.regex.Pattern;
 
 import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.preprocessing.APreprocessingFunction;
@@ -8,12 +9,35 @@ import org.aksw.limes.core.io.preprocessing.IPreprocessingFunction;
 
 public class RegexReplace extends APreprocessingFunction implements IPreprocessingFunction {
 
+	private Pattern pattern;
+
+	public RegexReplace() {
+	}
+
+	/**
+	 * @param regex
+	 *            regular expression that is precompiled for being used as
+	 *            first argument
+	 */
+	public RegexReplace(String regex) {
+		prepare(regex);
+	}
+
+	@Override
+	public void prepare(String... arguments) {
+		pattern = Pattern.compile(arguments[0]);
+	}
+
 	@Override
 	public Instance applyFunctionAfterCheck(Instance i, String property, String... arguments) {
+		Pattern p = pattern;
+		if (p == null || !p.pattern().equals(arguments[0])) {
+			p = Pattern.compile(arguments[0]);
+		}
 		TreeSet<String> oldValues = i.getProperty(property);
 		TreeSet<String> newValues = new TreeSet<>();
 		for (String value : oldValues) {
-			newValues.add(value.replaceAll(arguments[0], arguments[1]));
+			newValues.add(p.matcher(value).replaceAll(arguments[1]));
 		}
 		i.replaceProperty(property, newValues);
 		return i;
@@ -5,6 +5,9 @@ import org.aksw.limes.core.io.preprocessing.APreprocessingFunction;
 
 public class RemoveBraces extends APreprocessingFunction {
 
+	public static final String BRACES_REGEX = "\\(.*\\)";
+	private static final RegexReplace removeBraces = new RegexReplace(BRACES_REGEX);
+
 	@Override
 	public int minNumberOfArguments() {
 		return 0;
@@ -17,7 +20,7 @@ public class RemoveBraces extends APreprocessingFunction {
 
 	@Override
 	public Instance applyFunctionAfterCheck(Instance inst, String properties, String... arguments) {
-		return new RegexReplace().applyFunctionAfterCheck(inst,properties,new String[]{"\\(.*\\)",""});
+		return removeBraces.applyFunctionAfterCheck(inst, properties, BRACES_REGEX, "");
 	}
 
 }
@@ -5,6 +5,9 @@ import org.aksw.limes.core.io.preprocessing.APreprocessingFunction;
 
 public class RemoveNonAlphanumeric extends APreprocessingFunction{
 
+	public static final String NON_ALPHANUMERIC_REGEX = "[^A-Za-z0-9 ]";
+	private static final RegexReplace removeNonAlphanumeric = new RegexReplace(NON_ALPHANUMERIC_REGEX);
+
 	@Override
 	public int minNumberOfArguments() {
 		return 0;
@@ -17,7 +20,7 @@ public class RemoveNonAlphanumeric extends APreprocessingFunction{
 
 	@Override
 	public Instance applyFunctionAfterCheck(Instance inst, String properties, String... arguments) {
-		return new RegexReplace().applyFunctionAfterCheck(inst,properties,new String[]{"[^A-Za-z0-9 ]",""});
+		return removeNonAlphanumeric.applyFunctionAfterCheck(inst, properties, NON_ALPHANUMERIC_REGEX, "");
 	}
 
 }
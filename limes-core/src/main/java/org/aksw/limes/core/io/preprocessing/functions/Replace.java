@@ -9,6 +9,15 @@ import org.aksw.limes.core.io.preprocessing.IPreprocessingFunction;
 
 public class Replace extends APreprocessingFunction implements IPreprocessingFunction {
 
+	private String replaced;
+	private Pattern pattern;
+
+	@Override
+	public void prepare(String... arguments) {
+		replaced = arguments[0];
+		pattern = Pattern.compile(Pattern.quote(arguments[0]));
+	}
+
 	@Override
 	public Instance applyFunctionAfterCheck(Instance i, String property, String... arguments) {
 		// If no replacee is provided we provide the empty string
@@ -19,10 +28,14 @@ public class Replace extends APreprocessingFunction implements IPreprocessingFun
 			replacee = arguments[1];
 		}
 
+		Pattern p = pattern;
+		if (p == null || !replaced.equals(arguments[0])) {
+			p = Pattern.compile(Pattern.quote(arguments[0]));
+		}
 		TreeSet<String> oldValues = i.getProperty(property);
 		TreeSet<String> newValues = new TreeSet<>();
 		for (String value : oldValues) {
-			newValues.add(value.replaceAll(Pattern.quote(arguments[0]), replacee));
+			newValues.add(p.matcher(value).replaceAll(replacee));
 		}
 		i.replaceProperty(property, newValues);
 		return i;
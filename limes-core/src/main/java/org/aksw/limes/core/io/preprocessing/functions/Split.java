@@ -12,6 +12,18 @@ public class Split extends APreprocessingFunction {
 	Logger logger = LoggerFactory.getLogger(Split.class);
 	public static final String SPLIT_CHAR_KEYWORD = "splitChar=";
 
+	private String preparedSplitChar;
+	private Pattern splitPattern;
+
+	@Override
+	public void prepare(String... arguments) {
+		String splitChar = retrieveKeywordArgumentValue(arguments[1], SPLIT_CHAR_KEYWORD);
+		if (!splitChar.equals("")) {
+			preparedSplitChar = splitChar;
+			splitPattern = Pattern.compile(Pattern.quote(splitChar));
+		}
+	}
+
 	@Override
 	public int minNumberOfArguments() {
 		return 2;
@@ -34,9 +46,13 @@ public class Split extends APreprocessingFunction {
 			logger.error("Split character for split function is not provided (empty string is NOT permitted!)");
 			throw new MalformedPreprocessingFunctionException();
 		}
+		Pattern p = splitPattern;
+		if (p == null || !preparedSplitChar.equals(splitChar)) {
+			p = Pattern.compile(Pattern.quote(splitChar));
+		}
 		//Perfom the split
 		for (String toSplit : inst.getProperty(property.trim())) {
-			String[] splitArr = toSplit.split(Pattern.quote(splitChar), limit);
+			String[] splitArr = p.split(toSplit, limit);
 			for (int i = 0; i < splitArr.length; i++) {
 				inst.addProperty(resultPropArr[i].trim(), splitArr[i]);
 			}
@@ -22,7 +22,7 @@ public class UriAsString extends APreprocessingFunction {
 		TreeSet<String> oldValues = inst.getProperty(property);
 		TreeSet<String> newValues = new TreeSet<>();
 		for (String value : oldValues) {
-			newValues.add(CleanIri.cleanIriString(value).replaceAll("_"," "));
+			newValues.add(CleanIri.cleanIriString(value).replace('_', ' '));
 		}
 		inst.replaceProperty(property, newValues);
 		return inst;
@@ -44,6 +44,7 @@ public class FileQueryModule implements IQueryModule {
                 in = getClass().getClassLoader().getResourceAsStream(kb.getEndpoint());
                 if (in == null) {
                     logger.error(MarkerFactory.getMarker("FATAL"),"endpoint could not be loaded as a file or resource");
+                    model = null;
                     return;
                 }
             }
@@ -55,17 +56,20 @@ public class FileQueryModule implements IQueryModule {
             in.close();
         } catch (Exception e) {
             logger.error(MarkerFactory.getMarker("FATAL"),"Error loading endpoint", e);
+            model = null;
         }
     }
 
     /**
-     * Reads data from a model in the model registry
+     * Reads data from the model loaded by this module. The model is also
+     * registered in the model registry, but not read from there, so that
+     * modules running in parallel do not see each other's models.
      *
      * @param c
      *         Cache to be filled
      */
     public void fillCache(ACache c) {
-        SparqlQueryModule sqm = new SparqlQueryModule(kb);
+        SparqlQueryModule sqm = new SparqlQueryModule(kb, model);
         sqm.fillCache(c, false);
 
     }
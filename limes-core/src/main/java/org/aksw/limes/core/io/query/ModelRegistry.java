@@ -1,7 +1,7 @@
 package org.aksw.limes.core.io.query;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.jena.rdf.model.Model;
 import org.slf4j.Logger;
@@ -18,9 +18,9 @@ public class ModelRegistry {
     static Logger logger = LoggerFactory.getLogger("LIMES");
 
     private static ModelRegistry instance = null;
-    private Map<String, Model> map = new HashMap<String, Model>();
+    private Map<String, Model> map = new ConcurrentHashMap<String, Model>();
 
-    public static ModelRegistry getInstance() {
+    public static synchronized ModelRegistry getInstance() {
         if (instance == null) {
             instance = new ModelRegistry();
         }
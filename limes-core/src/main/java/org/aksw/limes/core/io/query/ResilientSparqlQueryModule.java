@@ -35,6 +35,8 @@ public class ResilientSparqlQueryModule extends SparqlQueryModule implements IQu
     protected int pageSize = 900;
     protected long timeToLive = 24l * 60l * 60l * 1000l;
     protected String cacheDirectory = System.getProperty("user.dir") + "/cache";
+    // shared by the concurrently requested pages
+    private QueryExecutionFactory queryExecutionFactory;
 
     
     public ResilientSparqlQueryModule(KBInfo kbInfo) {
@@ -58,12 +60,19 @@ public class ResilientSparqlQueryModule extends SparqlQueryModule implements IQu
 
 
     /**
-     * Reads from a SPARQL endpoint or a file and writes the results in a cache
+     * Reads from a SPARQL endpoint or a file and writes the results in a cache.
+     * If more than one concurrent page is configured, the pages are requested
+     * as in {@link SparqlQueryModule#fillCacheConcurrently(ACache, boolean)},
+     * each of them with the retries and delays of this module.
      *
      * @param cache The cache in which the content on the SPARQL endpoint is to be written
      * @param sparql True if the endpoint is a remote SPARQL endpoint, else assume that is is a jena model
      */
     public void fillCache(ACache cache, boolean sparql) {
+        if (kb.getConcurrentPages() > 1 && kb.getPageSize() > 0) {
+            fillCacheConcurrently(cache, sparql);
+            return;
+        }
         long startTime = System.currentTimeMillis();
         String query = generateQuery();
 
@@ -79,30 +88,12 @@ public class ResilientSparqlQueryModule extends SparqlQueryModule implements IQu
         int counter = 0;
         ResultSet results = qe.execSelect();
         //write
-        String uri, value;
         while (results.hasNext()) {
             QuerySolution soln = results.nextSolution();
             // process query here
             {
                 try {
-                    uri = soln.get(kb.getVar().substring(1)).toString();
-                    int i = 1;
-                    for (String propertyLabel : kb.getProperties()) {
-                        if (soln.contains("v" + i)) {
-                            value = soln.get("v" + i).toString();
-                            cache.addTriple(uri, propertyLabel, value);
-                        }
-                        i++;
-                    }
-                    if(kb.getOptionalProperties() != null){
-                        for (String propertyLabel : kb.getOptionalProperties()) {
-                            if (soln.contains("v" + i)) {
-                                value = soln.get("v" + i).toString();
-                                cache.addTriple(uri, propertyLabel, value);
-                            }
-                        }
-                        i++;
-                    }
+                    addSolution(cache, soln);
                 } catch (Exception e) {
                     logger.warn("Error while processing: " + soln.toString());
                     logger.warn("Following exception occured: " + e.getMessage());
@@ -117,6 +108,20 @@ public class ResilientSparqlQueryModule extends SparqlQueryModule implements IQu
         logger.info("Retrieving statements took " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
     }
 
+    @Override
+    protected QueryExecution createQueryExecution(String query, boolean sparql) {
+        synchronized (this) {
+            if (queryExecutionFactory == null) {
+                try {
+                    queryExecutionFactory = initQueryExecution(kb);
+                } catch (ClassNotFoundException | SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        return queryExecutionFactory.createQueryExecution(query);
+    }
+
     /**
      * @param kbInfo knowledge base information object
      * @return QueryExecutionFactory object
@@ -1,6 +1,11 @@
 package org.aksw.limes.core.io.query;
 
 import java.util.Iterator;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.config.KBInfo;
@@ -22,12 +27,29 @@ import org.slf4j.LoggerFactory;
 public class SparqlQueryModule implements IQueryModule {
 
     protected KBInfo kb;
+    // queried instead of the model registered for the endpoint, if not null
+    protected Model model;
     private Logger logger = LoggerFactory.getLogger(SparqlQueryModule.class.getName());
 
     public SparqlQueryModule(KBInfo kbinfo) {
         kb = kbinfo;
     }
 
+    /**
+     * Constructor for a module that reads from a Jena model instead of the
+     * model registered for the endpoint of the knowledge base in the
+     * {@link ModelRegistry}.
+     *
+     * @param kbinfo
+     *         knowledge base information
+     * @param model
+     *         the model to query
+     */
+    public SparqlQueryModule(KBInfo kbinfo, Model model) {
+        kb = kbinfo;
+        this.model = model;
+    }
+
     /**
      * Reads from a SPARQL endpoint and writes the results in a cache
      *
@@ -50,6 +72,10 @@ public class SparqlQueryModule implements IQueryModule {
      *         that is is a Jena model
      */
     public void fillCache(ACache cache, boolean isSparql) {
+        if (kb.getConcurrentPages() > 1 && kb.getPageSize() > 0) {
+            fillCacheConcurrently(cache, isSparql);
+            return;
+        }
         long startTime = System.currentTimeMillis();
         String query = generateQuery();
 
@@ -84,30 +110,10 @@ public class SparqlQueryModule implements IQueryModule {
                 }
             }
 
-            Query sparqlQuery = QueryFactory.create(query, Syntax.syntaxARQ);
-            QueryExecution qexec;
-
-            // take care of graph issues. Only takes one graph. Seems like some
-            // sparql endpoint do
-            // not like the FROM option.
-            if (!isSparql) {
-                Model model = ModelRegistry.getInstance().getMap().get(kb.getEndpoint());
-                if (model == null) {
-                    throw new RuntimeException("No model with id '" + kb.getEndpoint() + "' registered");
-                }
-                qexec = QueryExecutionFactory.create(sparqlQuery, model);
-            } else {
-                if (kb.getGraph() != null) {
-                    qexec = QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery, kb.getGraph());
-                } //
-                else {
-                    qexec = QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery);
-                }
-            }
+            QueryExecution qexec = createQueryExecution(query, isSparql);
             ResultSet results = qexec.execSelect();
 
             // write
-            String uri, value;
             try {
                 if (results.hasNext()) {
                     moreResults = true;
@@ -119,24 +125,7 @@ public class SparqlQueryModule implements IQueryModule {
                 while (results.hasNext()) {
                     QuerySolution soln = results.nextSolution();
                     try {
-                        uri = soln.get(kb.getVar().substring(1)).toString();
-                        int i = 1;
-                        for (String propertyLabel : kb.getProperties()) {
-                            if (soln.contains("v" + i)) {
-                                value = soln.get("v" + i).toString();
-                                cache.addTriple(uri, propertyLabel, value);
-                            }
-                            i++;
-                        }
-                        if(kb.getOptionalProperties() != null){
-                            for (String propertyLabel : kb.getOptionalProperties()) {
-                                if (soln.contains("v" + i)) {
-                                    value = soln.get("v" + i).toString();
-                                    cache.addTriple(uri, propertyLabel, value);
-                                }
-                            }
-                            i++;
-                        }
+                        addSolution(cache, soln);
                     } catch (Exception e) {
                         logger.warn("Error while processing: " + soln.toString());
                         logger.warn("Following exception occurred: " + e.getMessage());
@@ -159,6 +148,206 @@ public class SparqlQueryModule implements IQueryModule {
         logger.info("Retrieving statements took " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
     }
 
+    /**
+     * Reads from a SPARQL endpoint or a file and writes the results in a
+     * cache. Up to {@link KBInfo#getConcurrentPages()} pages of size
+     * {@link KBInfo#getPageSize()} are requested at the same time. The pages
+     * are the ones {@link #fillCache(ACache, boolean)} requests one after the
+     * other: the first page is always requested, and whenever a page returned
+     * results, the next page is requested, until a page is empty or the
+     * maximal offset is reached. A maximal offset of 0 limits the query to
+     * the first page. A page that fails while its solutions are written is
+     * logged and does not end the reading, as in the sequential case. The
+     * solutions are written into the cache while they are read, one at a
+     * time.
+     *
+     * @param cache
+     *         The cache in which the content on the SPARQL endpoint is to be
+     *         written
+     * @param isSparql
+     *         True if the endpoint is a remote SPARQL endpoint, else assume
+     *         that is is a Jena model
+     */
+    protected void fillCacheConcurrently(ACache cache, boolean isSparql) {
+        long startTime = System.currentTimeMillis();
+        String basicQuery = generateQuery();
+
+        logger.info("Querying the endpoint with " + kb.getConcurrentPages() + " concurrent pages.");
+        int offset = Math.max(kb.getMinOffset(), 0);
+        ExecutorService executor = Executors.newFixedThreadPool(kb.getConcurrentPages());
+        CompletionService<Page> pages = new ExecutorCompletionService<>(executor);
+        int running = 0;
+        int counter = 0;
+        try {
+            submitPage(pages, cache, basicQuery, offset, isSparql, false);
+            offset = offset + kb.getPageSize();
+            running++;
+            while (running < kb.getConcurrentPages() && hasNextPage(offset)) {
+                submitPage(pages, cache, basicQuery, offset, isSparql, true);
+                offset = offset + kb.getPageSize();
+                running++;
+            }
+            boolean moreResults = true;
+            while (running > 0) {
+                Page page = pages.take().get();
+                running--;
+                counter = counter + page.solutions;
+                // pages are requested in order, so all pages after an empty
+                // page are empty as well
+                if (!page.moreResults) {
+                    moreResults = false;
+                }
+                if (moreResults && hasNextPage(offset)) {
+                    submitPage(pages, cache, basicQuery, offset, isSparql, true);
+                    offset = offset + kb.getPageSize();
+                    running++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            logger.warn("Exception while handling query");
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Retrieved " + counter + " triples and " + cache.size() + " entities.");
+        logger.info("Retrieving statements took " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
+    }
+
+    /**
+     * @return true if the page at the given offset follows a page that
+     *         returned results, same as the loop condition of
+     *         {@link #fillCache(ACache, boolean)}
+     */
+    private boolean hasNextPage(int offset) {
+        return offset < kb.getMaxOffset() || kb.getMaxOffset() < 0;
+    }
+
+    private void submitPage(CompletionService<Page> pages, ACache cache, String basicQuery, int offset,
+            boolean isSparql, boolean previousResults) {
+        int nextOffset = offset + kb.getPageSize();
+        if (kb.getMaxOffset() > 0) {
+            nextOffset = Math.min(kb.getMaxOffset(), nextOffset);
+        }
+        logger.info("Getting statements " + offset + " to " + nextOffset);
+        String query = basicQuery + " LIMIT " + (nextOffset - offset) + " OFFSET " + offset;
+        pages.submit(() -> fillPage(cache, query, isSparql, previousResults));
+    }
+
+    /**
+     * Runs the query of a single page and writes its solutions in the cache.
+     * The cache is locked for each solution, so that several pages can be
+     * written at the same time. Exceptions while reading the solutions are
+     * handled as in {@link #fillCache(ACache, boolean)}: they are logged, and
+     * the page counts as having results if it returned a first solution.
+     *
+     * @param previousResults
+     *         whether the reading continues if the page fails before its
+     *         first solution, i.e. whether the previous page had results
+     * @return the number of solutions that were written and whether the next
+     *         page is to be read
+     */
+    private Page fillPage(ACache cache, String query, boolean isSparql, boolean previousResults) {
+        QueryExecution qexec = createQueryExecution(query, isSparql);
+        try {
+            ResultSet results = qexec.execSelect();
+            Page page = new Page();
+            page.moreResults = previousResults;
+            try {
+                page.moreResults = results.hasNext();
+                while (results.hasNext()) {
+                    QuerySolution soln = results.nextSolution();
+                    try {
+                        synchronized (cache) {
+                            addSolution(cache, soln);
+                        }
+                    } catch (Exception e) {
+                        logger.warn("Error while processing: " + soln.toString());
+                        logger.warn("Following exception occurred: " + e.getMessage());
+                        throw new RuntimeException(e);
+                    }
+                    page.solutions++;
+                }
+            } catch (Exception e) {
+                logger.warn("Exception while handling query");
+                logger.warn(e.toString());
+                logger.warn("XML = \n" + ResultSetFormatter.asXMLString(results));
+            }
+            return page;
+        } finally {
+            qexec.close();
+        }
+    }
+
+    /**
+     * Outcome of reading a single page.
+     */
+    private static class Page {
+        int solutions = 0;
+        boolean moreResults;
+    }
+
+    /**
+     * Creates the execution of a query against the endpoint of the knowledge
+     * base. Only takes one graph, as some SPARQL endpoints do not like the
+     * FROM option.
+     *
+     * @param query
+     *         the query
+     * @param isSparql
+     *         True if the endpoint is a remote SPARQL endpoint, else assume
+     *         that is is the model of this module or a Jena model registered
+     *         in the {@link ModelRegistry}
+     * @return the query execution
+     */
+    protected QueryExecution createQueryExecution(String query, boolean isSparql) {
+        Query sparqlQuery = QueryFactory.create(query, Syntax.syntaxARQ);
+        if (!isSparql) {
+            Model queriedModel = model;
+            if (queriedModel == null) {
+                queriedModel = ModelRegistry.getInstance().getMap().get(kb.getEndpoint());
+            }
+            if (queriedModel == null) {
+                throw new RuntimeException("No model with id '" + kb.getEndpoint() + "' registered");
+            }
+            return QueryExecutionFactory.create(sparqlQuery, queriedModel);
+        } else if (kb.getGraph() != null) {
+            return QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery, kb.getGraph());
+        } else {
+            return QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery);
+        }
+    }
+
+    /**
+     * Writes the values of a solution of the query generated by
+     * {@link #generateQuery()} in a cache.
+     *
+     * @param cache
+     *         the cache
+     * @param soln
+     *         the solution
+     */
+    protected void addSolution(ACache cache, QuerySolution soln) {
+        String uri = soln.get(kb.getVar().substring(1)).toString();
+        int i = 1;
+        for (String propertyLabel : kb.getProperties()) {
+            if (soln.contains("v" + i)) {
+                cache.addTriple(uri, propertyLabel, soln.get("v" + i).toString());
+            }
+            i++;
+        }
+        if (kb.getOptionalProperties() != null) {
+            for (String propertyLabel : kb.getOptionalProperties()) {
+                if (soln.contains("v" + i)) {
+                    cache.addTriple(uri, propertyLabel, soln.get("v" + i).toString());
+                }
+                i++;
+            }
+        }
+    }
+
     protected String generateQuery() {
         // write prefixes
         Iterator<String> iter = kb.getPrefixes().keySet().iterator();
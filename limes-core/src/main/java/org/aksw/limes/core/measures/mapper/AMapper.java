@@ -1,5 +1,7 @@
 package org.aksw.limes.core.measures.mapper;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -7,8 +9,11 @@ import java.util.Map;
 import java.util.Set;
 
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.ColumnarCache;
+import org.aksw.limes.core.io.cache.FileCache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.string.triefilter.LengthQuicksort;
 
 /**
  * Implements the mapper abstract class.
@@ -20,7 +25,11 @@ import org.aksw.limes.core.io.mapping.MappingFactory;
 public abstract class AMapper implements IMapper {
 
     /**
-     * Helper method, re-factored from common setup code of Mappers.
+     * Helper method, re-factored from common setup code of Mappers. The map is
+     * kept in the {@link IndexCache} and shared by all mappers until the cache
+     * is modified, so it must not be changed. For a {@link ColumnarCache} or a
+     * {@link FileCache}, the map is computed by scanning the stored values of
+     * the property without creating instances.
      *
      * @param cache,
      *            Input cache
@@ -30,6 +39,17 @@ public abstract class AMapper implements IMapper {
      *         property
      */
     protected Map<String, Set<String>> getValueToUriMap(ACache cache, String property) {
+        return IndexCache.get("valueToUri|" + property, () -> computeValueToUriMap(cache, property),
+                IndexCache::estimateSize, cache);
+    }
+
+    private static Map<String, Set<String>> computeValueToUriMap(ACache cache, String property) {
+        if (cache instanceof ColumnarCache) {
+            return Collections.unmodifiableMap(((ColumnarCache) cache).getValueToUriMap(property));
+        }
+        if (cache instanceof FileCache) {
+            return Collections.unmodifiableMap(((FileCache) cache).getValueToUriMap(property));
+        }
         Map<String, Set<String>> result = new HashMap<>();
         List<String> uris = cache.getAllUris();
         for (String uri : uris) {
@@ -41,7 +61,25 @@ public abstract class AMapper implements IMapper {
                 result.get(value).add(uri);
             }
         }
-        return result;
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns the values of a property sorted by their length. The list is
+     * kept in the {@link IndexCache} and must not be changed.
+     *
+     * @param cache
+     *            Input cache
+     * @param property
+     *            Input linking property
+     * @return the distinct values of the property, sorted by length
+     */
+    protected List<String> getLengthSortedValues(ACache cache, String property) {
+        return IndexCache.get("lengthSortedValues|" + property, () -> {
+            List<String> values = new ArrayList<>(getValueToUriMap(cache, property).keySet());
+            LengthQuicksort.sort(values);
+            return Collections.unmodifiableList(values);
+        }, values -> 64 + 8L * values.size(), cache);
     }
 
     /**
@@ -60,7 +98,7 @@ public abstract class AMapper implements IMapper {
     protected AMapping getUriToUriMapping(Map<String, Map<String, Double>> valueMap,
             Map<String, Set<String>> sourceValueToUriMap, Map<String, Set<String>> targetValueToUriMap,
             boolean swapped) {
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createResultMapping();
         for (String s : valueMap.keySet()) {
             for (String t : valueMap.get(s).keySet()) {
                 if (sourceValueToUriMap.get(swapped ? t : s) != null)
@@ -0,0 +1,321 @@
+package org.aksw.limes.core.measures.mapper;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implements the process-wide cache of the indexes that the mappers derive
+ * from the data of caches, e.g. the maps from the values of a property to
+ * the URIs of the instances. An index is stored under its name and the
+ * caches it was computed from and is reused as long as none of these caches
+ * was modified (see {@link ACache#getVersion()}). The caches are referenced
+ * weakly, so indexes do not keep caches alive.
+ * <p>
+ * The total size of the indexes is bounded by the system property
+ * {@value #CAPACITY_PROPERTY} in MB and defaults to an eighth of the maximum
+ * heap size. When the bound is exceeded, the least recently used indexes are
+ * evicted. Indexes are shared between all callers and must not be modified.
+ *
+ * @version 1.0
+ */
+public class IndexCache {
+
+    static Logger logger = LoggerFactory.getLogger(IndexCache.class);
+
+    /**
+     * System property with the maximal size of the cached indexes in MB.
+     */
+    public static final String CAPACITY_PROPERTY = "limes.indexCacheSize";
+
+    private static final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+    private static final ReferenceQueue<ACache> collectedCaches = new ReferenceQueue<ACache>();
+    private static long capacity = -1;
+    private static long size = 0;
+    private static long hits = 0;
+    private static long misses = 0;
+
+    /**
+     * Returns the index with the given name that was computed from the given
+     * caches. The index is computed by the builder if it is not cached or if
+     * one of the caches was modified since it was computed.
+     *
+     * @param name
+     *            Name of the index, which identifies how it is computed from
+     *            the caches, e.g. the kind of the index and the properties
+     * @param builder
+     *            Computes the index
+     * @param sizeEstimator
+     *            Estimates the size of the index in bytes
+     * @param caches
+     *            The caches from which the index is computed
+     * @param <T>
+     *            Type of the index
+     * @return the index
+     */
+    public static <T> T get(String name, Supplier<T> builder, ToLongFunction<T> sizeEstimator, ACache... caches) {
+        long[] versions = getVersions(caches);
+        Key key = new Key(name, caches);
+        T index = lookup(key, versions);
+        if (index != null) {
+            return index;
+        }
+        // computed outside of the lock, so that mappers that run in parallel
+        // do not wait for each other
+        index = builder.get();
+        store(key, versions, index, sizeEstimator.applyAsLong(index));
+        return index;
+    }
+
+    /**
+     * Returns the index with the given name that was computed from the given
+     * caches, if it is cached and none of the caches was modified since it
+     * was computed.
+     *
+     * @param name
+     *            Name of the index
+     * @param caches
+     *            The caches from which the index is computed
+     * @param <T>
+     *            Type of the index
+     * @return the index or null
+     */
+    public static <T> T getIfPresent(String name, ACache... caches) {
+        return lookup(new Key(name, caches), getVersions(caches));
+    }
+
+    /**
+     * Stores an index that was computed from the current data of the given
+     * caches, replacing the index with the same name, if any.
+     *
+     * @param name
+     *            Name of the index
+     * @param index
+     *            The index
+     * @param indexSize
+     *            Estimated size of the index in bytes
+     * @param caches
+     *            The caches from which the index was computed
+     */
+    public static void put(String name, Object index, long indexSize, ACache... caches) {
+        store(new Key(name, caches), getVersions(caches), index, indexSize);
+    }
+
+    /**
+     * Sets the maximal size of the cached indexes and evicts indexes until
+     * it is not exceeded.
+     *
+     * @param bytes
+     *            Maximal size in bytes
+     */
+    public static synchronized void setCapacity(long bytes) {
+        capacity = Math.max(0, bytes);
+        evict();
+    }
+
+    /**
+     * @return the maximal size of the cached indexes in bytes
+     */
+    public static synchronized long getCapacity() {
+        if (capacity < 0) {
+            capacity = Runtime.getRuntime().maxMemory() / 8;
+            String property = System.getProperty(CAPACITY_PROPERTY);
+            if (property != null) {
+                try {
+                    capacity = Long.parseLong(property.trim()) * 1024 * 1024;
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring malformed " + CAPACITY_PROPERTY + " " + property);
+                }
+            }
+        }
+        return capacity;
+    }
+
+    /**
+     * @return the estimated size of the cached indexes in bytes
+     */
+    public static synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the number of cached indexes
+     */
+    public static synchronized int getIndexCount() {
+        purgeCollectedCaches();
+        return entries.size();
+    }
+
+    /**
+     * @return the number of requests that were answered from the cache
+     */
+    public static synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return the number of requests for which the index was computed
+     */
+    public static synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Removes all cached indexes.
+     */
+    public static synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     * Estimates the size of a map from values to URIs. The URIs are shared
+     * with the cache and only the references to them are counted.
+     *
+     * @param map
+     *            Map from values to URIs
+     * @return the estimated size in bytes
+     */
+    public static long estimateSize(Map<String, Set<String>> map) {
+        long bytes = 64;
+        for (Map.Entry<String, Set<String>> entry : map.entrySet()) {
+            bytes += 112 + 2L * entry.getKey().length() + 48L * entry.getValue().size();
+        }
+        return bytes;
+    }
+
+    private static long[] getVersions(ACache[] caches) {
+        long[] versions = new long[caches.length];
+        for (int i = 0; i < caches.length; i++) {
+            versions[i] = caches[i].getVersion();
+        }
+        return versions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static synchronized <T> T lookup(Key key, long[] versions) {
+        purgeCollectedCaches();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.isValid(versions)) {
+            hits++;
+            return (T) entry.index;
+        }
+        misses++;
+        return null;
+    }
+
+    private static synchronized void store(Key key, long[] versions, Object index, long indexSize) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            size -= previous.size;
+        }
+        if (indexSize <= getCapacity()) {
+            entries.put(key, new Entry(index, versions, indexSize));
+            size += indexSize;
+            evict();
+        }
+    }
+
+    private static void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > getCapacity() && iterator.hasNext()) {
+            size -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+    private static void purgeCollectedCaches() {
+        CacheReference reference;
+        while ((reference = (CacheReference) collectedCaches.poll()) != null) {
+            Entry entry = entries.remove(reference.key);
+            if (entry != null) {
+                size -= entry.size;
+            }
+        }
+    }
+
+    private static class Key {
+
+        private final String name;
+        private final CacheReference[] caches;
+        private final int hash;
+
+        Key(String name, ACache[] caches) {
+            this.name = name;
+            this.caches = new CacheReference[caches.length];
+            int hash = name.hashCode();
+            for (int i = 0; i < caches.length; i++) {
+                this.caches[i] = new CacheReference(caches[i], this);
+                hash = 31 * hash + System.identityHashCode(caches[i]);
+            }
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            if (hash != other.hash || !name.equals(other.name) || caches.length != other.caches.length) {
+                return false;
+            }
+            for (int i = 0; i < caches.length; i++) {
+                ACache cache = caches[i].get();
+                if (cache == null || cache != other.caches[i].get()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class CacheReference extends WeakReference<ACache> {
+
+        private final Key key;
+
+        CacheReference(ACache cache, Key key) {
+            super(cache, collectedCaches);
+            this.key = key;
+        }
+    }
+
+    private static class Entry {
+
+        private final Object index;
+        private final long[] versions;
+        private final long size;
+
+        Entry(Object index, long[] versions, long size) {
+            this.index = index;
+            this.versions = versions;
+            this.size = size;
+        }
+
+        boolean isValid(long[] currentVersions) {
+            for (int i = 0; i < versions.length; i++) {
+                if (versions[i] != currentVersions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
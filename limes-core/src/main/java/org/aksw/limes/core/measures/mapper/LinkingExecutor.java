@@ -0,0 +1,250 @@
+package org.aksw.limes.core.measures.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implements the process-wide pool of worker threads of the parallel mappers.
+ * The pool is a work-stealing {@link ForkJoinPool}, so mappers that run at
+ * the same time share its threads instead of each creating a pool of their
+ * own, and a mapper that is called from a task of the pool helps executing
+ * the tasks it waits for. The parallelism of the pool is set from the LIMES
+ * configuration by {@link #configure(int)}. Without a configured value it is
+ * read from the system property {@value #PARALLELISM_PROPERTY} and defaults
+ * to the number of available processors.
+ * <p>
+ * The tasks of one mapper call are submitted to a {@link Job}, which waits
+ * for all of them and keeps track of their number and runtime.
+ *
+ * @version 1.0
+ */
+public class LinkingExecutor {
+
+    static Logger logger = LoggerFactory.getLogger(LinkingExecutor.class);
+
+    /**
+     * System property with the number of worker threads of the pool.
+     */
+    public static final String PARALLELISM_PROPERTY = "limes.linkingThreads";
+
+    private static ForkJoinPool pool = null;
+
+    /**
+     * Returns the pool, which is created on first use.
+     *
+     * @return the pool of the parallel mappers
+     */
+    public static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(getDefaultParallelism());
+        }
+        return pool;
+    }
+
+    /**
+     * Sizes the pool with the number of worker threads of a LIMES
+     * configuration. The pool is only replaced if its size changes.
+     *
+     * @param threads
+     *            Configured number of worker threads, or a value &lt;= 0 to
+     *            use {@value #PARALLELISM_PROPERTY} or the number of
+     *            available processors
+     */
+    public static synchronized void configure(int threads) {
+        int parallelism = threads > 0 ? threads : getDefaultParallelism();
+        if (pool == null || pool.getParallelism() != parallelism) {
+            setParallelism(parallelism);
+        }
+    }
+
+    /**
+     * @return the number of worker threads given by the system property
+     *         {@value #PARALLELISM_PROPERTY}, or the number of available
+     *         processors
+     */
+    static int getDefaultParallelism() {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        String property = System.getProperty(PARALLELISM_PROPERTY);
+        if (property != null) {
+            try {
+                parallelism = Integer.parseInt(property.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring malformed " + PARALLELISM_PROPERTY + " " + property);
+            }
+        }
+        return Math.max(1, parallelism);
+    }
+
+    /**
+     * Replaces the pool by a pool with the given number of worker threads.
+     * Tasks that were submitted to the previous pool are still completed.
+     *
+     * @param parallelism
+     *            Number of worker threads
+     */
+    public static synchronized void setParallelism(int parallelism) {
+        ForkJoinPool previous = pool;
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * @return the number of worker threads of the pool
+     */
+    public static int getParallelism() {
+        return getPool().getParallelism();
+    }
+
+    /**
+     * Creates a job on the pool.
+     *
+     * @param name
+     *            Name of the job, used for logging
+     * @return the job
+     */
+    public static Job newJob(String name) {
+        return new Job(name, getPool());
+    }
+
+    /**
+     * Computes a number of tasks in parallel and waits for their results.
+     *
+     * @param name
+     *            Name of the job, used for logging
+     * @param tasks
+     *            Number of tasks
+     * @param task
+     *            Computes the result of the task with the given index
+     * @param <T>
+     *            Type of the results
+     * @return the results in the order of the tasks
+     */
+    public static <T> List<T> map(String name, int tasks, IntFunction<T> task) {
+        Job job = newJob(name);
+        List<ForkJoinTask<T>> futures = new ArrayList<ForkJoinTask<T>>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            final int index = i;
+            futures.add(job.submit(() -> task.apply(index)));
+        }
+        job.join();
+        List<T> results = new ArrayList<T>(tasks);
+        for (ForkJoinTask<T> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * A group of tasks of one mapper call that are executed on the pool.
+     */
+    public static class Job {
+
+        private final String name;
+        private final ForkJoinPool pool;
+        private final List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+        private final AtomicInteger completedTasks = new AtomicInteger();
+        private final AtomicLong busyTime = new AtomicLong();
+        private final long start = System.nanoTime();
+        private long end = -1;
+
+        Job(String name, ForkJoinPool pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+
+        /**
+         * Submits a task.
+         *
+         * @param task
+         *            The task
+         * @param <T>
+         *            Type of the result
+         * @return the submitted task, which yields the result
+         */
+        public synchronized <T> ForkJoinTask<T> submit(Callable<T> task) {
+            ForkJoinTask<T> submitted = pool.submit(() -> {
+                long begin = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    busyTime.addAndGet(System.nanoTime() - begin);
+                    completedTasks.incrementAndGet();
+                }
+            });
+            tasks.add(submitted);
+            return submitted;
+        }
+
+        /**
+         * Submits a task.
+         *
+         * @param task
+         *            The task
+         */
+        public void submit(Runnable task) {
+            submit(() -> {
+                task.run();
+                return null;
+            });
+        }
+
+        /**
+         * Waits until all submitted tasks are done. Exceptions thrown by the
+         * tasks are rethrown.
+         */
+        public void join() {
+            List<ForkJoinTask<?>> submitted;
+            synchronized (this) {
+                submitted = new ArrayList<ForkJoinTask<?>>(tasks);
+            }
+            for (ForkJoinTask<?> task : submitted) {
+                task.join();
+            }
+            synchronized (this) {
+                end = System.nanoTime();
+            }
+            logger.debug(name + ": " + getCompletedTaskCount() + " tasks, " + getBusyTime() + " ms busy, "
+                    + getWallTime() + " ms wall time");
+        }
+
+        /**
+         * @return the number of submitted tasks
+         */
+        public synchronized int getTaskCount() {
+            return tasks.size();
+        }
+
+        /**
+         * @return the number of finished tasks
+         */
+        public int getCompletedTaskCount() {
+            return completedTasks.get();
+        }
+
+        /**
+         * @return the sum of the runtimes of the finished tasks in ms
+         */
+        public long getBusyTime() {
+            return busyTime.get() / 1000000;
+        }
+
+        /**
+         * @return the time from the creation of the job until the last call
+         *         of {@link #join()} returned, or until now, in ms
+         */
+        public synchronized long getWallTime() {
+            return ((end < 0 ? System.nanoTime() : end) - start) / 1000000;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package org.aksw.limes.core.measures.mapper;
 
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.CompactMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 /**
- * Implements the mapping operations abstract class.
+ * Implements the mapping operations abstract class. If one of the input
+ * mappings is a {@link CompactMapping}, the operation is computed by a
+ * sort-merge of the compact columns and returns a {@link CompactMapping}.
  *
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  * @version 1.0
@@ -20,6 +23,12 @@ public class MappingOperations {
      * @return map1 \ map2
      */
     public static AMapping difference(AMapping map1, AMapping map2) {
+        if (map1 instanceof CompactMapping) {
+            return ((CompactMapping) map1).difference(map2);
+        }
+        if (map2 instanceof CompactMapping) {
+            return ((CompactMapping) map2).toCompactMapping(map1).difference(map2);
+        }
         AMapping map = MappingFactory.createDefaultMapping();
         
         // go through all the keys in map1
@@ -52,6 +61,12 @@ public class MappingOperations {
      * @return Intersection of map1 and map2
      */
     public static AMapping intersection(AMapping map1, AMapping map2) {
+        if (map1 instanceof CompactMapping) {
+            return ((CompactMapping) map1).intersection(map2);
+        }
+        if (map2 instanceof CompactMapping) {
+            return ((CompactMapping) map2).intersection(map1);
+        }
         AMapping map = MappingFactory.createDefaultMapping();
         // takes care of not running the filter if some set is empty
         if (map1.size() == 0 || map2.size() == 0) {
@@ -89,6 +104,12 @@ public class MappingOperations {
      * @return Union of map1 and map2
      */
     public static AMapping union(AMapping map1, AMapping map2) {
+        if (map1 instanceof CompactMapping) {
+            return ((CompactMapping) map1).union(map2);
+        }
+        if (map2 instanceof CompactMapping) {
+            return ((CompactMapping) map2).union(map1);
+        }
         AMapping map = MappingFactory.createDefaultMapping();
         // go through all the keys in map1
         for (String key : map1.getMap().keySet()) {
@@ -179,7 +179,7 @@ public class SetJaccardMapper extends AMapper {
             small = sourceIndex;
         }
         List<List<Set<String>>> possibleMatches = getPossibleMatches(small, big, threshold);
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createResultMapping();
         for (int i = 0; i < possibleMatches.size(); i+=2) {
             List<Set<String>> s = possibleMatches.get(i);
             List<Set<String>> t = possibleMatches.get(i+1);
@@ -5,19 +5,27 @@
 package org.aksw.limes.core.measures.mapper.space;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
 // * Previously call ToralOrderBlockingMapper
 
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.measures.mapper.space.blocking.BlockingFactory;
 import org.aksw.limes.core.measures.mapper.space.blocking.IBlockingModule;
 import org.aksw.limes.core.measures.measure.space.ISpaceMeasure;
 import org.aksw.limes.core.measures.measure.space.SpaceMeasureFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Uses metric spaces to create blocks.
@@ -26,6 +34,14 @@ import org.aksw.limes.core.measures.measure.space.SpaceMeasureFactory;
  */
 public class HR3Mapper extends AMapper {
 
+    static Logger logger = LoggerFactory.getLogger(HR3Mapper.class);
+
+    /**
+     * Number of source instances that are compared by one task of the
+     * parallel comparison
+     */
+    private static final int PARTITION_SIZE = 512;
+
     public int granularity = 4;
 
     // this might only work for substraction. Need to create something that
@@ -59,14 +75,6 @@ public class HR3Mapper extends AMapper {
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
 
-        
-        
-        AMapping mapping = MappingFactory.createDefaultMapping();
-
-        // maps each block id to a set of instances. Actually one should
-        // integrate LIMES here
-        HashMap<ArrayList<Integer>, TreeSet<String>> targetBlocks = new HashMap<ArrayList<Integer>, TreeSet<String>>();
-
         // 0. get properties
         String property1, property2;
         // get property labels
@@ -108,49 +116,205 @@ public class HR3Mapper extends AMapper {
         // initialize the measure for similarity computation
         ISpaceMeasure measure = SpaceMeasureFactory.getMeasure(p.getOperator(), dimensions);
 
-        // compute blockid for each of the elements of the target
-        // implement our simple yet efficient blocking approach
-        ArrayList<ArrayList<Integer>> blockIds;
-        for (String key : target.getAllUris()) {
-            blockIds = generator.getAllBlockIds(target.getInstance(key));
-            for (int ids = 0; ids < blockIds.size(); ids++) {
-                if (!targetBlocks.containsKey(blockIds.get(ids))) {
-                    targetBlocks.put(blockIds.get(ids), new TreeSet<String>());
+        return new Join(source, target, property1, property2, generator, measure, threshold).run();
+    }
+
+    /**
+     * Parses the points of an instance, i.e., all combinations of the values
+     * of its properties. Values that are not numbers are ignored.
+     *
+     * @param instance
+     *            The instance
+     * @param properties
+     *            One property per dimension
+     * @return the points of the instance
+     */
+    static double[][] getPoints(Instance instance, String[] properties) {
+        double[][] points = { new double[0] };
+        for (int i = 0; i < properties.length; i++) {
+            TreeSet<String> values = instance.getProperty(properties[i]);
+            double[] parsed = new double[values.size()];
+            int count = 0;
+            for (String value : values) {
+                try {
+                    parsed[count] = Double.parseDouble(value);
+                    count++;
+                } catch (NumberFormatException e) {
+                    logger.warn(value + " is not a number. Will be ignored.");
+                }
+            }
+            double[][] combinations = new double[points.length * count][];
+            for (int j = 0; j < points.length; j++) {
+                for (int k = 0; k < count; k++) {
+                    double[] point = Arrays.copyOf(points[j], i + 1);
+                    point[i] = parsed[k];
+                    combinations[j * count + k] = point;
+                }
+            }
+            points = combinations;
+        }
+        return points;
+    }
+
+    /**
+     * The working state of a single run. The points of the target instances
+     * are parsed once and indexed by the packed ids of their blocks, which
+     * are sorted so that the members of each block are a contiguous range of
+     * an int array. The source instances only read the index, so they are
+     * processed in parallel over partitions.
+     */
+    private static class Join {
+
+        private final ACache source;
+        private final ACache target;
+        private final String property1;
+        private final String property2;
+        private final IBlockingModule generator;
+        private final ISpaceMeasure measure;
+        private final double threshold;
+        private final int dimensions;
+        private final int bits;
+        private final long mask;
+        private List<String> sourceUris;
+        private String[] targetUris;
+        private double[][] targetPoints;
+        private int[] targetOwners;
+        private long[] blockKeys;
+        private int[] blockStarts;
+        private int[] blockMembers;
+        private int[][] offsets;
+
+        Join(ACache source, ACache target, String property1, String property2, IBlockingModule generator,
+                ISpaceMeasure measure, double threshold) {
+            this.source = source;
+            this.target = target;
+            this.property1 = property1;
+            this.property2 = property2;
+            this.generator = generator;
+            this.measure = measure;
+            this.threshold = threshold;
+            this.dimensions = property2.split("\\|").length;
+            // block ids of up to two dimensions are packed without loss. For
+            // more dimensions, blocks may share a key, which only adds
+            // candidates
+            this.bits = 64 / dimensions;
+            this.mask = bits == 64 ? -1L : (1L << bits) - 1;
+        }
+
+        AMapping run() {
+            buildIndex();
+            // the blocks to compare are the same around every block
+            ArrayList<Integer> origin = new ArrayList<Integer>(Collections.nCopies(dimensions, 0));
+            ArrayList<ArrayList<Integer>> blocksToCompare = generator.getBlocksToCompare(origin);
+            offsets = new int[blocksToCompare.size()][dimensions];
+            for (int i = 0; i < offsets.length; i++) {
+                for (int j = 0; j < dimensions; j++) {
+                    offsets[i][j] = blocksToCompare.get(i).get(j);
+                }
+            }
+            sourceUris = source.getAllUris();
+            int partitions = (sourceUris.size() + PARTITION_SIZE - 1) / PARTITION_SIZE;
+            List<AMapping> results = LinkingExecutor.map("HR3", partitions, this::compare);
+            AMapping mapping = MappingFactory.createResultMapping();
+            for (AMapping result : results) {
+                for (Map.Entry<String, HashMap<String, Double>> entry : result.getMap().entrySet()) {
+                    for (Map.Entry<String, Double> link : entry.getValue().entrySet()) {
+                        mapping.add(entry.getKey(), link.getKey(), link.getValue());
+                    }
                 }
-                targetBlocks.get(blockIds.get(ids)).add(key);
             }
+            return mapping;
         }
 
-        ArrayList<ArrayList<Integer>> blocksToCompare;
-        // comparison
-        TreeSet<String> uris;
-        double sim;
-        int counter = 0;
-        source.getAllUris().size();
-        for (String sourceInstanceUri : source.getAllUris()) {
-            counter++;
-            if (counter % 1000 == 0) {
-                // logger.info("Processed " + (counter * 100 / size) + "% of the
-                // links");
-                // get key
+        private long getBlockKey(int[] blockId, int[] offset) {
+            long key = 0;
+            for (int i = 0; i < dimensions; i++) {
+                key = (key << bits) | ((blockId[i] + offset[i]) & mask);
+            }
+            return key;
+        }
 
+        private void buildIndex() {
+            targetUris = target.getAllUris().toArray(new String[0]);
+            String[] properties = property2.split("\\|");
+            double[][][] points = new double[targetUris.length][][];
+            int partitions = (targetUris.length + PARTITION_SIZE - 1) / PARTITION_SIZE;
+            LinkingExecutor.map("HR3 index", partitions, partition -> {
+                int end = Math.min(targetUris.length, (partition + 1) * PARTITION_SIZE);
+                for (int i = partition * PARTITION_SIZE; i < end; i++) {
+                    points[i] = getPoints(target.getInstance(targetUris[i]), properties);
+                }
+                return null;
+            });
+            int pointCount = 0;
+            for (double[][] instancePoints : points) {
+                pointCount += instancePoints.length;
             }
-            // logger.info("Getting "+property1+" from "+sourceInstanceUri);
-            blockIds = generator.getAllSourceIds(source.getInstance(sourceInstanceUri), property1);
-            // logger.info("BlockId for "+sourceInstanceUri+" is "+blockId);
-            // for all blocks in [-1, +1] in each dimension compute similarities
-            // and store them
-            for (int ids = 0; ids < blockIds.size(); ids++) {
-                blocksToCompare = generator.getBlocksToCompare(blockIds.get(ids));
-
-                // logger.info(sourceInstanceUri+" is to compare with blocks
-                // "+blocksToCompare);
-                for (int index = 0; index < blocksToCompare.size(); index++) {
-                    if (targetBlocks.containsKey(blocksToCompare.get(index))) {
-                        uris = targetBlocks.get(blocksToCompare.get(index));
-                        for (String targetInstanceUri : uris) {
-                            sim = measure.getSimilarity(source.getInstance(sourceInstanceUri),
-                                    target.getInstance(targetInstanceUri), property1, property2);
+            targetPoints = new double[pointCount][];
+            targetOwners = new int[pointCount];
+            long[] keys = new long[pointCount];
+            int[] zero = new int[dimensions];
+            int n = 0;
+            for (int i = 0; i < targetUris.length; i++) {
+                for (double[] point : points[i]) {
+                    targetPoints[n] = point;
+                    targetOwners[n] = i;
+                    keys[n] = getBlockKey(generator.getBlockId(point), zero);
+                    n++;
+                }
+            }
+            // distinct keys in ascending order
+            long[] sorted = keys.clone();
+            Arrays.sort(sorted);
+            int blockCount = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[blockCount++] = sorted[i];
+                }
+            }
+            blockKeys = Arrays.copyOf(sorted, blockCount);
+            blockStarts = new int[blockCount + 1];
+            int[] blocks = new int[pointCount];
+            for (int i = 0; i < pointCount; i++) {
+                blocks[i] = Arrays.binarySearch(blockKeys, keys[i]);
+                blockStarts[blocks[i] + 1]++;
+            }
+            for (int b = 0; b < blockCount; b++) {
+                blockStarts[b + 1] += blockStarts[b];
+            }
+            int[] next = Arrays.copyOf(blockStarts, blockCount);
+            blockMembers = new int[pointCount];
+            for (int i = 0; i < pointCount; i++) {
+                blockMembers[next[blocks[i]]++] = i;
+            }
+        }
+
+        /**
+         * Compares the source instances of a partition with the target
+         * instances in the surrounding blocks.
+         *
+         * @param partition
+         *            Index of the partition
+         * @return the links found for the source instances of the partition
+         */
+        private AMapping compare(int partition) {
+            AMapping mapping = MappingFactory.createDefaultMapping();
+            String[] properties = property1.split("\\|");
+            int end = Math.min(sourceUris.size(), (partition + 1) * PARTITION_SIZE);
+            for (int i = partition * PARTITION_SIZE; i < end; i++) {
+                String sourceInstanceUri = sourceUris.get(i);
+                Instance sourceInstance = source.getInstance(sourceInstanceUri);
+                for (double[] point : getPoints(sourceInstance, properties)) {
+                    int[] blockId = generator.getBlockId(point);
+                    for (int[] offset : offsets) {
+                        int block = Arrays.binarySearch(blockKeys, getBlockKey(blockId, offset));
+                        if (block < 0) {
+                            continue;
+                        }
+                        for (int m = blockStarts[block]; m < blockStarts[block + 1]; m++) {
+                            int targetPoint = blockMembers[m];
+                            String targetInstanceUri = targetUris[targetOwners[targetPoint]];
+                            double sim = measure.getSimilarity(point, targetPoints[targetPoint]);
                             if (sim >= threshold) {
                                 mapping.add(sourceInstanceUri, targetInstanceUri, sim);
                             }
@@ -158,9 +322,8 @@ public class HR3Mapper extends AMapper {
                     }
                 }
             }
+            return mapping;
         }
-        // logger.info("Cmin = "+necessaryComparisons+"; C = "+comparisons);
-        return mapping;
     }
 
     // need to change this
@@ -160,6 +160,14 @@ public class EuclideanBlockingModule implements IBlockingModule {
         return result;
     }
 
+    public int[] getBlockId(double[] point) {
+        int[] blockId = new int[dim];
+        for (int i = 0; i < dim; i++) {
+            blockId[i] = (int) java.lang.Math.floor(point[i] / thresholds.get(i));
+        }
+        return blockId;
+    }
+
     public ArrayList<ArrayList<Integer>> getAllBlockIds(Instance a) {
         int blockId;
         ArrayList<ArrayList<Integer>> blockIds = new ArrayList<ArrayList<Integer>>();
@@ -148,6 +148,30 @@ public class GeoBlockingModule implements IBlockingModule {
         return blockIds;
     }
 
+    public int[] getBlockId(double[] point) {
+        int[] blockId = new int[dim];
+        double value;
+        for (int i = 0; i < dim; i++) {
+            value = point[i];
+            if (properties.get(i).startsWith("la")) {
+                if (value > latLimit) {
+                    value = value - 2 * latLimit;
+                } else if (value < latLimit) {
+                    value = value + 2 * latLimit;
+                }
+            }
+            if (properties.get(i).startsWith("lo")) {
+                if (value > longLimit) {
+                    value = value - 2 * longLimit;
+                } else if (value < longLimit) {
+                    value = value + 2 * longLimit;
+                }
+            }
+            blockId[i] = (int) java.lang.Math.floor(value / thresholds.get(i));
+        }
+        return blockId;
+    }
+
     /**
      * We assume that every point has exactly one longitude and one latitude
      *
@@ -17,6 +17,16 @@ public interface IBlockingModule {
 
     public ArrayList<Integer> getBlockId(Instance a);
 
+    /**
+     * Computes the id of the block of a point whose coordinates were parsed
+     * already.
+     *
+     * @param point
+     *            One coordinate per dimension
+     * @return The id of the block of the point, one entry per dimension
+     */
+    public int[] getBlockId(double[] point);
+
     public ArrayList<ArrayList<Integer>> getAllBlockIds(Instance a);
 
     public ArrayList<ArrayList<Integer>> getAllSourceIds(Instance a, String properties);
@@ -162,6 +162,14 @@ public class VariableGranularityBlocker implements IBlockingModule {
         return blockIds;
     }
 
+    public int[] getBlockId(double[] point) {
+        int[] blockId = new int[dim];
+        for (int i = 0; i < dim; i++) {
+            blockId[i] = (int) java.lang.Math.floor((granularity * point[i]) / thresholds.get(i));
+        }
+        return blockId;
+    }
+
     /**
      * Computes all the block ids for a given instance. If it is known that
      * the coordinates of an instance are unique, then use getBlockId. If not, use
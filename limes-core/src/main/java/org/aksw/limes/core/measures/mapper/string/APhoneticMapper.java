@@ -0,0 +1,342 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.aksw.limes.core.exceptions.InvalidThresholdException;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.IndexCache;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
+import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
+
+/**
+ * Abstract class of the mappers of phonetic measures. The phonetic codes of
+ * the values of a property are computed once per cache and kept in the
+ * {@link IndexCache} as a column, in which values with the same code are
+ * grouped into one bucket. The distinct codes of the target are stored in a
+ * trie, which is searched once per distinct source code for the target codes
+ * that differ from it in at most {@link #getMaxDistance(double)} positions.
+ * The searches are distributed over the workers of the
+ * {@link LinkingExecutor}.
+ * <p>
+ * As in the original trie search of the mappers, only target codes that are
+ * no proper prefix of another target code are found. The distance of a
+ * target code t to a source code s is the number of positions i &lt; |t| for
+ * which s has no character or a different one.
+ */
+public abstract class APhoneticMapper extends AMapper {
+
+    /**
+     * Number of distinct source codes that are searched by one task of the
+     * parallel search
+     */
+    private static final int PARTITION_SIZE = 512;
+
+    /**
+     * Computes the phonetic codes of a value.
+     *
+     * @param value
+     *            the value
+     * @return the codes of the value
+     */
+    protected abstract String[] getCodes(String value);
+
+    /**
+     * @param threshold
+     *            Similarity threshold
+     * @return the maximal number of differing positions of matching codes
+     */
+    protected abstract int getMaxDistance(double threshold);
+
+    /**
+     * Computes the similarity of two values whose codes have the given
+     * distance.
+     *
+     * @param distance
+     *            Number of differing positions of the codes
+     * @param sourceValue
+     *            the source value
+     * @param targetValue
+     *            the target value
+     * @return the similarity of the values
+     */
+    protected abstract double getSimilarity(int distance, String sourceValue, String targetValue);
+
+    /**
+     * Computes a mapping between a source and a target.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Variable for the source dataset
+     * @param targetVar
+     *            Variable for the target dataset
+     * @param expression
+     *            Expression to process.
+     * @param threshold
+     *            Similarity threshold
+     * @return A mapping which contains links between the source instances and
+     *         the target instances
+     */
+    @Override
+    public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
+            double threshold) {
+        if (threshold <= 0) {
+            throw new InvalidThresholdException(threshold);
+        }
+        List<String> properties = PropertyFetcher.getProperties(expression, threshold);
+        Map<String, Set<String>> sourceMap = getValueToUriMap(source, properties.get(0));
+        Map<String, Set<String>> targetMap = getValueToUriMap(target, properties.get(1));
+        CodeColumn sourceCodes = getCodeColumn(source, properties.get(0));
+        CodeColumn targetCodes = getCodeColumn(target, properties.get(1));
+        if (sourceCodes.codes.length == 0 || targetCodes.codes.length == 0) {
+            return MappingFactory.createDefaultMapping();
+        }
+        return new Join(sourceCodes, sourceMap, targetCodes, targetMap, getMaxDistance(threshold)).run();
+    }
+
+    private CodeColumn getCodeColumn(ACache cache, String property) {
+        return IndexCache.get("phonetic|" + getName() + "|" + property,
+                () -> new CodeColumn(getValueToUriMap(cache, property).keySet().toArray(new String[0])),
+                CodeColumn::estimateSize, cache);
+    }
+
+    /**
+     * The phonetic codes of the values of a property. The distinct codes are
+     * sorted and each has the bucket of the values with this code.
+     */
+    private class CodeColumn {
+
+        private final String[] values;
+        private final String[] codes;
+        private final int[][] buckets;
+
+        CodeColumn(String[] values) {
+            this.values = values;
+            int partitions = (values.length + PARTITION_SIZE - 1) / PARTITION_SIZE;
+            List<String[][]> valueCodes = LinkingExecutor.map(getName() + " codes", partitions, partition -> {
+                int begin = partition * PARTITION_SIZE;
+                String[][] result = new String[Math.min(values.length - begin, PARTITION_SIZE)][];
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = getCodes(values[begin + i]);
+                }
+                return result;
+            });
+            Map<String, IntList> codeBuckets = new HashMap<>();
+            for (int partition = 0; partition < partitions; partition++) {
+                String[][] partitionCodes = valueCodes.get(partition);
+                for (int i = 0; i < partitionCodes.length; i++) {
+                    int value = partition * PARTITION_SIZE + i;
+                    for (String code : partitionCodes[i]) {
+                        IntList bucket = codeBuckets.get(code);
+                        if (bucket == null) {
+                            bucket = new IntList();
+                            codeBuckets.put(code, bucket);
+                        }
+                        // values with several equal codes are added once
+                        if (bucket.size == 0 || bucket.values[bucket.size - 1] != value) {
+                            bucket.add(value);
+                        }
+                    }
+                }
+            }
+            codes = codeBuckets.keySet().toArray(new String[codeBuckets.size()]);
+            Arrays.sort(codes);
+            buckets = new int[codes.length][];
+            for (int i = 0; i < codes.length; i++) {
+                IntList bucket = codeBuckets.get(codes[i]);
+                buckets[i] = Arrays.copyOf(bucket.values, bucket.size);
+            }
+        }
+
+        long estimateSize() {
+            long bytes = 64 + 8L * values.length;
+            for (int i = 0; i < codes.length; i++) {
+                bytes += 72 + 2L * codes[i].length() + 4L * buckets[i].length;
+            }
+            return bytes;
+        }
+    }
+
+    private static class IntList {
+
+        private int[] values = new int[4];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * The state of a single run of the mapper. The trie of the target codes
+     * is stored in arrays: each node has its character, its first child, its
+     * next sibling and the code that ends in it, if any.
+     */
+    private class Join {
+
+        private final CodeColumn sourceCodes;
+        private final Map<String, Set<String>> sourceMap;
+        private final CodeColumn targetCodes;
+        private final Map<String, Set<String>> targetMap;
+        private final int maxDistance;
+        private char[] labels;
+        private int[] firstChildren;
+        private int[] nextSiblings;
+        private int[] terminals;
+        private int nodeCount = 0;
+        private final ConcurrentLinkedQueue<SearchStack> stacks = new ConcurrentLinkedQueue<>();
+
+        Join(CodeColumn sourceCodes, Map<String, Set<String>> sourceMap, CodeColumn targetCodes,
+                Map<String, Set<String>> targetMap, int maxDistance) {
+            this.sourceCodes = sourceCodes;
+            this.sourceMap = sourceMap;
+            this.targetCodes = targetCodes;
+            this.targetMap = targetMap;
+            this.maxDistance = maxDistance;
+        }
+
+        AMapping run() {
+            buildTrie();
+            int partitions = (sourceCodes.codes.length + PARTITION_SIZE - 1) / PARTITION_SIZE;
+            List<AMapping> results = LinkingExecutor.map(getName(), partitions, this::search);
+            AMapping result = MappingFactory.createResultMapping();
+            for (AMapping partial : results) {
+                // the links of a source are only copied if it occurs in
+                // several partitions
+                for (Map.Entry<String, HashMap<String, Double>> entry : partial.getMap().entrySet()) {
+                    result.add(entry.getKey(), entry.getValue());
+                }
+            }
+            return result;
+        }
+
+        private void buildTrie() {
+            int capacity = 16;
+            labels = new char[capacity];
+            firstChildren = new int[capacity];
+            nextSiblings = new int[capacity];
+            terminals = new int[capacity];
+            int root = addNode(' ');
+            for (int code = 0; code < targetCodes.codes.length; code++) {
+                String s = targetCodes.codes[code];
+                int node = root;
+                for (int i = 0; i < s.length(); i++) {
+                    node = getOrAddChild(node, s.charAt(i));
+                }
+                terminals[node] = code;
+            }
+        }
+
+        private int getOrAddChild(int node, char label) {
+            int child = firstChildren[node];
+            while (child >= 0) {
+                if (labels[child] == label) {
+                    return child;
+                }
+                child = nextSiblings[child];
+            }
+            child = addNode(label);
+            nextSiblings[child] = firstChildren[node];
+            firstChildren[node] = child;
+            return child;
+        }
+
+        private int addNode(char label) {
+            if (nodeCount == labels.length) {
+                int capacity = 2 * nodeCount;
+                labels = Arrays.copyOf(labels, capacity);
+                firstChildren = Arrays.copyOf(firstChildren, capacity);
+                nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+                terminals = Arrays.copyOf(terminals, capacity);
+            }
+            labels[nodeCount] = label;
+            firstChildren[nodeCount] = -1;
+            nextSiblings[nodeCount] = -1;
+            terminals[nodeCount] = -1;
+            return nodeCount++;
+        }
+
+        private AMapping search(int partition) {
+            AMapping mapping = MappingFactory.createDefaultMapping();
+            SearchStack stack = stacks.poll();
+            if (stack == null) {
+                stack = new SearchStack();
+            }
+            int end = Math.min(sourceCodes.codes.length, (partition + 1) * PARTITION_SIZE);
+            for (int code = partition * PARTITION_SIZE; code < end; code++) {
+                String s = sourceCodes.codes[code];
+                stack.push(0, 0, 0);
+                while (stack.size > 0) {
+                    stack.size--;
+                    int node = stack.nodes[stack.size];
+                    int position = stack.positions[stack.size];
+                    int distance = stack.distances[stack.size];
+                    int child = firstChildren[node];
+                    if (child < 0) {
+                        if (terminals[node] >= 0) {
+                            addLinks(code, terminals[node], distance, mapping);
+                        }
+                        continue;
+                    }
+                    for (; child >= 0; child = nextSiblings[child]) {
+                        if (position < s.length() && labels[child] == s.charAt(position)) {
+                            stack.push(child, position + 1, distance);
+                        } else if (distance < maxDistance) {
+                            stack.push(child, position + 1, distance + 1);
+                        }
+                    }
+                }
+            }
+            stacks.add(stack);
+            return mapping;
+        }
+
+        private void addLinks(int sourceCode, int targetCode, int distance, AMapping mapping) {
+            for (int i : sourceCodes.buckets[sourceCode]) {
+                String sourceValue = sourceCodes.values[i];
+                for (int j : targetCodes.buckets[targetCode]) {
+                    String targetValue = targetCodes.values[j];
+                    double similarity = getSimilarity(distance, sourceValue, targetValue);
+                    for (String sourceUri : sourceMap.get(sourceValue)) {
+                        for (String targetUri : targetMap.get(targetValue)) {
+                            mapping.add(sourceUri, targetUri, similarity);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static class SearchStack {
+
+        private int[] nodes = new int[64];
+        private int[] positions = new int[64];
+        private int[] distances = new int[64];
+        private int size = 0;
+
+        void push(int node, int position, int distance) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+                positions = Arrays.copyOf(positions, 2 * size);
+                distances = Arrays.copyOf(distances, 2 * size);
+            }
+            nodes[size] = node;
+            positions[size] = position;
+            distances[size] = distance;
+            size++;
+        }
+    }
+}
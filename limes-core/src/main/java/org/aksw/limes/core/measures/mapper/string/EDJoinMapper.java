@@ -2,17 +2,19 @@ package org.aksw.limes.core.measures.mapper.string;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,12 +32,12 @@ import algorithms.edjoin.Record;
 public class EDJoinMapper extends AMapper {
 
     static Logger logger = LoggerFactory.getLogger(EDJoinMapper.class);
-    private static int Q = -1;
-    private static AMapping mapping = null;
-    private static HashMap<Integer, String> sourceMap;
-    private static HashMap<Integer, String> targetMap;
-    @SuppressWarnings("unused")
-    private int comparisons = 0;
+    private static final int Q = 3;
+    /**
+     * Number of records that are probed by one task of the parallel probe
+     * phase.
+     */
+    private static final int PARTITION_SIZE = 512;
 
     private static Record[] qTokenizer(String[] objects, int q) {
         StoppUhr s = new StoppUhr();
@@ -71,51 +73,6 @@ public class EDJoinMapper extends AMapper {
         return records;
     }
 
-    private static int verification(Record currentRec, HashMap<Integer, Record> candidates, ArrayList<String> objects,
-            int q, int threshold) {
-        int count = 0;
-        String id1, id2;
-        Iterator<Record> iter = candidates.values().iterator();
-        while (iter.hasNext()) {
-            Record y = iter.next();
-            compareQGramsResult compResult = compareQGrams(currentRec, y, threshold);
-
-            /*
-             * count filtering
-             */
-            if (compResult.e1 <= q * threshold) {
-                int e2 = minEditErrors(compResult.Q, q);
-                /*
-                 * location-based mismatch filtering
-                 */
-                if (e2 <= threshold) {
-                    int e3 = contentFilter(objects.get(currentRec.id), objects.get(y.id), compResult.Q, threshold, q);
-                    if (e3 <= 2 * threshold) {
-                        int ed = editDistance(objects.get(currentRec.id), objects.get(y.id));
-                        if (ed <= threshold) {
-                            if ((sourceMap.containsKey(currentRec.id) && targetMap.containsKey(y.id))) {
-                                id1 = sourceMap.get(currentRec.id);
-                                id2 = targetMap.get(y.id);
-                                // CORRECT
-                                mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                            } else if (targetMap.containsKey(currentRec.id) && sourceMap.containsKey(y.id)) {
-                                // get uris for ids
-                                {
-                                    id1 = sourceMap.get(y.id);
-                                    id2 = targetMap.get(currentRec.id);
-                                    // CORRECT
-                                    mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                                }
-                                count++;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return count;
-    }
-
     private static int calcPrefixLen(Record x, int tau, int q) {
         if (x.qGrams.length <= tau + 1) {
             return x.qGrams.length;
@@ -368,18 +325,12 @@ public class EDJoinMapper extends AMapper {
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-
-        if (Q <= 1) {
-            Q = 3;
-        }
         // convert similarity in distance threshold
         threshold = (1 - threshold) / threshold;
 
-        this.comparisons = 0;
-        mapping = MappingFactory.createDefaultMapping();
         if (threshold < 0) {
             logger.info("Wrong threshold setting. Returning empty mapping.");
-            return mapping;
+            return MappingFactory.createDefaultMapping();
         }
 
         // get property labels
@@ -401,137 +352,195 @@ public class EDJoinMapper extends AMapper {
                     "Expression " + expression + " was given to a mapper to process");
         }
 
-        // 3.1 fill objects from source in entry. This is for indexing and
-        // sorting
-        // later on
-        // logger.info("Filling objects from source knowledge base.");
-        sourceMap = new HashMap<Integer, String>();
-        ArrayList<String> uris = source.getAllUris();
+        // fill the values of the source and then of the target, entry i
+        // belongs to the instance uris[i]
         ArrayList<String> entries = new ArrayList<String>();
-        Instance instance;
-        int counter = 0;
-        for (int i = 0; i < uris.size(); i++) {
-            instance = source.getInstance(uris.get(i));
-            for (String s : instance.getProperty(properties.get(0))) {
-                sourceMap.put(counter, uris.get(i));
+        ArrayList<String> uris = new ArrayList<String>();
+        for (String uri : source.getAllUris()) {
+            for (String s : source.getInstance(uri).getProperty(properties.get(0))) {
+                uris.add(uri);
                 entries.add(s);
-                counter++;
             }
         }
-
-        // 3.2 fill objects from target in entries
-        // logger.info("Filling objects from target knowledge base.");
-        targetMap = new HashMap<Integer, String>();
-        uris = target.getAllUris();
-        for (int i = 0; i < uris.size(); i++) {
-            instance = target.getInstance(uris.get(i));
-            for (String s : instance.getProperty(properties.get(1))) {
-                targetMap.put(counter, uris.get(i));
+        int sourceCount = entries.size();
+        for (String uri : target.getAllUris()) {
+            for (String s : target.getInstance(uri).getProperty(properties.get(1))) {
+                uris.add(uri);
                 entries.add(s);
-                counter++;
             }
         }
 
-        // transform entries into array so that tokenizer will work
-        // we will use entries later on as they do not lead to RAM errors
-        String[] entryArray = new String[entries.size()];
-        for (int i = 0; i < entries.size(); i++) {
-            entryArray[i] = entries.get(i);
+        return new Join(entries, uris, sourceCount, threshold).run();
+    }
+
+    /**
+     * The working state of a single EdJoin run. The records of the source and
+     * target values are sorted and their prefixes are indexed before the
+     * probe phase, so that the probes only read shared state and can run in
+     * parallel. Each record is only probed against the records that precede
+     * it in the sort order, as in the sequential algorithm.
+     */
+    private static class Join {
+
+        private final String[] entries;
+        private final String[] uris;
+        private final int sourceCount;
+        private final double threshold;
+        private final int tau;
+        private Record[] records;
+        private HashMap<Integer, ArrayList<EdPosition>> index;
+
+        Join(List<String> entries, List<String> uris, int sourceCount, double threshold) {
+            this.entries = entries.toArray(new String[entries.size()]);
+            this.uris = uris.toArray(new String[uris.size()]);
+            this.sourceCount = sourceCount;
+            this.threshold = threshold;
+            this.tau = (int) threshold;
+        }
+
+        private boolean isSource(int id) {
+            return id < sourceCount;
+        }
+
+        AMapping run() {
+            records = qTokenizer(entries, Q);
+            buildIndex();
+            int partitions = (records.length + PARTITION_SIZE - 1) / PARTITION_SIZE;
+            List<AMapping> results = LinkingExecutor.map("EDJoin", partitions, this::probe);
+            AMapping mapping = MappingFactory.createResultMapping();
+            for (AMapping result : results) {
+                for (Map.Entry<String, HashMap<String, Double>> entry : result.getMap().entrySet()) {
+                    for (Map.Entry<String, Double> link : entry.getValue().entrySet()) {
+                        mapping.add(entry.getKey(), link.getKey(), link.getValue());
+                    }
+                }
+            }
+            return mapping;
         }
 
-        // Begin EdJoin. First run the tokenization
-        Record[] records = qTokenizer(entryArray, Q);
-        HashMap<Integer, LinkedList<EdPosition>> index = new HashMap<Integer, LinkedList<EdPosition>>(); // I
-        int count = 0;
-        // run the core of EdJoin
-        String id1, id2;
-        for (int i = 0; i < records.length; i++) {
-            /*
-             * if the length of a record is smaller than q, then we cannot use
-             * the q-gram approach and have to go for comparison without q-gram
-             * filtering
-             */
-            if (records[i].qGrams.length == 0 && records[i].s.length() > 0) {
-                String x = records[i].s;
-                for (int j = i + 1; j < records.length; j++) {
-                    if ((sourceMap.containsKey(records[i].id) && targetMap.containsKey(records[j].id))
-                            || (targetMap.containsKey(records[i].id) && sourceMap.containsKey(records[j].id))) {
-                        String y = records[j].s;
-
-                        // length filtering
-                        if (Math.abs(x.length() - y.length()) <= threshold) {
-                            int ed = editDistance(x, y);
-                            if (ed <= threshold) {
-                                if ((sourceMap.containsKey(records[i].id) && targetMap.containsKey(records[j].id))) {
-                                    id1 = sourceMap.get(records[i].id);
-                                    id2 = targetMap.get(records[j].id);
-                                    // CORRECT
-                                    // if ((1.0 / (1 + (double) ed)) >=
-                                    // threshold)
-                                    mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                                } else // should not be necessary
-                                {
-                                    // get uris for ids
-                                    {
-                                        id1 = sourceMap.get(records[j].id);
-                                        id2 = targetMap.get(records[i].id);
-
-                                        // CORRECT
-                                        // if ((1.0 / (1 + (double) ed)) >=
-                                        // threshold)
-                                        mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                                        // mapping.add(id2, id1, similarity);
-                                    }
-                                }
-                                count++;
+        /**
+         * Indexes the prefixes of all records that have q-grams. The lists of
+         * the index are ordered by the position of the records.
+         */
+        private void buildIndex() {
+            index = new HashMap<Integer, ArrayList<EdPosition>>();
+            for (int i = 0; i < records.length; i++) {
+                Record record = records[i];
+                if (record.qGrams.length == 0) {
+                    continue;
+                }
+                int prefixLength = calcPrefixLen(record, tau, Q);
+                for (int j = 0; j < prefixLength; j++) {
+                    ArrayList<EdPosition> l = index.get(record.qGrams[j].token.id);
+                    if (l == null) {
+                        l = new ArrayList<EdPosition>();
+                        index.put(record.qGrams[j].token.id, l);
+                    }
+                    l.add(new EdPosition(record, record.qGrams[j].loc, i));
+                }
+            }
+        }
+
+        /**
+         * Probes the records of a partition.
+         *
+         * @param partition
+         *            Index of the partition
+         * @return the links found for the records of the partition
+         */
+        private AMapping probe(int partition) {
+            AMapping mapping = MappingFactory.createDefaultMapping();
+            HashMap<Integer, Record> candidates = new HashMap<Integer, Record>(); // A
+            int end = Math.min(records.length, (partition + 1) * PARTITION_SIZE);
+            for (int i = partition * PARTITION_SIZE; i < end; i++) {
+                /*
+                 * if the length of a record is smaller than q, then we cannot
+                 * use the q-gram approach and have to go for comparison without
+                 * q-gram filtering
+                 */
+                if (records[i].qGrams.length == 0 && records[i].s.length() > 0) {
+                    compareShortRecord(i, mapping);
+                } else {
+                    candidates.clear();
+                    Record currentRec = records[i]; // record x
+                    int prefixLength = calcPrefixLen(currentRec, tau, Q);
+                    for (int j = 0; j < prefixLength; j++) {
+                        int loc = currentRec.qGrams[j].loc; // locx
+                        ArrayList<EdPosition> l = index.get(currentRec.qGrams[j].token.id);
+                        if (l == null) {
+                            continue;
+                        }
+                        for (EdPosition pos : l) {
+                            if (pos.order >= i) {
+                                break;
+                            }
+                            // only pairs of a source and a target value can
+                            // lead to links
+                            if (isSource(pos.record.id) != isSource(currentRec.id)
+                                    && pos.record.qGrams.length >= currentRec.qGrams.length - threshold
+                                    && Math.abs(loc - pos.EdPosition) <= threshold) {
+                                candidates.put(pos.record.id, pos.record);
                             }
-                        } else {
-                            break;
                         }
                     }
+                    if (candidates.size() > 0) {
+                        verification(currentRec, candidates.values(), mapping);
+                    }
                 }
-            } else {
-                HashMap<Integer, Record> candidates = new HashMap<Integer, Record>(); // A
-                Record currentRec = records[i]; // record x
-                int prefixLength = calcPrefixLen(currentRec, (int) threshold, Q);
-                for (int j = 0; j < prefixLength; j++) {
-                    Integer tokenID = currentRec.qGrams[j].token.id; // w
-                    Integer loc = currentRec.qGrams[j].loc; // locx
-                    LinkedList<EdPosition> l = index.get(tokenID);
-                    if (l != null) {
-                        Iterator<EdPosition> iter = l.iterator();
-                        while (iter.hasNext()) {
-                            EdPosition pos = iter.next();
-                            if (pos.record.qGrams.length >= currentRec.qGrams.length - threshold
-                                    && candidates.get(pos.record.id) == null) {
-                                if (Math.abs(loc - pos.EdPosition) <= threshold) {
-                                    candidates.put(pos.record.id, pos.record);
-                                }
-                            }
+            }
+            return mapping;
+        }
+
+        private void compareShortRecord(int i, AMapping mapping) {
+            String x = records[i].s;
+            for (int j = i + 1; j < records.length; j++) {
+                if (isSource(records[i].id) != isSource(records[j].id)) {
+                    String y = records[j].s;
+                    // length filtering
+                    if (Math.abs(x.length() - y.length()) <= threshold) {
+                        int ed = editDistance(x, y);
+                        if (ed <= threshold) {
+                            addLink(records[i].id, records[j].id, ed, mapping);
                         }
-                        l.add(new EdPosition(currentRec, loc)); // index the
-                        // current
-                        // prefix
                     } else {
-                        l = new LinkedList<EdPosition>();
-                        l.add(new EdPosition(currentRec, loc));
-                        index.put(tokenID, l);
+                        break;
                     }
                 }
-                if (candidates.size() > 0) {
-                    count = count + verification(currentRec, candidates, entries, Q, (int) threshold);
+            }
+        }
+
+        private void verification(Record currentRec, Collection<Record> candidates, AMapping mapping) {
+            for (Record y : candidates) {
+                compareQGramsResult compResult = compareQGrams(currentRec, y, tau);
+
+                /*
+                 * count filtering
+                 */
+                if (compResult.e1 <= Q * tau) {
+                    int e2 = minEditErrors(compResult.Q, Q);
+                    /*
+                     * location-based mismatch filtering
+                     */
+                    if (e2 <= tau) {
+                        int e3 = contentFilter(entries[currentRec.id], entries[y.id], compResult.Q, tau, Q);
+                        if (e3 <= 2 * tau) {
+                            int ed = editDistance(entries[currentRec.id], entries[y.id]);
+                            if (ed <= tau) {
+                                addLink(currentRec.id, y.id, ed, mapping);
+                            }
+                        }
+                    }
                 }
             }
         }
-        /*
-         * AMapping tempMapping = MappingFactory.createDefaultMapping(); for
-         * (String key : mapping.getMap().keySet()) { for (String value :
-         * mapping.getMap().get(key).keySet()) { double confidence =
-         * mapping.getConfidence(key, value); if (confidence < threshold) {
-         * tempMapping.add(key, value, confidence); } } } mapping = tempMapping;
-         */
 
-        return mapping;
+        private void addLink(int id1, int id2, int ed, AMapping mapping) {
+            if (isSource(id1)) {
+                mapping.add(uris[id1], uris[id2], 1.0 / (1 + (double) ed));
+            } else {
+                mapping.add(uris[id2], uris[id1], 1.0 / (1 + (double) ed));
+            }
+        }
     }
 
     @Override
@@ -597,9 +606,11 @@ class EdPosition {
 
     Record record = null;
     int EdPosition = -1;
+    int order = -1;
 
-    public EdPosition(Record record, int EdPosition) {
+    public EdPosition(Record record, int EdPosition, int order) {
         this.record = record;
         this.EdPosition = EdPosition;
+        this.order = order;
     }
 }
@@ -56,7 +56,7 @@ public class ExactMatchMapper extends AMapper {
         }
         Map<String, Set<String>> sourceIndex = getValueToUriMap(source, properties.get(0));
         Map<String, Set<String>> targetIndex = getValueToUriMap(target, properties.get(1));
-        AMapping m = MappingFactory.createDefaultMapping();
+        AMapping m = MappingFactory.createResultMapping();
         boolean swapped = sourceIndex.keySet().size() > targetIndex.keySet().size();
         (!swapped ? sourceIndex : targetIndex).keySet().stream().filter(!swapped ? targetIndex::containsKey : sourceIndex::containsKey).forEach(value -> {
             for (String sourceUri : sourceIndex.get(value)) {
@@ -83,7 +83,7 @@ public class JaroMapper extends AMapper {
         Set<String> target = targetMap.keySet();
         Map<Integer, Set<String>> sourceLengthIndex = getLengthIndex(source);
         Map<Integer, Set<String>> targetLengthIndex = getLengthIndex(target);
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createResultMapping();
         double maxSourceLength, maxTargetLength;
 
         for (Integer sourceLength : sourceLengthIndex.keySet()) {
@@ -119,7 +119,7 @@ public class JaroMapper extends AMapper {
         Map<Integer, Set<String>> sourceLengthIndex = getLengthIndex(source);
         Map<Integer, Set<String>> targetLengthIndex = getLengthIndex(target);
 
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createResultMapping();
         double maxSourceLength, maxTargetLength, similarity, theta;
         List<Character> sourceMappingCharacters, targetMappingCharacters;
         Set<Character> sourcePrefix, targetPrefix;
@@ -190,7 +190,7 @@ public class JaroMapper extends AMapper {
         Map<Integer, Set<String>> sourceLengthIndex = getLengthIndex(source);
         Map<Integer, Set<String>> targetLengthIndex = getLengthIndex(target);
 
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createResultMapping();
         double maxSourceLength, maxTargetLength, similarity, theta;
         List<Character> sourceMappingCharacters, targetMappingCharacters;
         int halfLength, transpositions;
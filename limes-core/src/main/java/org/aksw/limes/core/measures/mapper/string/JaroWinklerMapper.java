@@ -6,13 +6,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.aksw.limes.core.measures.mapper.string.triefilter.LengthQuicksort;
 import org.aksw.limes.core.measures.mapper.string.triefilter.TrieFilter;
@@ -55,18 +54,23 @@ public class JaroWinklerMapper extends AMapper {
         // generate value to uri maps
         Map<String, Set<String>> sourceMap = getValueToUriMap(source, properties.get(0));
         Map<String, Set<String>> targetMap = getValueToUriMap(target, properties.get(1));
-        return getMapping(sourceMap, targetMap, threshold);
+        return getMapping(sourceMap, targetMap, getLengthSortedValues(source, properties.get(0)),
+                getLengthSortedValues(target, properties.get(1)), threshold);
     }
 
     protected AMapping getMapping(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap,
             double threshold) {
-        List<String> listA, listB;
         // get lists of strings to match
-        listA = new ArrayList<>(sourceMap.keySet());
-        listB = new ArrayList<>(targetMap.keySet());
+        List<String> listA = new ArrayList<>(sourceMap.keySet());
+        List<String> listB = new ArrayList<>(targetMap.keySet());
         // sort lists
         LengthQuicksort.sort(listA);
         LengthQuicksort.sort(listB);
+        return getMapping(sourceMap, targetMap, listA, listB, threshold);
+    }
+
+    private AMapping getMapping(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap,
+            List<String> listA, List<String> listB, double threshold) {
         // swap lists iff the largest string in listB is larger than the largest
         // string in listA
         boolean swapped = false;
@@ -113,21 +117,14 @@ public class JaroWinklerMapper extends AMapper {
         // setting up parallel execution of matching
 
         ConcurrentHashMap<String, Map<String, Double>> similarityBook = new ConcurrentHashMap<>(listA.size(), 1.0f);
-        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        LinkingExecutor.Job job = LinkingExecutor.newJob(getName());
         // instantiate and queue up workers
         for (Pair<List<String>, List<String>> tempPair : partitions) {
             Runnable worker = new TrieFilter(tempPair, similarityBook, metric.clone(), threshold);
-            executor.execute(worker);
-        }
-        // wait for threads in pool
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            job.submit(worker);
         }
+        // wait for the workers
+        job.join();
         // return result
 
         AMapping mapping = getUriToUriMapping(similarityBook, sourceMap, targetMap, swapped);
@@ -1,16 +1,20 @@
 package org.aksw.limes.core.measures.mapper.string;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.aksw.limes.core.measures.measure.string.TrigramMeasure;
 
@@ -19,6 +23,16 @@ import org.aksw.limes.core.measures.measure.string.TrigramMeasure;
  */
 public class MongeElkanMapper extends AMapper {
 
+    /**
+     * Number of source texts that are compared by one task of the parallel
+     * comparison
+     */
+    private static final int PARTITION_SIZE = 512;
+    /**
+     * Tolerance of the upper bounds for rounding errors
+     */
+    private static final double EPSILON = 1e-9;
+
     // Tokens are divide by space
     private String split = " ";
     // underlying trigram measure provided
@@ -44,82 +58,404 @@ public class MongeElkanMapper extends AMapper {
         if (threshold <= 0) {
             throw new InvalidThresholdException(threshold);
         }
-        Iterator<String> sit = sourceMap.keySet().iterator();
-        double resultDouble;
-        Map<String, Map<String, Double>> similarityBook = new HashMap<>();
-        while (sit.hasNext()) {
-            Iterator<String> tit = targetMap.keySet().iterator();
-            String sourceString = sit.next();
-            HashMap<String, Double> resultB = new HashMap<>();
-            while (tit.hasNext()) {
-                String targetString = tit.next();
-                resultDouble = oneMongeElkan(sourceString.split(split), targetString.split(split), threshold);
-                if (threshold <= resultDouble) {
-                    resultB.put(targetString, resultDouble);
-                }
-            }
-            similarityBook.put(sourceString, resultB);
-        }
-
-        AMapping result = MappingFactory.createDefaultMapping();
-        for (String s : similarityBook.keySet()) {
-            for (String t : similarityBook.get(s).keySet()) {
-                for (String sourceUri : sourceMap.get(s)) {
-                    for (String targetUri : targetMap.get(t)) {
-                        result.add(sourceUri, targetUri, similarityBook.get(s).get(t));
+        return new Join(sourceMap, targetMap, threshold).run();
+    }
+
+    /**
+     * The working state of a single run. All texts are tokenized once and the
+     * tokens are encoded as ints, each with the sorted ids of its trigrams.
+     * The trigram "  " is contained in every non-empty token, so it is left
+     * out of the index and only counted. The index maps each trigram to the
+     * target tokens that contain it, and each target token to the target
+     * texts that contain it.
+     * <p>
+     * A source token that shares no indexed trigram with a target token has
+     * a similarity of at most 2 / (|source token| + |smallest target token|)
+     * with it. For each source text, the index yields the exact similarities
+     * of its tokens with all target tokens that share indexed trigrams, from
+     * which an upper bound of the score of each target text is derived. Only
+     * the target texts whose bound reaches the threshold are compared. The
+     * source texts only read the index, so they are processed in parallel
+     * over partitions.
+     */
+    private class Join {
+
+        private final Map<String, Set<String>> sourceMap;
+        private final Map<String, Set<String>> targetMap;
+        private final double threshold;
+        private final Map<String, Integer> tokenIds = new HashMap<>();
+        private final Map<String, Integer> trigramIds = new HashMap<>();
+        private final List<int[]> tokenTrigrams = new ArrayList<>();
+        private final List<Boolean> tokenEmpty = new ArrayList<>();
+        private String[] sourceTexts;
+        private int[][] sourceTokens;
+        private String[] targetTexts;
+        private int[][] targetTokens;
+        private int[][] trigramPostings;
+        private int[][] tokenPostings;
+        private int[] trigramCounts;
+        private boolean[] empty;
+        private int minTargetTokenSize = Integer.MAX_VALUE;
+        private final ConcurrentLinkedQueue<Accumulator> accumulators = new ConcurrentLinkedQueue<>();
+
+        Join(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap, double threshold) {
+            this.sourceMap = sourceMap;
+            this.targetMap = targetMap;
+            this.threshold = threshold;
+        }
+
+        AMapping run() {
+            sourceTexts = sourceMap.keySet().toArray(new String[sourceMap.size()]);
+            targetTexts = targetMap.keySet().toArray(new String[targetMap.size()]);
+            sourceTokens = tokenize(sourceTexts);
+            targetTokens = tokenize(targetTexts);
+            buildIndex();
+            int partitions = (sourceTexts.length + PARTITION_SIZE - 1) / PARTITION_SIZE;
+            List<AMapping> results = LinkingExecutor.map("MongeElkan", partitions, this::compare);
+            AMapping result = MappingFactory.createResultMapping();
+            for (AMapping partial : results) {
+                for (Map.Entry<String, HashMap<String, Double>> entry : partial.getMap().entrySet()) {
+                    for (Map.Entry<String, Double> link : entry.getValue().entrySet()) {
+                        result.add(entry.getKey(), link.getKey(), link.getValue());
+                    }
+                }
+            }
+            return result;
+        }
+
+        private int[][] tokenize(String[] texts) {
+            int[][] tokens = new int[texts.length][];
+            for (int i = 0; i < texts.length; i++) {
+                String[] split = texts[i].split(MongeElkanMapper.this.split);
+                tokens[i] = new int[split.length];
+                for (int j = 0; j < split.length; j++) {
+                    tokens[i][j] = getTokenId(split[j]);
+                }
+            }
+            return tokens;
+        }
+
+        private int getTokenId(String token) {
+            Integer id = tokenIds.get(token);
+            if (id == null) {
+                id = tokenIds.size();
+                tokenIds.put(token, id);
+                // the trigrams as computed by the trigram measure
+                TreeSet<String> trigrams = trigram.getTrigrams("  " + token + "  ");
+                trigrams.remove("  ");
+                int[] encoded = new int[trigrams.size()];
+                int k = 0;
+                for (String t : trigrams) {
+                    Integer trigramId = trigramIds.get(t);
+                    if (trigramId == null) {
+                        trigramId = trigramIds.size();
+                        trigramIds.put(t, trigramId);
                     }
+                    encoded[k++] = trigramId;
                 }
+                Arrays.sort(encoded);
+                tokenTrigrams.add(encoded);
+                tokenEmpty.add(token.isEmpty());
             }
+            return id;
         }
-        return result;
-    }
 
-    /*
-     * compare one text with another
-     */
-    private double oneMongeElkan(String[] sourceToken, String[] targetToken, double threshold) {
-        double simB = 0;
-        double result = 0;
-        float maxNumber = sourceToken.length;
-        /*
-         * the minimum of the result to reach the threshold
+        private void buildIndex() {
+            int tokenCount = tokenIds.size();
+            empty = new boolean[tokenCount];
+            trigramCounts = new int[tokenCount];
+            for (int t = 0; t < tokenCount; t++) {
+                empty[t] = tokenEmpty.get(t);
+                // the trigram "  " is only missing in the set of the empty
+                // token
+                trigramCounts[t] = tokenTrigrams.get(t).length + (empty[t] ? 0 : 1);
+            }
+            // distinct tokens of each target text
+            int[] tokenSizes = new int[tokenCount];
+            boolean[] isTargetToken = new boolean[tokenCount];
+            int[][] distinct = new int[targetTokens.length][];
+            for (int i = 0; i < targetTokens.length; i++) {
+                distinct[i] = Arrays.stream(targetTokens[i]).distinct().toArray();
+                for (int t : distinct[i]) {
+                    tokenSizes[t]++;
+                    isTargetToken[t] = true;
+                }
+            }
+            tokenPostings = new int[tokenCount][];
+            for (int t = 0; t < tokenCount; t++) {
+                tokenPostings[t] = new int[tokenSizes[t]];
+            }
+            Arrays.fill(tokenSizes, 0);
+            for (int i = 0; i < distinct.length; i++) {
+                for (int t : distinct[i]) {
+                    tokenPostings[t][tokenSizes[t]++] = i;
+                }
+            }
+            int[] trigramSizes = new int[trigramIds.size()];
+            for (int t = 0; t < tokenCount; t++) {
+                if (isTargetToken[t] && !empty[t]) {
+                    minTargetTokenSize = Math.min(minTargetTokenSize, trigramCounts[t]);
+                    for (int g : tokenTrigrams.get(t)) {
+                        trigramSizes[g]++;
+                    }
+                }
+            }
+            trigramPostings = new int[trigramSizes.length][];
+            for (int g = 0; g < trigramSizes.length; g++) {
+                trigramPostings[g] = new int[trigramSizes[g]];
+            }
+            Arrays.fill(trigramSizes, 0);
+            for (int t = 0; t < tokenCount; t++) {
+                if (isTargetToken[t] && !empty[t]) {
+                    for (int g : tokenTrigrams.get(t)) {
+                        trigramPostings[g][trigramSizes[g]++] = t;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the highest similarity of a source token with the target
+         *         tokens that share no indexed trigram with it
          */
-        float treshMin = (float) (maxNumber * threshold);
-        for (String sourceString : sourceToken) {// ein a
-            double maxSim = 0;
-            for (String targetString : targetToken) {// ein b
-                double sim = tokenSim(sourceString, targetString);
-                if (maxSim < sim) {
-                    maxSim = sim;
-                }
-                if (maxSim == 1) {
-                    break;
+        private double getBaseSimilarity(int token) {
+            if (empty[token]) {
+                return 1d;
+            }
+            if (minTargetTokenSize == Integer.MAX_VALUE) {
+                return 0d;
+            }
+            return 2d / ((double) trigramCounts[token] + minTargetTokenSize);
+        }
+
+        /**
+         * Compares the source texts of a partition with the target texts.
+         *
+         * @param partition
+         *            Index of the partition
+         * @return the links found for the source texts of the partition
+         */
+        private AMapping compare(int partition) {
+            AMapping mapping = MappingFactory.createDefaultMapping();
+            Accumulator accumulator = accumulators.poll();
+            if (accumulator == null) {
+                accumulator = new Accumulator(tokenPostings.length, targetTexts.length);
+            }
+            int end = Math.min(sourceTexts.length, (partition + 1) * PARTITION_SIZE);
+            for (int i = partition * PARTITION_SIZE; i < end; i++) {
+                int[] tokens = sourceTokens[i];
+                if (tokens.length == 0) {
+                    continue;
+                }
+                double minimum = tokens.length * threshold - EPSILON;
+                double baseSum = 0;
+                for (int token : tokens) {
+                    baseSum += getBaseSimilarity(token);
+                }
+                if (baseSum >= minimum) {
+                    // no target text can be pruned
+                    for (int j = 0; j < targetTexts.length; j++) {
+                        verify(i, j, mapping);
+                    }
+                    continue;
+                }
+                int[] distinct = tokens.clone();
+                Arrays.sort(distinct);
+                for (int d = 0; d < distinct.length; d++) {
+                    int token = distinct[d];
+                    int multiplicity = 1;
+                    while (d + 1 < distinct.length && distinct[d + 1] == token) {
+                        multiplicity++;
+                        d++;
+                    }
+                    if (!empty[token]) {
+                        accumulate(token, multiplicity, accumulator);
+                    }
+                }
+                for (int c = 0; c < accumulator.candidateCount; c++) {
+                    int j = accumulator.candidates[c];
+                    if (baseSum + accumulator.bounds[j] >= minimum) {
+                        verify(i, j, mapping);
+                    }
+                }
+                accumulator.clear();
+            }
+            accumulators.add(accumulator);
+            return mapping;
+        }
+
+        /**
+         * Raises the bounds of the target texts by the exact similarities of
+         * a source token with the target tokens that share indexed trigrams.
+         */
+        private void accumulate(int token, int multiplicity, Accumulator accumulator) {
+            for (int g : tokenTrigrams.get(token)) {
+                for (int t : trigramPostings[g]) {
+                    accumulator.countTrigram(t);
+                }
+            }
+            for (int k = 0; k < accumulator.tokenCount; k++) {
+                int t = accumulator.tokens[k];
+                double sim = 2 * (double) (accumulator.overlaps[t] + 1)
+                        / (trigramCounts[token] + trigramCounts[t]);
+                for (int j : tokenPostings[t]) {
+                    accumulator.maximize(j, sim);
+                }
+            }
+            double base = getBaseSimilarity(token);
+            for (int k = 0; k < accumulator.textCount; k++) {
+                int j = accumulator.texts[k];
+                accumulator.raiseBound(j, multiplicity * (Math.max(accumulator.maxima[j], base) - base));
+            }
+            accumulator.clearToken();
+        }
+
+        private void verify(int i, int j, AMapping mapping) {
+            double sim = oneMongeElkan(sourceTokens[i], targetTokens[j], threshold);
+            if (threshold <= sim) {
+                for (String sourceUri : sourceMap.get(sourceTexts[i])) {
+                    for (String targetUri : targetMap.get(targetTexts[j])) {
+                        mapping.add(sourceUri, targetUri, sim);
+                    }
                 }
             }
-            maxNumber -= 1 - maxSim;
+        }
+
+        /*
+         * compare one text with another
+         */
+        private double oneMongeElkan(int[] sourceToken, int[] targetToken, double threshold) {
+            double simB = 0;
+            double result = 0;
+            float maxNumber = sourceToken.length;
             /*
-             * add 0.0001 for rounding errors. if the similarity of all source
-             * tokens with the target tokens don't reach the minimum threshold,
-             * there are no result, so break the algorithm.
+             * the minimum of the result to reach the threshold
              */
-            if (treshMin > maxNumber + 0.0001) {
-                result = 0;
-                break;
+            float treshMin = (float) (maxNumber * threshold);
+            for (int sourceString : sourceToken) {// ein a
+                double maxSim = 0;
+                for (int targetString : targetToken) {// ein b
+                    double sim = tokenSim(sourceString, targetString);
+                    if (maxSim < sim) {
+                        maxSim = sim;
+                    }
+                    if (maxSim == 1) {
+                        break;
+                    }
+                }
+                maxNumber -= 1 - maxSim;
+                /*
+                 * add 0.0001 for rounding errors. if the similarity of all
+                 * source tokens with the target tokens don't reach the minimum
+                 * threshold, there are no result, so break the algorithm.
+                 */
+                if (treshMin > maxNumber + 0.0001) {
+                    result = 0;
+                    break;
+                }
+                simB += maxSim;
+            }
+            if (simB != 0) {
+                result = simB / sourceToken.length;
             }
-            simB += maxSim;
+            return result;
         }
-        if (simB != 0) {
-            result = simB / sourceToken.length;
+
+        /*
+         * use the Trigramm Algorithm to compare the tokens
+         */
+        private double tokenSim(int tokenA, int tokenB) {
+            if (empty[tokenA] || empty[tokenB]) {
+                return empty[tokenA] && empty[tokenB] ? 1.0 : 0.0;
+            }
+            int[] a = tokenTrigrams.get(tokenA);
+            int[] b = tokenTrigrams.get(tokenB);
+            // both contain the trigram "  "
+            int counter = 1;
+            for (int x = 0, y = 0; x < a.length && y < b.length;) {
+                if (a[x] < b[y]) {
+                    x++;
+                } else if (a[x] > b[y]) {
+                    y++;
+                } else {
+                    counter++;
+                    x++;
+                    y++;
+                }
+            }
+            return 2 * (double) counter / (trigramCounts[tokenA] + trigramCounts[tokenB]);
         }
-        return result;
     }
 
-    /*
-     * use the Trigramm Algorithm to compare the tokens
+    /**
+     * Accumulates the trigram overlaps of one source token with the target
+     * tokens, the highest similarity of the token in each target text and the
+     * bounds of the target texts of one source text. It is reused for all
+     * source texts that one worker compares, and only the entries that were
+     * touched are reset.
      */
-    private double tokenSim(String tokenA, String tokenB) {
-        double result = trigram.getSimilarity(tokenA, tokenB);
-        return result;
+    private static class Accumulator {
+
+        private final int[] overlaps;
+        private final int[] tokens;
+        private int tokenCount = 0;
+        private final double[] maxima;
+        private final int[] texts;
+        private int textCount = 0;
+        private final double[] bounds;
+        private final boolean[] isCandidate;
+        private final int[] candidates;
+        private int candidateCount = 0;
+
+        Accumulator(int tokenCount, int targetCount) {
+            overlaps = new int[tokenCount];
+            tokens = new int[tokenCount];
+            maxima = new double[targetCount];
+            texts = new int[targetCount];
+            bounds = new double[targetCount];
+            isCandidate = new boolean[targetCount];
+            candidates = new int[targetCount];
+        }
+
+        void countTrigram(int token) {
+            if (overlaps[token]++ == 0) {
+                tokens[tokenCount++] = token;
+            }
+        }
+
+        void maximize(int text, double sim) {
+            if (maxima[text] == 0) {
+                texts[textCount++] = text;
+            }
+            maxima[text] = Math.max(maxima[text], sim);
+        }
+
+        void raiseBound(int text, double delta) {
+            if (!isCandidate[text]) {
+                isCandidate[text] = true;
+                candidates[candidateCount++] = text;
+            }
+            bounds[text] += delta;
+        }
+
+        void clearToken() {
+            for (int k = 0; k < tokenCount; k++) {
+                overlaps[tokens[k]] = 0;
+            }
+            tokenCount = 0;
+            for (int k = 0; k < textCount; k++) {
+                maxima[texts[k]] = 0;
+            }
+            textCount = 0;
+        }
+
+        void clear() {
+            for (int c = 0; c < candidateCount; c++) {
+                bounds[candidates[c]] = 0;
+                isCandidate[candidates[c]] = false;
+            }
+            candidateCount = 0;
+        }
     }
 
     @Override
@@ -146,4 +482,4 @@ public class MongeElkanMapper extends AMapper {
     public double getMappingSizeApproximation(int sourceSize, int targetSize, double theta, Language language) {
         return 1000d;
     }
-}
\ No newline at end of file
+}
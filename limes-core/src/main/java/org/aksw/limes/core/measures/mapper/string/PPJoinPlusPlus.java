@@ -7,18 +7,19 @@ package org.aksw.limes.core.measures.mapper.string;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.IndexCache;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.measures.measure.MeasureFactory;
 import org.aksw.limes.core.measures.measure.MeasureType;
 import org.aksw.limes.core.measures.measure.string.IStringMeasure;
@@ -34,28 +35,6 @@ import algorithms.ppjoinplus.Record;
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  */
 
-class Position {
-
-    Record record = null;
-    int position = -1;
-
-    public Position(Record record, int position) {
-        this.record = record;
-        this.position = position;
-    }
-}
-
-class CandidateInfo {
-
-    int currentOverlap = -1;
-    int alpha = -1;
-
-    public CandidateInfo(int currentOverlap, int alpha) {
-        this.currentOverlap = currentOverlap;
-        this.alpha = alpha;
-    }
-}
-
 class PartitionResult {
 
     int l = -1;
@@ -107,6 +86,11 @@ public class PPJoinPlusPlus extends AMapper {
 
     static Logger logger = LoggerFactory.getLogger(PPJoinPlusPlus.class);
     private static final int MAX_DEPTH = 2;
+    /**
+     * Number of records that are probed by one task of the parallel probe
+     * phase.
+     */
+    private static final int PARTITION_SIZE = 512;
 
     /**
      * Berechnet die Überlappung zwischen zwei Datensätzen mithilfe ihrer Tokens
@@ -340,13 +324,10 @@ public class PPJoinPlusPlus extends AMapper {
             double threshold) {
 
         AMapping mapping;
-        HashMap<Integer, String> sourceMap;
-        HashMap<Integer, String> targetMap;
         IStringMeasure measure = null;
         if (threshold <= 0) {
             throw new InvalidThresholdException(threshold);
         }
-        mapping = MappingFactory.createDefaultMapping();
         // logger.info("Starting PPJoinPlus");
 
         String property1 = null, property2 = null;
@@ -412,216 +393,348 @@ public class PPJoinPlusPlus extends AMapper {
                     "Expression " + expression + " was given to a mapper to process");
         }
 
+        final String sourceProperty = property1, targetProperty = property2;
+        Tokenization tokenization = IndexCache.get("ppjoin|" + property1 + "|" + property2,
+                () -> tokenize(source, sourceProperty, target, targetProperty), Tokenization::estimateSize, source,
+                target);
+
+        MeasureType type = MeasureFactory.getMeasureType(p.getOperator());
+        measure = (IStringMeasure) MeasureFactory.createMeasure(type);
+        if (measure == null) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Metric is null. Exiting.");
+            throw new RuntimeException();
+        }
+        mapping = new Join(tokenization.records, tokenization.uris, tokenization.sourceCount, measure, threshold)
+                .run();
+
+        AMapping tempMapping = MappingFactory.createResultMapping();
+        mapping.forEachLink((key, value, confidence) -> {
+            if (confidence >= threshold) {
+                tempMapping.add(key, value, confidence);
+            }
+        });
+        mapping = tempMapping;
+        return mapping;
+    }
+
+    private static Tokenization tokenize(ACache source, String property1, ACache target, String property2) {
         // 3.1 fill objects from source in entry
-        // logger.info("Filling objects from source knowledge base.");
-        sourceMap = new HashMap<>();
-        ArrayList<String> uris = source.getAllUris();
+        ArrayList<String> uris = new ArrayList<>();
         ArrayList<String> entries = new ArrayList<>();
-        Instance instance;
-        int counter = 0;
-        for (int i = 0; i < uris.size(); i++) {
-            instance = source.getInstance(uris.get(i));
-            for (String s : instance.getProperty(property1)) {
-                sourceMap.put(counter, uris.get(i));
+        for (String uri : source.getAllUris()) {
+            for (String s : source.getInstance(uri).getProperty(property1)) {
+                uris.add(uri);
                 entries.add(s);
-                counter++;
             }
         }
+        int sourceCount = entries.size();
 
         // 3.2 fill objects from target in entries
-        // logger.info("Filling objects from target knowledge base.");
-        targetMap = new HashMap<Integer, String>();
-        uris = target.getAllUris();
-        for (int i = 0; i < uris.size(); i++) {
-            instance = target.getInstance(uris.get(i));
-            for (String s : instance.getProperty(property2)) {
-                targetMap.put(counter, uris.get(i));
+        for (String uri : target.getAllUris()) {
+            for (String s : target.getInstance(uri).getProperty(property2)) {
+                uris.add(uri);
                 entries.add(s);
-                counter++;
             }
         }
+        return new Tokenization(tokenizer(entries.toArray(new String[entries.size()])),
+                uris.toArray(new String[uris.size()]), sourceCount);
+    }
 
-        String[] entryArray = new String[entries.size()];
-        for (int i = 0; i < entries.size(); i++) {
-            entryArray[i] = entries.get(i);
+    /**
+     * The tokenized values of a source and a target property. The
+     * tokenization only depends on the caches and the properties, so it is
+     * kept in the {@link IndexCache} and reused for all measures and
+     * thresholds. The joins only read it, the prefix lengths of their measure
+     * and threshold are kept in the joins.
+     */
+    private static class Tokenization {
+
+        private final Record[] records;
+        private final String[] uris;
+        private final int sourceCount;
+
+        Tokenization(Record[] records, String[] uris, int sourceCount) {
+            this.records = records;
+            this.uris = uris;
+            this.sourceCount = sourceCount;
         }
 
-        Record[] records = tokenizer(entryArray);
-        HashMap<Integer, LinkedList<Position>> index = new HashMap<Integer, LinkedList<Position>>(); // I
+        long estimateSize() {
+            long bytes = 64 + 8L * uris.length;
+            for (Record record : records) {
+                bytes += 48 + 8L * record.tokens.length;
+            }
+            return bytes;
+        }
+    }
 
-        if (threshold == 0) {
-        } else {
+    /**
+     * The working state of a single PPJoin+ run. The prefix lengths of the
+     * records depend on the measure and the threshold, so they are kept here
+     * by the positions of the records and not in the shared records. The
+     * prefixes of all records are indexed before the probe phase in posting
+     * arrays that hold the positions of the records (in the sort order) and
+     * of the tokens. The probes only read the index, so they run in parallel
+     * over partitions of the records. Each record is only probed against the
+     * records that precede it in the sort order, as in the sequential
+     * algorithm.
+     */
+    private static class Join {
+
+        private final Record[] records;
+        private final String[] uris;
+        private final int sourceCount;
+        private final IStringMeasure measure;
+        private final double threshold;
+        private int[] prefixLengths;
+        private int[] midPrefixes;
+        private int[][] postingRecords;
+        private int[][] postingPositions;
+        private final ConcurrentLinkedQueue<CandidateAccumulator> accumulators = new ConcurrentLinkedQueue<>();
+
+        Join(Record[] records, String[] uris, int sourceCount, IStringMeasure measure, double threshold) {
+            this.records = records;
+            this.uris = uris;
+            this.sourceCount = sourceCount;
+            this.measure = measure;
+            this.threshold = threshold;
         }
 
-        MeasureType type = MeasureFactory.getMeasureType(p.getOperator());
-        measure = (IStringMeasure) MeasureFactory.createMeasure(type);
-        // logger.info("Beginninng comparison per se");
-        if (measure != null) {
-            // logger.info("Using measure " + measure.getName());
-        } else {
-            logger.error(MarkerFactory.getMarker("FATAL"), "Metric is null. Exiting.");
-            throw new RuntimeException();
+        private boolean isSource(int id) {
+            return id < sourceCount;
         }
-        for (int i = 0; i < records.length; i++) {
-            HashMap<Record, CandidateInfo> candidates = new HashMap<Record, CandidateInfo>(); // A
-            Record currentRec = records[i]; // record x
-            int tokensNumber = currentRec.tokens.length; // |x|
-
-            currentRec.prefixLength = measure.getPrefixLength(tokensNumber, threshold);
-            currentRec.midPrefix = measure.getMidLength(tokensNumber, threshold);
-
-            for (int j = 0; j < currentRec.tokens.length && j < currentRec.prefixLength; j++) {
-                Integer tokenID = currentRec.tokens[j].id;
-                LinkedList<Position> l = index.get(tokenID);
-                if (l != null) {
-                    Iterator<Position> iter = l.iterator();
-                    while (iter.hasNext()) {
-                        Position pos = iter.next();
-                        double sizeFilteringThreshold = measure.getSizeFilteringThreshold(tokensNumber, threshold);
-
-                        int tokensNumber2 = pos.record.tokens.length; // |y|
-                        if (tokensNumber2 >= sizeFilteringThreshold) { // size
-                            // filtering
-                            // on |y|
-                            int alpha = measure.getAlpha(tokensNumber, tokensNumber2, threshold);
-                            int ubound = 1 + Math.min(tokensNumber - j - 1, tokensNumber2 - pos.position - 1);
-
-                            CandidateInfo cf = candidates.get(pos.record);
-                            if (cf == null) {
-                                if (ubound >= alpha) {
-                                    // differs from paper because count starts
-                                    // at 0 not 1
-                                    int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - pos.position;
-                                    int H = suffixFilter(currentRec, j + 1, currentRec.tokens.length - 1, pos.record,
-                                            pos.position + 1, pos.record.tokens.length - 1, H_max, 1);
+
+        AMapping run() {
+            buildIndex();
+            int partitions = (records.length + PARTITION_SIZE - 1) / PARTITION_SIZE;
+            List<AMapping> results = LinkingExecutor.map("PPJoinPlusPlus", partitions, this::probe);
+            AMapping mapping = MappingFactory.createResultMapping();
+            for (AMapping result : results) {
+                for (Map.Entry<String, HashMap<String, Double>> entry : result.getMap().entrySet()) {
+                    for (Map.Entry<String, Double> link : entry.getValue().entrySet()) {
+                        mapping.add(entry.getKey(), link.getKey(), link.getValue());
+                    }
+                }
+            }
+            return mapping;
+        }
+
+        private void buildIndex() {
+            int tokenCount = 0;
+            prefixLengths = new int[records.length];
+            midPrefixes = new int[records.length];
+            for (int i = 0; i < records.length; i++) {
+                Record record = records[i];
+                prefixLengths[i] = measure.getPrefixLength(record.tokens.length, threshold);
+                midPrefixes[i] = measure.getMidLength(record.tokens.length, threshold);
+                for (Token token : record.tokens) {
+                    tokenCount = Math.max(tokenCount, token.id + 1);
+                }
+            }
+            int[] sizes = new int[tokenCount];
+            for (int i = 0; i < records.length; i++) {
+                int indexed = getIndexedPrefixLength(i);
+                for (int j = 0; j < indexed; j++) {
+                    sizes[records[i].tokens[j].id]++;
+                }
+            }
+            postingRecords = new int[tokenCount][];
+            postingPositions = new int[tokenCount][];
+            for (int t = 0; t < tokenCount; t++) {
+                postingRecords[t] = new int[sizes[t]];
+                postingPositions[t] = new int[sizes[t]];
+            }
+            Arrays.fill(sizes, 0);
+            for (int i = 0; i < records.length; i++) {
+                int indexed = getIndexedPrefixLength(i);
+                for (int j = 0; j < indexed; j++) {
+                    int t = records[i].tokens[j].id;
+                    postingRecords[t][sizes[t]] = i;
+                    postingPositions[t][sizes[t]] = j;
+                    sizes[t]++;
+                }
+            }
+        }
+
+        private int getIndexedPrefixLength(int record) {
+            return Math.min(records[record].tokens.length, Math.min(prefixLengths[record], midPrefixes[record]));
+        }
+
+        /**
+         * Finds the first posting of a record that passes the size filter.
+         * The records are sorted by their size, hence so are the postings.
+         */
+        private int getFirstPosting(int[] postings, double sizeFilteringThreshold) {
+            int low = 0;
+            int high = postings.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (records[postings[mid]].tokens.length >= sizeFilteringThreshold) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Probes the records of a partition.
+         *
+         * @param partition
+         *            Index of the partition
+         * @return the links found for the records of the partition
+         */
+        private AMapping probe(int partition) {
+            AMapping mapping = MappingFactory.createDefaultMapping();
+            CandidateAccumulator candidates = accumulators.poll(); // A
+            if (candidates == null) {
+                candidates = new CandidateAccumulator(records.length);
+            }
+            int end = Math.min(records.length, (partition + 1) * PARTITION_SIZE);
+            for (int i = partition * PARTITION_SIZE; i < end; i++) {
+                candidates.clear();
+                Record currentRec = records[i]; // record x
+                int tokensNumber = currentRec.tokens.length; // |x|
+                double sizeFilteringThreshold = measure.getSizeFilteringThreshold(tokensNumber, threshold);
+
+                for (int j = 0; j < currentRec.tokens.length && j < prefixLengths[i]; j++) {
+                    int tokenID = currentRec.tokens[j].id;
+                    int[] postings = postingRecords[tokenID];
+                    int[] positions = postingPositions[tokenID];
+                    // size filtering on |y|
+                    for (int k = getFirstPosting(postings, sizeFilteringThreshold); k < postings.length
+                            && postings[k] < i; k++) {
+                        int y = postings[k];
+                        int position = positions[k];
+                        Record yRec = records[y];
+                        // only pairs of a source and a target value can
+                        // lead to links
+                        if (isSource(yRec.id) == isSource(currentRec.id)) {
+                            continue;
+                        }
+                        int tokensNumber2 = yRec.tokens.length; // |y|
+                        int alpha = measure.getAlpha(tokensNumber, tokensNumber2, threshold);
+                        int ubound = 1 + Math.min(tokensNumber - j - 1, tokensNumber2 - position - 1);
+
+                        if (!candidates.contains(y)) {
+                            if (ubound >= alpha) {
+                                // differs from paper because count starts
+                                // at 0 not 1
+                                int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - position;
+                                int H = suffixFilter(currentRec, j + 1, currentRec.tokens.length - 1, yRec,
+                                        position + 1, yRec.tokens.length - 1, H_max, 1);
+                                candidates.add(y, H <= H_max ? 1 : Integer.MIN_VALUE);
+                            }
+                        } else {
+                            int currentOverlap = candidates.overlaps[y];
+                            if (currentOverlap + ubound >= alpha) {
+                                if (currentOverlap == 0) {
+                                    int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - position;
+                                    int H = suffixFilter(currentRec, j + 1, currentRec.tokens.length - 1, yRec,
+                                            position + 1, yRec.tokens.length - 1, H_max, 1);
                                     if (H <= H_max) {
-                                        candidates.put(pos.record, new CandidateInfo(1, alpha));
+                                        candidates.overlaps[y]++; // a++;
                                     } else {
-                                        candidates.put(pos.record, new CandidateInfo(Integer.MIN_VALUE, alpha));
-                                    }
-                                }
-                            } else {
-                                if (cf.currentOverlap + ubound >= alpha) {
-                                    if (cf.currentOverlap == 0) {
-                                        int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - pos.position;
-                                        int H = suffixFilter(currentRec, j + 1, currentRec.tokens.length - 1,
-                                                pos.record, pos.position + 1, pos.record.tokens.length - 1, H_max, 1);
-                                        if (H <= H_max) {
-                                            cf.currentOverlap++; // a++;
-                                        } else {
-                                            cf.currentOverlap = Integer.MIN_VALUE;
-                                        }
-                                    } else {
-                                        cf.currentOverlap++; // a++;
+                                        candidates.overlaps[y] = Integer.MIN_VALUE;
                                     }
                                 } else {
-                                    cf.currentOverlap = 0; // prune candidate
+                                    candidates.overlaps[y]++; // a++;
                                 }
+                            } else {
+                                candidates.overlaps[y] = 0; // prune candidate
                             }
-                        } else {
-                            iter.remove();
                         }
                     }
-
-                    if (j < currentRec.midPrefix) {
-                        l.add(new Position(currentRec, j)); // index the current
-                        // prefix
-                    }
-                } else {
-                    if (j < currentRec.midPrefix) {
-                        LinkedList<Position> temp = new LinkedList<Position>();
-                        temp.add(new Position(currentRec, j));
-                        index.put(tokenID, temp);
-                    }
-                }
-            }
-            verification(currentRec, candidates, mapping, sourceMap, targetMap, measure);
-        }
-        // logger.info("Mapping carried out using " + comparisons + "
-        // comparisons.");
-        AMapping tempMapping = MappingFactory.createDefaultMapping();
-        for (String key : mapping.getMap().keySet()) {
-            for (String value : mapping.getMap().get(key).keySet()) {
-                double confidence = mapping.getConfidence(key, value);
-                if (confidence >= threshold) {
-                    tempMapping.add(key, value, confidence);
                 }
+                verification(i, candidates, mapping);
             }
+            accumulators.add(candidates);
+            return mapping;
         }
-        mapping = tempMapping;
-        return mapping;
-    }
 
-    private int verification(Record currentRec, HashMap<Record, CandidateInfo> candidates, AMapping mapping,
-            HashMap<Integer, String> sourceMap, HashMap<Integer, String> targetMap, IStringMeasure measure) {
-        int count = 0;
-        String id1, id2;
-
-        for (@SuppressWarnings("rawtypes")
-        Map.Entry e : candidates.entrySet()) {
-            CandidateInfo value = (CandidateInfo) e.getValue();
-            if (value.currentOverlap > 0) {
-                Record key = (Record) e.getKey();
-                int overlap = value.currentOverlap;
-                Token wx = currentRec.tokens[currentRec.prefixLength - 1];
+        private void verification(int x, CandidateAccumulator candidates, AMapping mapping) {
+            Record currentRec = records[x];
+            int prefixLength = prefixLengths[x];
+            for (int c = 0; c < candidates.size; c++) {
+                int y = candidates.candidates[c];
+                int currentOverlap = candidates.overlaps[y];
+                Record key = records[y];
+                int midPrefix = midPrefixes[y];
+                if (currentOverlap <= 0) {
+                    continue;
+                }
+                int alpha = measure.getAlpha(currentRec.tokens.length, key.tokens.length, threshold);
+                int overlap = currentOverlap;
+                Token wx = currentRec.tokens[prefixLength - 1];
                 // Token wy = key.tokens[key.prefixLength - 1];
-                Token wy = key.tokens[key.midPrefix - 1];
+                Token wy = key.tokens[midPrefix - 1];
                 int compRes = wx.compareTo(wy);
                 if (compRes < 0) {
-                    int ubound = value.currentOverlap + currentRec.tokens.length - currentRec.prefixLength;
-                    if (ubound >= value.alpha) {
-                        overlap += overlap(currentRec, currentRec.prefixLength, key, value.currentOverlap);
+                    int ubound = currentOverlap + currentRec.tokens.length - prefixLength;
+                    if (ubound >= alpha) {
+                        overlap += overlap(currentRec, prefixLength, key, currentOverlap);
                     }
                 } else if (compRes > 0) {
-                    int ubound = value.currentOverlap + key.tokens.length
-                            - /*
-                               * key.prefixLength
-                               */ key.midPrefix;
-                    if (ubound >= value.alpha) {
-                        overlap += overlap(currentRec, value.currentOverlap, key,
-                                /*
-                                 * key.prefixLength
-                                 */ key.midPrefix);
+                    int ubound = currentOverlap + key.tokens.length - midPrefix;
+                    if (ubound >= alpha) {
+                        overlap += overlap(currentRec, currentOverlap, key, midPrefix);
                     }
                 } else { // Fehler in Pseudocode; dieser Fall falsch behandelt
                     // --> Duplikate fehlen!
-                    int ubound = value.currentOverlap + Math.min(currentRec.tokens.length - currentRec.prefixLength,
-                            key.tokens.length - /*
-                                                 * key.prefixLength
-                                                 */ key.midPrefix);
-                    if (ubound >= value.alpha) {
-                        overlap += overlap(currentRec, currentRec.prefixLength, key,
-                                /*
-                                 * key.prefixLength
-                                 */ key.midPrefix);
+                    int ubound = currentOverlap + Math.min(currentRec.tokens.length - prefixLength,
+                            key.tokens.length - midPrefix);
+                    if (ubound >= alpha) {
+                        overlap += overlap(currentRec, prefixLength, key, midPrefix);
                     }
                 }
-                if (overlap >= value.alpha) {
+                if (overlap >= alpha) {
                     double similarity = measure.getSimilarity(overlap, currentRec.tokens.length, key.tokens.length);
-                    // use border here instead. faster!
-                    if ((sourceMap.containsKey(currentRec.id) && targetMap.containsKey(key.id))) {
-                        id1 = sourceMap.get(currentRec.id);
-                        id2 = targetMap.get(key.id);
-                        // CORRECT
-                        mapping.add(id1, id2, similarity);
-                        // mapping.add(id2, id1, similarity);
-                    } else if (targetMap.containsKey(currentRec.id) && sourceMap.containsKey(key.id)) {
-                        // get uris for ids
-                        {
-                            id1 = sourceMap.get(key.id);
-                            id2 = targetMap.get(currentRec.id);
-
-                            // CORRECT
-                            mapping.add(id1, id2, similarity);
-                            // mapping.add(id2, id1, similarity);
-                        }
-                        count++;
+                    if (isSource(currentRec.id)) {
+                        mapping.add(uris[currentRec.id], uris[key.id], similarity);
+                    } else {
+                        mapping.add(uris[key.id], uris[currentRec.id], similarity);
                     }
                 }
-                // count++;
             }
         }
-        return count;
+    }
+
+    /**
+     * Candidates of the record that is probed, indexed by the positions of the
+     * candidate records. The arrays are reused for all probed records of a
+     * thread, a stamp marks the entries that belong to the current record.
+     */
+    private static class CandidateAccumulator {
+
+        private final int[] stamps;
+        private final int[] overlaps;
+        private int[] candidates = new int[64];
+        private int size = 0;
+        private int stamp = 0;
+
+        CandidateAccumulator(int recordCount) {
+            stamps = new int[recordCount];
+            overlaps = new int[recordCount];
+        }
+
+        void clear() {
+            stamp++;
+            size = 0;
+        }
+
+        boolean contains(int record) {
+            return stamps[record] == stamp;
+        }
+
+        void add(int record, int overlap) {
+            stamps[record] = stamp;
+            overlaps[record] = overlap;
+            if (size == candidates.length) {
+                candidates = Arrays.copyOf(candidates, 2 * size);
+            }
+            candidates[size++] = record;
+        }
     }
 
     public double getRuntimeApproximation(int sourceSize, int targetSize, double threshold, Language language) {
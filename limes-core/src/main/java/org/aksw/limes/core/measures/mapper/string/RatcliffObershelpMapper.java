@@ -6,14 +6,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.aksw.limes.core.measures.mapper.string.triefilter.LengthQuicksort;
 import org.aksw.limes.core.measures.mapper.string.triefilter.TrieFilter;
@@ -56,21 +55,26 @@ public class RatcliffObershelpMapper extends AMapper {
         List<String> properties = PropertyFetcher.getProperties(expression, threshold);
         Map<String, Set<String>> sourceMap = getValueToUriMap(source, properties.get(0));
         Map<String, Set<String>> targetMap = getValueToUriMap(target, properties.get(1));
-        return getMapping(sourceMap, targetMap, threshold);
+        return getMapping(sourceMap, targetMap, getLengthSortedValues(source, properties.get(0)),
+                getLengthSortedValues(target, properties.get(1)), threshold);
     }
 
     protected AMapping getMapping(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap,
             double threshold) {
-        List<String> listA, listB;
-        listA = new ArrayList<>(sourceMap.keySet());
-        listB = new ArrayList<>(targetMap.keySet());
+        List<String> listA = new ArrayList<>(sourceMap.keySet());
+        List<String> listB = new ArrayList<>(targetMap.keySet());
+        LengthQuicksort.sort(listA);
+        LengthQuicksort.sort(listB);
+        return getMapping(sourceMap, targetMap, listA, listB, threshold);
+    }
+
+    private AMapping getMapping(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap,
+            List<String> listA, List<String> listB, double threshold) {
         RatcliffObershelpMeasure metric = new RatcliffObershelpMeasure();
         ConcurrentHashMap<String, Map<String, Double>> similarityBook = new ConcurrentHashMap<>(listA.size(), 1.0f);
         List<String> red, blue;
         red = listA;
         blue = listB;
-        LengthQuicksort.sort(red);
-        LengthQuicksort.sort(blue);
         // red is the list with the longest string
         boolean swapped = false;
         if (red.get(red.size() - 1).length() < blue.get(blue.size() - 1).length()) {
@@ -109,27 +113,17 @@ public class RatcliffObershelpMapper extends AMapper {
             tempPairs.add(m);
         }
 
-        int poolSize = Runtime.getRuntime().availableProcessors();
         if (tempPairs.size() == 0) {
             return MappingFactory.createDefaultMapping();
         }
-        poolSize = poolSize > tempPairs.size() ? tempPairs.size() : poolSize;
 
-        // create thread pool, one thread per partition
-        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
-        // executor = Executors.newFixedThreadPool(1);
+        // one task per partition
+        LinkingExecutor.Job job = LinkingExecutor.newJob(getName());
         for (Pair<List<String>, List<String>> tempPair : tempPairs) {
             Runnable worker = new TrieFilter(tempPair, similarityBook, new RatcliffObershelpMeasure(), threshold);
-            executor.execute(worker);
-        }
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            job.submit(worker);
         }
+        job.join();
 
         return getUriToUriMapping(similarityBook, sourceMap, targetMap, swapped);
     }
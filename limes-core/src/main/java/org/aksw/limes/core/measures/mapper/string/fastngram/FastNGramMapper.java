@@ -5,12 +5,13 @@
 
 package org.aksw.limes.core.measures.mapper.string.fastngram;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
@@ -18,7 +19,7 @@ import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
-import org.aksw.limes.core.measures.measure.string.QGramSimilarityMeasure;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
@@ -31,66 +32,14 @@ public class FastNGramMapper extends AMapper {
     static Logger logger = LoggerFactory.getLogger(FastNGramMapper.class);
     static int q = 3;
 
-    public static AMapping compute(Set<String> source, Set<String> target, int q, double threshold) {
-        Index index = new Index(q);
-        double kappa = (1 + threshold) / threshold;
-        QGramSimilarityMeasure sim = new QGramSimilarityMeasure(q);
-        ITokenizer tokenizer = new NGramTokenizer();
-        Map<String, Set<String>> targetTokens = new HashMap<String, Set<String>>();
-        AMapping result = MappingFactory.createDefaultMapping();
-        // index target
-        for (String t : target) {
-            targetTokens.put(t, index.addString(t));
-        }
-        // run similarity computation
-
-        for (String s : source) {
-            Set<Integer> allSizes = index.getAllSizes();
-            Set<String> sourceTokens = tokenizer.tokenize(s, q);
-            double sourceSize = (double) sourceTokens.size();
-            for (int size = (int) Math.ceil(sourceSize * threshold); size <= (int) Math
-                    .floor(sourceSize / threshold); size++) {
-                if (allSizes.contains(size)) {
-                    // maps tokens to strings
-                    Map<String, Set<String>> stringsOfSize = index.getStrings(size);
-                    Map<String, Integer> countMap = new HashMap<String, Integer>();
-                    for (String token : sourceTokens) {
-                        if (stringsOfSize.containsKey(token)) {
-                            // take each string and add it to the count map
-                            Set<String> candidates = stringsOfSize.get(token);
-                            for (String candidate : candidates) {
-                                if (!countMap.containsKey(candidate)) {
-                                    countMap.put(candidate, 0);
-                                }
-                                countMap.put(candidate, countMap.get(candidate) + 1);
-                            }
-                        }
-                    }
-                    // now apply filtering |X \cap Y| \geq \kappa(|X| + |Y|)
-                    for (String candidate : countMap.keySet()) {
-                        double count = (double) countMap.get(candidate);
-                        if (kappa * count >= (sourceSize + size)) {
-                            double similarity = sim.getSimilarity(targetTokens.get(candidate), sourceTokens);
-                            if (similarity >= threshold) {
-                                result.add(s, candidate, similarity);
-                            }
-                        }
-                    }
-                }
-            }
+    /**
+     * Number of source strings that are processed by one task of the parallel
+     * computation
+     */
+    private static final int PARTITION_SIZE = 512;
 
-        }
-        AMapping tempMapping = MappingFactory.createDefaultMapping();
-        for (String key : result.getMap().keySet()) {
-            for (String value : result.getMap().get(key).keySet()) {
-                double confidence = result.getConfidence(key, value);
-                if (confidence >= threshold) {
-                    tempMapping.add(key, value, confidence);
-                }
-            }
-        }
-        result = tempMapping;
-        return result;
+    public static AMapping compute(Set<String> source, Set<String> target, int q, double threshold) {
+        return new Join(target, q, threshold).run(source);
     }
 
     public String getName() {
@@ -187,38 +136,13 @@ public class FastNGramMapper extends AMapper {
         }
 
         /////////////////// This actually runs the algorithm
-        Map<String, Set<String>> sourceMap = new HashMap<String, Set<String>>();
-        ArrayList<String> sourceUris = source.getAllUris();
-        Map<String, Set<String>> targetMap = new HashMap<String, Set<String>>();
-        ArrayList<String> targetUris = target.getAllUris();
-
-        // index source values
-        for (String s : sourceUris) {
-            TreeSet<String> values = source.getInstance(s).getProperty(property1);
-            for (String v : values) {
-                if (!sourceMap.containsKey(v)) {
-                    sourceMap.put(v, new HashSet<String>());
-                }
-                sourceMap.get(v).add(s);
-            }
-        }
-
-        // index target values
-        // logger.info("Indexing target values");
-        for (String t : targetUris) {
-            TreeSet<String> values = target.getInstance(t).getProperty(property2);
-            for (String v : values) {
-                if (!targetMap.containsKey(v)) {
-                    targetMap.put(v, new HashSet<String>());
-                }
-                targetMap.get(v).add(t);
-            }
-        }
+        Map<String, Set<String>> sourceMap = getValueToUriMap(source, property1);
+        Map<String, Set<String>> targetMap = getValueToUriMap(target, property2);
 
         // run the algorithm
         // logger.info("Computing mappings");
         AMapping m = FastNGramMapper.compute(sourceMap.keySet(), targetMap.keySet(), q, threshold);
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = MappingFactory.createResultMapping();
         for (String s : m.getMap().keySet()) {
             for (String t : m.getMap().get(s).keySet()) {
                 for (String sourceUri : sourceMap.get(s)) {
@@ -253,4 +177,190 @@ public class FastNGramMapper extends AMapper {
         }
     }
 
+    /**
+     * The working state of a single run. The q-grams of the target strings
+     * are encoded as ints, and the targets are indexed by posting arrays that
+     * are sorted by the number of q-grams of the targets, so that the targets
+     * of the admissible sizes of a source string are a contiguous range of
+     * each posting array. The source strings only read the index, so they
+     * are processed in parallel over partitions.
+     */
+    private static class Join {
+
+        private final int q;
+        private final double threshold;
+        private final double kappa;
+        private final ITokenizer tokenizer = new NGramTokenizer();
+        private final Map<String, Integer> dictionary = new HashMap<String, Integer>();
+        private String[] targets;
+        private int[] targetSizes;
+        private int[][] postings;
+        private final ConcurrentLinkedQueue<OverlapCounter> counters = new ConcurrentLinkedQueue<>();
+
+        Join(Set<String> target, int q, double threshold) {
+            this.q = q;
+            this.threshold = threshold;
+            this.kappa = (1 + threshold) / threshold;
+            buildIndex(target);
+        }
+
+        private void buildIndex(Set<String> target) {
+            String[] strings = target.toArray(new String[target.size()]);
+            int[][] tokens = new int[strings.length][];
+            for (int i = 0; i < strings.length; i++) {
+                Set<String> qGrams = tokenizer.tokenize(strings[i], q);
+                tokens[i] = new int[qGrams.size()];
+                int j = 0;
+                for (String qGram : qGrams) {
+                    Integer id = dictionary.get(qGram);
+                    if (id == null) {
+                        id = dictionary.size();
+                        dictionary.put(qGram, id);
+                    }
+                    tokens[i][j++] = id;
+                }
+            }
+            // number the targets by their size
+            Integer[] order = new Integer[strings.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> tokens[i].length));
+            targets = new String[strings.length];
+            targetSizes = new int[strings.length];
+            int[] postingSizes = new int[dictionary.size()];
+            for (int i = 0; i < order.length; i++) {
+                targets[i] = strings[order[i]];
+                targetSizes[i] = tokens[order[i]].length;
+                for (int id : tokens[order[i]]) {
+                    postingSizes[id]++;
+                }
+            }
+            postings = new int[postingSizes.length][];
+            for (int id = 0; id < postingSizes.length; id++) {
+                postings[id] = new int[postingSizes[id]];
+            }
+            Arrays.fill(postingSizes, 0);
+            for (int i = 0; i < order.length; i++) {
+                for (int id : tokens[order[i]]) {
+                    postings[id][postingSizes[id]++] = i;
+                }
+            }
+        }
+
+        AMapping run(Set<String> source) {
+            String[] sources = source.toArray(new String[source.size()]);
+            int partitions = (sources.length + PARTITION_SIZE - 1) / PARTITION_SIZE;
+            List<AMapping> results = LinkingExecutor.map("FastNGram", partitions,
+                    partition -> compute(sources, partition));
+            AMapping mapping = MappingFactory.createDefaultMapping();
+            for (AMapping result : results) {
+                for (Map.Entry<String, HashMap<String, Double>> entry : result.getMap().entrySet()) {
+                    for (Map.Entry<String, Double> link : entry.getValue().entrySet()) {
+                        mapping.add(entry.getKey(), link.getKey(), link.getValue());
+                    }
+                }
+            }
+            return mapping;
+        }
+
+        /**
+         * Finds the first posting of a target with at least minSize q-grams.
+         */
+        private int getFirstPosting(int[] posting, int minSize) {
+            int low = 0;
+            int high = posting.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (targetSizes[posting[mid]] >= minSize) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Compares the source strings of a partition with the targets.
+         *
+         * @param sources
+         *            All source strings
+         * @param partition
+         *            Index of the partition
+         * @return the links found for the source strings of the partition
+         */
+        private AMapping compute(String[] sources, int partition) {
+            AMapping mapping = MappingFactory.createDefaultMapping();
+            OverlapCounter counter = counters.poll();
+            if (counter == null) {
+                counter = new OverlapCounter(targets.length);
+            }
+            int end = Math.min(sources.length, (partition + 1) * PARTITION_SIZE);
+            for (int i = partition * PARTITION_SIZE; i < end; i++) {
+                Set<String> sourceTokens = tokenizer.tokenize(sources[i], q);
+                int sourceSize = sourceTokens.size();
+                int minSize = (int) Math.ceil(sourceSize * threshold);
+                int maxSize = (int) Math.floor(sourceSize / threshold);
+                for (String token : sourceTokens) {
+                    // q-grams that no target contains do not add to any count
+                    Integer id = dictionary.get(token);
+                    if (id == null) {
+                        continue;
+                    }
+                    int[] posting = postings[id];
+                    for (int k = getFirstPosting(posting, minSize); k < posting.length
+                            && targetSizes[posting[k]] <= maxSize; k++) {
+                        counter.increment(posting[k]);
+                    }
+                }
+                // now apply filtering |X \cap Y| \geq \kappa(|X| + |Y|)
+                for (int c = 0; c < counter.size; c++) {
+                    int candidate = counter.candidates[c];
+                    int count = counter.counts[candidate];
+                    int size = targetSizes[candidate];
+                    if (kappa * count >= (sourceSize + size)) {
+                        double similarity = (double) count / ((double) size + sourceSize - count);
+                        if (similarity >= threshold) {
+                            mapping.add(sources[i], targets[candidate], similarity);
+                        }
+                    }
+                }
+                counter.clear();
+            }
+            counters.add(counter);
+            return mapping;
+        }
+    }
+
+    /**
+     * Counts the q-grams that a source string shares with the targets. The
+     * counter is reused for all source strings that one worker processes, and
+     * only the counts of the candidates that were touched are reset.
+     */
+    private static class OverlapCounter {
+
+        private final int[] counts;
+        private final int[] candidates;
+        private int size = 0;
+
+        OverlapCounter(int targetCount) {
+            counts = new int[targetCount];
+            candidates = new int[targetCount];
+        }
+
+        void increment(int target) {
+            if (counts[target]++ == 0) {
+                candidates[size++] = target;
+            }
+        }
+
+        void clear() {
+            for (int c = 0; c < size; c++) {
+                counts[candidates[c]] = 0;
+            }
+            size = 0;
+        }
+    }
+
 }
@@ -0,0 +1,252 @@
+package org.aksw.limes.core.measures.mapper.temporal;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.measures.mapper.IndexCache;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Column of the time stamps of a property of the instances of a cache. Each
+ * value is parsed once into an epoch in milliseconds and the pairs of epoch
+ * and instance are sorted by epoch, so that the instances with a given time
+ * stamp or with time stamps in a given range are found by binary search.
+ * Columns are kept in the {@link IndexCache} and must not be modified.
+ *
+ * @version 1.0
+ */
+public class EpochColumn {
+
+    protected static final Logger logger = LoggerFactory.getLogger(EpochColumn.class);
+
+    /**
+     * Pattern of the time stamps, e.g. 2015-04-22T11:29:51+02:00
+     */
+    public static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ssXXX";
+
+    /**
+     * Format of the time stamps, for writing them
+     */
+    public static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern(PATTERN);
+
+    // SimpleDateFormat is not thread-safe
+    private static final ThreadLocal<SimpleDateFormat> PARSER = ThreadLocal
+            .withInitial(() -> new SimpleDateFormat(PATTERN));
+
+    /**
+     * Number of instances that are parsed by one task
+     */
+    private static final int PARTITION_SIZE = 512;
+
+    private final long[] epochs;
+    private final Instance[] instances;
+
+    private EpochColumn(long[] epochs, Instance[] instances) {
+        this.epochs = epochs;
+        this.instances = instances;
+    }
+
+    /**
+     * Returns the column of a property of the instances of a cache.
+     *
+     * @param cache,
+     *            The cache of instances
+     * @param property,
+     *            The property with the time stamps
+     * @return the column
+     */
+    public static EpochColumn get(ACache cache, String property) {
+        return IndexCache.get("epochs|" + property, () -> create(cache, property), EpochColumn::estimateSize,
+                cache);
+    }
+
+    private static EpochColumn create(ACache cache, String property) {
+        List<Instance> all = cache.getAllInstances();
+        int partitions = (all.size() + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        List<EpochColumn> parts = LinkingExecutor.map("epochs", partitions, partition -> {
+            int end = Math.min(all.size(), (partition + 1) * PARTITION_SIZE);
+            long[] epochs = new long[end - partition * PARTITION_SIZE];
+            Instance[] instances = new Instance[epochs.length];
+            int size = 0;
+            for (Instance instance : all.subList(partition * PARTITION_SIZE, end)) {
+                for (String value : instance.getProperty(property)) {
+                    try {
+                        long epoch = parse(value);
+                        if (size == epochs.length) {
+                            epochs = Arrays.copyOf(epochs, 2 * size);
+                            instances = Arrays.copyOf(instances, 2 * size);
+                        }
+                        epochs[size] = epoch;
+                        instances[size] = instance;
+                        size++;
+                    } catch (DateTimeException e) {
+                        logger.warn("Ignoring malformed time stamp " + value + " of " + instance.getUri());
+                    }
+                }
+            }
+            return new EpochColumn(Arrays.copyOf(epochs, size), Arrays.copyOf(instances, size));
+        });
+        int size = 0;
+        for (EpochColumn part : parts) {
+            size += part.size();
+        }
+        long[] epochs = new long[size];
+        Instance[] instances = new Instance[size];
+        int offset = 0;
+        for (EpochColumn part : parts) {
+            System.arraycopy(part.epochs, 0, epochs, offset, part.size());
+            System.arraycopy(part.instances, 0, instances, offset, part.size());
+            offset += part.size();
+        }
+        int[] order = sortedOrder(epochs, size);
+        long[] sortedEpochs = new long[size];
+        Instance[] sortedInstances = new Instance[size];
+        for (int i = 0; i < size; i++) {
+            sortedEpochs[i] = epochs[order[i]];
+            sortedInstances[i] = instances[order[i]];
+        }
+        return new EpochColumn(sortedEpochs, sortedInstances);
+    }
+
+    /**
+     * Parses a time stamp of the form {@link #PATTERN} leniently, as the
+     * temporal measures do. Fields may have fewer digits than the pattern,
+     * e.g. 2015-4-2T8:5:3+02:00, and fields out of their range roll over
+     * into the next field. Text after the time stamp is ignored.
+     *
+     * @param value,
+     *            The time stamp
+     * @return the epoch of the time stamp in milliseconds
+     * @throws DateTimeException
+     *             if the value is no time stamp
+     */
+    public static long parse(String value) throws DateTimeException {
+        try {
+            return PARSER.get().parse(value).getTime();
+        } catch (ParseException e) {
+            throw new DateTimeException("Malformed time stamp " + value, e);
+        }
+    }
+
+    /**
+     * Sorts the positions of the first values of an array by their values.
+     * Positions with equal values keep their order.
+     *
+     * @param values,
+     *            The values
+     * @param size,
+     *            Number of values to sort
+     * @return the positions in the order of their values
+     */
+    public static int[] sortedOrder(long[] values, int size) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.parallelSort(order, Comparator.comparingLong(i -> values[i]));
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    /**
+     * @param values,
+     *            Sorted values
+     * @param value,
+     *            The value to search for
+     * @return the position of the first value that is not lower than value
+     */
+    public static int lowerBound(long[] values, long value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param values,
+     *            Sorted values
+     * @param value,
+     *            The value to search for
+     * @return the position of the first value that is higher than value
+     */
+    public static int upperBound(long[] values, long value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param epoch,
+     *            The epoch to search for
+     * @return the position of the first time stamp that is not lower than
+     *         epoch
+     */
+    public int lowerBound(long epoch) {
+        return lowerBound(epochs, epoch);
+    }
+
+    /**
+     * @param epoch,
+     *            The epoch to search for
+     * @return the position of the first time stamp that is higher than epoch
+     */
+    public int upperBound(long epoch) {
+        return upperBound(epochs, epoch);
+    }
+
+    /**
+     * @return the number of time stamps
+     */
+    public int size() {
+        return epochs.length;
+    }
+
+    /**
+     * @param position,
+     *            Position in the column
+     * @return the epoch of the time stamp at the position
+     */
+    public long getEpoch(int position) {
+        return epochs[position];
+    }
+
+    /**
+     * @param position,
+     *            Position in the column
+     * @return the instance of the time stamp at the position
+     */
+    public Instance getInstance(int position) {
+        return instances[position];
+    }
+
+    private long estimateSize() {
+        return 64 + 12L * epochs.length;
+    }
+}
@@ -0,0 +1,309 @@
+package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
+
+import java.time.DateTimeException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.IndexCache;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
+import org.aksw.limes.core.measures.mapper.temporal.EpochColumn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes Allen's temporal relations as joins of intervals. Each relation is
+ * a conjunction of comparisons between the begin or end of a source event and
+ * the begin or end of a target event, e.g. "After" is b(s) &gt; e(t). The
+ * begin and end dates of the events of a cache are parsed once into columns
+ * of epochs, which are kept in the {@link IndexCache}, and the target events
+ * are sorted by their begin and by their end dates. For each source event,
+ * the comparisons with the begin and with the end of the targets are turned
+ * into ranges of the sorted targets by binary search. Only the targets in the
+ * smaller range are compared with the remaining comparisons. The source
+ * events are processed in parallel.
+ * <p>
+ * As the temporal measures, the join compares the events by their first
+ * begin and end date that can be parsed. Events without a date that is needed
+ * by a comparison are not linked.
+ *
+ * @version 1.0
+ */
+public class IntervalJoin {
+
+    protected static final Logger logger = LoggerFactory.getLogger(IntervalJoin.class);
+
+    /**
+     * The begin date of an event
+     */
+    public static final int BEGIN = 0;
+    /**
+     * The end date of an event
+     */
+    public static final int END = 1;
+
+    /**
+     * Number of source events that are processed by one task
+     */
+    private static final int PARTITION_SIZE = 512;
+
+    /**
+     * Comparison between a date of a source event and a date of a target
+     * event.
+     */
+    public static class Condition {
+
+        private final int sourceDate;
+        private final int comparison;
+        private final int targetDate;
+
+        private Condition(int sourceDate, int comparison, int targetDate) {
+            this.sourceDate = sourceDate;
+            this.comparison = comparison;
+            this.targetDate = targetDate;
+        }
+
+        private boolean holds(long source, long target) {
+            return Long.signum(Long.compare(source, target)) == comparison;
+        }
+    }
+
+    /**
+     * @param sourceDate,
+     *            {@link #BEGIN} or {@link #END} of the source event
+     * @param targetDate,
+     *            {@link #BEGIN} or {@link #END} of the target event
+     * @return the condition that the source date is lower than the target
+     *         date
+     */
+    public static Condition lower(int sourceDate, int targetDate) {
+        return new Condition(sourceDate, -1, targetDate);
+    }
+
+    /**
+     * @param sourceDate,
+     *            {@link #BEGIN} or {@link #END} of the source event
+     * @param targetDate,
+     *            {@link #BEGIN} or {@link #END} of the target event
+     * @return the condition that the source date equals the target date
+     */
+    public static Condition equal(int sourceDate, int targetDate) {
+        return new Condition(sourceDate, 0, targetDate);
+    }
+
+    /**
+     * @param sourceDate,
+     *            {@link #BEGIN} or {@link #END} of the source event
+     * @param targetDate,
+     *            {@link #BEGIN} or {@link #END} of the target event
+     * @return the condition that the source date is higher than the target
+     *         date
+     */
+    public static Condition higher(int sourceDate, int targetDate) {
+        return new Condition(sourceDate, 1, targetDate);
+    }
+
+    /**
+     * Links each source event to the target events for which all conditions
+     * hold.
+     *
+     * @param name,
+     *            Name of the relation, used for logging
+     * @param source,
+     *            The source cache
+     * @param target,
+     *            The target cache
+     * @param expression,
+     *            The metric expression, e.g.
+     *            tmp_after(x.beginDate1|endDate1,y.beginDate2|endDate2)
+     * @param conditions,
+     *            The conditions of the relation
+     * @return a mapping, the resulting mapping
+     * @throws IllegalArgumentException
+     *             if a condition compares an end date that is not declared
+     */
+    public static AMapping getMapping(String name, ACache source, ACache target, String expression,
+            Condition... conditions) throws IllegalArgumentException {
+        Parser p = new Parser(expression, 1.0d);
+        Intervals sources = getIntervals(source, p.getLeftTerm());
+        Intervals targets = getIntervals(target, p.getRightTerm());
+        for (Condition condition : conditions) {
+            if ((condition.sourceDate == END && sources.properties[END] == null)
+                    || (condition.targetDate == END && targets.properties[END] == null)) {
+                throw new IllegalArgumentException();
+            }
+        }
+        int partitions = (sources.uris.length + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        List<AMapping> results = LinkingExecutor.map(name, partitions,
+                partition -> join(sources, targets, conditions, partition));
+        AMapping m = MappingFactory.createResultMapping();
+        for (AMapping partial : results) {
+            for (Map.Entry<String, HashMap<String, Double>> entry : partial.getMap().entrySet()) {
+                m.add(entry.getKey(), entry.getValue());
+            }
+        }
+        return m;
+    }
+
+    private static AMapping join(Intervals sources, Intervals targets, Condition[] conditions, int partition) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        int end = Math.min(sources.uris.length, (partition + 1) * PARTITION_SIZE);
+        for (int i = partition * PARTITION_SIZE; i < end; i++) {
+            if (!isDefined(sources, i, conditions)) {
+                continue;
+            }
+            // the range of the targets sorted by the date with the fewest
+            // candidates
+            int date = -1;
+            int first = 0;
+            int last = 0;
+            for (int d = BEGIN; d <= END; d++) {
+                long[] dates = targets.sortedDates[d];
+                int low = 0;
+                int high = dates.length;
+                boolean constrained = false;
+                for (Condition condition : conditions) {
+                    if (condition.targetDate != d) {
+                        continue;
+                    }
+                    long value = sources.dates[condition.sourceDate][i];
+                    if (condition.comparison <= 0) {
+                        low = Math.max(low, condition.comparison < 0 ? EpochColumn.upperBound(dates, value)
+                                : EpochColumn.lowerBound(dates, value));
+                    }
+                    if (condition.comparison >= 0) {
+                        high = Math.min(high, condition.comparison > 0 ? EpochColumn.lowerBound(dates, value)
+                                : EpochColumn.upperBound(dates, value));
+                    }
+                    constrained = true;
+                }
+                if (constrained && (date < 0 || high - low < last - first)) {
+                    date = d;
+                    first = low;
+                    last = high;
+                }
+            }
+            for (int k = first; k < last; k++) {
+                int j = targets.orders[date][k];
+                if (holds(sources, i, targets, j, conditions, date)) {
+                    m.add(sources.uris[i], targets.uris[j], 1);
+                }
+            }
+        }
+        return m;
+    }
+
+    private static boolean isDefined(Intervals sources, int i, Condition[] conditions) {
+        for (Condition condition : conditions) {
+            if (!sources.defined[condition.sourceDate][i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the conditions that do not compare with the given date of the
+     * target, which hold for all targets of the range.
+     */
+    private static boolean holds(Intervals sources, int i, Intervals targets, int j, Condition[] conditions,
+            int date) {
+        for (Condition condition : conditions) {
+            if (condition.targetDate == date) {
+                continue;
+            }
+            if (!targets.defined[condition.targetDate][j] || !condition.holds(sources.dates[condition.sourceDate][i],
+                    targets.dates[condition.targetDate][j])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Intervals getIntervals(ACache cache, String term) {
+        // term = x.beginDate1|endDate1
+        String properties = term.substring(term.indexOf(".") + 1, term.length());
+        int index = properties.indexOf("|");
+        String begin = index < 0 ? properties : properties.substring(0, index);
+        String end = index < 0 ? null : properties.substring(index + 1, properties.length());
+        return IndexCache.get("intervals|" + properties, () -> new Intervals(cache, begin, end),
+                Intervals::estimateSize, cache);
+    }
+
+    /**
+     * The first begin and end dates of the events of a cache and the orders
+     * of the events by their begin and by their end dates. Events without a
+     * date are left out of the order of this date.
+     */
+    private static class Intervals {
+
+        private final String[] properties;
+        private final String[] uris;
+        private final long[][] dates = new long[2][];
+        private final boolean[][] defined = new boolean[2][];
+        private final int[][] orders = new int[2][];
+        private final long[][] sortedDates = new long[2][];
+
+        Intervals(ACache cache, String begin, String end) {
+            properties = new String[] { begin, end };
+            List<Instance> instances = cache.getAllInstances();
+            uris = new String[instances.size()];
+            for (int i = 0; i < uris.length; i++) {
+                uris[i] = instances.get(i).getUri();
+            }
+            int partitions = (uris.length + PARTITION_SIZE - 1) / PARTITION_SIZE;
+            for (int d = BEGIN; d <= END; d++) {
+                dates[d] = new long[uris.length];
+                defined[d] = new boolean[uris.length];
+            }
+            LinkingExecutor.map("intervals", partitions, partition -> {
+                int last = Math.min(uris.length, (partition + 1) * PARTITION_SIZE);
+                for (int i = partition * PARTITION_SIZE; i < last; i++) {
+                    for (int d = BEGIN; d <= END; d++) {
+                        if (properties[d] == null) {
+                            continue;
+                        }
+                        for (String value : instances.get(i).getProperty(properties[d])) {
+                            try {
+                                dates[d][i] = EpochColumn.parse(value);
+                                defined[d][i] = true;
+                                break;
+                            } catch (DateTimeException e) {
+                                logger.warn("Ignoring malformed time stamp " + value + " of " + uris[i]);
+                            }
+                        }
+                    }
+                }
+                return null;
+            });
+            for (int d = BEGIN; d <= END; d++) {
+                long[] definedDates = new long[uris.length];
+                int[] definedEvents = new int[uris.length];
+                int size = 0;
+                for (int i = 0; i < uris.length; i++) {
+                    if (defined[d][i]) {
+                        definedDates[size] = dates[d][i];
+                        definedEvents[size] = i;
+                        size++;
+                    }
+                }
+                int[] order = EpochColumn.sortedOrder(definedDates, size);
+                orders[d] = new int[size];
+                sortedDates[d] = new long[size];
+                for (int k = 0; k < size; k++) {
+                    orders[d][k] = definedEvents[order[k]];
+                    sortedDates[d][k] = definedDates[order[k]];
+                }
+            }
+        }
+
+        long estimateSize() {
+            return 64 + 50L * uris.length;
+        }
+    }
+}
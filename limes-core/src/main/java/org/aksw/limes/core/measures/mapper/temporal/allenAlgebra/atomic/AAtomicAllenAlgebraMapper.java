@@ -1,8 +1,5 @@
 package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -11,8 +8,8 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.temporal.EpochColumn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,7 +80,7 @@ public abstract class AAtomicAllenAlgebraMapper {
     /**
      * Orders a cache of instances based on their begin date property. For each
      * instance, it retrieves its begin date property, converts its value to an
-     * epoch (string) using the SimpleDateFormat function and places the
+     * epoch using the cached {@link EpochColumn} of the cache and places the
      * instance inside the corresponding set("bucket") of instances.
      * 
      * 
@@ -106,27 +103,16 @@ public abstract class AAtomicAllenAlgebraMapper {
         else
             property = getBeginProperty(p.getRightTerm());
 
-        for (Instance instance : cache.getAllInstances()) {
-            TreeSet<String> time = instance.getProperty(property);
-
-            for (String value : time) {
-                try {
-                    // 2015-04-22T11:29:51+02:00
-                    SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
-                    Date date = df.parse(value);
-                    long epoch = date.getTime();
-                    if (!blocks.containsKey(epoch)) {
-                        Set<String> l = new HashSet<String>();
-                        l.add(instance.getUri());
-                        blocks.put(epoch, l);
-                    } else {
-                        blocks.get(epoch).add(instance.getUri());
-                    }
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                }
+        EpochColumn column = EpochColumn.get(cache, property);
+        for (int i = 0; i < column.size(); i++) {
+            long epoch = column.getEpoch(i);
+            if (!blocks.containsKey(epoch)) {
+                Set<String> l = new HashSet<String>();
+                l.add(column.getInstance(i).getUri());
+                blocks.put(epoch, l);
+            } else {
+                blocks.get(epoch).add(column.getInstance(i).getUri());
             }
-
         }
         return blocks;
     }
@@ -134,7 +120,7 @@ public abstract class AAtomicAllenAlgebraMapper {
     /**
      * Orders a cache of instances based on their end date property. For each
      * instance, it retrieves its end date property, converts its value to an
-     * epoch (string) using the SimpleDateFormat function and places the
+     * epoch using the cached {@link EpochColumn} of the cache and places the
      * instance inside the corresponding set("bucket") of instances.
      * 
      * @param kbType
@@ -159,27 +145,16 @@ public abstract class AAtomicAllenAlgebraMapper {
         else
             property = getEndProperty(p.getRightTerm());
 
-        for (Instance instance : cache.getAllInstances()) {
-            TreeSet<String> time = instance.getProperty(property);
-
-            for (String value : time) {
-                try {
-                    // 2015-04-22T11:29:51+02:00
-                    SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
-                    Date date = df.parse(value);
-                    long epoch = date.getTime();
-                    if (!blocks.containsKey(epoch)) {
-                        Set<String> l = new HashSet<String>();
-                        l.add(instance.getUri());
-                        blocks.put(epoch, l);
-                    } else {
-                        blocks.get(epoch).add(instance.getUri());
-                    }
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                }
+        EpochColumn column = EpochColumn.get(cache, property);
+        for (int i = 0; i < column.size(); i++) {
+            long epoch = column.getEpoch(i);
+            if (!blocks.containsKey(epoch)) {
+                Set<String> l = new HashSet<String>();
+                l.add(column.getInstance(i).getUri());
+                blocks.put(epoch, l);
+            } else {
+                blocks.get(epoch).add(column.getInstance(i).getUri());
             }
-
         }
         return blocks;
     }
@@ -1,5 +1,9 @@
 package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex;
 
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.BEGIN;
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.END;
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.higher;
+
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
@@ -10,7 +14,7 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.BeginEnd;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin;
 
 /**
  * Class for Allen's temporal relation "After".
@@ -89,26 +93,18 @@ public class AfterMapper extends AllenAlgebraMapper {
 
     /**
      * Maps each source instance to a set of target instances that occurred
-     * after the aforementioned source instance, using the BeginEnd atomic Allen
-     * relation.
+     * after the aforementioned source instance. The relation is computed as an
+     * {@link IntervalJoin}.
      *
      * @return a mapping, the resulting mapping
      */
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        
         this.source = source;
         this.target = target;
-        ArrayList<TreeMap<String, Set<String>>> maps = new ArrayList<TreeMap<String, Set<String>>>();
-
-        BeginEnd be = new BeginEnd();
-        // SxT \ (BE0 U BE1)
-        maps.add(be.getConcurrentEvents(source, target, expression));
-        maps.add(be.getPredecessorEvents(source, target, expression));
-
-        AMapping m = getMapping(maps);
-        return m;
+        // SxT \ (BE0 U BE1), i.e. b(s) > e(t)
+        return IntervalJoin.getMapping(getName(), source, target, expression, higher(BEGIN, END));
     }
 
     /**
@@ -1,5 +1,9 @@
 package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex;
 
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.BEGIN;
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.END;
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.lower;
+
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Set;
@@ -9,7 +13,7 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.EndBegin;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin;
 
 /**
  * Class for Allen's temporal relation "Before". 
@@ -64,23 +68,16 @@ public class BeforeMapper extends AllenAlgebraMapper {
 
     /**
      * Maps each source instance to a set of target instances that occurred
-     * before the aforementioned source instance, using the EndBegin atomic
-     * Allen relation.
+     * before the aforementioned source instance. The relation is computed as an
+     * {@link IntervalJoin}.
      *
      * @return a mapping, the resulting mapping
      */
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        
-        ArrayList<TreeMap<String, Set<String>>> maps = new ArrayList<TreeMap<String, Set<String>>>();
-        
-        EndBegin eb = new EndBegin();
-        // EB1
-        maps.add(eb.getPredecessorEvents(source, target, expression));
-
-        AMapping m = getMapping(maps);
-        return m;
+        // EB1, i.e. e(s) < b(t)
+        return IntervalJoin.getMapping(getName(), source, target, expression, lower(END, BEGIN));
     }
 
     /**
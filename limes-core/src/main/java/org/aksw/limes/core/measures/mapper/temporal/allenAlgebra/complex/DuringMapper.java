@@ -1,5 +1,10 @@
 package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex;
 
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.BEGIN;
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.END;
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.higher;
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.lower;
+
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Set;
@@ -10,8 +15,7 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.BeginBegin;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.EndEnd;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin;
 
 /**
  * Class for Allen's temporal relation "During". Given two events X and Y, it
@@ -86,25 +90,18 @@ public class DuringMapper extends AllenAlgebraMapper {
 
     /**
      * Maps each source instance to a set of target instances that occurred
-     * during the aforementioned source instance, using the BeginBegin and
-     * EndEnd atomic Allen relations.
+     * during the aforementioned source instance. The relation is computed as an
+     * {@link IntervalJoin}.
      *
      * @return a mapping, the resulting mapping
      */
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        ArrayList<TreeMap<String, Set<String>>> maps = new ArrayList<TreeMap<String, Set<String>>>();
-        EndEnd ee = new EndEnd();
-        BeginBegin bb = new BeginBegin();
-        // EE1 \ (BB0 U BB1)
-        maps.add(ee.getPredecessorEvents(source, target, expression));
-
-        maps.add(bb.getConcurrentEvents(source, target, expression));
-        maps.add(bb.getPredecessorEvents(source, target, expression));
-
-        AMapping m = getMapping(maps);
-        return m;
+        // EE1 \ (BB0 U BB1), i.e. e(s) < e(t) and b(s) > b(t)
+        return IntervalJoin.getMapping(getName(), source, target, expression,
+                lower(END, END),
+                higher(BEGIN, BEGIN));
     }
 
     /**
@@ -1,5 +1,9 @@
 package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex;
 
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.BEGIN;
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.END;
+import static org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin.equal;
+
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Set;
@@ -10,8 +14,7 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.BeginBegin;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.EndEnd;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.IntervalJoin;
 
 /**
  * Class for Allen's temporal relation "Equals". Given two events X and Y, it
@@ -80,23 +83,18 @@ public class EqualsMapper extends AllenAlgebraMapper {
 
     /**
      * Maps each source instance to a set of target instances that occurred at
-     * the same time as the aforementioned source instance, using the BeginBegin
-     * and EndEnd atomic Allen relations.
+     * the same time as the aforementioned source instance. The relation is computed as an
+     * {@link IntervalJoin}.
      *
      * @return a mapping, the resulting mapping
      */
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        ArrayList<TreeMap<String, Set<String>>> maps = new ArrayList<TreeMap<String, Set<String>>>();
-        EndEnd ee = new EndEnd();
-        BeginBegin bb = new BeginBegin();
-        // BB0 & EE0
-        maps.add(bb.getConcurrentEvents(source, target, expression));
-        maps.add(ee.getConcurrentEvents(source, target, expression));
-
-        AMapping m = getMapping(maps);
-        return m;
+        // BB0 & EE0, i.e. b(s) = b(t) and e(s) = e(t)
+        return IntervalJoin.getMapping(getName(), source, target, expression,
+                equal(BEGIN, BEGIN),
+                equal(END, END));
     }
 
     /**
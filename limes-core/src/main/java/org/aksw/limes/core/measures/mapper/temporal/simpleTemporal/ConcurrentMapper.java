@@ -1,14 +1,9 @@
 package org.aksw.limes.core.measures.mapper.temporal.simpleTemporal;
 
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
-
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.temporal.EpochColumn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,32 +28,22 @@ public class ConcurrentMapper extends SimpleTemporalMapper {
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        AMapping m = MappingFactory.createDefaultMapping();
         Parser p = new Parser(expression, threshold);
-
-        TreeMap<String, Set<Instance>> sources = this.orderByBeginDate(source, expression, "source");
-        TreeMap<String, Set<Instance>> targets = this.orderByBeginDate(target, expression, "target");
         String machineIDSource = this.getSecondProperty(p.getLeftTerm());
         String machineIDTarget = this.getSecondProperty(p.getRightTerm());
+        return getMapping(source, target, expression,
+                (s, t) -> s.getProperty(machineIDSource).equals(t.getProperty(machineIDTarget)));
+    }
 
-        
-        
-        for (Map.Entry<String, Set<Instance>> sourceEntry : sources.entrySet()) {
-            String epochSource = sourceEntry.getKey();
-
-            Set<Instance> targetInstances = targets.get(epochSource);
-            if (targetInstances != null) {
-                Set<Instance> sourceInstances = sourceEntry.getValue();
-                for (Instance i : sourceInstances) {
-                    for (Instance j : targetInstances) {
-                        if (i.getProperty(machineIDSource).equals(j.getProperty(machineIDTarget)))
-                            m.add(i.getUri(), j.getUri(), 1);
-                    }
-                }
-            }
-        }
-
-        return m;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getFirstTarget(EpochColumn targets, long epoch) {
+        int first = targets.lowerBound(epoch);
+        if (first == targets.size() || targets.getEpoch(first) != epoch)
+            return -1;
+        return first;
     }
 
     /**
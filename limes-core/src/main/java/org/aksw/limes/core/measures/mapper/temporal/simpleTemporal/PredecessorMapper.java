@@ -1,13 +1,8 @@
 package org.aksw.limes.core.measures.mapper.temporal.simpleTemporal;
 
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
-
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.temporal.EpochColumn;
 
 /**
  * Implements the predecessor mapper class.
@@ -28,28 +23,19 @@ public class PredecessorMapper extends SimpleTemporalMapper {
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        AMapping m = MappingFactory.createDefaultMapping();
-
-        TreeMap<String, Set<Instance>> sources = this.orderByBeginDate(source, expression, "source");
-        TreeMap<String, Set<Instance>> targets = this.orderByBeginDate(target, expression, "target");
-
-        for (Map.Entry<String, Set<Instance>> sourceEntry : sources.entrySet()) {
-            String epochSource = sourceEntry.getKey();
-
-            String lowerEpoch = targets.lowerKey(epochSource);
-            if (lowerEpoch != null) {
-                Set<Instance> sourceInstances = sourceEntry.getValue();
-                Set<Instance> targetInstances = targets.get(lowerEpoch);
-                for (Instance i : sourceInstances) {
-                    for (Instance j : targetInstances) {
-                        m.add(i.getUri(), j.getUri(), 1);
-                    }
-                }
-            }
-        }
-
-        return m;
+        return getMapping(source, target, expression, (s, t) -> true);
+    }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getFirstTarget(EpochColumn targets, long epoch) {
+        // the last target date that is lower than the source date
+        int previous = targets.lowerBound(epoch) - 1;
+        if (previous < 0)
+            return -1;
+        return targets.lowerBound(targets.getEpoch(previous));
     }
 
     /**
@@ -1,17 +1,18 @@
 package org.aksw.limes.core.measures.mapper.temporal.simpleTemporal;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
+import org.aksw.limes.core.measures.mapper.temporal.EpochColumn;
 
 /**
  * Abstract class of simple temporal relations mapper.
@@ -21,6 +22,11 @@ import org.aksw.limes.core.measures.mapper.AMapper;
  */
 public abstract class SimpleTemporalMapper extends AMapper implements ISimpleTemporalMapper {
 
+    /**
+     * Number of source dates that are processed by one task
+     */
+    private static final int PARTITION_SIZE = 512;
+
     /**
      * Extracts first property (beginDate) from metric expression.
      *
@@ -56,10 +62,9 @@ public abstract class SimpleTemporalMapper extends AMapper implements ISimpleTem
     }
 
     /**
-     * Orders a cache of instances based on their begin date property. For each
-     * instance, it retrieves its begin date property, converts its value to an
-     * epoch (string) using the SimpleDateFormat function and places the
-     * instance inside the corresponding set("bucket") of instances.
+     * Returns the begin dates of the instances of a cache as a sorted column
+     * of epochs. The values of the begin date property are parsed once per
+     * cache and the column is shared with other mappers.
      * 
      * @param cache,
      *            the cache of instances
@@ -68,41 +73,75 @@ public abstract class SimpleTemporalMapper extends AMapper implements ISimpleTem
      * @param kbType,
      *            source or target
      *            
-     * @return blocks, a map of sets with unique begin dates as keys and set of
-     *         instances as values
+     * @return the column of the begin dates
      */
-    protected TreeMap<String, Set<Instance>> orderByBeginDate(ACache cache, String expression, String kbType) {
-
-        TreeMap<String, Set<Instance>> blocks = new TreeMap<String, Set<Instance>>();
+    protected EpochColumn getBeginDates(ACache cache, String expression, String kbType) {
         Parser p = new Parser(expression, 0.0d);
         String property = null;
         if (kbType.equalsIgnoreCase("source"))
             property = getFirstProperty(p.getLeftTerm());
         else
             property = getFirstProperty(p.getRightTerm());
-        for (Instance instance : cache.getAllInstances()) {
-            TreeSet<String> time = instance.getProperty(property);
-            for (String value : time) {
-                try {
-                    // 2015-04-22T11:29:51+02:00
-                    SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
-                    Date date = df.parse(value);
-                    long epoch = date.getTime();
-                    if (!blocks.containsKey(String.valueOf(epoch))) {
-                        Set<Instance> l = new HashSet<Instance>();
-                        l.add(instance);
-                        blocks.put(String.valueOf(epoch), l);
-                    } else {
-                        blocks.get(String.valueOf(epoch)).add(instance);
-                    }
-                } catch (ParseException e) {
-                    e.printStackTrace();
+        return EpochColumn.get(cache, property);
+    }
+
+    /**
+     * Returns the position of the first of the equal target begin dates that
+     * a source begin date is linked to. The source date is linked to all
+     * target dates from this position up to the first higher date.
+     *
+     * @param targets,
+     *            the begin dates of the target instances
+     * @param epoch,
+     *            the source begin date
+     * @return the position, or -1 if the source date is not linked
+     */
+    protected abstract int getFirstTarget(EpochColumn targets, long epoch);
+
+    /**
+     * Links the source instances to the target instances whose begin dates
+     * are selected by {@link #getFirstTarget(EpochColumn, long)} for any of
+     * their begin dates. The source dates are processed in parallel.
+     *
+     * @param source,
+     *            the source cache
+     * @param target,
+     *            the target cache
+     * @param expression,
+     *            the metric expression
+     * @param filter,
+     *            decides whether two instances with linked dates are linked
+     * @return a mapping, the resulting mapping
+     */
+    protected AMapping getMapping(ACache source, ACache target, String expression,
+            BiPredicate<Instance, Instance> filter) {
+        EpochColumn sources = getBeginDates(source, expression, "source");
+        EpochColumn targets = getBeginDates(target, expression, "target");
+        int partitions = (sources.size() + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        List<AMapping> results = LinkingExecutor.map(getName(), partitions, partition -> {
+            AMapping m = MappingFactory.createDefaultMapping();
+            int end = Math.min(sources.size(), (partition + 1) * PARTITION_SIZE);
+            for (int i = partition * PARTITION_SIZE; i < end; i++) {
+                int first = getFirstTarget(targets, sources.getEpoch(i));
+                if (first < 0)
+                    continue;
+                int last = targets.upperBound(targets.getEpoch(first));
+                Instance s = sources.getInstance(i);
+                for (int j = first; j < last; j++) {
+                    Instance t = targets.getInstance(j);
+                    if (filter.test(s, t))
+                        m.add(s.getUri(), t.getUri(), 1);
                 }
             }
-
+            return m;
+        });
+        AMapping m = MappingFactory.createResultMapping();
+        for (AMapping partial : results) {
+            for (Map.Entry<String, HashMap<String, Double>> entry : partial.getMap().entrySet()) {
+                m.add(entry.getKey(), entry.getValue());
+            }
         }
-        return blocks;
-
+        return m;
     }
 
 }
@@ -1,13 +1,8 @@
 package org.aksw.limes.core.measures.mapper.temporal.simpleTemporal;
 
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
-
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.temporal.EpochColumn;
 
 /**
  * Implements the successor mapper class.
@@ -28,27 +23,18 @@ public class SuccessorMapper extends SimpleTemporalMapper {
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        AMapping m = MappingFactory.createDefaultMapping();
-
-        TreeMap<String, Set<Instance>> sources = this.orderByBeginDate(source, expression, "source");
-        TreeMap<String, Set<Instance>> targets = this.orderByBeginDate(target, expression, "target");
-
-        for (Map.Entry<String, Set<Instance>> sourceEntry : sources.entrySet()) {
-            String epochSource = sourceEntry.getKey();
-
-            String higherEpoch = targets.higherKey(epochSource);
-            if (higherEpoch != null) {
-                Set<Instance> sourceInstances = sourceEntry.getValue();
-                Set<Instance> targetInstances = targets.get(higherEpoch);
-                for (Instance i : sourceInstances) {
-                    for (Instance j : targetInstances) {
-                        m.add(i.getUri(), j.getUri(), 1);
-                    }
-                }
-            }
-        }
+        return getMapping(source, target, expression, (s, t) -> true);
+    }
 
-        return m;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getFirstTarget(EpochColumn targets, long epoch) {
+        int higher = targets.upperBound(epoch);
+        if (higher == targets.size())
+            return -1;
+        return higher;
     }
 
     /**
@@ -0,0 +1,628 @@
+package org.aksw.limes.core.measures.measure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+
+import org.aksw.limes.core.exceptions.InvalidThresholdException;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
+import org.aksw.limes.core.measures.mapper.string.EDJoinMapper;
+import org.aksw.limes.core.measures.measure.space.SpaceMeasureFactory;
+import org.aksw.limes.core.measures.measure.string.DoubleMetaphoneMeasure;
+import org.aksw.limes.core.measures.measure.string.IStringMeasure;
+import org.aksw.limes.core.measures.measure.string.JaroMeasure;
+import org.aksw.limes.core.measures.measure.string.KoelnPhoneticMeasure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Implements the compiled form of a metric expression. The expression is
+ * parsed once into a tree of atomic measures and operators, in which the
+ * measure, the property labels and the thresholds of every atomic expression
+ * are already resolved. The similarity of a pair of instances is then
+ * computed without any further parsing. The returned similarities are the
+ * ones of {@link MeasureProcessor#getSimilarity}.
+ *
+ * Atomic expressions are scored on the property values of the two instances
+ * alone, with the similarity their mapper would assign to the pair. For
+ * qgrams, mongeelkan, soundex, exactmatch, jarowinkler, ratcliff and the space
+ * measures computed by HR3Mapper this is the similarity of the measure. For
+ * the measures whose mapper computes a similarity of its own, the pairwise
+ * form of the mapper is used:
+ * <ul>
+ * <li>cosine, jaccard, overlap and trigram: the token overlap of
+ * PPJoinPlusPlus</li>
+ * <li>levenshtein: the edit distance of EDJoin</li>
+ * <li>jaro: the similarity of JaroMapper, which is not rounded to float</li>
+ * <li>doublemeta and koeln: the distance of the phonetic codes</li>
+ * </ul>
+ * Unlike their mappers, jarowinkler and ratcliff also keep the pairs above
+ * the threshold that the trie filter of the mapper drops. Only the measures
+ * without a pairwise form are evaluated by running their mapper on two caches
+ * that only contain the input instances (see {@link MeasureProcessor}): the
+ * point set, resource set, temporal and topological measures, whose mappers
+ * have not been checked to agree with their measures.
+ *
+ * A compiled expression holds no state that changes during evaluation and can
+ * hence be shared by several threads.
+ *
+ * @version 1.0
+ */
+public abstract class CompiledExpression {
+
+    static Logger logger = LoggerFactory.getLogger(CompiledExpression.class);
+
+    private static final String ADD = "ADD";
+    private static final String XOR = "XOR";
+    private static final String MAX = "MAX";
+    private static final String MIN = "MIN";
+    private static final String AND = "AND";
+    private static final String OR = "OR";
+
+    /**
+     * Measure types whose mapper returns the similarity of the corresponding
+     * measure for every pair above the threshold.
+     */
+    private static final EnumSet<MeasureType> MEASURE_CONSISTENT_TYPES = EnumSet.of(MeasureType.QGRAMS,
+            MeasureType.MONGEELKAN, MeasureType.SOUNDEX, MeasureType.EXACTMATCH, MeasureType.JAROWINKLER,
+            MeasureType.RATCLIFF, MeasureType.EUCLIDEAN, MeasureType.MANHATTAN, MeasureType.GEO_ORTHODROMIC,
+            MeasureType.GEO_GREAT_ELLIPTIC);
+
+    /**
+     * Measure types computed by PPJoinPlusPlus.
+     */
+    private static final EnumSet<MeasureType> TOKEN_TYPES = EnumSet.of(MeasureType.COSINE, MeasureType.JACCARD,
+            MeasureType.OVERLAP, MeasureType.TRIGRAM);
+
+    /**
+     * Measure types computed by HR3Mapper.
+     */
+    private static final EnumSet<MeasureType> SPACE_TYPES = EnumSet.of(MeasureType.EUCLIDEAN,
+            MeasureType.MANHATTAN, MeasureType.GEO_ORTHODROMIC, MeasureType.GEO_GREAT_ELLIPTIC);
+
+    /**
+     * Compiles a metric expression.
+     *
+     * @param expression,
+     *            the metric expression
+     * @param threshold,
+     *            the threshold of the expression
+     * @param sourceVar,
+     *            the source variable
+     * @param targetVar,
+     *            the target variable
+     * @return the compiled expression
+     */
+    public static CompiledExpression compile(String expression, double threshold, String sourceVar,
+            String targetVar) {
+        Parser p = new Parser(expression, threshold);
+        if (p.isAtomic()) {
+            return compileAtomic(p, expression, threshold, sourceVar, targetVar);
+        }
+        String operator = p.getOperator();
+        double leftCoefficient = 1.0d, rightCoefficient = 1.0d;
+        if (operator.equalsIgnoreCase(ADD)) {
+            // parsing the coefficients removes them from the terms
+            leftCoefficient = p.getLeftCoefficient();
+            rightCoefficient = p.getRightCoefficient();
+        }
+        CompiledExpression left = compile(p.getLeftTerm(), p.getThreshold1(), sourceVar, targetVar);
+        CompiledExpression right = compile(p.getRightTerm(), p.getThreshold2(), sourceVar, targetVar);
+        return new ComplexExpression(operator, p.getThreshold(), p.getThreshold1(), p.getThreshold2(),
+                leftCoefficient, rightCoefficient, left, right);
+    }
+
+    private static CompiledExpression compileAtomic(Parser p, String expression, double threshold, String sourceVar,
+            String targetVar) {
+        try {
+            MeasureType type = MeasureFactory.getMeasureType(p.getOperator());
+            if (!hasProperties(p, sourceVar)) {
+                logger.error(MarkerFactory.getMarker("FATAL"), "Property values could not be read for " + expression);
+                return new InvalidExpression();
+            }
+            if (threshold <= 0) {
+                throw new InvalidThresholdException(threshold);
+            }
+            List<String> properties = PropertyFetcher.getProperties(expression, threshold);
+            String property1 = properties.get(0), property2 = properties.get(1);
+            if (MEASURE_CONSISTENT_TYPES.contains(type)) {
+                IMeasure measure;
+                if (SPACE_TYPES.contains(type)) {
+                    // HR3Mapper computes all space measures this way
+                    int dimensions = property2.split("\\|").length;
+                    measure = SpaceMeasureFactory.getMeasure(p.getOperator(), dimensions);
+                } else {
+                    measure = MeasureFactory.createMeasure(type);
+                }
+                return new MeasureExpression(measure, property1, property2, threshold);
+            }
+            if (TOKEN_TYPES.contains(type)) {
+                IStringMeasure measure = (IStringMeasure) MeasureFactory.createMeasure(type);
+                return new TokenExpression(measure, property1, property2, threshold);
+            }
+            switch (type) {
+            case LEVENSHTEIN:
+                return new EditDistanceExpression(property1, property2, threshold);
+            case JARO:
+                return new JaroExpression(property1, property2, threshold);
+            case DOUBLEMETA:
+                return new DoubleMetaphoneExpression(property1, property2, threshold);
+            case KOELN:
+                return new KoelnPhoneticExpression(property1, property2, threshold);
+            default:
+                break;
+            }
+            return new MapperExpression(MapperFactory.createMapper(type), expression, threshold, sourceVar,
+                    targetVar);
+        } catch (RuntimeException e) {
+            logger.error("Could not compile " + expression + ": " + e.getMessage());
+            return new InvalidExpression();
+        }
+    }
+
+    /**
+     * Checks whether both the source and the target property of an atomic
+     * expression can be read.
+     */
+    private static boolean hasProperties(Parser p, String sourceVar) {
+        String property1 = null, property2 = null;
+        String[] terms = { "?" + p.getLeftTerm(), "?" + p.getRightTerm() };
+        for (int i = 0; i < terms.length; i++) {
+            if (terms[i].contains(".")) {
+                String var = terms[i].substring(0, terms[i].indexOf("."));
+                String property = terms[i].substring(terms[i].indexOf(".") + 1);
+                if (var.equals(sourceVar)) {
+                    property1 = property;
+                } else {
+                    property2 = property;
+                }
+            } else if (i == 0) {
+                property1 = terms[i];
+            } else {
+                property2 = terms[i];
+            }
+        }
+        return property1 != null && property2 != null;
+    }
+
+    /**
+     * Returns the similarity between two instances.
+     *
+     * @param sourceInstance,
+     *            the source instance
+     * @param targetInstance,
+     *            the target instance
+     * @return the similarity of sourceInstance and targetInstance, or 0 if it
+     *         is below the threshold of the expression
+     */
+    public abstract double getSimilarity(Instance sourceInstance, Instance targetInstance);
+
+    /**
+     * Atomic expression evaluated by its measure.
+     */
+    private static class MeasureExpression extends CompiledExpression {
+
+        private IMeasure measure;
+        private String property1;
+        private String property2;
+        private double threshold;
+
+        MeasureExpression(IMeasure measure, String property1, String property2, double threshold) {
+            this.measure = measure;
+            this.property1 = property1;
+            this.property2 = property2;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            double similarity;
+            try {
+                similarity = measure.getSimilarity(sourceInstance, targetInstance, property1, property2);
+            } catch (RuntimeException e) {
+                logger.debug("Could not compute " + measure.getName() + " for " + sourceInstance.getUri() + " and "
+                        + targetInstance.getUri());
+                return 0;
+            }
+            if (similarity >= threshold)
+                return similarity;
+            else
+                return 0.0d;
+        }
+    }
+
+    /**
+     * Atomic expression evaluated on the property values of the instances.
+     * The similarity of two instances is the maximal similarity of a source
+     * and a target value, as in the mapping of a mapper.
+     */
+    private abstract static class ValueExpression extends CompiledExpression {
+
+        private String property1;
+        private String property2;
+        protected double threshold;
+
+        ValueExpression(String property1, String property2, double threshold) {
+            this.property1 = property1;
+            this.property2 = property2;
+            this.threshold = threshold;
+        }
+
+        /**
+         * @return the similarity of the two values, or 0 if the mapper would
+         *         not link them
+         */
+        protected abstract double getSimilarity(String sourceValue, String targetValue);
+
+        protected double getSimilarity(Set<String> sourceValues, Set<String> targetValues) {
+            double similarity = 0.0d;
+            for (String sourceValue : sourceValues) {
+                for (String targetValue : targetValues) {
+                    double valueSimilarity = getSimilarity(sourceValue, targetValue);
+                    if (valueSimilarity > similarity) {
+                        similarity = valueSimilarity;
+                    }
+                }
+            }
+            return similarity;
+        }
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            double similarity;
+            try {
+                similarity = getSimilarity(sourceInstance.getProperty(property1),
+                        targetInstance.getProperty(property2));
+            } catch (RuntimeException e) {
+                logger.debug("Could not compute the similarity of " + sourceInstance.getUri() + " and "
+                        + targetInstance.getUri());
+                return 0;
+            }
+            if (similarity >= threshold)
+                return similarity;
+            else
+                return 0.0d;
+        }
+    }
+
+    /**
+     * Token based measure, scored on the token multisets of PPJoinPlusPlus.
+     */
+    private static class TokenExpression extends ValueExpression {
+
+        private IStringMeasure measure;
+
+        TokenExpression(IStringMeasure measure, String property1, String property2, double threshold) {
+            super(property1, property2, threshold);
+            this.measure = measure;
+        }
+
+        private static Map<String, Integer> tokenize(String value) {
+            Map<String, Integer> tokens = new HashMap<>();
+            StringTokenizer st = new StringTokenizer(value, " .,?!\t");
+            while (st.hasMoreTokens()) {
+                tokens.merge(st.nextToken(), 1, Integer::sum);
+            }
+            return tokens;
+        }
+
+        private static int size(Map<String, Integer> tokens) {
+            int size = 0;
+            for (int count : tokens.values()) {
+                size += count;
+            }
+            return size;
+        }
+
+        @Override
+        protected double getSimilarity(String sourceValue, String targetValue) {
+            Map<String, Integer> sourceTokens = tokenize(sourceValue);
+            Map<String, Integer> targetTokens = tokenize(targetValue);
+            int overlap = 0;
+            for (Map.Entry<String, Integer> entry : sourceTokens.entrySet()) {
+                Integer count = targetTokens.get(entry.getKey());
+                if (count != null) {
+                    overlap += Math.min(entry.getValue(), count);
+                }
+            }
+            if (overlap == 0) {
+                return 0.0d;
+            }
+            return measure.getSimilarity(overlap, size(sourceTokens), size(targetTokens));
+        }
+    }
+
+    /**
+     * Levenshtein, scored as 1 / (1 + edit distance) like in EDJoin.
+     */
+    private static class EditDistanceExpression extends ValueExpression {
+
+        private double maxDistance;
+
+        EditDistanceExpression(String property1, String property2, double threshold) {
+            super(property1, property2, threshold);
+            this.maxDistance = (1 - threshold) / threshold;
+        }
+
+        @Override
+        protected double getSimilarity(String sourceValue, String targetValue) {
+            if (Math.abs(sourceValue.length() - targetValue.length()) > maxDistance) {
+                return 0.0d;
+            }
+            int ed = EDJoinMapper.editDistance(sourceValue, targetValue);
+            if (ed > maxDistance) {
+                return 0.0d;
+            }
+            return 1.0 / (1 + (double) ed);
+        }
+    }
+
+    /**
+     * Jaro, scored like in JaroMapper.
+     */
+    private static class JaroExpression extends ValueExpression {
+
+        JaroExpression(String property1, String property2, double threshold) {
+            super(property1, property2, threshold);
+        }
+
+        @Override
+        protected double getSimilarity(String sourceValue, String targetValue) {
+            int sourceLength = sourceValue.length(), targetLength = targetValue.length();
+            int halfLength = Math.min(sourceLength, targetLength) / 2;
+            List<Character> sourceMappingCharacters = JaroMeasure.getCommonCharacters(sourceValue, targetValue,
+                    halfLength);
+            List<Character> targetMappingCharacters = JaroMeasure.getCommonCharacters(targetValue, sourceValue,
+                    halfLength);
+            int transpositions = JaroMeasure.getTranspositions(sourceMappingCharacters, targetMappingCharacters);
+            if (transpositions == -1) {
+                return 0.0d;
+            }
+            return ((sourceMappingCharacters.size() / (float) sourceLength)
+                    + (targetMappingCharacters.size() / (float) targetLength)
+                    + (sourceMappingCharacters.size() - transpositions) / (float) sourceMappingCharacters.size())
+                    / 3.0;
+        }
+    }
+
+    /**
+     * Phonetic measure, scored on the distance of the phonetic codes like in
+     * APhoneticMapper. The distance of a target code t to a source code s is
+     * the number of positions i &lt; |t| for which s has no character or a
+     * different one. As in the trie search of the mapper, target codes that
+     * are a proper prefix of another target code are not matched.
+     */
+    private abstract static class PhoneticExpression extends ValueExpression {
+
+        private int maxDistance;
+
+        PhoneticExpression(String property1, String property2, double threshold, int maxDistance) {
+            super(property1, property2, threshold);
+            this.maxDistance = maxDistance;
+        }
+
+        protected abstract List<String> getCodes(String value);
+
+        protected abstract double getSimilarity(int distance, String sourceValue, String targetValue);
+
+        @Override
+        protected double getSimilarity(String sourceValue, String targetValue) {
+            return getSimilarity(Collections.singleton(sourceValue), Collections.singleton(targetValue));
+        }
+
+        @Override
+        protected double getSimilarity(Set<String> sourceValues, Set<String> targetValues) {
+            Map<String, List<String>> targetCodes = new HashMap<>();
+            for (String targetValue : targetValues) {
+                for (String code : getCodes(targetValue)) {
+                    targetCodes.computeIfAbsent(code, c -> new ArrayList<>()).add(targetValue);
+                }
+            }
+            targetCodes.keySet().removeIf(code -> isProperPrefix(code, targetCodes.keySet()));
+            double similarity = 0.0d;
+            for (String sourceValue : sourceValues) {
+                for (String sourceCode : getCodes(sourceValue)) {
+                    for (Map.Entry<String, List<String>> entry : targetCodes.entrySet()) {
+                        int distance = getDistance(sourceCode, entry.getKey());
+                        if (distance > maxDistance) {
+                            continue;
+                        }
+                        for (String targetValue : entry.getValue()) {
+                            double valueSimilarity = getSimilarity(distance, sourceValue, targetValue);
+                            if (valueSimilarity > similarity) {
+                                similarity = valueSimilarity;
+                            }
+                        }
+                    }
+                }
+            }
+            return similarity;
+        }
+
+        private static boolean isProperPrefix(String code, Set<String> codes) {
+            for (String other : codes) {
+                if (other.length() > code.length() && other.startsWith(code)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int getDistance(String sourceCode, String targetCode) {
+            int distance = 0;
+            for (int i = 0; i < targetCode.length(); i++) {
+                if (i >= sourceCode.length() || sourceCode.charAt(i) != targetCode.charAt(i)) {
+                    distance++;
+                }
+            }
+            return distance;
+        }
+    }
+
+    /**
+     * Double metaphone, scored like in DoubleMetaphoneMapper.
+     */
+    private static class DoubleMetaphoneExpression extends PhoneticExpression {
+
+        DoubleMetaphoneExpression(String property1, String property2, double threshold) {
+            super(property1, property2, threshold, 0);
+        }
+
+        @Override
+        protected List<String> getCodes(String value) {
+            return DoubleMetaphoneMeasure.getCode(value);
+        }
+
+        @Override
+        protected double getSimilarity(int distance, String sourceValue, String targetValue) {
+            int length = Math.min(sourceValue.length(), targetValue.length());
+            return 1.0d - (distance / (double) length);
+        }
+    }
+
+    /**
+     * Kölner Phonetik, scored like in KoelnPhoneticMapper.
+     */
+    private static class KoelnPhoneticExpression extends PhoneticExpression {
+
+        KoelnPhoneticExpression(String property1, String property2, double threshold) {
+            super(property1, property2, threshold, (int) Math.floor(4 * (1 - threshold)));
+        }
+
+        @Override
+        protected List<String> getCodes(String value) {
+            return Collections.singletonList(KoelnPhoneticMeasure.getCode(value));
+        }
+
+        @Override
+        protected double getSimilarity(int distance, String sourceValue, String targetValue) {
+            return 1.0d - (distance / (double) sourceValue.length());
+        }
+    }
+
+    /**
+     * Atomic expression without a pairwise form, evaluated by running its
+     * mapper on single-instance caches.
+     */
+    private static class MapperExpression extends CompiledExpression {
+
+        private AMapper mapper;
+        private String expression;
+        private double threshold;
+        private String sourceVar;
+        private String targetVar;
+
+        MapperExpression(AMapper mapper, String expression, double threshold, String sourceVar, String targetVar) {
+            this.mapper = mapper;
+            this.expression = expression;
+            this.threshold = threshold;
+            this.sourceVar = sourceVar;
+            this.targetVar = targetVar;
+        }
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            double similarity = 0.0d;
+            try {
+                ACache source = new MemoryCache();
+                ACache target = new MemoryCache();
+                source.addInstance(sourceInstance);
+                target.addInstance(targetInstance);
+                AMapping m = mapper.getMapping(source, target, sourceVar, targetVar, expression, threshold);
+                similarity = m.getConfidence(sourceInstance.getUri(), targetInstance.getUri());
+            } catch (RuntimeException e) {
+                logger.debug("Could not compute " + expression + " for " + sourceInstance.getUri() + " and "
+                        + targetInstance.getUri());
+                return 0;
+            }
+            if (similarity >= threshold)
+                return similarity;
+            else
+                return 0.0d;
+        }
+    }
+
+    /**
+     * Atomic expression that could not be compiled. Its similarity is always
+     * 0.
+     */
+    private static class InvalidExpression extends CompiledExpression {
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            return 0;
+        }
+    }
+
+    /**
+     * Complex expression consisting of an operator and two sub-expressions.
+     */
+    private static class ComplexExpression extends CompiledExpression {
+
+        private String operator;
+        private double threshold;
+        private double threshold1;
+        private double threshold2;
+        private double leftCoefficient;
+        private double rightCoefficient;
+        private CompiledExpression left;
+        private CompiledExpression right;
+
+        ComplexExpression(String operator, double threshold, double threshold1, double threshold2,
+                double leftCoefficient, double rightCoefficient, CompiledExpression left, CompiledExpression right) {
+            this.operator = operator;
+            this.threshold = threshold;
+            this.threshold1 = threshold1;
+            this.threshold2 = threshold2;
+            this.leftCoefficient = leftCoefficient;
+            this.rightCoefficient = rightCoefficient;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+            double firstChild = left.getSimilarity(sourceInstance, targetInstance);
+            double secondChild = right.getSimilarity(sourceInstance, targetInstance);
+            if (operator.equalsIgnoreCase(MAX) || operator.equalsIgnoreCase(OR) || operator.equalsIgnoreCase(XOR)) {
+                // (s,t) are not part of the union
+                if (firstChild < threshold1 && secondChild < threshold2)
+                    return 0;
+                double maxSimilarity = Math.max(firstChild, secondChild);
+                return maxSimilarity >= threshold ? maxSimilarity : 0;
+            }
+            if (operator.equalsIgnoreCase(MIN) || operator.equalsIgnoreCase(AND)) {
+                // (s,t) are not part of the intersection
+                if (firstChild < threshold1 && secondChild < threshold2)
+                    return 0;
+                double minSimilarity = Math.min(firstChild, secondChild);
+                return minSimilarity >= threshold ? minSimilarity : 0;
+            }
+            if (operator.equalsIgnoreCase(ADD)) {
+                firstChild = leftCoefficient * firstChild;
+                secondChild = rightCoefficient * secondChild;
+                if (firstChild < threshold1 && secondChild < threshold2)
+                    return 0;
+                return firstChild + secondChild >= threshold ? firstChild + secondChild : 0;
+            }
+            // difference: (s,t) must not be part of the right child
+            if (secondChild == 0 && firstChild >= threshold1 && firstChild >= threshold) {
+                return firstChild;
+            }
+            return 0;
+        }
+    }
+}
@@ -136,6 +136,15 @@ public class GeoGreatEllipticMeasure extends ASpaceMeasure {
         return getDistance(lat1, lon1, lat2, lon2);
     }
 
+    /**
+     * Computes the similarity 1/(1+d) of two points given as latitude and
+     * longitude in degrees, where d is their distance in km.
+     */
+    @Override
+    public double getSimilarity(double[] point1, double[] point2) {
+        return 1 / (1 + getDistanceInDegrees(point1[0], point1[1], point2[0], point2[1]));
+    }
+
     @Override
     public double getSimilarity(Instance instance1, Instance instance2, String property1, String property2) {
         String p1[] = property1.split("\\|");
@@ -38,6 +38,15 @@ public class GeoOrthodromicMeasure extends ASpaceMeasure {
         return 1 / (1 + d);
     }
 
+    /**
+     * Computes the similarity of two points given as latitude and longitude,
+     * in the order of {@link #getSimilarity(Object, Object)}.
+     */
+    @Override
+    public double getSimilarity(double[] point1, double[] point2) {
+        return 1 / (1 + distance(point1[0], point1[1], point2[0], point2[1]));
+    }
+
     public static double distance(double lat1, double lon1, double lat2, double lon2) {
         double value1 = Math.pow(Math.sin((lat1 - lat2) / 2.0)* D2R, 2)
                 + Math.cos(lat1 * D2R) * Math.cos(lat2 * D2R) * Math.pow(Math.sin((lon1 - lon2) / 2.0)* D2R, 2);
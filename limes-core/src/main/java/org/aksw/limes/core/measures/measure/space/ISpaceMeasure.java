@@ -14,4 +14,17 @@ public interface ISpaceMeasure extends IMeasure {
     public void setDimension(int n);
 
     public double getThreshold(int dimension, double simThreshold);
+
+    /**
+     * Computes the similarity of two points whose coordinates were parsed
+     * already. The similarity of two instances is the highest similarity of
+     * their points.
+     *
+     * @param point1
+     *            One coordinate per dimension
+     * @param point2
+     *            One coordinate per dimension
+     * @return the similarity of the two points
+     */
+    public double getSimilarity(double[] point1, double[] point2);
 }
@@ -117,8 +117,10 @@ public class Eagle extends ACoreMLAlgorithm {
 
         Integer nGen = (Integer) getParameter(GENERATIONS);
         
+        fitness.evaluate(gp.getGPPopulation());
         for (int gen = 1; gen <= nGen; gen++) {
             gp.evolve();
+            fitness.evaluate(gp.getGPPopulation());
             bestSolutions.add(determineFittest(gp, gen));
         }
 
@@ -144,8 +146,10 @@ public class Eagle extends ACoreMLAlgorithm {
 		
         specifications = new LinkedList<LinkSpecification>();
         logger.info("Start learning");
+        fitness.evaluate(gp.getGPPopulation());
         for (int gen = 1; gen <= nGen; gen++) {
             gp.evolve();
+            fitness.evaluate(gp.getGPPopulation());
             IGPProgram currentBest = determineFittestUnsup(gp, gen);
             LinkSpecification currentBestMetric = getLinkSpecification(currentBest);
             //TODO: save the best LS of each generation
@@ -243,14 +247,14 @@ public class Eagle extends ACoreMLAlgorithm {
         if(trainingData != null) { // supervised
         	
         	FMeasure fm = (FMeasure) getParameter(MEASURE);
-        	fitness = ExpressionFitnessFunction.getInstance(jgapConfig, fm, trainingData);
+        	fitness = new ExpressionFitnessFunction(jgapConfig, fm, trainingData);
         	org.jgap.Configuration.reset();
         	jgapConfig.setFitnessFunction(fitness);
         	
         } else { // unsupervised
         	
         	PseudoFMeasure pfm = (PseudoFMeasure) getParameter(PSEUDO_FMEASURE);
-        	fitness = PseudoFMeasureFitnessFunction.getInstance(jgapConfig, pfm, sourceCache, targetCache);
+        	fitness = new PseudoFMeasureFitnessFunction(jgapConfig, pfm, sourceCache, targetCache);
         	org.jgap.Configuration.reset();
         	jgapConfig.setFitnessFunction(fitness);
         	
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.aksw.limes.core.datastrutures.Tree;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
@@ -13,6 +14,7 @@ import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
 import org.aksw.limes.core.ml.algorithm.classifier.ExtendedClassifier;
 import org.aksw.limes.core.ml.algorithm.wombat.AWombat;
@@ -149,7 +151,7 @@ public class WombatComplete extends AWombat {
         ExtendedRefinementNode bestSolution = findMostPromisingNode(refinementTreeRoot, true).getValue();
         logger.debug("Overall Best Solution: " + bestSolution);
         if (!saveMapping()) {
-            bestSolution.setMap(getMappingOfMetricExpression(bestSolution.getMetricExpression(), refinementTreeRoot));
+            bestSolution.setMap(getMappingOfMetricExpression(bestSolution.getMetricExpression()));
         }
         return bestSolution;
     }
@@ -181,15 +183,20 @@ public class WombatComplete extends AWombat {
      * @author sherif
      */
     private Map<String, AMapping> computeClassifiersDiffPermutations(List<ExtendedClassifier> c) {
-        Map<String, AMapping> diffs = new HashMap<>();
-        for (int i = 0; i < c.size(); i++) {
+        List<Map<String, AMapping>> rows = LinkingExecutor.map("WOMBAT differences", c.size(), i -> {
+            Map<String, AMapping> row = new HashMap<>();
             for (int j = 0; j < c.size(); j++) {
                 if (i != j) {
                     AMapping m = MappingOperations.difference(c.get(i).getMapping(), c.get(j).getMapping());
                     String e = "MINUS(" + c.get(i).getMetricExpression() + "," + c.get(j).getMetricExpression() + ")|0.0";
-                    diffs.put(e, m);
+                    row.put(e, m);
                 }
             }
+            return row;
+        });
+        Map<String, AMapping> diffs = new HashMap<>();
+        for (Map<String, AMapping> row : rows) {
+            diffs.putAll(row);
         }
         return diffs;
     }
@@ -258,6 +265,7 @@ public class WombatComplete extends AWombat {
      */
     private void prune(Tree<ExtendedRefinementNode> t) {
         pruneNodeCount++;
+        removeFromRefinementTree(t);
         //      t.remove();
         t.getValue().setMetricExpression("Pruned");
         t.getValue().setfMeasure(-Double.MAX_VALUE);
@@ -278,7 +286,7 @@ public class WombatComplete extends AWombat {
         List<ExtendedRefinementNode> childrenNodes = refine(node);
         for (ExtendedRefinementNode n : childrenNodes) {
             if (!inRefinementTree(n.getMetricExpression())) {
-                node.addChild(new Tree<ExtendedRefinementNode>(n));
+                addChild(node, new Tree<ExtendedRefinementNode>(n));
             }
         }
         // Add sibling (if any)
@@ -286,7 +294,7 @@ public class WombatComplete extends AWombat {
             List<ExtendedRefinementNode> siblingNodes = createConjunctionsWithDiffNodes(node);
             for (ExtendedRefinementNode n : siblingNodes) {
                 if (!inRefinementTree(n.getMetricExpression())) {
-                    node.getParent().addChild(new Tree<ExtendedRefinementNode>(n));
+                    addChild(node.getParent(), new Tree<ExtendedRefinementNode>(n));
                 }
             }
         }
@@ -310,16 +318,12 @@ public class WombatComplete extends AWombat {
         String nodeMetricExpr = node.getValue().getMetricExpression();
         // is it the root of the tree?
         if (node.getParent() == null) {
-            for (String diffExpr : diffs.keySet()) {
-                AMapping diffMapping = diffs.get(diffExpr);
-                result.add(createNode(diffMapping, diffExpr));
-            }
-            return result;
+            return createNodesForDiffs(diffExpr -> createNode(diffs.get(diffExpr), diffExpr));
         } else if (isAtomic(nodeMetricExpr)) {
             return createDisjunctionsWithDiffNodes(node);
         } else if (isDifference(nodeMetricExpr)) {
             String firstMetricExpr = getSubMetricExpressions(nodeMetricExpr).get(0);
-            AMapping firstMetricExprMapping = getMappingOfMetricExpression(firstMetricExpr, refinementTreeRoot);
+            AMapping firstMetricExprMapping = getMappingOfMetricExpression(firstMetricExpr);
             result.add(createNode(firstMetricExprMapping, firstMetricExpr));
             result.addAll(createDisjunctionsWithDiffNodes(node));
             return result;
@@ -358,14 +362,14 @@ public class WombatComplete extends AWombat {
             }
             childMetricExpr += operator + "(" + childSubMetricExpr.get(0) + "," + childSubMetricExpr.get(1) + ")|0.0";
             if (useDisjunction) {
-                childMap = MappingOperations.intersection(getMappingOfMetricExpression(childSubMetricExpr.get(0), refinementTreeRoot), getMappingOfMetricExpression(childSubMetricExpr.get(1), refinementTreeRoot));
+                childMap = MappingOperations.intersection(getMappingOfMetricExpression(childSubMetricExpr.get(0)), getMappingOfMetricExpression(childSubMetricExpr.get(1)));
             } else {
-                childMap = MappingOperations.union(getMappingOfMetricExpression(childSubMetricExpr.get(0), refinementTreeRoot), getMappingOfMetricExpression(childSubMetricExpr.get(1), refinementTreeRoot));
+                childMap = MappingOperations.union(getMappingOfMetricExpression(childSubMetricExpr.get(0)), getMappingOfMetricExpression(childSubMetricExpr.get(1)));
             }
 
             for (int k = 2; k < childSubMetricExpr.size(); k++) {
                 childMetricExpr = operator + "(" + childMetricExpr + "," + childSubMetricExpr.get(k) + ")|0.0";
-                childMap = MappingOperations.intersection(childMap, getMappingOfMetricExpression(childSubMetricExpr.get(k), refinementTreeRoot));
+                childMap = MappingOperations.intersection(childMap, getMappingOfMetricExpression(childSubMetricExpr.get(k)));
             }
             result.add(createNode(childMap, childMetricExpr));
             childMetricExpr = "";
@@ -380,20 +384,17 @@ public class WombatComplete extends AWombat {
      * @return list of nodes L \cup A_i \ A_j | A_i \in P, A_j \in P, where P is the set if initial classifiers
      */
     private List<ExtendedRefinementNode> createDisjunctionsWithDiffNodes(Tree<ExtendedRefinementNode> node) {
-        List<ExtendedRefinementNode> result = new ArrayList<>();
-        for (String diffExpr : diffs.keySet()) {
-            AMapping diffMapping = diffs.get(diffExpr);
-            String childMetricExpr = "OR(" + node.getValue().getMetricExpression() + "," + diffExpr + ")|0.0";
-            AMapping nodeMaping;
-            if (saveMapping()) {
-                nodeMaping = node.getValue().getMapping();
-            } else {
-                nodeMaping = getMappingOfMetricExpression(node.getValue().getMetricExpression(), refinementTreeRoot);
-            }
-            AMapping childMap = MappingOperations.union(nodeMaping, diffMapping);
-            result.add(createNode(childMap, childMetricExpr));
+        AMapping nodeMaping;
+        if (saveMapping()) {
+            nodeMaping = node.getValue().getMapping();
+        } else {
+            nodeMaping = getMappingOfMetricExpression(node.getValue().getMetricExpression());
         }
-        return result;
+        return createNodesForDiffs(diffExpr -> {
+            String childMetricExpr = "OR(" + node.getValue().getMetricExpression() + "," + diffExpr + ")|0.0";
+            AMapping childMap = MappingOperations.union(nodeMaping, diffs.get(diffExpr));
+            return createNode(childMap, childMetricExpr);
+        });
     }
 
 
@@ -428,60 +429,31 @@ public class WombatComplete extends AWombat {
      * @return list of nodes L \cup A_i \ A_j | A_i \in P, A_j \in P, where P is the set if initial classifiers
      */
     private List<ExtendedRefinementNode> createConjunctionsWithDiffNodes(Tree<ExtendedRefinementNode> node) {
-        List<ExtendedRefinementNode> result = new ArrayList<>();
-        for (String diffExpr : diffs.keySet()) {
-            AMapping diffMapping = diffs.get(diffExpr);
-            AMapping nodeMaping = MappingFactory.createDefaultMapping();
-            if (saveMapping()) {
-                nodeMaping = node.getValue().getMapping();
-            } else {
-                nodeMaping = getMappingOfMetricExpression(node.getValue().getMetricExpression(), refinementTreeRoot);
-            }
-            String childMetricExpr = "AND(" + node.getValue().getMetricExpression() + "," + diffExpr + ")|0.0";
-            AMapping childMap = MappingOperations.intersection(nodeMaping, diffMapping);
-            result.add(createNode(childMap, childMetricExpr));
+        AMapping nodeMaping;
+        if (saveMapping()) {
+            nodeMaping = node.getValue().getMapping();
+        } else {
+            nodeMaping = getMappingOfMetricExpression(node.getValue().getMetricExpression());
         }
-        return result;
+        return createNodesForDiffs(diffExpr -> {
+            String childMetricExpr = "AND(" + node.getValue().getMetricExpression() + "," + diffExpr + ")|0.0";
+            AMapping childMap = MappingOperations.intersection(nodeMaping, diffs.get(diffExpr));
+            return createNode(childMap, childMetricExpr);
+        });
     }
 
     /**
-     * @param metricExpression
-     * @return true if the input metricExpression already contained
-     * in one of the search tree nodes, false otherwise
-     * @author sherif
+     * Creates one node for each of the differences of the initial classifiers
+     * in parallel
+     *
+     * @param nodeCreator creates the node of a difference expression
+     * @return list of the nodes in the order of the differences
      */
-    private boolean inRefinementTree(String metricExpression) {
-        return inRefinementTree(metricExpression, refinementTreeRoot);
+    private List<ExtendedRefinementNode> createNodesForDiffs(Function<String, ExtendedRefinementNode> nodeCreator) {
+        List<String> diffExprs = new ArrayList<>(diffs.keySet());
+        return LinkingExecutor.map("WOMBAT refinement", diffExprs.size(), i -> nodeCreator.apply(diffExprs.get(i)));
     }
 
-    /**
-     * @param metricExpression
-     * @param treeRoot
-     * @return true if the input metricExpression already contained
-     * in one of the search tree nodes, false otherwise
-     * @author sherif
-     */
-    private boolean inRefinementTree(String metricExpression, Tree<ExtendedRefinementNode> treeRoot) {
-        if (treeRoot == null) {
-            return false;
-        }
-        if (treeRoot.getValue().getMetricExpression().equals(metricExpression)) {
-            return true;
-        }
-        if (treeRoot.getchildren() != null) {
-            for (Tree<ExtendedRefinementNode> n : treeRoot.getchildren()) {
-                if (inRefinementTree(metricExpression, n)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-
-
-
-
     /**
      * initiate the refinement tree as a root node  with set of
      * children nodes containing all permutations of x\y
@@ -493,10 +465,9 @@ public class WombatComplete extends AWombat {
     private void createRefinementTreeRoot() {
         ExtendedRefinementNode initialNode = new ExtendedRefinementNode();
         refinementTreeRoot = new Tree<>(null, initialNode, null);
-        for (String diffExpr : diffs.keySet()) {
-            AMapping diffMapping = diffs.get(diffExpr);
-            ExtendedRefinementNode n = createNode(diffMapping, diffExpr);
-            refinementTreeRoot.addChild(new Tree<>(refinementTreeRoot, n, null));
+        clearRefinementTree();
+        for (ExtendedRefinementNode n : createNodesForDiffs(diffExpr -> createNode(diffs.get(diffExpr), diffExpr))) {
+            addChild(refinementTreeRoot, new Tree<>(refinementTreeRoot, n, null));
         }
         if (isVerbose()) {
             System.out.println("Tree size:" + refinementTreeRoot.size());
@@ -568,7 +539,7 @@ public class WombatComplete extends AWombat {
     protected ExtendedRefinementNode createNode(String metricExpr) {
         AMapping map = null;
         if(saveMapping()){
-            map = getMappingOfMetricExpression(metricExpr, refinementTreeRoot);
+            map = getMappingOfMetricExpression(metricExpr);
         }
         return createNode(map, metricExpr);
     }
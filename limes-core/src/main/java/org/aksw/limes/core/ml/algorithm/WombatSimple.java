@@ -14,6 +14,7 @@ import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.mapping.MappingFactory.MappingType;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
 import org.aksw.limes.core.ml.algorithm.classifier.ExtendedClassifier;
 import org.aksw.limes.core.ml.algorithm.eagle.util.PropertyMapping;
@@ -273,21 +274,34 @@ public class WombatSimple extends AWombat {
      * @author sherif
      */
     private void expandNode(Tree<RefinementNode> node) {
-        AMapping map = MappingFactory.createDefaultMapping();
+        List<ExtendedClassifier> others = new ArrayList<>();
         for (ExtendedClassifier c : classifiers) {
+            if (!node.getValue().getMetricExpression().equals(c.getMetricExpression())) { // do not create the same metricExpression again
+                others.add(c);
+            }
+        }
+        // the children of each classifier are computed in parallel and added
+        // in their original order
+        List<List<RefinementNode>> children = LinkingExecutor.map("WOMBAT refinement", others.size(), i -> {
+            ExtendedClassifier c = others.get(i);
+            List<RefinementNode> result = new ArrayList<>();
+            AMapping map = MappingFactory.createDefaultMapping();
             for (LogicOperator op : LogicOperator.values()) {
-                if (!node.getValue().getMetricExpression().equals(c.getMetricExpression())) { // do not create the same metricExpression again
-                    if (op.equals(LogicOperator.AND)) {
-                        map = MappingOperations.intersection(node.getValue().getMapping(), c.getMapping());
-                    } else if (op.equals(LogicOperator.OR)) {
-                        map = MappingOperations.union(node.getValue().getMapping(), c.getMapping());
-                    } else if (op.equals(LogicOperator.MINUS)) {
-                        map = MappingOperations.difference(node.getValue().getMapping(), c.getMapping());
-                    }
-                    String metricExpr = op + "(" + node.getValue().getMetricExpression() + "," + c.getMetricExpression() + ")|0";
-                    RefinementNode child = createNode(map, metricExpr);
-                    node.addChild(new Tree<RefinementNode>(child));
+                if (op.equals(LogicOperator.AND)) {
+                    map = MappingOperations.intersection(node.getValue().getMapping(), c.getMapping());
+                } else if (op.equals(LogicOperator.OR)) {
+                    map = MappingOperations.union(node.getValue().getMapping(), c.getMapping());
+                } else if (op.equals(LogicOperator.MINUS)) {
+                    map = MappingOperations.difference(node.getValue().getMapping(), c.getMapping());
                 }
+                String metricExpr = op + "(" + node.getValue().getMetricExpression() + "," + c.getMetricExpression() + ")|0";
+                result.add(createNode(map, metricExpr));
+            }
+            return result;
+        });
+        for (List<RefinementNode> classifierChildren : children) {
+            for (RefinementNode child : classifierChildren) {
+                addChild(node, new Tree<RefinementNode>(child));
             }
         }
         if (isVerbose()) {
@@ -305,9 +319,10 @@ public class WombatSimple extends AWombat {
     protected void createRefinementTreeRoot() {
         RefinementNode initialNode = new RefinementNode(-Double.MAX_VALUE, MappingFactory.createMapping(MappingType.DEFAULT), "");
         refinementTreeRoot = new Tree<RefinementNode>(null, initialNode, null);
+        clearRefinementTree();
         for (ExtendedClassifier c : classifiers) {
             RefinementNode n = new RefinementNode(c.getfMeasure(), c.getMapping(), c.getMetricExpression());
-            refinementTreeRoot.addChild(new Tree<RefinementNode>(refinementTreeRoot, n, null));
+            addChild(refinementTreeRoot, new Tree<RefinementNode>(refinementTreeRoot, n, null));
         }
         if (isVerbose()) {
             refinementTreeRoot.print();
@@ -30,11 +30,21 @@ import org.slf4j.LoggerFactory;
 public class DecisionTree {
 	protected static Logger logger = LoggerFactory.getLogger(DecisionTree.class);
 
+	/**
+	 * State that is shared by all nodes of a tree. Each tree has its own, so
+	 * that several trees can be learned at the same time.
+	 */
+	private static class Learning {
+		private final Map<String, AMapping> calculatedMappings = new HashMap<>();
+		private final Map<String, AMapping> pathMappings = new HashMap<>();
+		private double totalFMeasure = 0.0;
+		private int maxDepth = 0;
+		private FitnessFunctionDTL fitnessFunction;
+		private PruningFunctionDTL pruningFunction;
+	}
+
 	private final Dragon dtl;
-	private static Map<String, AMapping> calculatedMappings = new HashMap<>();
-	private static Map<String, AMapping> pathMappings = new HashMap<>();
-	public static double totalFMeasure = 0.0;
-	public static int maxDepth = 0;
+	private Learning learning;
 	private static String spaceChar = "︴";
 	private static final String delimiter = "§";
 
@@ -54,16 +64,12 @@ public class DecisionTree {
 	private double pruningConfidence;
 
 	private AMapping refMapping;
-	public static FitnessFunctionDTL fitnessFunction;
-	public static PruningFunctionDTL pruningFunction;
 	private PropertyMapping propertyMapping;
 
 	public DecisionTree(Dragon dtl, ACache sourceCache, ACache targetCache, PseudoFMeasure pseudoFMeasure,
 			double minPropertyCoverage, double propertyLearningRate, double pruningConfidence, AMapping refMapping,
 			PropertyMapping propertyMapping) {
-		calculatedMappings = new HashMap<>();
-		pathMappings = new HashMap<>();
-		totalFMeasure = 0.0;
+		this.learning = new Learning();
 		this.dtl = dtl;
 		this.sourceCache = sourceCache;
 		this.targetCache = targetCache;
@@ -92,20 +98,24 @@ public class DecisionTree {
 		this.root = false;
 		if (parent != null) {
 			this.depth = this.parent.depth + 1;
+			this.learning = parent.learning;
+		} else {
+			// clones take over the state of the tree they are cloned from
+			this.learning = new Learning();
 		}
 		this.refMapping = refMapping;
 		this.propertyMapping = propertyMapping;
 	}
 
 	public DecisionTree buildTree(int maxDepth) {
-		this.classifier = fitnessFunction.getBestClassifier(this);
+		this.classifier = this.learning.fitnessFunction.getBestClassifier(this);
 		if (this.classifier == null) {
 			return null;
 		}
 		if (this.root) {
-			totalFMeasure = this.classifier.getfMeasure();
+			this.learning.totalFMeasure = this.classifier.getfMeasure();
 		} else {
-			if (fitnessFunction.stopCondition(this)) {
+			if (this.learning.fitnessFunction.stopCondition(this)) {
 				return null;
 			}
 		}
@@ -123,7 +133,7 @@ public class DecisionTree {
 	}
 
 	public DecisionTree prune() {
-		int currentDepth = maxDepth;
+		int currentDepth = this.learning.maxDepth;
 		while (currentDepth >= 0) {
 			this.getRootNode().prune(currentDepth);
 			currentDepth--;
@@ -145,7 +155,7 @@ public class DecisionTree {
 		if (this.depth != depth) {
 			return this;
 		}
-		return pruningFunction.pruneChildNodesIfNecessary(this);
+		return this.learning.pruningFunction.pruneChildNodesIfNecessary(this);
 	}
 
 	private DecisionTree getRootNode() {
@@ -166,13 +176,13 @@ public class DecisionTree {
 			assert pathStrings.size() > 0;
 		}
 		AMapping res = MappingFactory.createDefaultMapping();
-		final Iterator<String> it = pathMappings.keySet().iterator();
+		final Iterator<String> it = this.learning.pathMappings.keySet().iterator();
 		while (it.hasNext()) {
 			final String s = it.next();
 			if (!pathStrings.contains(s)) {
 				it.remove();
 			} else {
-				res = MappingOperations.union(pathMappings.get(s), res);
+				res = MappingOperations.union(this.learning.pathMappings.get(s), res);
 			}
 		}
 		return res;
@@ -215,14 +225,14 @@ public class DecisionTree {
 			if (node.root) {
 				final AMapping res = node.classifier.getMapping();
 				final String path = node.getPathString();
-				if (!pathMappings.keySet().contains(path)) {
-					pathMappings.put(path, res);
+				if (!this.learning.pathMappings.keySet().contains(path)) {
+					this.learning.pathMappings.put(path, res);
 				}
 				pathStrings.add(path);
 			} else {
 				final String path = node.getPathString();
-				if (!pathMappings.keySet().contains(path)) {
-					pathMappings.put(path, node.getPathMapping());
+				if (!this.learning.pathMappings.keySet().contains(path)) {
+					this.learning.pathMappings.put(path, node.getPathMapping());
 				}
 				pathStrings.add(path);
 			}
@@ -230,8 +240,8 @@ public class DecisionTree {
 			pathStrings.addAll(this.calculatePathMappings(node.rightChild));
 		} else if (node.leftChild != null && node.rightChild == null) {
 			final String path = node.getPathString();
-			if (!pathMappings.keySet().contains(path)) {
-				pathMappings.put(path, node.getPathMapping());
+			if (!this.learning.pathMappings.keySet().contains(path)) {
+				this.learning.pathMappings.put(path, node.getPathMapping());
 			}
 			pathStrings.add(path);
 			pathStrings.addAll(this.calculatePathMappings(node.leftChild));
@@ -348,6 +358,7 @@ public class DecisionTree {
 			cloned = new DecisionTree(this.dtl, this.sourceCache, this.targetCache, this.pseudoFMeasure,
 					this.minPropertyCoverage, this.pruningConfidence, this.propertyLearningRate, this.refMapping,
 					this.propertyMapping);
+			cloned.learning = this.learning;
 			cloned.classifier = new ExtendedClassifier(this.classifier.getMeasure(), this.classifier.getThreshold(),
 					this.classifier.getSourceProperty(), this.classifier.getTargetProperty());
 			cloned.depth = this.depth;
@@ -386,6 +397,7 @@ public class DecisionTree {
 					this.minPropertyCoverage, this.pruningConfidence, this.propertyLearningRate, null, this.isLeftNode,
 					this.refMapping, this.propertyMapping);
 		}
+		cloned.learning = this.learning;
 		cloned.classifier = new ExtendedClassifier(this.classifier.getMeasure(), this.classifier.getThreshold(),
 				this.classifier.getSourceProperty(), this.classifier.getTargetProperty());
 		cloned.depth = this.depth;
@@ -417,6 +429,7 @@ public class DecisionTree {
 					this.minPropertyCoverage, this.pruningConfidence, this.propertyLearningRate, parentClone,
 					this.isLeftNode, this.refMapping, this.propertyMapping);
 		}
+		cloned.learning = this.learning;
 		cloned.classifier = new ExtendedClassifier(this.classifier.getMeasure(), this.classifier.getThreshold());
 		cloned.depth = this.depth;
 		if (parentClone != null) {
@@ -443,14 +456,14 @@ public class DecisionTree {
 	public AMapping getMeasureMapping(String measureExpression, ExtendedClassifier cp) {
 		if (this.root) {
 			final AMapping mapping = this.executeAtomicMeasure(measureExpression, cp.getThreshold());
-			calculatedMappings.put(cp.getMetricExpression(), mapping);
+			this.learning.calculatedMappings.put(cp.getMetricExpression(), mapping);
 			return mapping;
 		}
 		this.classifier = cp;
-		AMapping classifierMapping = calculatedMappings.get(cp.getMetricExpression());
+		AMapping classifierMapping = this.learning.calculatedMappings.get(cp.getMetricExpression());
 		if (classifierMapping == null) {
 			classifierMapping = this.executeAtomicMeasure(measureExpression, cp.getThreshold());
-			calculatedMappings.put(cp.getMetricExpression(), classifierMapping);
+			this.learning.calculatedMappings.put(cp.getMetricExpression(), classifierMapping);
 		}
 		this.classifier.setMapping(classifierMapping);
 		return this.getTotalMapping();
@@ -461,6 +474,7 @@ public class DecisionTree {
 				-1);
 		final ExecutionEngine ee = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, this.sourceCache,
 				this.targetCache, "?x", "?y");
+		((SimpleExecutionEngine) ee).setRunCache(true);
 		final Plan plan = new Plan();
 		plan.addInstruction(inst);
 		return ((SimpleExecutionEngine) ee).executeInstructions(plan);
@@ -600,4 +614,36 @@ public class DecisionTree {
 		this.propertyMapping = propertyMapping;
 	}
 
+	public FitnessFunctionDTL getFitnessFunction() {
+		return this.learning.fitnessFunction;
+	}
+
+	public void setFitnessFunction(FitnessFunctionDTL fitnessFunction) {
+		this.learning.fitnessFunction = fitnessFunction;
+	}
+
+	public PruningFunctionDTL getPruningFunction() {
+		return this.learning.pruningFunction;
+	}
+
+	public void setPruningFunction(PruningFunctionDTL pruningFunction) {
+		this.learning.pruningFunction = pruningFunction;
+	}
+
+	public int getMaxDepth() {
+		return this.learning.maxDepth;
+	}
+
+	public void setMaxDepth(int maxDepth) {
+		this.learning.maxDepth = maxDepth;
+	}
+
+	public double getTotalFMeasure() {
+		return this.learning.totalFMeasure;
+	}
+
+	public void setTotalFMeasure(double totalFMeasure) {
+		this.learning.totalFMeasure = totalFMeasure;
+	}
+
 }
@@ -69,8 +69,6 @@ public class Dragon extends ACoreMLAlgorithm {
 	private static final int maxLinkSpecHeight = 3;
 	private static final double minPropertyCoverage = 0.6;
 	private static final double propertyLearningRate = 0.95;
-	private static final FitnessFunctionDTL fitnessFunction = new GiniIndex();
-	private static final PruningFunctionDTL pruningFunction = new ErrorEstimatePruning();
 	private AMapping initialMapping = MappingFactory.createDefaultMapping();
 	private AMapping prediction;
 	public DecisionTree root;
@@ -231,9 +229,9 @@ public class Dragon extends ACoreMLAlgorithm {
 				0d, 1d, 0.01d, PARAMETER_MIN_PROPERTY_COVERAGE));
 		learningParameters.add(new LearningParameter(PARAMETER_PROPERTY_LEARNING_RATE, propertyLearningRate,
 				Double.class, 0d, 1d, 0.01d, PARAMETER_PROPERTY_LEARNING_RATE));
-		learningParameters.add(new LearningParameter(PARAMETER_FITNESS_FUNCTION, fitnessFunction,
+		learningParameters.add(new LearningParameter(PARAMETER_FITNESS_FUNCTION, new GiniIndex(),
 				FitnessFunctionDTL.class, new String[]{FITNESS_NAME_GINI_INDEX, FITNESS_NAME_GLOBAL_FMEASURE}, PARAMETER_FITNESS_FUNCTION));
-		learningParameters.add(new LearningParameter(PARAMETER_PRUNING_FUNCTION, pruningFunction,
+		learningParameters.add(new LearningParameter(PARAMETER_PRUNING_FUNCTION, new ErrorEstimatePruning(),
 				PruningFunctionDTL.class, new String[]{PRUNING_NAME_ERROR_ESTIMATE_PRUNING, PRUNING_NAME_GLOBAL_FMEASURE}, PARAMETER_FITNESS_FUNCTION));
 	}
 
@@ -261,11 +259,12 @@ public class Dragon extends ACoreMLAlgorithm {
                     (double) getParameter(PARAMETER_PROPERTY_LEARNING_RATE),
                     (double) getParameter(PARAMETER_PRUNING_CONFIDENCE), trainingData, (PropertyMapping) getParameter(PARAMETER_PROPERTY_MAPPING));
         }
-        DecisionTree.fitnessFunction = (FitnessFunctionDTL) getParameter(PARAMETER_FITNESS_FUNCTION);
-        DecisionTree.fitnessFunction.setPropertyMapping((PropertyMapping) getParameter(PARAMETER_PROPERTY_MAPPING));
-        DecisionTree.pruningFunction = (PruningFunctionDTL) getParameter(PARAMETER_PRUNING_FUNCTION);
-        DecisionTree.fitnessFunction.setDt(root);
-        DecisionTree.maxDepth = (int) getParameter(PARAMETER_MAX_LINK_SPEC_HEIGHT);
+        FitnessFunctionDTL fitnessFunction = (FitnessFunctionDTL) getParameter(PARAMETER_FITNESS_FUNCTION);
+        fitnessFunction.setPropertyMapping((PropertyMapping) getParameter(PARAMETER_PROPERTY_MAPPING));
+        fitnessFunction.setDt(root);
+        root.setFitnessFunction(fitnessFunction);
+        root.setPruningFunction((PruningFunctionDTL) getParameter(PARAMETER_PRUNING_FUNCTION));
+        root.setMaxDepth((int) getParameter(PARAMETER_MAX_LINK_SPEC_HEIGHT));
         root.buildTree((int) getParameter(PARAMETER_MAX_LINK_SPEC_HEIGHT));
         logger.info("FULL:\n" + root.toString());
 
@@ -1,67 +1,133 @@
 package org.aksw.limes.core.ml.algorithm.dragon.FitnessFunctions;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.aksw.limes.core.datastrutures.PairSimilar;
+import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
-import org.aksw.limes.core.measures.measure.MeasureProcessor;
+import org.aksw.limes.core.measures.measure.CompiledExpression;
 import org.aksw.limes.core.ml.algorithm.classifier.ExtendedClassifier;
 import org.aksw.limes.core.ml.algorithm.dragon.DecisionTree;
 import org.aksw.limes.core.ml.algorithm.dragon.Dragon;
-import org.aksw.limes.core.ml.algorithm.dragon.TrainingInstance;
-import org.aksw.limes.core.ml.algorithm.dragon.Utils.InstanceCalculator;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Chooses the split with the lowest weighted Gini index. The similarities of
+ * all training pairs are computed once for every metric into a feature matrix
+ * and each feature column is sorted once, so that a node only has to walk the
+ * sorted columns and count the positive and negative pairs it contains.
+ */
 public class GiniIndex extends FitnessFunctionDTL {
 	protected static Logger logger = LoggerFactory.getLogger(GiniIndex.class);
-	private static List<TrainingInstance> fullInstances;
-	private static List<TrainingInstance> currentInstances;
-	private static Set<Metric> metricExpressions;
+	private static final int PARTITION_SIZE = 256;
+	/**
+	 * Candidate metrics, one feature column each
+	 */
+	private List<Metric> metrics;
+	/**
+	 * Index of each training pair by source and target uri
+	 */
+	private Map<String, Map<String, Integer>> pairIndex;
+	/**
+	 * Class of each training pair
+	 */
+	private boolean[] positive;
+	/**
+	 * Similarity of each training pair for each metric, [metric][pair]
+	 */
+	private double[][] features;
+	/**
+	 * Training pairs sorted ascending by their similarity for each metric
+	 */
+	private int[][] sortedPairs;
 	private AMapping currentMapping;
 	public static boolean middlePoints = false;
 
 	public GiniIndex() {
-		fullInstances = null;
-		currentInstances = null;
-		metricExpressions = null;
+	}
+
+	@Override
+	public void setDt(DecisionTree dt) {
+		super.setDt(dt);
+		this.features = null;
 	}
 
 	private void populateInstances() {
-		metricExpressions = new HashSet<>();
-		fullInstances = new ArrayList<>();
-		for (final String s : this.dt.getRefMapping().getMap().keySet()) {
-			for (final String t : this.dt.getRefMapping().getMap().get(s).keySet()) {
-				final TrainingInstance currentInstance = new TrainingInstance(s, t,
-						this.dt.getRefMapping().getMap().get(s).get(t));
-				for (final PairSimilar<String> propPair : this.propertyMapping.stringPropPairs) {
-					for (final String measure : Dragon.defaultMeasures) {
-						final String metricExpression = measure + "(x." + propPair.a + ",y." + propPair.b + ")";
-						metricExpressions.add(new Metric(propPair.a, propPair.b, metricExpression, measure));
-						if (this.dt.getTargetCache().getInstance(t) != null
-								|| this.dt.getSourceCache().getInstance(s) != null) {
-							currentInstance.getMeasureValues().put(metricExpression,
-									MeasureProcessor.getSimilarity(this.dt.getSourceCache().getInstance(s),
-											this.dt.getTargetCache().getInstance(t), metricExpression,
-											this.dt.getMinPropertyCoverage(), "?x", "?y"));
-						} else {
-							System.err.println("Could not find");
-						}
-					}
+		final Set<Metric> metricExpressions = new LinkedHashSet<>();
+		for (final PairSimilar<String> propPair : this.propertyMapping.stringPropPairs) {
+			for (final String measure : Dragon.defaultMeasures) {
+				final String metricExpression = measure + "(x." + propPair.a + ",y." + propPair.b + ")";
+				metricExpressions.add(new Metric(propPair.a, propPair.b, metricExpression, measure));
+			}
+		}
+		this.metrics = new ArrayList<>(metricExpressions);
+		final List<String> sourceUris = new ArrayList<>();
+		final List<String> targetUris = new ArrayList<>();
+		final AMapping refMapping = this.dt.getRefMapping();
+		this.pairIndex = new HashMap<>();
+		for (final String s : refMapping.getMap().keySet()) {
+			final Map<String, Integer> targets = new HashMap<>();
+			for (final String t : refMapping.getMap().get(s).keySet()) {
+				targets.put(t, sourceUris.size());
+				sourceUris.add(s);
+				targetUris.add(t);
+			}
+			this.pairIndex.put(s, targets);
+		}
+		final int pairs = sourceUris.size();
+		this.positive = new boolean[pairs];
+		for (int i = 0; i < pairs; i++) {
+			this.positive[i] = refMapping.getConfidence(sourceUris.get(i), targetUris.get(i)) > 0.9;
+		}
+		final CompiledExpression[] compiled = new CompiledExpression[this.metrics.size()];
+		for (int m = 0; m < compiled.length; m++) {
+			compiled[m] = CompiledExpression.compile(this.metrics.get(m).metricExpression,
+					this.dt.getMinPropertyCoverage(), "?x", "?y");
+		}
+		final double[][] values = new double[compiled.length][pairs];
+		final int partitions = (pairs + PARTITION_SIZE - 1) / PARTITION_SIZE;
+		LinkingExecutor.map("DRAGON features", partitions, partition -> {
+			final int end = Math.min(pairs, (partition + 1) * PARTITION_SIZE);
+			for (int i = partition * PARTITION_SIZE; i < end; i++) {
+				final Instance source = this.dt.getSourceCache().getInstance(sourceUris.get(i));
+				final Instance target = this.dt.getTargetCache().getInstance(targetUris.get(i));
+				if (source == null || target == null) {
+					logger.warn("Could not find " + sourceUris.get(i) + " or " + targetUris.get(i)
+							+ " in the caches, using similarity 0");
+					continue;
+				}
+				for (int m = 0; m < compiled.length; m++) {
+					values[m][i] = compiled[m].getSimilarity(source, target);
 				}
-				fullInstances.add(currentInstance);
+			}
+			return null;
+		});
+		this.sortedPairs = new int[compiled.length][];
+		for (int m = 0; m < compiled.length; m++) {
+			final double[] column = values[m];
+			final Integer[] order = new Integer[pairs];
+			for (int i = 0; i < pairs; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, Comparator.comparingDouble(i -> column[i]));
+			this.sortedPairs[m] = new int[pairs];
+			for (int i = 0; i < pairs; i++) {
+				this.sortedPairs[m][i] = order[i];
 			}
 		}
-		currentInstances = new ArrayList<>();
-		currentInstances.addAll(fullInstances);
+		this.features = values;
 	}
 
 	private void updateInstances(DecisionTree currentNode) {
@@ -73,7 +139,27 @@ public class GiniIndex extends FitnessFunctionDTL {
 		} else {
 			this.currentMapping = currentNode.getParent().getPathMapping();
 		}
-		currentInstances = this.mappingToTrainingInstance(this.currentMapping);
+	}
+
+	/**
+	 * Marks the training pairs that are contained in the current mapping
+	 *
+	 * @return membership of each training pair
+	 */
+	private boolean[] currentInstances() {
+		final boolean[] contained = new boolean[this.positive.length];
+		for (final String s : this.currentMapping.getMap().keySet()) {
+			final Map<String, Integer> targets = this.pairIndex.get(s);
+			if (targets != null) {
+				for (final String t : this.currentMapping.getMap().get(s).keySet()) {
+					final Integer pair = targets.get(t);
+					if (pair != null) {
+						contained[pair] = true;
+					}
+				}
+			}
+		}
+		return contained;
 	}
 
 	private class Metric {
@@ -118,21 +204,6 @@ public class GiniIndex extends FitnessFunctionDTL {
 		}
 	}
 
-	public class MetricValueComparator implements Comparator<TrainingInstance> {
-
-		public String mE;
-
-		public MetricValueComparator(String metricExpression) {
-			this.mE = metricExpression;
-		}
-
-		@Override
-		public int compare(TrainingInstance o1, TrainingInstance o2) {
-			return o1.getMeasureValues().get(this.mE).compareTo(o2.getMeasureValues().get(this.mE));
-		}
-
-	}
-
 	/**
 	 * 1 - sum of pi²
 	 *
@@ -151,77 +222,101 @@ public class GiniIndex extends FitnessFunctionDTL {
 		return 1 - res;
 	}
 
-	private double avgGini(DecisionTree currentNode, List<TrainingInstance> left, List<TrainingInstance> right) {
-		if (currentNode.getParent() == null) {
-			this.currentMapping = currentNode.getRefMapping();
-		}
-		final double[] leftFraction = InstanceCalculator.getNumberOfPositiveNegativeInstances(left);
-		final double[] rightFraction = InstanceCalculator.getNumberOfPositiveNegativeInstances(right);
-		final double leftAll = leftFraction[0] + leftFraction[1];
-		final double rightAll = rightFraction[0] + rightFraction[1];
+	/**
+	 * @param leftPos
+	 *            positive pairs below the split point
+	 * @param leftNeg
+	 *            negative pairs below the split point
+	 * @param rightPos
+	 *            positive pairs at or above the split point
+	 * @param rightNeg
+	 *            negative pairs at or above the split point
+	 * @return the Gini index of the split weighted by the size of the current
+	 *         mapping
+	 */
+	private double avgGini(double leftPos, double leftNeg, double rightPos, double rightNeg) {
+		final double leftAll = leftPos + leftNeg;
+		final double rightAll = rightPos + rightNeg;
 		final double leftWeight = leftAll / this.currentMapping.size();
 		final double rightWeight = rightAll / this.currentMapping.size();
-		final double avgGini = leftWeight * this.gini(leftFraction[0] / leftAll, leftFraction[1] / leftAll)
-				+ rightWeight * this.gini(rightFraction[0] / rightAll, rightFraction[1] / rightAll);
+		final double avgGini = leftWeight * this.gini(leftPos / leftAll, leftNeg / leftAll)
+				+ rightWeight * this.gini(rightPos / rightAll, rightNeg / rightAll);
 		return avgGini;
 	}
 
 	@Override
 	public ExtendedClassifier getBestClassifier(DecisionTree currentNode) {
-		if (fullInstances == null) {
+		if (this.features == null) {
 			this.populateInstances();
+			this.currentMapping = currentNode.getRefMapping();
 		} else {
 			if (currentNode.getParent() == null) {
 				logger.error("Node has no parent. This should not happen! Returning null");
 				return null;
 			}
 			this.updateInstances(currentNode);
-			if (currentInstances.size() == 0) {
-				return null;
-			}
-			final double[] posNeg = InstanceCalculator.getNumberOfPositiveNegativeInstances(currentInstances);
-			if (posNeg[0] == 0.0 || posNeg[1] == 0.0) {
-				return null;
+		}
+		final boolean[] contained = this.currentInstances();
+		double positives = 0.0;
+		double negatives = 0.0;
+		for (int i = 0; i < contained.length; i++) {
+			if (contained[i]) {
+				if (this.positive[i]) {
+					positives++;
+				} else {
+					negatives++;
+				}
 			}
 		}
+		if (currentNode.getParent() != null && (positives == 0.0 || negatives == 0.0)) {
+			return null;
+		}
 		// get Metric with highest info gain
 		Metric bestMetric = null;
 		double bestGain = 1.0;
 		double bestSplitpoint = 0.0;
-		for (final Metric mE : metricExpressions) {
-			if (currentNode.getParent() == null
-					|| !currentNode.getParent().getPathString().contains(mE.metricExpression)) {
-				Collections.sort(currentInstances, new MetricValueComparator(mE.metricExpression));
-				final ArrayList<TrainingInstance> lessThanI = new ArrayList<>();
-				final ArrayList<TrainingInstance> moreThanEqualsI = new ArrayList<>();
-				moreThanEqualsI.addAll(currentInstances);
-				double oldSplitpoint = 0.0;
-				for (int i = 0; i < currentInstances.size() - 1; i++) {
-					moreThanEqualsI.remove(currentInstances.get(i));
-					lessThanI.add(currentInstances.get(i));
-					// splitpoint is between the two values
-					double splitpoint = 0.0;
-					if (middlePoints) {
-						splitpoint = (currentInstances.get(i).getMeasureValues().get(mE.metricExpression)
-								+ currentInstances.get(i + 1).getMeasureValues().get(mE.metricExpression)) / 2.0;
+		for (int m = 0; m < this.metrics.size(); m++) {
+			final Metric mE = this.metrics.get(m);
+			if (currentNode.getParent() != null
+					&& currentNode.getParent().getPathString().contains(mE.metricExpression)) {
+				continue;
+			}
+			final double[] column = this.features[m];
+			double leftPos = 0.0;
+			double leftNeg = 0.0;
+			int previous = -1;
+			for (final int pair : this.sortedPairs[m]) {
+				if (!contained[pair]) {
+					continue;
+				}
+				if (previous >= 0) {
+					if (this.positive[previous]) {
+						leftPos++;
 					} else {
-						splitpoint = currentInstances.get(i + 1).getMeasureValues().get(mE.metricExpression);
+						leftNeg++;
 					}
-					if (splitpoint != oldSplitpoint) {
-						oldSplitpoint = splitpoint;
-						final double gain = this.avgGini(currentNode, lessThanI, moreThanEqualsI);
+					// pairs with the same similarity cannot be split
+					if (column[previous] != column[pair]) {
+						// splitpoint is between the two values
+						double splitpoint = 0.0;
+						if (middlePoints) {
+							splitpoint = (column[previous] + column[pair]) / 2.0;
+						} else {
+							splitpoint = column[pair];
+						}
+						final double gain = this.avgGini(leftPos, leftNeg, positives - leftPos, negatives - leftNeg);
 						logger.debug("Gain: " + gain + " for " + mE.metricExpression + "|" + splitpoint);
 						if (gain < bestGain) {
 							bestMetric = mE;
 							bestGain = gain;
 							bestSplitpoint = splitpoint;
 						}
-					}
-					if (splitpoint == 1.0) {
-						break;
+						if (splitpoint == 1.0) {
+							break;
+						}
 					}
 				}
-			} else {
+				previous = pair;
 			}
 		}
 		if (bestMetric == null) {
@@ -236,17 +331,6 @@ public class GiniIndex extends FitnessFunctionDTL {
 		return ec;
 	}
 
-	private List<TrainingInstance> mappingToTrainingInstance(AMapping mapping) {
-		final List<TrainingInstance> instances = new ArrayList<>();
-		for (final TrainingInstance t : fullInstances) {
-			if (mapping.getMap().containsKey(t.getSourceUri())
-					&& mapping.getMap().get(t.getSourceUri()).containsKey(t.getTargetUri())) {
-				instances.add(t);
-			}
-		}
-		return instances;
-	}
-
 	@Override
 	public boolean stopCondition(DecisionTree currentNode) {
 		// TODO Auto-generated method stub
@@ -22,6 +22,13 @@ public class GlobalFMeasure extends FitnessFunctionDTL {
 		if (currentNode.getParent() != null && currentNode.getParent().getPathString().contains(measureExpression)) {
 			return null;
 		}
+		// the mapping of the lowest threshold is cached by the execution engine
+		// and serves all higher thresholds by filtering
+		double lowest = 1d;
+		while (lowest * this.dt.getPropertyLearningRate() > this.dt.getMinPropertyCoverage()) {
+			lowest = lowest * this.dt.getPropertyLearningRate();
+		}
+		currentNode.executeAtomicMeasure(measureExpression, lowest);
 		double maxFM = 0.0;
 		double theta = 1.0;
 		for (double threshold = 1d; threshold > this.dt.getMinPropertyCoverage(); threshold = threshold
@@ -27,16 +27,16 @@ public class GlobalFMeasurePruning extends PruningFunctionDTL{
             double tmp = 0.0;
             AMapping withoutRight = node.getTotalMapping();
             tmp = node.calculateFMeasure(withoutRight, node.getRefMapping());
-            if (tmp >= DecisionTree.totalFMeasure) {
-                DecisionTree.totalFMeasure = tmp;
+            if (tmp >= node.getTotalFMeasure()) {
+                node.setTotalFMeasure(tmp);
                 deleteRight = true;
             }
             node.setRightChild(tmpRightChild);
             node.setLeftChild(null);
             AMapping withoutLeft = node.getTotalMapping();
             tmp = node.calculateFMeasure(withoutLeft, node.getRefMapping());
-            if (tmp >= DecisionTree.totalFMeasure) {
-                DecisionTree.totalFMeasure = tmp;
+            if (tmp >= node.getTotalFMeasure()) {
+                node.setTotalFMeasure(tmp);
                 deleteLeft = true;
                 deleteRight = false;
             }
@@ -44,8 +44,8 @@ public class GlobalFMeasurePruning extends PruningFunctionDTL{
             node.setLeftChild(null);
             AMapping withoutBoth = node.getTotalMapping();
             tmp = node.calculateFMeasure(withoutBoth, node.getRefMapping());
-            if (tmp >= DecisionTree.totalFMeasure) {
-                DecisionTree.totalFMeasure = tmp;
+            if (tmp >= node.getTotalFMeasure()) {
+                node.setTotalFMeasure(tmp);
                 deleteLeft = true;
                 deleteRight = true;
             }
@@ -9,6 +9,7 @@ import org.aksw.limes.core.evaluation.qualititativeMeasures.IQualitativeMeasure;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
+import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory.ExecutionPlannerType;
 import org.aksw.limes.core.execution.planning.planner.IPlanner;
@@ -19,7 +20,6 @@ import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.ml.algorithm.eagle.util.CacheTrimmer;
 import org.jgap.gp.IGPProgram;
-import org.jgap.gp.impl.ProgramChromosome;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -82,7 +82,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
 
     }
 
-    private ExpressionFitnessFunction(LinkSpecGeneticLearnerConfig a_config, IQualitativeMeasure measure, AMapping reference) {
+    public ExpressionFitnessFunction(LinkSpecGeneticLearnerConfig a_config, IQualitativeMeasure measure, AMapping reference) {
         this(a_config);
         m_config = a_config;
 //		optimalMapping = reference;
@@ -98,20 +98,15 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
 //		System.gc();
     }
 
-    public static ExpressionFitnessFunction getInstance(LinkSpecGeneticLearnerConfig a_config, IQualitativeMeasure measure, AMapping reference) {
+    public static synchronized ExpressionFitnessFunction getInstance(LinkSpecGeneticLearnerConfig a_config, IQualitativeMeasure measure, AMapping reference) {
         if (instance == null) {
             instance = new ExpressionFitnessFunction(a_config, measure, reference);
         }
         return instance;
     }
 
-    @Override
-    protected double evaluate(IGPProgram a_subject) {
-        return calculateRawFitness(a_subject);
-    }
-
     /**
-     * Calculates the fitness of the given GPProgram p. This is done as follows:
+     * Calculates the fitness of the link specification of a GPProgram. This is done as follows:
      * 1.1 get the Metric Expression by executing (as object) the first chromosome.
      * 1.2 get the mapping links with these settings
      * 2. Calculate either recall, precision or f-score and return 1 minus it.
@@ -119,18 +114,13 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
      * not part of the PropertyMapping (set in the ExpressionConfiguration). In such cases setp 1.1 throws an
      * IllegalStateException. As a result the fitness value would be set to rather bad one.
      *
-     * @param p
-     *         GPProgram fitness is calculated for.
+     * @param spec
+     *         Link specification of the GPProgram fitness is calculated for.
      * @return Double value. The closer to 0 the better.
      */
-    public double calculateRawFitness(IGPProgram p) {
-        p.getGPConfiguration().clearStack();
-        p.getGPConfiguration().clearMemory();
-        // get actual Mapping
-        Object[] args = {};
-        ProgramChromosome pc = p.getChromosome(0);
+    @Override
+    protected double calculateFitness(LinkSpecification spec) {
         AMapping actualMapping = MappingFactory.createDefaultMapping();
-        LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
         String expr = spec.getFilterExpression();
         
         if(expr == null)
@@ -169,10 +159,8 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
     }
 
     public double calculateRawMeasure(IGPProgram p) {
-        ProgramChromosome pc = p.getChromosome(0);
         AMapping actualMapping = MappingFactory.createDefaultMapping();
-        Object[] args = {};
-        LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
+        LinkSpecification spec = getLinkSpecification(p);
         String expr = spec.getFilterExpression();
         if (expr.indexOf("falseProp") > -1) {
             return 0d;
@@ -236,6 +224,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
         	ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT,
         			 sourceCache, targetCache,
                      this.m_config.source.getVar(), this.m_config.target.getVar());
+        	((SimpleExecutionEngine) engine).setRunCache(true);
         	IPlanner planner = ExecutionPlannerFactory.getPlanner(ExecutionPlannerType.DEFAULT,
                   sC, tC);
         	return engine.execute(spec, planner);
@@ -274,6 +263,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
         	logger.info("Scaling down target cache returned empty cache. Wrong training data was set. Using full Cache instead");
         logger.info("Trimming to " + trimmed[0].size() + " and " + trimmed[1].size() + " caches.");
         crossProduct = trimmedSourceCache.size() * trimmedTargetCache.size();
+        clearFitnessCache();
     }
 
     /**
@@ -283,12 +273,11 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
      */
     public void setUseFullCaches(boolean value) {
     	this.useFullCaches = value;
+    	clearFitnessCache();
     }
 
     public LinkSpecification getMetric(IGPProgram p) {
-        Object[] args = {};
-        ProgramChromosome pc = p.getChromosome(0);
-        return (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
+        return getLinkSpecification(p);
     }
 
     public AMapping getReferenceMapping() {
@@ -303,6 +292,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
      */
     public void setReferenceMapping(AMapping referenceData) {
         reference = referenceData;
+        clearFitnessCache();
     }
 
     /**
@@ -319,6 +309,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
             }
         }
         logger.info("Reference has now " + reference.size() + " Matches.");
+        clearFitnessCache();
     }
 
     public void fillCachesIncrementally(AMapping matches) {
@@ -339,10 +330,12 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
 //                trimmedSourceCache, trimmedTargetCache,
 //                this.m_config.source.getVar(), this.m_config.target.getVar());
         crossProduct = trimmedSourceCache.size() * trimmedTargetCache.size();
+        clearFitnessCache();
     }
 
     public void setCaches(ACache sC, ACache tC) {
         this.sC = sC;
         this.tC = tC;
+        clearFitnessCache();
     }
 }
@@ -1,21 +1,172 @@
 package org.aksw.limes.core.ml.algorithm.eagle.core;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aksw.limes.core.datastrutures.LogicOperator;
+import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
+import org.jgap.FitnessFunction;
 import org.jgap.gp.GPFitnessFunction;
+import org.jgap.gp.IGPProgram;
+import org.jgap.gp.impl.GPPopulation;
+import org.jgap.gp.impl.ProgramChromosome;
 
 /**
+ * Base class of EAGLEs fitness functions. The fitness of a program only
+ * depends on its link specification, so the fitness values are cached by the
+ * canonical form of the specifications, as the same specifications reappear
+ * over the generations. Subclasses must call {@link #clearFitnessCache()}
+ * whenever the data the fitness depends on changes.
+ *
  * @author Tommaso Soru (tsoru@informatik.uni-leipzig.de)
  *
  */
 public abstract class IGPFitnessFunction extends GPFitnessFunction implements IFitnessFunction {
 
 	/**
-	 * 
+	 *
 	 */
 	private static final long serialVersionUID = -94163100342394354L;
-	
+
+	/**
+	 * Maximal number of specifications whose fitness is cached
+	 */
+	private static final int FITNESS_CACHE_SIZE = 10000;
+
+	private final Map<String, Double> fitnessCache = Collections
+			.synchronizedMap(new LinkedHashMap<String, Double>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+					return size() > FITNESS_CACHE_SIZE;
+				}
+			});
+
 	public abstract void addToReference(AMapping m);
-	
+
 	public abstract void fillCachesIncrementally(AMapping matches);
-	
+
+	/**
+	 * Computes the fitness of a link specification. Called concurrently for
+	 * different specifications, so implementations must not modify shared
+	 * state.
+	 *
+	 * @param spec
+	 *            the link specification
+	 * @return the fitness, the closer to 0 the better
+	 */
+	protected abstract double calculateFitness(LinkSpecification spec);
+
+	@Override
+	protected double evaluate(IGPProgram a_subject) {
+		return calculateRawFitness(a_subject);
+	}
+
+	/**
+	 * @param p
+	 *            GPProgram fitness is calculated for.
+	 * @return the fitness of the link specification of p, the closer to 0
+	 *         the better
+	 */
+	public double calculateRawFitness(IGPProgram p) {
+		return getFitness(getLinkSpecification(p));
+	}
+
+	/**
+	 * Executes the first chromosome of a program. The stack and memory of the
+	 * configuration are shared by all programs, so programs are executed one
+	 * at a time.
+	 *
+	 * @param p
+	 *            the GP program
+	 * @return the link specification of the program
+	 */
+	protected LinkSpecification getLinkSpecification(IGPProgram p) {
+		synchronized (p.getGPConfiguration()) {
+			p.getGPConfiguration().clearStack();
+			p.getGPConfiguration().clearMemory();
+			Object[] args = {};
+			ProgramChromosome pc = p.getChromosome(0);
+			return (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
+		}
+	}
+
+	/**
+	 * Canonical form of a link specification. The operands of the
+	 * commutative operators AND, OR and XOR are sorted, so that equivalent
+	 * specifications share one cache entry. MIN and ADD are parsed to AND,
+	 * MAX to OR.
+	 *
+	 * @param spec
+	 *            the link specification
+	 * @return the canonical form of spec
+	 */
+	static String getCanonicalForm(LinkSpecification spec) {
+		if (spec.isAtomic()) {
+			return spec.getFilterExpression() + "|" + spec.getThreshold();
+		}
+		List<String> operands = new ArrayList<>();
+		for (LinkSpecification child : spec.getChildren()) {
+			operands.add(getCanonicalForm(child));
+		}
+		if (spec.getOperator() != LogicOperator.MINUS && spec.getOperator() != LogicOperator.DIFF) {
+			Collections.sort(operands);
+		}
+		return spec.getOperator() + "(" + String.join(",", operands) + ")|" + spec.getThreshold();
+	}
+
+	private double getFitness(LinkSpecification spec) {
+		String key = getCanonicalForm(spec);
+		Double fitness = fitnessCache.get(key);
+		if (fitness == null) {
+			fitness = calculateFitness(spec);
+			fitnessCache.put(key, fitness);
+		}
+		return fitness;
+	}
+
+	/**
+	 * Computes the fitness of all programs of a population whose fitness is
+	 * not yet known. The programs are executed one after another, then the
+	 * distinct link specifications are evaluated in parallel.
+	 *
+	 * @param population
+	 *            the population
+	 */
+	public void evaluate(GPPopulation population) {
+		IGPProgram[] programs = population.getGPPrograms();
+		LinkSpecification[] specs = new LinkSpecification[programs.length];
+		String[] keys = new String[programs.length];
+		Map<String, Integer> positions = new LinkedHashMap<>();
+		List<LinkSpecification> distinct = new ArrayList<>();
+		for (int i = 0; i < programs.length; i++) {
+			if (programs[i] != null && programs[i].getFitnessValueDirectly() == FitnessFunction.NO_FITNESS_VALUE) {
+				specs[i] = getLinkSpecification(programs[i]);
+				keys[i] = getCanonicalForm(specs[i]);
+				if (positions.putIfAbsent(keys[i], distinct.size()) == null) {
+					distinct.add(specs[i]);
+				}
+			}
+		}
+		List<Double> values = LinkingExecutor.map("EAGLE fitness", distinct.size(), i -> getFitness(distinct.get(i)));
+		for (int i = 0; i < programs.length; i++) {
+			if (keys[i] != null) {
+				programs[i].setFitnessValue(values.get(positions.get(keys[i])));
+			}
+		}
+	}
+
+	/**
+	 * Forgets the cached fitness values. Needed whenever the reference, the
+	 * caches or the measure change.
+	 */
+	protected void clearFitnessCache() {
+		fitnessCache.clear();
+	}
 }
@@ -5,6 +5,7 @@ import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
+import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory.ExecutionPlannerType;
 import org.aksw.limes.core.execution.planning.planner.IPlanner;
@@ -13,7 +14,6 @@ import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.jgap.gp.IGPProgram;
-import org.jgap.gp.impl.ProgramChromosome;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +34,11 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
     private static final long serialVersionUID = -7114137172832439294L;
     static Logger logger = LoggerFactory.getLogger("LIMES");
     private static PseudoFMeasureFitnessFunction instance = null;
+    /**
+     * Engine on the caches of the fitness function. {@link #getMapping} runs
+     * each specification on an engine of its own, as engines keep the
+     * results of a run, so that specifications can be evaluated in parallel.
+     */
     public ExecutionEngine engine;
     ACache sourceCache, targetCache;
     LinkSpecGeneticLearnerConfig config;
@@ -41,7 +46,7 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
     
     PseudoFMeasure pfm;
 
-    private PseudoFMeasureFitnessFunction(LinkSpecGeneticLearnerConfig a_config, PseudoFMeasure pfm, ACache c1, ACache c2) {
+    public PseudoFMeasureFitnessFunction(LinkSpecGeneticLearnerConfig a_config, PseudoFMeasure pfm, ACache c1, ACache c2) {
         config = a_config;
         sourceCache = c1;
         targetCache = c2;
@@ -58,7 +63,7 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
      * @param c2 Cache
      * @return instance of PseudoFMeasure Fitness Function
      */
-    public static PseudoFMeasureFitnessFunction getInstance(LinkSpecGeneticLearnerConfig a_config, PseudoFMeasure pfm, ACache c1, ACache c2) {
+    public static synchronized PseudoFMeasureFitnessFunction getInstance(LinkSpecGeneticLearnerConfig a_config, PseudoFMeasure pfm, ACache c1, ACache c2) {
         if (instance == null) {
             return instance = new PseudoFMeasureFitnessFunction(a_config, pfm, c1, c2);
         } else {
@@ -66,24 +71,16 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
         }
     }
 
-    @Override
-    protected double evaluate(IGPProgram program) {
-        return calculateRawFitness(program);
-    }
-
     /**
-     * Determine fitness of the individual p;
+     * Determine fitness of the link specification of an individual;
      *
-     * @param p GP programs
+     * @param spec link specification of the GP program
      * @return 1-PseudoFMeasure. Or if something wents wrong either 5d, iff p isn't fulfilling all constraints. 8d if executing p results in memory error.
      */
-    public double calculateRawFitness(IGPProgram p) {
-        double pseudoFMeasure = calculatePseudoMeasure(p);
+    @Override
+    protected double calculateFitness(LinkSpecification spec) {
+        double pseudoFMeasure = calculatePseudoMeasure(spec);
         if (!(pseudoFMeasure >= 0d && pseudoFMeasure <= 1d)) {
-            Object[] args = {};
-            ProgramChromosome pc = null;
-            pc = p.getChromosome(0);
-            LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
             logger.info("LS: " + spec);
             logger.error("Pseudo Measure was not in [0,1]");
             System.out.println("Pseudo Measure for (" + spec + ") was not in [0,1]");
@@ -98,11 +95,11 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
 
     public AMapping calculateMapping(IGPProgram p) {
         // execute individual
-        Object[] args = {};
-        ProgramChromosome pc = null;
-        pc = p.getChromosome(0);
+        return calculateMapping(getLinkSpecification(p));
+    }
+
+    private AMapping calculateMapping(LinkSpecification spec) {
         AMapping actualMapping = MappingFactory.createDefaultMapping();
-        LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
         // get Mapping
         try {
             actualMapping = getMapping(sourceCache, targetCache, spec);
@@ -119,8 +116,12 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
      * @return PseudoMeasure
      */
     public Double calculatePseudoMeasure(IGPProgram p) {
+        return calculatePseudoMeasure(getLinkSpecification(p));
+    }
+
+    private Double calculatePseudoMeasure(LinkSpecification spec) {
     	// mapping
-        AMapping mapping = calculateMapping(p);
+        AMapping mapping = calculateMapping(spec);
         // gold standard is not needed by pseudoFM
         GoldStandard gold = new GoldStandard(mapping, sourceCache, targetCache);
         return pfm.calculate(mapping, gold, beta);
@@ -134,6 +135,10 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
      */
     public AMapping getMapping(ACache sC, ACache tC, LinkSpecification spec) {
         try {
+            // engines keep the results of a run, so each run gets its own
+            ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, sC, tC,
+                    config.source.getVar(), config.target.getVar());
+            ((SimpleExecutionEngine) engine).setRunCache(true);
             IPlanner planner = ExecutionPlannerFactory.getPlanner(ExecutionPlannerType.DEFAULT,
                     sC, tC);
             return engine.execute(spec, planner);
@@ -160,6 +165,7 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
 
     public void setMeasure(PseudoFMeasure pfm) {
         this.pfm = pfm;
+        clearFitnessCache();
     }
 
     public double getBeta() {
@@ -168,6 +174,7 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
 
     public void setBeta(double beta) {
         this.beta = beta;
+        clearFitnessCache();
     }
 
 
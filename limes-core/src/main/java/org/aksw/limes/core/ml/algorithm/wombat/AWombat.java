@@ -6,10 +6,13 @@ package org.aksw.limes.core.ml.algorithm.wombat;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.datastrutures.Tree;
@@ -33,6 +36,7 @@ import org.aksw.limes.core.io.cache.HybridCache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.measures.measure.MeasureType;
 import org.aksw.limes.core.ml.algorithm.ACoreMLAlgorithm;
 import org.aksw.limes.core.ml.algorithm.LearningParameter;
@@ -84,6 +88,11 @@ public abstract class AWombat extends ACoreMLAlgorithm {
 	protected Set<String> wombatParameterNames = new HashSet<>();
 	protected ACache sourceSample = new HybridCache();
 	protected ACache targetSample = new HybridCache();
+	/**
+	 * Nodes of the refinement tree by their metric expressions, in the order
+	 * they were added
+	 */
+	private final Map<String, List<RefinementNode>> refinementNodes = new ConcurrentHashMap<>();
 
 
 	protected AWombat() {
@@ -123,6 +132,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
 		String measureExpression = measure + "(" + sourceVariable + "." + sourceProperty + ", " + targetVariable + "." + targetProperty + ")";
 		Instruction inst = new Instruction(Instruction.Command.RUN, measureExpression, threshold + "", -1, -1, -1);
 		ExecutionEngine ee = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, sourceCache, targetCache, "?" + sourceVariable, "?" + targetVariable);
+		((SimpleExecutionEngine) ee).setRunCache(true);
 		Plan plan = new Plan();
 		plan.addInstruction(inst);
 		return ((SimpleExecutionEngine) ee).executeInstructions(plan);
@@ -152,10 +162,18 @@ public abstract class AWombat extends ACoreMLAlgorithm {
 	 * @param metricExpression learning specifications
 	 * @return Mapping corresponding to the input metric expression
 	 */
-	protected final AMapping getMappingOfMetricExpression(String metricExpression, Tree<? extends RefinementNode> root) {
+	protected final AMapping getMappingOfMetricExpression(String metricExpression) {
 		AMapping map = null;
 		if (saveMapping()) {
-			map = getMappingOfMetricFromTree(metricExpression, root);
+			List<RefinementNode> nodes = refinementNodes.get(metricExpression);
+			if (nodes != null) {
+				for (RefinementNode node : nodes) {
+					if (node.getMapping() != null && node.getMapping().size() != 0) {
+						map = node.getMapping();
+						break;
+					}
+				}
+			}
 		}
 		if (map == null) {
             double threshold = Double.parseDouble(metricExpression.substring(metricExpression.lastIndexOf("|") + 1));
@@ -165,25 +183,57 @@ public abstract class AWombat extends ACoreMLAlgorithm {
 	}
 
 	/**
-	 * @param metricExpression learning specifications
-	 * @param root refinement tree
-	 * @return return mapping of the input metricExpression from the search tree
+	 * Adds a child to a node of the refinement tree and indexes it by its
+	 * metric expression
+	 *
+	 * @param parent node of the refinement tree
+	 * @param child new child of the parent
 	 */
-    private AMapping getMappingOfMetricFromTree(String metricExpression, Tree<? extends RefinementNode> root) {
-		if (root != null) {
-			if (root.getValue().getMetricExpression().equals(metricExpression)) {
-				return root.getValue().getMapping();
+	protected final <T extends RefinementNode> void addChild(Tree<T> parent, Tree<T> child) {
+		parent.addChild(child);
+		RefinementNode node = child.getValue();
+		refinementNodes.compute(node.getMetricExpression(), (metricExpression, nodes) -> {
+			if (nodes == null) {
+				nodes = new CopyOnWriteArrayList<>();
 			}
-			if (root.getchildren() != null && root.getchildren().size() > 0) {
-				for (Tree<? extends RefinementNode> c : root.getchildren()) {
-					AMapping map = getMappingOfMetricFromTree(metricExpression, c);
-					if (map != null && map.size() != 0) {
-						return map;
-					}
-				}
+			nodes.add(node);
+			return nodes;
+		});
+	}
+
+	/**
+	 * @param metricExpression learning specifications
+	 * @return true if the input metricExpression is already contained
+	 * in one of the nodes of the refinement tree, false otherwise
+	 */
+	protected final boolean inRefinementTree(String metricExpression) {
+		return refinementNodes.containsKey(metricExpression);
+	}
+
+	/**
+	 * Removes the nodes of a subtree from the index of the refinement tree
+	 *
+	 * @param subtree of the refinement tree
+	 */
+	protected final void removeFromRefinementTree(Tree<? extends RefinementNode> subtree) {
+		RefinementNode node = subtree.getValue();
+		// other nodes with the same metric expression stay indexed
+		refinementNodes.computeIfPresent(node.getMetricExpression(), (metricExpression, nodes) -> {
+			nodes.removeIf(n -> n == node);
+			return nodes.isEmpty() ? null : nodes;
+		});
+		if (subtree.getchildren() != null) {
+			for (Tree<? extends RefinementNode> child : subtree.getchildren()) {
+				removeFromRefinementTree(child);
 			}
 		}
-		return null;
+	}
+
+	/**
+	 * Empties the index of the refinement tree before a new tree is built
+	 */
+	protected final void clearRefinementTree() {
+		refinementNodes.clear();
 	}
 
 
@@ -208,6 +258,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
 		assert planner != null;
 		ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, sCache, tCache, "?" + sourceVariable, "?" + targetVariable);
 		assert engine != null;
+		((SimpleExecutionEngine) engine).setRunCache(true);
 		AMapping resultMap = engine.execute(rwLs, planner);
         return resultMap.getSubMap(ls.getThreshold());
 	}
@@ -273,27 +324,34 @@ public abstract class AWombat extends ACoreMLAlgorithm {
 	}
 
 	/**
+	 * Computes the initial classifiers of all combinations of source property,
+	 * target property and atomic measure in parallel.
+	 *
 	 * @return initial classifiers
 	 */
 	protected final List<ExtendedClassifier> findInitialClassifiers() {
 		logger.debug("Geting all initial classifiers ...");
-		List<ExtendedClassifier> initialClassifiers = new ArrayList<>();
+		List<String[]> combinations = new ArrayList<>();
 		for (String p : sourcePropertiesCoverageMap.keySet()) {
 			for (String q : targetPropertiesCoverageMap.keySet()) {
 				for (String m : getAtomicMeasures()) {
-					ExtendedClassifier cp = findInitialClassifier(p, q, m);
-					// only add if classifier covers all entries
-					initialClassifiers.add(cp);
+					combinations.add(new String[] { p, q, m });
 				}
 			}
 		}
+		List<ExtendedClassifier> initialClassifiers = LinkingExecutor.map("WOMBAT initial classifiers",
+				combinations.size(), i -> findInitialClassifier(combinations.get(i)[0], combinations.get(i)[1],
+						combinations.get(i)[2]));
 		logger.debug("Done computing all initial classifiers.");
 		return initialClassifiers;
 	}
 
     /**
      * Computes the atomic classifiers by finding the highest possible F-measure
-     * achievable on a given property pair
+     * achievable on a given property pair. The mapping of a lower threshold
+     * contains the mappings of all higher thresholds, so the measure is only
+     * executed with the lowest threshold and the mappings of the higher
+     * thresholds are derived from it.
      *
      * @param sourceProperty Property of source to use
      * @param targetProperty Property of target to use
@@ -301,24 +359,100 @@ public abstract class AWombat extends ACoreMLAlgorithm {
      * @return Best simple classifier
      */
     private ExtendedClassifier findInitialClassifier(String sourceProperty, String targetProperty, String measure) {
+        List<Double> thresholds = new ArrayList<>();
+        for (double threshold = 1d; threshold > 0.4d; threshold = threshold * getPropertyLearningRate()) {
+            thresholds.add(threshold);
+        }
+        AMapping mapping = executeAtomicMeasure(sourceProperty, targetProperty, measure,
+                thresholds.get(thresholds.size() - 1));
+        double[] fMeasures = isUnsupervised ? pseudoFMeasures(mapping, thresholds) : fMeasures(mapping, thresholds);
         double maxOverlap = 0;
         double theta = 1.0;
         AMapping bestMapping = MappingFactory.createDefaultMapping();
-        for (double threshold = 1d; threshold > 0.4d; threshold = threshold * getPropertyLearningRate()) {
-            AMapping mapping = executeAtomicMeasure(sourceProperty, targetProperty, measure, threshold);
-            double overlap = fMeasure(mapping);
-            if (maxOverlap < overlap) { //only interested in largest threshold with fmeasure 1
-                theta = threshold;
-                maxOverlap = overlap;
-                bestMapping = mapping;
+        for (int i = 0; i < thresholds.size(); i++) {
+            if (maxOverlap < fMeasures[i]) { //only interested in largest threshold with fmeasure 1
+                theta = thresholds.get(i);
+                maxOverlap = fMeasures[i];
             }
         }
+        if (maxOverlap > 0) {
+            bestMapping = mapping.getSubMap(theta);
+        }
         ExtendedClassifier cp = new ExtendedClassifier(measure, theta, sourceProperty, targetProperty);
         cp.setfMeasure(maxOverlap);
         cp.setMapping(bestMapping);
         return cp;
     }
 
+    /**
+     * Computes the F-measures of the links of a mapping above each of the
+     * given thresholds with respect to the training data. Each link is
+     * counted for the highest threshold it reaches, so that the precision and
+     * recall of all thresholds follow from one pass over the mapping.
+     *
+     * @param mapping Mapping of the lowest threshold
+     * @param thresholds Thresholds in descending order
+     * @return F-measure of each threshold
+     */
+    private double[] fMeasures(AMapping mapping, List<Double> thresholds) {
+        int[] links = new int[thresholds.size()];
+        int[] truePositives = new int[thresholds.size()];
+        for (Map.Entry<String, HashMap<String, Double>> entry : mapping.getMap().entrySet()) {
+            Map<String, Double> references = trainingData.getMap().get(entry.getKey());
+            for (Map.Entry<String, Double> link : entry.getValue().entrySet()) {
+                int i = 0;
+                while (i < thresholds.size() && link.getValue() < thresholds.get(i)) {
+                    i++;
+                }
+                if (i < thresholds.size()) {
+                    links[i]++;
+                    Double reference = references == null ? null : references.get(link.getKey());
+                    if (reference != null && reference > 0) {
+                        truePositives[i]++;
+                    }
+                }
+            }
+        }
+        int positiveReferences = 0;
+        for (Map<String, Double> references : trainingData.getMap().values()) {
+            for (Double reference : references.values()) {
+                if (reference > 0) {
+                    positiveReferences++;
+                }
+            }
+        }
+        double beta2 = Math.pow(getBeta(), 2);
+        double[] fMeasures = new double[thresholds.size()];
+        int size = 0;
+        double truePositive = 0;
+        for (int i = 0; i < thresholds.size(); i++) {
+            size += links[i];
+            truePositive += truePositives[i];
+            if (size > 0) {
+                double p = truePositive / size;
+                double r = truePositive / positiveReferences;
+                fMeasures[i] = p + r > 0d ? (1 + beta2) * p * r / ((beta2 * p) + r) : 0d;
+            }
+        }
+        return fMeasures;
+    }
+
+    /**
+     * Computes the pseudo-F-measures of the links of a mapping above each of
+     * the given thresholds.
+     *
+     * @param mapping Mapping of the lowest threshold
+     * @param thresholds Thresholds in descending order
+     * @return pseudo-F-measure of each threshold
+     */
+    private double[] pseudoFMeasures(AMapping mapping, List<Double> thresholds) {
+        double[] fMeasures = new double[thresholds.size()];
+        for (int i = 0; i < thresholds.size(); i++) {
+            fMeasures[i] = fMeasure(mapping.getSubMap(thresholds.get(i)));
+        }
+        return fMeasures;
+    }
+
 
     /**
      * Get the most promising node as the node with the best F-score
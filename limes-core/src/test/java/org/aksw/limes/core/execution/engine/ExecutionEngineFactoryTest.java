@@ -31,5 +31,13 @@ public class ExecutionEngineFactoryTest {
         assertTrue(engine instanceof SimpleExecutionEngine);
     }
 
+    @Test
+    public void testEqualParallel() {
+        ExecutionEngineType type = ExecutionEngineFactory.getExecutionEngineType("parallel");
+        assertTrue(type == ExecutionEngineType.PARALLEL);
+        ExecutionEngine engine = ExecutionEngineFactory.getEngine(type, null, null, null, null);
+        assertTrue(engine instanceof ParallelExecutionEngine);
+    }
+
 
 }
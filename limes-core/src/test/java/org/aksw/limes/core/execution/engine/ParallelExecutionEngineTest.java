@@ -0,0 +1,130 @@
+package org.aksw.limes.core.execution.engine;
+
+import static org.junit.Assert.assertTrue;
+
+import org.aksw.limes.core.execution.planning.planner.CanonicalPlanner;
+import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
+import org.aksw.limes.core.execution.planning.planner.HeliosPlanner;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelExecutionEngineTest {
+    public ACache source = new MemoryCache();
+    public ACache target = new MemoryCache();
+
+    private static final String[] SPECS = {
+            "OR(qgrams(x.surname,y.surname)|0.4,trigrams(x.name,y.name)|0.4)",
+            "AND(euclidean(x.age, y.age)|0.5,qgrams(x.name, y.name)|0.5)",
+            "MINUS(trigrams(x.surname, y.surname)|0.5,overlap(x.name, y.name)|0.5)",
+            "XOR(trigrams(x.surname, y.surname)|0.5,soundex(x.name, y.name)|0.5)",
+            "OR(AND(qgrams(x.surname,y.surname)|0.4,levenshtein(x.name,y.name)|0.3)|0.3,"
+                    + "MINUS(jaccard(x.name,y.name)|0.2,euclidean(x.age,y.age)|0.9)|0.2)" };
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        // create source cache
+        source.addTriple("S1", "surname", "georgala");
+        source.addTriple("S1", "name", "kleanthi");
+        source.addTriple("S1", "age", "26");
+
+        source.addTriple("S2", "surname", "sandra");
+        source.addTriple("S2", "name", "lukas");
+        source.addTriple("S2", "age", "13");
+
+        source.addTriple("S3", "surname", "depp");
+        source.addTriple("S3", "name", "johny");
+        source.addTriple("S3", "age", "52");
+
+        source.addTriple("S4", "surname", "swift");
+        source.addTriple("S4", "name", "taylor,maria");
+        source.addTriple("S4", "age", "25");
+
+        source.addTriple("S5", "surname", "paok");
+        source.addTriple("S5", "name", "ole");
+        source.addTriple("S5", "age", "56");
+
+        target.addTriple("T1", "surname", "georg");
+        target.addTriple("T1", "name", "klea");
+        target.addTriple("T1", "age", "26");
+
+        target.addTriple("T2", "surname", "sandra");
+        target.addTriple("T2", "name", "lukas");
+        target.addTriple("T2", "age", "13");
+
+        target.addTriple("T3", "surname", "derp");
+        target.addTriple("T3", "name", "johnny");
+        target.addTriple("T3", "age", "52");
+
+        target.addTriple("T4", "surname", "swift");
+        target.addTriple("T4", "name", "taylor");
+        target.addTriple("T4", "age", "25");
+
+        target.addTriple("T5", "surname", "paok");
+        target.addTriple("T5", "name", "oleole");
+        target.addTriple("T5", "age", "56");
+    }
+
+    @After
+    public void tearDown() {
+        source = null;
+        target = null;
+    }
+
+    @Test
+    public void testCanonical() {
+        for (String expression : SPECS) {
+            LinkSpecification ls = new LinkSpecification(expression, 0.3);
+            AMapping simple = new SimpleExecutionEngine(source, target, "?x", "?y").execute(ls,
+                    new CanonicalPlanner());
+            AMapping parallel = new ParallelExecutionEngine(source, target, "?x", "?y").execute(ls,
+                    new CanonicalPlanner());
+            assertTrue(simple.equals(parallel));
+        }
+    }
+
+    @Test
+    public void testHelios() {
+        for (String expression : SPECS) {
+            LinkSpecification ls = new LinkSpecification(expression, 0.3);
+            AMapping simple = new SimpleExecutionEngine(source, target, "?x", "?y").execute(ls,
+                    new HeliosPlanner(source, target));
+            AMapping parallel = new ParallelExecutionEngine(source, target, "?x", "?y").execute(ls,
+                    new HeliosPlanner(source, target));
+            assertTrue(simple.equals(parallel));
+        }
+    }
+
+    @Test
+    public void testDynamic() {
+        for (String expression : SPECS) {
+            LinkSpecification ls = new LinkSpecification(expression, 0.3);
+            AMapping simple = new SimpleExecutionEngine(source, target, "?x", "?y").execute(ls,
+                    new DynamicPlanner(source, target));
+            AMapping parallel = new ParallelExecutionEngine(source, target, "?x", "?y").execute(ls,
+                    new DynamicPlanner(source, target));
+            assertTrue(simple.equals(parallel));
+        }
+    }
+
+    @Test
+    public void testSingleThread() {
+        LinkSpecification ls = new LinkSpecification(SPECS[4], 0.3);
+        AMapping simple = new SimpleExecutionEngine(source, target, "?x", "?y").execute(ls, new CanonicalPlanner());
+        LinkingExecutor.setParallelism(1);
+        try {
+            ParallelExecutionEngine ee = new ParallelExecutionEngine(source, target, "?x", "?y");
+            assertTrue(simple.equals(ee.execute(ls, new CanonicalPlanner())));
+        } finally {
+            LinkingExecutor.setParallelism(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.aksw.limes.core.execution.engine;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import org.aksw.limes.core.execution.engine.filter.LinearFilter;
@@ -14,7 +15,13 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.CompactMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.mapping.UriDictionary;
+import org.aksw.limes.core.measures.mapper.IMapper;
+import org.aksw.limes.core.measures.mapper.IndexCache;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -390,6 +397,70 @@ public class SimpleExecutionEngineTest {
 
         System.out.println("---------------------------------");
     }
+
+    @Test
+    public void testCompactMappings() {
+        String[] expressions = { "trigram(x.name, y.name)", "jaccard(x.surname, y.surname)",
+                "qgrams(x.name, y.name)", "jaro(x.surname, y.surname)", "levenshtein(x.name, y.name)",
+                "exactmatch(x.age, y.age)", "mongeelkan(x.name, y.name)", "soundex(x.surname, y.surname)" };
+        SimpleExecutionEngine ee = new SimpleExecutionEngine(source, target, "?x", "?y");
+        SimpleExecutionEngine compact = new SimpleExecutionEngine(source, target, "?x", "?y");
+        compact.setCompactMappings(true);
+        UriDictionary sourceIds = new UriDictionary(source);
+        UriDictionary targetIds = new UriDictionary(target);
+        for (String expression : expressions) {
+            Instruction run = new Instruction(Command.RUN, expression, "0.5", -1, -1, 0);
+            AMapping expected = ee.executeRun(run);
+            AMapping m = compact.executeRun(run);
+            assertTrue(m instanceof CompactMapping);
+            assertEquals(expected.getMap(), m.getMap());
+
+            // the mappers collect their links directly in the compact mapping
+            IMapper mapper = MapperFactory.createMapper(MeasureFactory.getMeasureType(expression));
+            m = MappingFactory.withCompactMappings(sourceIds, targetIds,
+                    () -> mapper.getMapping(source, target, "?x", "?y", expression, 0.5));
+            assertTrue(expression, m instanceof CompactMapping);
+            assertEquals(expected.getMap(), m.getMap());
+        }
+        LinkSpecification ls = new LinkSpecification(
+                "OR(trigram(x.name, y.name)|0.5,AND(jaro(x.surname, y.surname)|0.6,exactmatch(x.age, y.age)|1.0)|0.6)",
+                0.5);
+        AMapping expected = ee.execute(ls, new CanonicalPlanner());
+        AMapping m = compact.execute(ls, new CanonicalPlanner());
+        assertTrue(m instanceof CompactMapping);
+        assertEquals(expected.getMap(), m.getMap());
+    }
+
+    @Test
+    public void testRunResultsAreCached() {
+        SimpleExecutionEngine ee = new SimpleExecutionEngine(source, target, "?x", "?y");
+        Instruction low = new Instruction(Command.RUN, "trigram(x.name, y.name)", "0.3", -1, -1, 0);
+        Instruction high = new Instruction(Command.RUN, "trigram(x.name, y.name)", "0.6", -1, -1, 0);
+        AMapping expectedLow = ee.executeRun(low);
+        AMapping expectedHigh = ee.executeRun(high);
+        IndexCache.clear();
+
+        // without the RUN cache only the indexes of the mapper are cached
+        ee.executeRun(low);
+        int indexes = IndexCache.getIndexCount();
+
+        ee.setRunCache(true);
+        AMapping m = ee.executeRun(low);
+        assertEquals(expectedLow.getMap(), m.getMap());
+        assertEquals(indexes + 1, IndexCache.getIndexCount());
+        // callers may modify the returned mappings
+        m.getMap().clear();
+        // the higher threshold is answered from the mapping of the lower one
+        long hits = IndexCache.getHitCount();
+        assertEquals(expectedHigh.getMap(), ee.executeRun(high).getMap());
+        assertEquals(expectedLow.getMap(), ee.executeRun(low).getMap());
+        assertEquals(hits + 2, IndexCache.getHitCount());
+
+        // modified caches are not answered from the cache
+        target.addTriple("T6", "name", "kleanthi");
+        assertTrue(ee.executeRun(high).contains("S1", "T6"));
+    }
+
     @Test 
     public void testMax(){
         System.out.println("testMax");
@@ -0,0 +1,89 @@
+package org.aksw.limes.core.execution.planning.costmodel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.junit.Test;
+
+public class CostModelTest {
+
+    @Test
+    public void testCalibrate() {
+        CostModelCalibrator calibrator = new CostModelCalibrator(new Random(42));
+        calibrator.setSizes(50, 100);
+        calibrator.setThresholds(0.5, 0.8);
+        calibrator.setFilterSizes(100, 500, 1000);
+        CostModel costModel = calibrator.calibrate(Arrays.asList(MeasureType.TRIGRAM, MeasureType.EUCLIDEAN));
+        for (MeasureType type : new MeasureType[] { MeasureType.TRIGRAM, MeasureType.EUCLIDEAN }) {
+            assertTrue(costModel.hasMapperModel(type));
+            assertTrue(costModel.hasFilterModel(type));
+        }
+        assertFalse(costModel.hasFilterModel(MeasureType.JARO));
+    }
+
+    @Test
+    public void testFit() {
+        List<double[]> features = new ArrayList<double[]>();
+        List<Double> values = new ArrayList<Double>();
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 4; j++) {
+                features.add(new double[] { i, j * 0.5 });
+                values.add(3 + 2 * i - 4 * j * 0.5);
+            }
+        }
+        RegressionModel model = RegressionModel.fit(features, values);
+        assertArrayEquals(new double[] { 3, 2, -4 }, model.getCoefficients(), 1e-6);
+        assertEquals(19d, model.predict(10, 1), 1e-6);
+    }
+
+    @Test
+    public void testFitCollinear() {
+        List<double[]> features = new ArrayList<double[]>();
+        List<Double> values = new ArrayList<Double>();
+        for (int i = 0; i < 5; i++) {
+            features.add(new double[] { i, i });
+            values.add(1d + i);
+        }
+        assertEquals(8d, RegressionModel.fit(features, values).predict(7, 7), 1e-6);
+    }
+
+    @Test
+    public void testApproximations() {
+        CostModel costModel = new CostModel();
+        costModel.setMapperModels(MeasureType.JARO, new RegressionModel(0, 1, 1, 0),
+                new RegressionModel(Math.log1p(10), 0, 0, 0));
+        costModel.setFilterModel(MeasureType.JARO, new RegressionModel(1, 0.001));
+        assertTrue(costModel.hasMapperModel(MeasureType.JARO));
+        assertFalse(costModel.hasMapperModel(MeasureType.COSINE));
+        assertFalse(costModel.hasFilterModel(MeasureType.COSINE));
+        // runtime = exp(ln(10) + ln(20)) - 1
+        assertEquals(199d, costModel.getRuntimeApproximation(MeasureType.JARO, 10, 20, 0.5), 1e-6);
+        assertEquals(10d, costModel.getMappingSizeApproximation(MeasureType.JARO, 10, 20, 0.5), 1e-6);
+        // mapping sizes are bounded by the size of the cross product
+        assertEquals(6d, costModel.getMappingSizeApproximation(MeasureType.JARO, 2, 3, 0.5), 1e-6);
+        assertEquals(2d, costModel.getFilterRuntimeApproximation(MeasureType.JARO, 1000), 1e-6);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        CostModel costModel = new CostModel();
+        costModel.setMapperModels(MeasureType.TRIGRAM, new RegressionModel(0.1, 1.2, 0.9, -2),
+                new RegressionModel(-1, 1, 1, -5));
+        costModel.setFilterModel(MeasureType.TRIGRAM, new RegressionModel(0.5, 0.0003));
+        costModel.setFilterModel(MeasureType.LEVENSHTEIN, new RegressionModel(0.2, 0.0007));
+        File file = File.createTempFile("limes-costmodel", ".properties");
+        file.deleteOnExit();
+        costModel.save(file);
+        assertEquals(costModel, CostModel.load(file));
+    }
+}
@@ -0,0 +1,51 @@
+package org.aksw.limes.core.execution.planning.costmodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SelectivityEstimatorTest {
+
+    public ACache source = new MemoryCache();
+    public ACache target = new MemoryCache();
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        // every value is shared by 200 source and 200 target instances
+        for (int i = 0; i < 2000; i++) {
+            source.addTriple("S" + i, "code", "c" + (i % 10));
+            target.addTriple("T" + i, "code", "c" + (i % 10));
+        }
+    }
+
+    @Test
+    public void testSampledEstimate() {
+        SelectivityEstimator estimator = new SelectivityEstimator(source, target, 500);
+        SelectivityEstimate estimate = estimator.estimate("exactmatch(x.code, y.code)", 1d);
+        assertEquals(0.1, estimate.getSelectivity(), 0.03);
+        assertTrue(estimate.getLowerBound() <= estimate.getSelectivity());
+        assertTrue(estimate.getUpperBound() >= estimate.getSelectivity());
+        assertTrue(estimate.getUpperBound() > estimate.getLowerBound());
+        assertEquals(estimate.getSelectivity() * 2000 * 2000, estimate.getMappingSize(), 1e-6);
+        // estimates are cached
+        assertSame(estimate, estimator.estimate("exactmatch(x.code, y.code)", 1d));
+    }
+
+    @Test
+    public void testExactEstimate() {
+        // samples that are as large as the caches give exact estimates
+        SelectivityEstimator estimator = new SelectivityEstimator(source, target, 2000);
+        SelectivityEstimate estimate = estimator.estimate("exactmatch(x.code, y.code)", 1d);
+        assertEquals(0.1, estimate.getSelectivity(), 1e-9);
+        assertEquals(0.1, estimate.getLowerBound(), 1e-9);
+        assertEquals(0.1, estimate.getUpperBound(), 1e-9);
+        assertEquals(400000d, estimate.getMappingSize(), 1e-6);
+    }
+}
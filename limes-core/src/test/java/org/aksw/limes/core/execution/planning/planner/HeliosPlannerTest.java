@@ -6,6 +6,9 @@ import static org.junit.Assert.assertTrue;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.aksw.limes.core.execution.planning.costmodel.CostModel;
+import org.aksw.limes.core.execution.planning.costmodel.RegressionModel;
+import org.aksw.limes.core.execution.planning.costmodel.SelectivityEstimator;
 import org.aksw.limes.core.execution.planning.plan.Instruction;
 import org.aksw.limes.core.execution.planning.plan.Instruction.Command;
 import org.aksw.limes.core.execution.planning.plan.NestedPlan;
@@ -13,6 +16,8 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.ls.ExtendedLinkSpecification;
 import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -102,6 +107,65 @@ public class HeliosPlannerTest {
 
 	}
 
+	@Test
+	public void CalibratedCostModel() {
+		System.out.println("CalibratedCostModel");
+
+		CostModel costModel = new CostModel();
+		costModel.setMapperModels(MeasureType.JACCARD, new RegressionModel(Math.log1p(42), 0, 0, 0),
+				new RegressionModel(Math.log1p(3), 0, 0, 0));
+		costModel.setFilterModel(MeasureType.JACCARD, new RegressionModel(0, 0.5));
+		HeliosPlanner p = new HeliosPlanner(source, target);
+		p.setCostModel(costModel);
+		NestedPlan plan = p.plan(new LinkSpecification("jaccard(x.surname, y.surname)", 0.8));
+		assertEquals(42d, plan.getRuntimeCost(), 1e-9);
+		assertEquals(3d, plan.getMappingSize(), 1e-9);
+		assertEquals(3d / (source.size() * target.size()), plan.getSelectivity(), 1e-9);
+
+		List<String> measures = new ArrayList<String>();
+		measures.add("jaccard(x.surname, y.surname)");
+		assertEquals(5d, p.getFilterCosts(measures, 10), 1e-9);
+		// measures without a calibrated model use the static approximations
+		assertEquals(MapperFactory.createMapper(MeasureType.COSINE).getRuntimeApproximation(source.size(),
+				target.size(), 0.8, p.lang), p.getAtomicRuntimeCosts("cosine(x.surname, y.surname)", 0.8), 1e-9);
+	}
+
+	@Test
+	public void PartiallyCalibratedCostModel() {
+		System.out.println("PartiallyCalibratedCostModel");
+
+		CostModel costModel = new CostModel();
+		costModel.setMapperModels(MeasureType.JACCARD, new RegressionModel(Math.log1p(42), 0, 0, 0),
+				new RegressionModel(Math.log1p(3), 0, 0, 0));
+		costModel.setFilterModel(MeasureType.JACCARD, new RegressionModel(0, 0.5));
+		LinkSpecification ls = new LinkSpecification(
+				"OR(jaccard(x.surname, y.surname)|0.8,cosine(x.name, y.name)|0.5)", 0.8);
+
+		HeliosPlanner p = new HeliosPlanner(source, target);
+		p.setCostModel(new CostModel());
+		NestedPlan staticPlan = p.plan(ls);
+		p.setCostModel(costModel);
+		NestedPlan plan = p.plan(ls);
+		// the model does not cover cosine, so no calibrated cost is used
+		assertEquals(staticPlan.getRuntimeCost(), plan.getRuntimeCost(), 1e-9);
+		assertEquals(staticPlan.getMappingSize(), plan.getMappingSize(), 1e-9);
+		assertTrue(plan.getSubPlans().get(0).getRuntimeCost() != 42d);
+	}
+
+	@Test
+	public void SampledSelectivity() {
+		System.out.println("SampledSelectivity");
+
+		HeliosPlanner p = new HeliosPlanner(source, target);
+		p.setSelectivityEstimator(new SelectivityEstimator(source, target));
+		NestedPlan plan = p.plan(new LinkSpecification("exactmatch(x.age, y.age)", 1.0));
+		// the caches are smaller than the samples, so the estimate is exact
+		double size = MapperFactory.createMapper(MeasureType.EXACTMATCH)
+				.getMapping(source, target, "?x", "?y", "exactmatch(x.age, y.age)", 1.0).getNumberofMappings();
+		assertEquals(size, plan.getMappingSize(), 1e-9);
+		assertEquals(size / (source.size() * target.size()), plan.getSelectivity(), 1e-9);
+	}
+
 	@Test
 	public void ComplexPlanLS() {
 		System.out.println("ComplexPlanLS");
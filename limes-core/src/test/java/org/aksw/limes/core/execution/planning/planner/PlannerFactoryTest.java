@@ -1,9 +1,18 @@
 package org.aksw.limes.core.execution.planning.planner;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import org.aksw.limes.core.execution.planning.plan.NestedPlan;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory.ExecutionPlannerType;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
 import org.junit.Test;
 
 public class PlannerFactoryTest {
@@ -26,4 +35,34 @@ public class PlannerFactoryTest {
         assertFalse(planner instanceof HeliosPlanner);
     }
 
+    @Test
+    public void testSampledSelectivity() {
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        source.addTriple("S1", "age", "26");
+        source.addTriple("S2", "age", "13");
+        source.addTriple("S3", "age", "52");
+        target.addTriple("T1", "age", "26");
+        target.addTriple("T2", "age", "13");
+        target.addTriple("T3", "age", "50");
+        target.addTriple("T4", "age", "26");
+        double size = MapperFactory.createMapper(MeasureType.EXACTMATCH)
+                .getMapping(source, target, "?x", "?y", "exactmatch(x.age, y.age)", 1.0).getNumberofMappings();
+        for (ExecutionPlannerType type : new ExecutionPlannerType[] { ExecutionPlannerType.HELIOS,
+                ExecutionPlannerType.DYNAMIC }) {
+            Planner planner = ExecutionPlannerFactory.getPlanner(type, source, target);
+            assertNotNull(planner.getSelectivityEstimator());
+            LinkSpecification spec = new LinkSpecification("exactmatch(x.age, y.age)", 1.0);
+            if (planner instanceof DynamicPlanner) {
+                ((DynamicPlanner) planner).init(spec);
+            }
+            NestedPlan plan = planner.plan(spec);
+            // the caches are smaller than the samples, so the estimate is exact
+            assertEquals(size, plan.getMappingSize(), 1e-9);
+            assertEquals(size / (source.size() * target.size()), plan.getSelectivity(), 1e-9);
+        }
+        assertNull(ExecutionPlannerFactory.getPlanner(ExecutionPlannerType.HELIOS, null, null)
+                .getSelectivityEstimator());
+    }
+
 }
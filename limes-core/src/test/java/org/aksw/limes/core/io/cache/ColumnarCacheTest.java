@@ -0,0 +1,80 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarCacheTest {
+
+    public MemoryCache memoryCache = new MemoryCache();
+    public ColumnarCache cache = new ColumnarCache();
+
+    @Before
+    public void prepareData() {
+        String[][] triples = { { "ex:i1", "name", "Ford" }, { "ex:i1", "name", "Prefect" }, { "ex:i1", "age", "42" },
+                { "ex:i2", "name", "Arthur" }, { "ex:i3", "name", "Ford" }, { "ex:i2", "age", "30" },
+                { "ex:i1", "name", "Ford" } };
+        for (String[] t : triples) {
+            memoryCache.addTriple(t[0], t[1], t[2]);
+            cache.addTriple(t[0], t[1], t[2]);
+        }
+    }
+
+    @Test
+    public void testInstanceView() {
+        assertEquals(memoryCache.size(), cache.size());
+        assertEquals(new HashSet<>(memoryCache.getAllUris()), new HashSet<>(cache.getAllUris()));
+        assertEquals(memoryCache.getAllProperties(), cache.getAllProperties());
+        for (String uri : memoryCache.getAllUris()) {
+            Instance expected = memoryCache.getInstance(uri);
+            Instance actual = cache.getInstance(uri);
+            assertEquals(expected.getAllProperties(), actual.getAllProperties());
+            for (String property : expected.getAllProperties()) {
+                assertEquals(expected.getProperty(property), actual.getProperty(property));
+            }
+        }
+        assertNull(cache.getInstance("ex:i4"));
+        assertTrue(cache.containsUri("ex:i3"));
+        assertFalse(cache.containsUri("ex:i4"));
+    }
+
+    @Test
+    public void testValueToUriMap() {
+        Map<String, Set<String>> valueToUri = cache.getValueToUriMap("name");
+        assertEquals(new HashSet<>(Arrays.asList("ex:i1", "ex:i3")), valueToUri.get("Ford"));
+        assertEquals(new HashSet<>(Arrays.asList("ex:i2")), valueToUri.get("Arthur"));
+        assertEquals(3, valueToUri.size());
+        assertTrue(cache.getValueToUriMap("unknown").isEmpty());
+    }
+
+    @Test
+    public void testReplaceInstance() {
+        Instance i = cache.getInstance("ex:i1");
+        i.replaceProperty("name", new TreeSet<>(Arrays.asList("ford")));
+        i.removePropery("age");
+        cache.replaceInstance(i.getUri(), i);
+        cache.addTriple("ex:i1", "age", "43");
+        assertEquals(new TreeSet<>(Arrays.asList("ford")), cache.getInstance("ex:i1").getProperty("name"));
+        assertEquals(new TreeSet<>(Arrays.asList("43")), cache.getInstance("ex:i1").getProperty("age"));
+        assertEquals(new TreeSet<>(Arrays.asList("30")), cache.getInstance("ex:i2").getProperty("age"));
+    }
+
+    @Test
+    public void testClone() {
+        ColumnarCache cloned = cache.clone();
+        assertTrue(cloned != cache);
+        assertEquals(cache, cloned);
+        cloned.addTriple("ex:i2", "name", "Dent");
+        assertFalse(cache.equals(cloned));
+    }
+}
@@ -0,0 +1,81 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileCacheTest {
+
+    public MemoryCache memoryCache = new MemoryCache();
+    public File file;
+
+    @Before
+    public void prepareData() throws IOException {
+        memoryCache.addTriple("ex:i1", "name", "Ford");
+        memoryCache.addTriple("ex:i1", "name", "Prefect");
+        memoryCache.addTriple("ex:i1", "age", "42");
+        memoryCache.addTriple("ex:i2", "name", "Zaphod Beeblebrox");
+        memoryCache.addTriple("ex:i3", "name", "Ford");
+        memoryCache.addTriple("ex:iä", "name", "Märvin ☃");
+        file = File.createTempFile("limes-cache", FileCache.EXTENSION);
+        FileCache.write(memoryCache, file);
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        FileCache cache = new FileCache(file);
+        assertEquals(memoryCache.size(), cache.size());
+        assertEquals(memoryCache.getAllUris(), cache.getAllUris());
+        assertEquals(memoryCache.getAllProperties(), cache.getAllProperties());
+        for (String uri : memoryCache.getAllUris()) {
+            Instance expected = memoryCache.getInstance(uri);
+            Instance actual = cache.getInstance(uri);
+            assertEquals(expected.getAllProperties(), actual.getAllProperties());
+            for (String property : expected.getAllProperties()) {
+                assertEquals(expected.getProperty(property), actual.getProperty(property));
+            }
+        }
+        assertNull(cache.getInstance("ex:i4"));
+        assertEquals(new HashSet<>(Arrays.asList("ex:i1", "ex:i3")), cache.getValueToUriMap("name").get("Ford"));
+    }
+
+    @Test
+    public void testChanges() throws IOException {
+        FileCache cache = new FileCache(file);
+        cache.addTriple("ex:i2", "age", "42");
+        cache.addTriple("ex:i4", "name", "Arthur");
+        assertEquals(memoryCache.size() + 1, cache.size());
+        assertEquals("42", cache.getInstance("ex:i2").getProperty("age").first());
+        assertTrue(cache.containsUri("ex:i4"));
+        assertEquals(new HashSet<>(Arrays.asList("ex:i1", "ex:i2")), cache.getValueToUriMap("age").get("42"));
+        FileCache cloned = cache.clone();
+        assertEquals(cache, cloned);
+        // changes are not written into the file
+        assertEquals(memoryCache.size(), new FileCache(file).size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidFile() throws IOException {
+        File invalid = File.createTempFile("limes-cache", FileCache.EXTENSION);
+        invalid.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(invalid)) {
+            out.write(new byte[64]);
+        }
+        new FileCache(invalid);
+    }
+}
@@ -0,0 +1,167 @@
+package org.aksw.limes.core.io.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.aksw.limes.core.execution.engine.filter.LinearFilter;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
+import org.aksw.limes.core.measures.mapper.MappingOperations;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactMappingTest {
+
+    private AMapping m1;
+    private AMapping m2;
+    private CompactMapping c1;
+    private CompactMapping c2;
+
+    @Before
+    public void setUp() {
+        m1 = MappingFactory.createDefaultMapping();
+        m1.add("Potter", "Harry", 0.7);
+        m1.add("Granger", "Hermione", 0.9);
+        m1.add("Weasley", "Ron", 0.4);
+        m1.add("Weasley", "Fred", 0.5);
+        m1.add("Weasley", "Ron", 0.6);
+
+        m2 = MappingFactory.createDefaultMapping();
+        m2.add("Weasley", "Ron", 0.8);
+        m2.add("Weasley", "George", 0.3);
+        m2.add("Potter", "Harry", 0.2);
+        m2.add("Malfoy", "Draco", 1.0);
+
+        UriDictionary sourceIds = new UriDictionary();
+        UriDictionary targetIds = new UriDictionary();
+        c1 = CompactMapping.from(m1, sourceIds, targetIds);
+        c2 = CompactMapping.from(m2, sourceIds, targetIds);
+    }
+
+    @Test
+    public void testAdd() {
+        assertEquals(m1.getMap(), c1.getMap());
+        assertEquals(4, c1.size());
+        assertEquals(0.6, c1.getConfidence("Weasley", "Ron"), 0d);
+        assertTrue(c1.contains("Potter", "Harry"));
+        assertFalse(c1.contains("Harry", "Potter"));
+        assertEquals(0, c1.getConfidence("Malfoy", "Ron"), 0d);
+
+        CompactMapping c = new CompactMapping(new UriDictionary(), new UriDictionary());
+        HashMap<String, Double> targets = new HashMap<>();
+        targets.put("Fred", 0.5);
+        targets.put("Ron", 0.6);
+        c.add("Weasley", "Ron", 0.4);
+        c.add("Weasley", targets);
+        c.add("Granger", "Hermione", 0.9);
+        c.add("Potter", "Harry", 0.7);
+        assertEquals(m1.getMap(), c.getMap());
+        assertEquals(c1, c);
+    }
+
+    @Test
+    public void testGetMapIsReadOnly() {
+        try {
+            c1.getMap().get("Weasley").put("Ginny", 1.0);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            c1.getMap().keySet().remove("Potter");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertFalse(c1.contains("Weasley", "Ginny"));
+        c1.add("Weasley", "Ginny", 1.0);
+        assertEquals(1.0, c1.getMap().get("Weasley").get("Ginny"), 0d);
+    }
+
+    @Test
+    public void testEqualsMemoryMapping() {
+        assertEquals(m1, c1);
+        assertEquals(c1, m1);
+        assertFalse(c1.equals(m2));
+        assertFalse(m2.equals(c1));
+    }
+
+    @Test
+    public void testForEachLink() {
+        AMapping m = MappingFactory.createDefaultMapping();
+        c1.forEachLink(m::add);
+        assertEquals(m1, m);
+    }
+
+    @Test
+    public void testSetOperations() {
+        assertEquals(MappingOperations.union(m1, m2).getMap(), MappingOperations.union(c1, c2).getMap());
+        assertEquals(MappingOperations.intersection(m1, m2).getMap(),
+                MappingOperations.intersection(c1, c2).getMap());
+        assertEquals(MappingOperations.difference(m1, m2).getMap(),
+                MappingOperations.difference(c1, c2).getMap());
+        assertEquals(MappingOperations.difference(m2, m1).getMap(),
+                MappingOperations.difference(c2, c1).getMap());
+        // mixed operands result in compact mappings
+        assertTrue(MappingOperations.union(m1, c2) instanceof CompactMapping);
+        assertEquals(MappingOperations.difference(m1, m2).getMap(),
+                MappingOperations.difference(m1, c2).getMap());
+        assertEquals(MappingOperations.intersection(m1, m2).getMap(),
+                MappingOperations.intersection(c1, m2).getMap());
+    }
+
+    @Test
+    public void testFilterAndSubMaps() {
+        LinearFilter filter = new LinearFilter();
+        AMapping filtered = filter.filter(c1, 0.6);
+        assertTrue(filtered instanceof CompactMapping);
+        assertEquals(filter.filter(m1, 0.6).getMap(), filtered.getMap());
+        assertEquals(m1.getSubMap(0.6).getMap(), c1.getSubMap(0.6).getMap());
+        assertEquals(m1.getBestOneToNMapping().getMap(), c1.getBestOneToNMapping().getMap());
+        assertEquals(m1.reverseSourceTarget().getMap(), c1.reverseSourceTarget().getMap());
+    }
+
+    @Test
+    public void testConcurrentAdd() {
+        CompactMapping c = new CompactMapping(new UriDictionary(), new UriDictionary());
+        AMapping expected = MappingFactory.createDefaultMapping();
+        for (int i = 0; i < 200; i++) {
+            for (int j = 0; j < 50; j++) {
+                expected.add("s" + i, "t" + j, (i + j) / 250d);
+            }
+        }
+        List<Object> results = LinkingExecutor.map("test", 200, i -> {
+            for (int j = 0; j < 50; j++) {
+                c.add("s" + i, "t" + j, (i + j) / 250d);
+            }
+            return null;
+        });
+        assertEquals(200, results.size());
+        assertEquals(expected.getMap(), c.getMap());
+    }
+
+    @Test
+    public void testResultMappings() {
+        assertTrue(MappingFactory.createResultMapping() instanceof MemoryMapping);
+        UriDictionary sourceIds = new UriDictionary();
+        UriDictionary targetIds = new UriDictionary();
+        List<AMapping> results = MappingFactory.withCompactMappings(sourceIds, targetIds, () -> {
+            List<AMapping> mappings = new ArrayList<>();
+            mappings.add(MappingFactory.createResultMapping());
+            // the default mappings of the mappers are not affected
+            mappings.add(MappingFactory.createDefaultMapping());
+            return mappings;
+        });
+        assertTrue(results.get(0) instanceof CompactMapping);
+        assertTrue(((CompactMapping) results.get(0)).getSourceDictionary() == sourceIds);
+        assertTrue(((CompactMapping) results.get(0)).getTargetDictionary() == targetIds);
+        assertTrue(results.get(1) instanceof MemoryMapping);
+        assertTrue(MappingFactory.createResultMapping() instanceof MemoryMapping);
+    }
+
+}
@@ -0,0 +1,53 @@
+package org.aksw.limes.core.io.preprocessing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.aksw.limes.core.exceptions.IllegalNumberOfParametersException;
+import org.aksw.limes.core.exceptions.InvalidPreprocessingFunctionException;
+import org.aksw.limes.core.io.cache.Instance;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PreprocessingPipelineTest {
+
+	public static final String PROP_LABEL = "rdfs:label";
+	public static final String PROP_RENAMED_LABEL = "label";
+
+	public Instance testInstance;
+
+	@Before
+	public void prepareData() {
+		testInstance = new Instance("testInstance");
+		testInstance.addProperty(PROP_LABEL, new TreeSet<>(Arrays.asList("Ibuprofen (drug)@en", "Test Label@en")));
+	}
+
+	@Test
+	public void testApply() {
+		PreprocessingPipeline pipeline = new PreprocessingPipeline(PROP_LABEL, PROP_RENAMED_LABEL,
+				"nolang->removebraces->lowercase->regexreplace(\\s+$, )->replace(test ,)");
+		pipeline.apply(testInstance);
+		assertTrue(testInstance.getProperty(PROP_LABEL).isEmpty());
+		assertEquals(new TreeSet<>(Arrays.asList("ibuprofen", "label")), testInstance.getProperty(PROP_RENAMED_LABEL));
+	}
+
+	@Test
+	public void testRenameOnly() {
+		new PreprocessingPipeline(PROP_LABEL, PROP_RENAMED_LABEL, null).apply(testInstance);
+		assertEquals(new TreeSet<>(Arrays.asList("Ibuprofen (drug)@en", "Test Label@en")),
+				testInstance.getProperty(PROP_RENAMED_LABEL));
+	}
+
+	@Test(expected = IllegalNumberOfParametersException.class)
+	public void testIllegalNumberOfArguments() {
+		new PreprocessingPipeline(PROP_LABEL, PROP_LABEL, "lowercase->regexreplace(a)");
+	}
+
+	@Test(expected = InvalidPreprocessingFunctionException.class)
+	public void testInvalidFunction() {
+		new PreprocessingPipeline(PROP_LABEL, PROP_LABEL, "lowercase->unknown");
+	}
+}
@@ -1,5 +1,6 @@
 package org.aksw.limes.core.io.query;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -10,7 +11,14 @@ import java.util.Map;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.HybridCache;
+import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.config.KBInfo;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -64,4 +72,101 @@ public class SparqlQueryModuleTest {
         assertTrue(cache.size() > 0);
     }
 
+    private static Model createDrugModel(int drugs) {
+        Model model = ModelFactory.createDefaultModel();
+        Resource drug = model.createResource("http://dbpedia.org/ontology/Drug");
+        for (int i = 0; i < drugs; i++) {
+            model.createResource("http://example.org/drug" + i)
+                    .addProperty(RDF.type, drug)
+                    .addProperty(RDFS.label, "drug " + i);
+        }
+        return model;
+    }
+
+    @Test
+    public void concurrentPagesTest() {
+        ModelRegistry.register("concurrentPagesTest", createDrugModel(25));
+        try {
+            kbInfo.setEndpoint("concurrentPagesTest");
+            kbInfo.setPageSize(4);
+            kbInfo.setMaxOffset(-1);
+            ACache sequential = new MemoryCache();
+            new SparqlQueryModule(kbInfo).fillCache(sequential, false);
+
+            kbInfo.setConcurrentPages(3);
+            ACache concurrent = new MemoryCache();
+            new SparqlQueryModule(kbInfo).fillCache(concurrent, false);
+            assertEquals(25, concurrent.size());
+            assertEquals(sequential, concurrent);
+
+            kbInfo.setMinOffset(5);
+            kbInfo.setMaxOffset(18);
+            ACache partial = new MemoryCache();
+            new SparqlQueryModule(kbInfo).fillCache(partial, false);
+            assertEquals(13, partial.size());
+        } finally {
+            ModelRegistry.unregister("concurrentPagesTest");
+        }
+    }
+
+    @Test
+    public void concurrentPagesZeroMaxOffsetTest() {
+        ModelRegistry.register("concurrentPagesZeroMaxOffsetTest", createDrugModel(25));
+        try {
+            kbInfo.setEndpoint("concurrentPagesZeroMaxOffsetTest");
+            kbInfo.setPageSize(4);
+            kbInfo.setMaxOffset(0);
+            ACache sequential = new MemoryCache();
+            new SparqlQueryModule(kbInfo).fillCache(sequential, false);
+            assertEquals(4, sequential.size());
+
+            kbInfo.setConcurrentPages(3);
+            ACache concurrent = new MemoryCache();
+            new SparqlQueryModule(kbInfo).fillCache(concurrent, false);
+            assertEquals(sequential, concurrent);
+        } finally {
+            ModelRegistry.unregister("concurrentPagesZeroMaxOffsetTest");
+        }
+    }
+
+    @Test
+    public void concurrentPagesFailingPageTest() {
+        ModelRegistry.register("concurrentPagesFailingPageTest", createDrugModel(25));
+        try {
+            kbInfo.setEndpoint("concurrentPagesFailingPageTest");
+            kbInfo.setPageSize(4);
+            kbInfo.setMaxOffset(-1);
+            ACache sequential = new MemoryCache();
+            new FailingQueryModule(kbInfo).fillCache(sequential, false);
+            // only the failing solution and the rest of its page are missing
+            assertTrue(sequential.size() > 25 - 4);
+            assertTrue(sequential.size() < 25);
+
+            kbInfo.setConcurrentPages(3);
+            ACache concurrent = new MemoryCache();
+            new FailingQueryModule(kbInfo).fillCache(concurrent, false);
+            assertEquals(sequential, concurrent);
+        } finally {
+            ModelRegistry.unregister("concurrentPagesFailingPageTest");
+        }
+    }
+
+    /**
+     * Fails to write the solution of one drug.
+     */
+    private static class FailingQueryModule extends SparqlQueryModule {
+
+        FailingQueryModule(KBInfo kbinfo) {
+            super(kbinfo);
+        }
+
+        @Override
+        protected void addSolution(ACache cache, QuerySolution soln) {
+            if (soln.get("x").toString().equals("http://example.org/drug10")) {
+                throw new IllegalStateException("drug10");
+            }
+            super.addSolution(cache, soln);
+        }
+    }
+
 }
@@ -0,0 +1,120 @@
+package org.aksw.limes.core.measures.mapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.string.JaroWinklerMapper;
+import org.junit.After;
+import org.junit.Test;
+
+public class IndexCacheTest {
+
+    private static class ValueToUriMapper extends JaroWinklerMapper {
+        Map<String, Set<String>> index(ACache cache, String property) {
+            return getValueToUriMap(cache, property);
+        }
+    }
+
+    private static ACache createCache() {
+        ACache cache = new MemoryCache();
+        cache.addTriple("ex:1", "name", "kilkenny");
+        cache.addTriple("ex:2", "name", "kilkenny");
+        cache.addTriple("ex:3", "name", "dublin");
+        return cache;
+    }
+
+    @After
+    public void tearDown() {
+        IndexCache.setCapacity(Runtime.getRuntime().maxMemory() / 8);
+        IndexCache.clear();
+    }
+
+    @Test
+    public void testIndexIsShared() {
+        ACache cache = createCache();
+        ValueToUriMapper mapper = new ValueToUriMapper();
+        Map<String, Set<String>> index = mapper.index(cache, "name");
+        assertEquals(2, index.size());
+        assertEquals(2, index.get("kilkenny").size());
+        assertSame(index, mapper.index(cache, "name"));
+        assertSame(index, new ValueToUriMapper().index(cache, "name"));
+        // equal caches do not share indexes
+        assertNotSame(index, mapper.index(createCache(), "name"));
+    }
+
+    @Test
+    public void testIndexIsRecomputedAfterModification() {
+        ACache cache = createCache();
+        ValueToUriMapper mapper = new ValueToUriMapper();
+        Map<String, Set<String>> index = mapper.index(cache, "name");
+        cache.addTriple("ex:4", "name", "dublin");
+        Map<String, Set<String>> updated = mapper.index(cache, "name");
+        assertNotSame(index, updated);
+        assertEquals(2, updated.get("dublin").size());
+    }
+
+    @Test
+    public void testIndexIsRecomputedAfterInstanceModification() {
+        ACache cache = createCache();
+        ValueToUriMapper mapper = new ValueToUriMapper();
+        Map<String, Set<String>> index = mapper.index(cache, "name");
+        // instances modified in place, e.g. by preprocessing
+        cache.getInstance("ex:3").addProperty("name", "kilkenny");
+        Map<String, Set<String>> updated = mapper.index(cache, "name");
+        assertNotSame(index, updated);
+        assertEquals(3, updated.get("kilkenny").size());
+    }
+
+    @Test
+    public void testIndexSurvivesModificationOfOtherCache() {
+        ACache cache = createCache();
+        ACache other = createCache();
+        ValueToUriMapper mapper = new ValueToUriMapper();
+        Map<String, Set<String>> index = mapper.index(cache, "name");
+        other.getInstance("ex:3").addProperty("name", "kilkenny");
+        other.addTriple("ex:4", "name", "dublin");
+        assertSame(index, mapper.index(cache, "name"));
+
+        // instances added to several caches change all of them
+        Instance shared = new Instance("ex:5");
+        cache.addInstance(shared);
+        other.addInstance(shared);
+        index = mapper.index(cache, "name");
+        shared.addProperty("name", "cork");
+        assertNotSame(index, mapper.index(cache, "name"));
+    }
+
+    @Test
+    public void testEviction() {
+        IndexCache.clear();
+        IndexCache.setCapacity(1000);
+        ACache cache = createCache();
+        Object first = IndexCache.get("first", () -> new ArrayList<String>(), list -> 600, cache);
+        IndexCache.get("second", () -> new ArrayList<String>(), list -> 600, cache);
+        assertEquals(1, IndexCache.getIndexCount());
+        assertNotSame(first, IndexCache.get("first", () -> new ArrayList<String>(), list -> 600, cache));
+    }
+
+    @Test
+    public void testMappingIsUnchanged() {
+        ACache source = createCache();
+        ACache target = createCache();
+        target.addTriple("ex:5", "name", "kilkeny");
+        AMapping first = new JaroWinklerMapper().getMapping(source, target, "?x", "?y",
+                "jaroWinkler(x.name, y.name)", 0.9);
+        AMapping second = new JaroWinklerMapper().getMapping(source, target, "?x", "?y",
+                "jaroWinkler(x.name, y.name)", 0.9);
+        assertEquals(first, second);
+        assertEquals(7, second.size());
+    }
+
+}
@@ -0,0 +1,68 @@
+package org.aksw.limes.core.measures.mapper;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class LinkingExecutorTest {
+
+    @Test
+    public void testMapKeepsOrder() {
+        List<Integer> results = LinkingExecutor.map("test", 100, i -> i * i);
+        assertEquals(100, results.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i * i, results.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testJobWaitsForAllTasks() {
+        AtomicInteger counter = new AtomicInteger();
+        LinkingExecutor.Job job = LinkingExecutor.newJob("test");
+        for (int i = 0; i < 50; i++) {
+            job.submit(() -> {
+                counter.incrementAndGet();
+            });
+        }
+        job.join();
+        assertEquals(50, counter.get());
+        assertEquals(50, job.getTaskCount());
+        assertEquals(50, job.getCompletedTaskCount());
+    }
+
+    @Test
+    public void testNestedJobs() {
+        // tasks that wait for tasks of their own must not exhaust the pool
+        List<Integer> results = LinkingExecutor.map("outer", 4 * LinkingExecutor.getParallelism(),
+                i -> LinkingExecutor.map("inner", 10, j -> j).size());
+        for (int size : results) {
+            assertEquals(10, size);
+        }
+    }
+
+    @Test
+    public void testConfigure() {
+        String property = System.getProperty(LinkingExecutor.PARALLELISM_PROPERTY);
+        try {
+            LinkingExecutor.configure(3);
+            assertEquals(3, LinkingExecutor.getParallelism());
+            System.setProperty(LinkingExecutor.PARALLELISM_PROPERTY, "2");
+            LinkingExecutor.configure(0);
+            assertEquals(2, LinkingExecutor.getParallelism());
+            System.clearProperty(LinkingExecutor.PARALLELISM_PROPERTY);
+            LinkingExecutor.configure(0);
+            assertEquals(Runtime.getRuntime().availableProcessors(), LinkingExecutor.getParallelism());
+        } finally {
+            if (property == null) {
+                System.clearProperty(LinkingExecutor.PARALLELISM_PROPERTY);
+            } else {
+                System.setProperty(LinkingExecutor.PARALLELISM_PROPERTY, property);
+            }
+            LinkingExecutor.configure(0);
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.aksw.limes.core.measures.mapper.space;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.measure.space.ISpaceMeasure;
+import org.aksw.limes.core.measures.measure.space.SpaceMeasureFactory;
+import org.junit.Test;
+
+public class HR3MapperTest {
+
+    private AMapping bruteForce(ACache source, ACache target, String measureName, String properties,
+            double threshold) {
+        ISpaceMeasure measure = SpaceMeasureFactory.getMeasure(measureName, properties.split("\\|").length);
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (String s : source.getAllUris()) {
+            for (String t : target.getAllUris()) {
+                double sim = measure.getSimilarity(source.getInstance(s), target.getInstance(t), properties,
+                        properties);
+                if (sim >= threshold) {
+                    m.add(s, t, sim);
+                }
+            }
+        }
+        return m;
+    }
+
+    @Test
+    public void testAgainstBruteForce() {
+        Random random = new Random(42);
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        // more instances than one partition, some of them with several
+        // values per property
+        for (int i = 0; i < 800; i++) {
+            for (String property : new String[] { "lat", "long" }) {
+                source.addTriple("s" + i, property, Double.toString(random.nextDouble() * 20 - 10));
+                target.addTriple("t" + i, property, Double.toString(random.nextDouble() * 20 - 10));
+                if (i % 10 == 0) {
+                    source.addTriple("s" + i, property, Double.toString(random.nextDouble() * 20 - 10));
+                }
+            }
+        }
+        HR3Mapper mapper = new HR3Mapper();
+        for (String measureName : new String[] { "euclidean", "manhattan" }) {
+            for (double threshold : new double[] { 0.8, 0.5 }) {
+                AMapping expected = bruteForce(source, target, measureName, "lat|long", threshold);
+                AMapping actual = mapper.getMapping(source, target, "?x", "?y",
+                        measureName + "(x.lat|long, y.lat|long)", threshold);
+                assertEquals(expected.getMap(), actual.getMap());
+            }
+        }
+    }
+
+    @Test
+    public void testGeoPoints() {
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        source.addTriple("s0", "lat", "0.0");
+        source.addTriple("s0", "long", "0.0");
+        target.addTriple("t0", "lat", "0.0");
+        target.addTriple("t0", "long", "0.0");
+        // about 1.5 km away, in a neighbouring block
+        target.addTriple("t1", "lat", "0.01");
+        target.addTriple("t1", "long", "0.01");
+        AMapping actual = new HR3Mapper().getMapping(source, target, "?x", "?y",
+                "geo_orthodromic(x.lat|long, y.lat|long)", 0.9);
+        assertEquals(1.0d, actual.getConfidence("s0", "t0"), 0.0d);
+        assertFalse(actual.contains("s0", "t1"));
+    }
+}
@@ -0,0 +1,67 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.junit.Test;
+
+public class EDJoinMapperTest {
+
+    private static String randomString(Random random, int minLength, int maxLength) {
+        StringBuilder sb = new StringBuilder();
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(4)));
+        }
+        return sb.toString();
+    }
+
+    private AMapping bruteForce(ACache source, ACache target, double threshold) {
+        double distance = (1 - threshold) / threshold;
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (String s : source.getAllUris()) {
+            for (String t : target.getAllUris()) {
+                for (String sv : source.getInstance(s).getProperty("label")) {
+                    for (String tv : target.getInstance(t).getProperty("label")) {
+                        int ed = EDJoinMapper.editDistance(sv, tv);
+                        if (ed <= distance) {
+                            m.add(s, t, 1.0 / (1 + (double) ed));
+                        }
+                    }
+                }
+            }
+        }
+        return m;
+    }
+
+    @Test
+    public void testAgainstBruteForce() {
+        Random random = new Random(42);
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        // more records than one partition of the probe phase, with values
+        // shorter than the q-grams and several values per instance. Prefix
+        // filtering needs at least q * tau + 1 q-grams, so the other values
+        // are long enough for a distance of 1.
+        for (int i = 0; i < 800; i++) {
+            source.addTriple("s" + i, "label", randomString(random, 6, 10));
+            target.addTriple("t" + i, "label", randomString(random, 6, 10));
+            if (i % 10 == 0) {
+                source.addTriple("s" + i, "label", randomString(random, 1, 2));
+                target.addTriple("t" + i, "label", randomString(random, 1, 2));
+            }
+        }
+        EDJoinMapper mapper = new EDJoinMapper();
+        for (double threshold : new double[] { 1.0, 0.5 }) {
+            AMapping expected = bruteForce(source, target, threshold);
+            AMapping actual = mapper.getMapping(source, target, "?x", "?y", "levenshtein(x.label, y.label)",
+                    threshold);
+            assertEquals(expected.getMap(), actual.getMap());
+        }
+    }
+}
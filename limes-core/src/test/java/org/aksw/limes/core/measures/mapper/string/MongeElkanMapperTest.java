@@ -0,0 +1,71 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.measure.string.MongeElkanMeasure;
+import org.junit.Test;
+
+public class MongeElkanMapperTest {
+
+    private static final String[] NAMES = { "john", "jon", "johann", "mary", "maria", "marie", "peter", "petra",
+            "paul", "paula", "a", "" };
+
+    private static String randomName(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int tokens = 1 + random.nextInt(3);
+        for (int i = 0; i < tokens; i++) {
+            sb.append(i == 0 ? "" : " ");
+            if (random.nextBoolean()) {
+                sb.append(NAMES[random.nextInt(NAMES.length)]);
+            } else {
+                int length = 1 + random.nextInt(6);
+                for (int k = 0; k < length; k++) {
+                    sb.append((char) ('a' + random.nextInt(5)));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private AMapping bruteForce(ACache source, ACache target, double threshold) {
+        MongeElkanMeasure measure = new MongeElkanMeasure();
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (String s : source.getAllUris()) {
+            for (String t : target.getAllUris()) {
+                double sim = measure.getSimilarity(source.getInstance(s), target.getInstance(t), "name", "name");
+                if (sim >= threshold) {
+                    m.add(s, t, sim);
+                }
+            }
+        }
+        return m;
+    }
+
+    @Test
+    public void testAgainstBruteForce() {
+        Random random = new Random(42);
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        // more source values than one partition, with empty tokens and
+        // several values per instance
+        for (int i = 0; i < 700; i++) {
+            source.addTriple("s" + i, "name", randomName(random));
+            target.addTriple("t" + i, "name", randomName(random));
+            if (i % 10 == 0) {
+                source.addTriple("s" + i, "name", randomName(random));
+            }
+        }
+        MongeElkanMapper mapper = new MongeElkanMapper();
+        for (double threshold : new double[] { 1.0, 0.8, 0.5 }) {
+            AMapping expected = bruteForce(source, target, threshold);
+            AMapping actual = mapper.getMapping(source, target, "?x", "?y", "mongeelkan(x.name, y.name)", threshold);
+            assertEquals(expected.getMap(), actual.getMap());
+        }
+    }
+}
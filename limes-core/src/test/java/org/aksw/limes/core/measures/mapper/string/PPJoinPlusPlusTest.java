@@ -0,0 +1,127 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringTokenizer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.aksw.limes.core.measures.measure.string.IStringMeasure;
+import org.junit.Test;
+
+public class PPJoinPlusPlusTest {
+
+    private static String randomWords(Random random, int maxWords) {
+        StringBuilder sb = new StringBuilder();
+        int words = 1 + random.nextInt(maxWords);
+        for (int i = 0; i < words; i++) {
+            sb.append(i == 0 ? "" : " ").append("w").append(random.nextInt(30));
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, Integer> tokens(String s) {
+        Map<String, Integer> tokens = new HashMap<>();
+        StringTokenizer st = new StringTokenizer(s, " .,?!\t");
+        while (st.hasMoreTokens()) {
+            tokens.merge(st.nextToken(), 1, Integer::sum);
+        }
+        return tokens;
+    }
+
+    private AMapping bruteForce(ACache source, ACache target, MeasureType type, double threshold) {
+        IStringMeasure measure = (IStringMeasure) MeasureFactory.createMeasure(type);
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (String s : source.getAllUris()) {
+            for (String t : target.getAllUris()) {
+                for (String sv : source.getInstance(s).getProperty("label")) {
+                    for (String tv : target.getInstance(t).getProperty("label")) {
+                        Map<String, Integer> sTokens = tokens(sv);
+                        Map<String, Integer> tTokens = tokens(tv);
+                        int overlap = 0;
+                        for (Map.Entry<String, Integer> e : sTokens.entrySet()) {
+                            overlap += Math.min(e.getValue(), tTokens.getOrDefault(e.getKey(), 0));
+                        }
+                        int sSize = sTokens.values().stream().mapToInt(Integer::intValue).sum();
+                        int tSize = tTokens.values().stream().mapToInt(Integer::intValue).sum();
+                        double similarity = measure.getSimilarity(overlap, sSize, tSize);
+                        if (similarity >= threshold) {
+                            m.add(s, t, similarity);
+                        }
+                    }
+                }
+            }
+        }
+        return m;
+    }
+
+    private ACache source;
+    private ACache target;
+
+    private void createCaches() {
+        Random random = new Random(42);
+        source = new MemoryCache();
+        target = new MemoryCache();
+        List<String> values = new ArrayList<>();
+        // more records than one partition of the probe phase
+        for (int i = 0; i < 600; i++) {
+            String value = randomWords(random, 6);
+            values.add(value);
+            source.addTriple("s" + i, "label", value);
+            target.addTriple("t" + i, "label", i % 2 == 0 ? values.get(random.nextInt(values.size())) + " w3"
+                    : randomWords(random, 6));
+        }
+    }
+
+    @Test
+    public void testAgainstBruteForce() {
+        createCaches();
+        PPJoinPlusPlus mapper = new PPJoinPlusPlus();
+        for (MeasureType type : new MeasureType[] { MeasureType.TRIGRAM, MeasureType.COSINE }) {
+            for (double threshold : new double[] { 0.9, 0.6 }) {
+                String expression = type.name().toLowerCase() + "(x.label, y.label)";
+                AMapping expected = bruteForce(source, target, type, threshold);
+                AMapping actual = mapper.getMapping(source, target, "?x", "?y", expression, threshold);
+                assertEquals(expected.getMap(), actual.getMap());
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentThresholds() throws Exception {
+        createCaches();
+        // both joins share the tokenization of the caches
+        double[] thresholds = { 0.9, 0.5 };
+        AMapping[] expected = new AMapping[thresholds.length];
+        for (int i = 0; i < thresholds.length; i++) {
+            expected[i] = bruteForce(source, target, MeasureType.COSINE, thresholds[i]);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(thresholds.length);
+        try {
+            for (int run = 0; run < 50; run++) {
+                List<Future<AMapping>> results = new ArrayList<>();
+                for (double threshold : thresholds) {
+                    results.add(executor.submit(() -> new PPJoinPlusPlus().getMapping(source, target, "?x", "?y",
+                            "cosine(x.label, y.label)", threshold)));
+                }
+                for (int i = 0; i < thresholds.length; i++) {
+                    assertEquals(expected[i].getMap(), results.get(i).get().getMap());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.measure.string.SoundexMeasure;
+import org.junit.Test;
+
+public class SoundexMapperTest {
+
+    private static final String[] SYLLABLES = { "ma", "mei", "er", "schmidt", "mül", "ler", "ko", "ch", "an", "jo",
+            "hann", "phi", "lip", "wa", "gner", "be", "cker", "z", "k" };
+
+    private static String randomName(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int syllables = 1 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return sb.toString();
+    }
+
+    private AMapping bruteForce(ACache source, ACache target, double threshold) {
+        SoundexMeasure measure = new SoundexMeasure();
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (String s : source.getAllUris()) {
+            for (String t : target.getAllUris()) {
+                for (String sourceValue : source.getInstance(s).getProperty("name")) {
+                    for (String targetValue : target.getInstance(t).getProperty("name")) {
+                        double sim = measure.proximity(sourceValue, targetValue);
+                        if (sim >= threshold) {
+                            m.add(s, t, sim);
+                        }
+                    }
+                }
+            }
+        }
+        return m;
+    }
+
+    @Test
+    public void testAgainstBruteForce() {
+        Random random = new Random(42);
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        // more source codes than one partition and several values per
+        // instance
+        for (int i = 0; i < 1500; i++) {
+            source.addTriple("s" + i, "name", randomName(random));
+            target.addTriple("t" + i, "name", randomName(random));
+            if (i % 10 == 0) {
+                source.addTriple("s" + i, "name", randomName(random));
+            }
+        }
+        SoundexMapper mapper = new SoundexMapper();
+        for (double threshold : new double[] { 1.0, 0.8, 0.6 }) {
+            AMapping expected = bruteForce(source, target, threshold);
+            AMapping actual = mapper.getMapping(source, target, "?x", "?y", "soundex(x.name, y.name)", threshold);
+            assertEquals(expected.getMap(), actual.getMap());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.aksw.limes.core.measures.mapper.string.fastngram;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.measure.string.QGramSimilarityMeasure;
+import org.junit.Test;
+
+public class FastNGramMapperTest {
+
+    private static String randomString(Random random, int minLength, int maxLength) {
+        StringBuilder sb = new StringBuilder();
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        for (int i = 0; i < length; i++) {
+            sb.append(random.nextInt(8) == 0 ? ' ' : (char) ('a' + random.nextInt(4)));
+        }
+        return sb.toString();
+    }
+
+    private AMapping bruteForce(ACache source, ACache target, double threshold) {
+        QGramSimilarityMeasure measure = new QGramSimilarityMeasure();
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (String s : source.getAllUris()) {
+            for (String t : target.getAllUris()) {
+                for (String sv : source.getInstance(s).getProperty("label")) {
+                    for (String tv : target.getInstance(t).getProperty("label")) {
+                        double similarity = measure.getSimilarity(tv, sv);
+                        if (similarity >= threshold) {
+                            m.add(s, t, similarity);
+                        }
+                    }
+                }
+            }
+        }
+        return m;
+    }
+
+    @Test
+    public void testAgainstBruteForce() {
+        Random random = new Random(42);
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        // more source values than one partition, with values shorter than
+        // the q-grams and several values per instance
+        for (int i = 0; i < 800; i++) {
+            source.addTriple("s" + i, "label", randomString(random, 3, 8));
+            target.addTriple("t" + i, "label", randomString(random, 3, 8));
+            if (i % 10 == 0) {
+                source.addTriple("s" + i, "label", randomString(random, 0, 2));
+                target.addTriple("t" + i, "label", randomString(random, 0, 2));
+            }
+        }
+        FastNGramMapper mapper = new FastNGramMapper();
+        for (double threshold : new double[] { 1.0, 0.6, 0.3 }) {
+            AMapping expected = bruteForce(source, target, threshold);
+            AMapping actual = mapper.getMapping(source, target, "?x", "?y", "qgrams(x.label, y.label)", threshold);
+            assertEquals(expected.getMap(), actual.getMap());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.temporal.EpochColumn;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.AfterMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.BeforeMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.DuringMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.DuringReverseMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.EqualsMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.FinishesMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.IsFinishedByMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.IsMetByMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.IsOverlappedByMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.IsStartedByMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.MeetsMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.OverlapsMapper;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.complex.StartsMapper;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.temporal.TemporalMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.AfterMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.BeforeMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.DuringMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.DuringReverseMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.EqualsMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.FinishesMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.IsFinishedByMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.IsMetByMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.IsOverlappedByMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.IsStartedByMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.MeetsMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.OverlapsMeasure;
+import org.aksw.limes.core.measures.measure.temporal.allenAlgebra.StartsMeasure;
+import org.junit.Test;
+
+public class IntervalJoinTest {
+
+    private static ACache createCache(Random random, String prefix) {
+        ACache cache = new MemoryCache();
+        OffsetDateTime start = OffsetDateTime.of(2015, 5, 20, 8, 0, 0, 0, ZoneOffset.ofHours(2));
+        // more events than one partition and many equal dates
+        for (int i = 0; i < 600; i++) {
+            OffsetDateTime begin = start.plusMinutes(random.nextInt(200));
+            OffsetDateTime end = begin.plusMinutes(random.nextInt(30));
+            cache.addTriple(prefix + i, "b", begin.format(EpochColumn.FORMAT));
+            cache.addTriple(prefix + i, "e", end.format(EpochColumn.FORMAT));
+        }
+        return cache;
+    }
+
+    private static AMapping bruteForce(ACache source, ACache target, TemporalMeasure measure) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (Instance s : source.getAllInstances()) {
+            for (Instance t : target.getAllInstances()) {
+                double sim = measure.getSimilarity(s, t, "b|e", "b|e");
+                if (sim != 0)
+                    m.add(s.getUri(), t.getUri(), sim);
+            }
+        }
+        return m;
+    }
+
+    @Test
+    public void testAgainstMeasures() {
+        Random random = new Random(42);
+        ACache source = createCache(random, "s");
+        ACache target = createCache(random, "t");
+        AMapper[] mappers = { new AfterMapper(), new BeforeMapper(), new DuringMapper(), new DuringReverseMapper(),
+                new EqualsMapper(), new FinishesMapper(), new IsFinishedByMapper(), new IsMetByMapper(),
+                new IsOverlappedByMapper(), new IsStartedByMapper(), new MeetsMapper(), new OverlapsMapper(),
+                new StartsMapper() };
+        TemporalMeasure[] measures = { new AfterMeasure(), new BeforeMeasure(), new DuringMeasure(),
+                new DuringReverseMeasure(), new EqualsMeasure(), new FinishesMeasure(), new IsFinishedByMeasure(),
+                new IsMetByMeasure(), new IsOverlappedByMeasure(), new IsStartedByMeasure(), new MeetsMeasure(),
+                new OverlapsMeasure(), new StartsMeasure() };
+        String[] operators = { MeasureFactory.TMP_AFTER, MeasureFactory.TMP_BEFORE, MeasureFactory.TMP_DURING,
+                MeasureFactory.TMP_DURING_REVERSE, MeasureFactory.TMP_EQUALS, MeasureFactory.TMP_FINISHES,
+                MeasureFactory.TMP_IS_FINISHED_BY, MeasureFactory.TMP_IS_MET_BY, MeasureFactory.TMP_IS_OVERLAPPED_BY,
+                MeasureFactory.TMP_IS_STARTED_BY, MeasureFactory.TMP_MEETS, MeasureFactory.TMP_OVERLAPS,
+                MeasureFactory.TMP_STARTS };
+        for (int i = 0; i < mappers.length; i++) {
+            AMapping m = mappers[i].getMapping(source, target, "?x", "?y", operators[i] + "(x.b|e,y.b|e)", 1.0);
+            assertEquals(mappers[i].getName(), bruteForce(source, target, measures[i]), m);
+        }
+    }
+
+    @Test
+    public void testLenientDates() {
+        assertEquals(EpochColumn.parse("2015-05-02T08:05:03+02:00"), EpochColumn.parse("2015-5-2T8:5:3+02:00"));
+        // the 32nd of May rolls over into June
+        assertEquals(EpochColumn.parse("2015-06-01T00:00:00+02:00"), EpochColumn.parse("2015-05-32T00:00:00+02:00"));
+        ACache source = new MemoryCache();
+        source.addTriple("s", "b", "2015-5-20T8:0:0+02:00");
+        source.addTriple("s", "e", "2015-5-20T9:0:0+02:00");
+        ACache target = new MemoryCache();
+        target.addTriple("t", "b", "2015-05-20T10:00:00+02:00");
+        target.addTriple("t", "e", "2015-05-20T11:00:00+02:00");
+        AMapping m = new BeforeMapper().getMapping(source, target, "?x", "?y", "tmp_before(x.b|e,y.b|e)", 1.0);
+        assertEquals(1, m.size());
+        assertEquals(bruteForce(source, target, new BeforeMeasure()), m);
+    }
+
+    @Test
+    public void testFirstDate() {
+        // only the first end date of the source counts, not the later one
+        ACache source = new MemoryCache();
+        source.addTriple("s", "b", "2015-05-20T08:00:00+02:00");
+        source.addTriple("s", "e", "2015-05-20T09:00:00+02:00");
+        source.addTriple("s", "e", "2015-05-20T12:00:00+02:00");
+        ACache target = new MemoryCache();
+        target.addTriple("t", "b", "2015-05-20T10:00:00+02:00");
+        target.addTriple("t", "e", "2015-05-20T11:00:00+02:00");
+        AMapping m = new BeforeMapper().getMapping(source, target, "?x", "?y", "tmp_before(x.b|e,y.b|e)", 1.0);
+        assertEquals(1, m.size());
+        assertEquals(bruteForce(source, target, new BeforeMeasure()), m);
+        m = new DuringReverseMapper().getMapping(source, target, "?x", "?y", "tmp_during_reverse(x.b|e,y.b|e)", 1.0);
+        assertEquals(0, m.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingEndProperty() {
+        ACache cache = new MemoryCache();
+        cache.addTriple("s", "b", "2015-05-20T08:21:04+02:00");
+        new BeforeMapper().getMapping(cache, cache, "?x", "?y", "tmp_before(x.b,y.b)", 1.0);
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.aksw.limes.core.measures.mapper.temporal.simpleTemporal;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
@@ -11,6 +12,7 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -277,4 +279,19 @@ public class PredecessorMapperTest {
 
     }
 
+    @Test
+    public void datesOfDifferentCenturies() {
+        // epochs before 2001-09-09 have fewer digits than later epochs
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        source.addTriple("S1", "b", "2015-05-20T08:21:04+02:00");
+        target.addTriple("T1", "b", "1999-01-01T00:00:00+00:00");
+        target.addTriple("T2", "b", "2000-01-01T00:00:00+00:00");
+        AMapping m = new PredecessorMapper().getMapping(source, target, "?x", "?y", "tmp_predecessor(x.b,y.b)",
+                1.0);
+        AMapping expected = MappingFactory.createDefaultMapping();
+        expected.add("S1", "T2", 1);
+        assertEquals(expected, m);
+    }
+
 }
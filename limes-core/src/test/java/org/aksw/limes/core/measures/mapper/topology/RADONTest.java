@@ -1,15 +1,118 @@
 package org.aksw.limes.core.measures.mapper.topology;
 
 import static org.aksw.limes.core.measures.mapper.pointsets.OrchidMapper.getPoints;
+import static org.junit.Assert.assertEquals;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
 
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
 import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
 
 public class RADONTest {
 
+    private static final String[] RELATIONS = { RADON.EQUALS, RADON.DISJOINT, RADON.INTERSECTS, RADON.TOUCHES,
+            RADON.CROSSES, RADON.WITHIN, RADON.CONTAINS, RADON.OVERLAPS, RADON.COVERS, RADON.COVEREDBY };
+
+    private static ACache randomRectangles(Random random, String prefix, int size) {
+        ACache cache = new MemoryCache();
+        for (int i = 0; i < size; i++) {
+            int x = random.nextInt(40);
+            int y = random.nextInt(40);
+            int w = 1 + random.nextInt(4);
+            int h = 1 + random.nextInt(4);
+            cache.addTriple(prefix + i, "asWKT", "POLYGON ((" + x + " " + y + ", " + (x + w) + " " + y + ", " + (x + w)
+                    + " " + (y + h) + ", " + x + " " + (y + h) + ", " + x + " " + y + "))");
+        }
+        return cache;
+    }
+
+    private static boolean relate(Geometry s, Geometry t, String relation) {
+        switch (relation) {
+        case RADON.EQUALS:
+            return s.equals(t);
+        case RADON.DISJOINT:
+            return s.disjoint(t);
+        case RADON.INTERSECTS:
+            return s.intersects(t);
+        case RADON.TOUCHES:
+            return s.touches(t);
+        case RADON.CROSSES:
+            return s.crosses(t);
+        case RADON.WITHIN:
+            return s.within(t);
+        case RADON.CONTAINS:
+            return s.contains(t);
+        case RADON.OVERLAPS:
+            return s.overlaps(t);
+        case RADON.COVERS:
+            return s.covers(t);
+        default:
+            return s.coveredBy(t);
+        }
+    }
+
+    @Test
+    public void testAgainstBruteForce() {
+        Random random = new Random(42);
+        // more source geometries than one partition
+        ACache source = randomRectangles(random, "s", 300);
+        ACache target = randomRectangles(random, "t", 300);
+        Map<String, Geometry> sourceMap = RADON.getGeometryMapFromCache(source, "asWKT");
+        Map<String, Geometry> targetMap = RADON.getGeometryMapFromCache(target, "asWKT");
+        // RADON only reads the properties of the expression
+        String expression = "top_intersects(x.asWKT, y.asWKT)";
+        for (String relation : RELATIONS) {
+            AMapping expected = MappingFactory.createDefaultMapping();
+            for (Map.Entry<String, Geometry> s : sourceMap.entrySet()) {
+                for (Map.Entry<String, Geometry> t : targetMap.entrySet()) {
+                    if (relate(s.getValue(), t.getValue(), relation)) {
+                        expected.add(s.getKey(), t.getKey(), 1.0d);
+                    }
+                }
+            }
+            assertEquals(relation, expected.getMap(), RADON.getMapping(sourceMap, targetMap, relation).getMap());
+            // the second run reuses the cached geometries and tree
+            for (int run = 0; run < 2; run++) {
+                assertEquals(relation, expected.getMap(),
+                        RADON.getMapping(source, target, "?x", "?y", expression, 1.0d, relation).getMap());
+            }
+        }
+    }
+
+    @Test
+    public void testPatterns() {
+        Random random = new Random(7);
+        Map<String, Geometry> sourceMap = RADON.getGeometryMapFromCache(randomRectangles(random, "s", 100), "asWKT");
+        Map<String, Geometry> targetMap = RADON.getGeometryMapFromCache(randomRectangles(random, "t", 100), "asWKT");
+        // within, which implies intersection, and disjoint, which does not
+        for (String pattern : new String[] { "T*F**F***", "FF*FF****" }) {
+            AMapping expected = MappingFactory.createDefaultMapping();
+            for (Map.Entry<String, Geometry> s : sourceMap.entrySet()) {
+                for (Map.Entry<String, Geometry> t : targetMap.entrySet()) {
+                    if (s.getValue().relate(t.getValue(), pattern)) {
+                        expected.add(s.getKey(), t.getKey(), 1.0d);
+                    }
+                }
+            }
+            assertEquals(pattern, expected.getMap(), RADON.getMapping(sourceMap, targetMap, pattern).getMap());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownRelation() {
+        Random random = new Random(7);
+        Map<String, Geometry> sourceMap = RADON.getGeometryMapFromCache(randomRectangles(random, "s", 10), "asWKT");
+        RADON.getMapping(sourceMap, sourceMap, "adjacent");
+    }
+
     @Test
     public void test() {
 
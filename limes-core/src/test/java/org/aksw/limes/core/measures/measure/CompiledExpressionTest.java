@@ -0,0 +1,117 @@
+package org.aksw.limes.core.measures.measure;
+
+import static org.junit.Assert.assertEquals;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledExpressionTest {
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        source.addTriple("S1", "name", "kleanthi");
+        source.addTriple("S1", "age", "26");
+        source.addTriple("S2", "name", "lukas");
+        source.addTriple("S2", "age", "13");
+        source.addTriple("S3", "name", "johny");
+        source.addTriple("S3", "age", "52");
+        source.addTriple("S1", "label", "the old mill, leipzig");
+        source.addTriple("S1", "label", "old mill");
+        source.addTriple("S2", "label", "new town hall");
+        source.addTriple("S3", "label", "market square. market");
+
+        target.addTriple("T1", "name", "klea");
+        target.addTriple("T1", "age", "26");
+        target.addTriple("T2", "name", "lukas");
+        target.addTriple("T2", "age", "13");
+        target.addTriple("T3", "name", "johnny");
+        target.addTriple("T3", "age", "50");
+        target.addTriple("T1", "label", "old mill leipzig");
+        target.addTriple("T2", "label", "town hall");
+        target.addTriple("T2", "label", "new town hall!");
+        target.addTriple("T3", "label", "market square");
+    }
+
+    private void assertSameAsMapper(String expression, double threshold) {
+        MeasureType type = MeasureFactory.getMeasureType(expression);
+        AMapping m = MapperFactory.createMapper(type).getMapping(source, target, "?x", "?y", expression, threshold);
+        CompiledExpression compiled = CompiledExpression.compile(expression, threshold, "?x", "?y");
+        for (String s : source.getAllUris()) {
+            for (String t : target.getAllUris()) {
+                assertEquals(m.getConfidence(s, t),
+                        compiled.getSimilarity(source.getInstance(s), target.getInstance(t)), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testAtomic() {
+        assertSameAsMapper("qgrams(x.name,y.name)", 0.3);
+        assertSameAsMapper("jaro(x.name,y.name)", 0.5);
+        assertSameAsMapper("euclidean(x.age,y.age)", 0.2);
+        assertSameAsMapper("trigram(x.name,y.name)", 0.4);
+        assertSameAsMapper("mongeelkan(x.name,y.name)", 0.5);
+        assertSameAsMapper("soundex(x.name,y.name)", 0.6);
+        assertSameAsMapper("exactmatch(x.age,y.age)", 1.0);
+    }
+
+    @Test
+    public void testPairwiseForms() {
+        for (double threshold : new double[] { 0.3, 0.5, 0.8 }) {
+            assertSameAsMapper("cosine(x.label,y.label)", threshold);
+            assertSameAsMapper("jaccard(x.label,y.label)", threshold);
+            assertSameAsMapper("trigram(x.label,y.label)", threshold);
+            assertSameAsMapper("levenshtein(x.name,y.name)", threshold);
+            assertSameAsMapper("levenshtein(x.label,y.label)", threshold);
+            assertSameAsMapper("jaro(x.label,y.label)", threshold);
+            assertSameAsMapper("doublemeta(x.name,y.name)", threshold);
+            assertSameAsMapper("koeln(x.name,y.name)", threshold);
+            assertSameAsMapper("koeln(x.label,y.label)", threshold);
+        }
+    }
+
+    private void assertSimilarities(CompiledExpression compiled, double s1t1, double s2t2, double s3t3) {
+        for (String s : source.getAllUris()) {
+            for (String t : target.getAllUris()) {
+                double expected = 0;
+                if (s.equals("S1") && t.equals("T1")) {
+                    expected = s1t1;
+                } else if (s.equals("S2") && t.equals("T2")) {
+                    expected = s2t2;
+                } else if (s.equals("S3") && t.equals("T3")) {
+                    expected = s3t3;
+                }
+                assertEquals(expected, compiled.getSimilarity(source.getInstance(s), target.getInstance(t)), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testComplex() {
+        // expected values computed with the mapper for every atomic expression
+        String expression = "OR(AND(qgrams(x.name,y.name)|0.3,euclidean(x.age,y.age)|0.2)|0.2,"
+                + "ADD(0.5*trigram(x.name,y.name)|0.4,0.5*jaro(x.name,y.name)|0.5)|0.4)";
+        assertSimilarities(CompiledExpression.compile(expression, 0.3, "?x", "?y"), 0.4166666666666667, 1.0,
+                0.4722222089767456);
+
+        expression = "OR(mongeelkan(x.name,y.name)|0.5,"
+                + "AND(soundex(x.name,y.name)|0.6,exactmatch(x.age,y.age)|1.0)|0.5)";
+        assertSimilarities(CompiledExpression.compile(expression, 0.5, "?x", "?y"), 0.6666666666666667, 1.0,
+                0.9333333333333333);
+    }
+
+    @Test
+    public void testInvalidThreshold() {
+        CompiledExpression compiled = CompiledExpression.compile("qgrams(x.name,y.name)", -0.3, "?x", "?y");
+        assertEquals(0, compiled.getSimilarity(source.getInstance("S2"), target.getInstance("T2")), 0);
+    }
+}
@@ -8,6 +8,9 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.evaluation.evaluationDataLoader.DataSetChooser;
@@ -19,6 +22,7 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
 import org.aksw.limes.core.ml.algorithm.classifier.ExtendedClassifier;
 import org.aksw.limes.core.ml.algorithm.dragon.DecisionTree;
@@ -99,6 +103,41 @@ public class DecisionTreeTest {
 						new GoldStandard(this.c.getReferenceMapping())));
 	}
 
+	@Test
+	public void testParallelFeaturesMatchSequential() throws Exception {
+		final AMapping trainingData = getTrainingData(this.c.getReferenceMapping());
+		final MLResults sequential;
+		LinkingExecutor.setParallelism(1);
+		try {
+			sequential = this.createDragon().asSupervised().learn(trainingData);
+		} finally {
+			LinkingExecutor.setParallelism(Runtime.getRuntime().availableProcessors());
+		}
+		final MLResults parallel = this.createDragon().asSupervised().learn(trainingData);
+		assertEquals(sequential.getLinkSpecification(), parallel.getLinkSpecification());
+
+		// trees of different learners do not share state
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			final Future<MLResults> first = executor.submit(() -> this.createDragon().asSupervised().learn(trainingData));
+			final Future<MLResults> second = executor.submit(() -> this.createDragon().asSupervised().learn(trainingData));
+			assertEquals(sequential.getLinkSpecification(), first.get().getLinkSpecification());
+			assertEquals(sequential.getLinkSpecification(), second.get().getLinkSpecification());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private AMLAlgorithm createDragon() throws UnsupportedMLImplementationException {
+		final AMLAlgorithm dragon = MLAlgorithmFactory.createMLAlgorithm(Dragon.class,
+				MLImplementationType.SUPERVISED_BATCH);
+		dragon.init(null, this.sourceCache, this.targetCache);
+		dragon.getMl().setConfiguration(this.c.getConfigReader().read());
+		dragon.getMl().setParameter(Dragon.PARAMETER_PROPERTY_MAPPING, this.c.getPropertyMapping());
+		dragon.getMl().setParameter(Dragon.PARAMETER_MAX_LINK_SPEC_HEIGHT, 3);
+		return dragon;
+	}
+
 	public static AMapping getTrainingData(AMapping full) {
 		final int sliceSizeWanted = full.size() - (int) Math.ceil(full.getSize() / 10.0);
 		final AMapping slice = MappingFactory.createDefaultMapping();
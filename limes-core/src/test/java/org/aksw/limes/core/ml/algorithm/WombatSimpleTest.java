@@ -1,17 +1,27 @@
 package org.aksw.limes.core.ml.algorithm;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.aksw.limes.core.datastrutures.Tree;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
 import org.aksw.limes.core.exceptions.UnsupportedMLImplementationException;
+import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
+import org.aksw.limes.core.execution.planning.planner.CanonicalPlanner;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.LinkingExecutor;
 import org.aksw.limes.core.ml.algorithm.ActiveMLAlgorithm;
 import org.aksw.limes.core.ml.algorithm.MLAlgorithmFactory;
 import org.aksw.limes.core.ml.algorithm.MLImplementationType;
@@ -19,7 +29,9 @@ import org.aksw.limes.core.ml.algorithm.MLResults;
 import org.aksw.limes.core.ml.algorithm.SupervisedMLAlgorithm;
 import org.aksw.limes.core.ml.algorithm.UnsupervisedMLAlgorithm;
 import org.aksw.limes.core.ml.algorithm.WombatSimple;
+import org.aksw.limes.core.ml.algorithm.classifier.ExtendedClassifier;
 import org.aksw.limes.core.ml.algorithm.eagle.util.PropertyMapping;
+import org.aksw.limes.core.ml.algorithm.wombat.RefinementNode;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -121,6 +133,142 @@ public class WombatSimpleTest {
         assert (resultMap.equals(refMap));
     }
     
+    @Test
+    public void testInitialClassifiersMatchThresholdByThreshold() {
+        ExposedWombat wombat = new ExposedWombat();
+        wombat.init(null, sc, tc);
+        wombat.useTrainingData(refMap);
+        assertSameClassifiers(wombat.sequentialInitialClassifiers(), wombat.initialClassifiers());
+
+        wombat.usePseudoFMeasure(new PseudoFMeasure());
+        assertSameClassifiers(wombat.sequentialInitialClassifiers(), wombat.initialClassifiers());
+    }
+
+    private void assertSameClassifiers(List<ExtendedClassifier> expected, List<ExtendedClassifier> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getSourceProperty(), actual.get(i).getSourceProperty());
+            assertEquals(expected.get(i).getTargetProperty(), actual.get(i).getTargetProperty());
+            assertEquals(expected.get(i).getMeasure(), actual.get(i).getMeasure());
+            assertEquals(expected.get(i).getThreshold(), actual.get(i).getThreshold(), 0d);
+            assertEquals(expected.get(i).getfMeasure(), actual.get(i).getfMeasure(), 1e-9);
+            assertEquals(expected.get(i).getMapping(), actual.get(i).getMapping());
+        }
+    }
+
+    @Test
+    public void testParallelRefinementMatchesSequential() throws UnsupportedMLImplementationException {
+        MLResults sequential;
+        LinkingExecutor.setParallelism(1);
+        try {
+            sequential = learnSupervised();
+        } finally {
+            LinkingExecutor.setParallelism(Runtime.getRuntime().availableProcessors());
+        }
+        MLResults parallel = learnSupervised();
+        assertEquals(sequential.getLinkSpecification(), parallel.getLinkSpecification());
+        assertEquals(sequential.getMapping(), parallel.getMapping());
+        assertEquals(sequential.getQuality(), parallel.getQuality(), 0d);
+    }
+
+    @Test
+    public void testRefinementIndexKeepsDuplicates() {
+        ExposedWombat wombat = new ExposedWombat();
+        wombat.init(null, sc, tc);
+        String expression = "trigrams(x.name,y.name)|0.5";
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        mapping.add("ex:i1", "ex:i1", 1d);
+        Tree<RefinementNode> root = new Tree<RefinementNode>(new RefinementNode(0d, null, ""));
+        Tree<RefinementNode> empty = new Tree<RefinementNode>(
+                new RefinementNode(0d, MappingFactory.createDefaultMapping(), expression));
+        Tree<RefinementNode> full = new Tree<RefinementNode>(new RefinementNode(0.5d, mapping, expression));
+        wombat.index(root, empty);
+        wombat.index(root, full);
+
+        // the first node has no mapping, so the duplicate serves the lookup
+        assertSame(mapping, wombat.lookup(expression));
+
+        wombat.unindex(full);
+        assertTrue(wombat.isIndexed(expression));
+        wombat.unindex(empty);
+        assertFalse(wombat.isIndexed(expression));
+    }
+
+    private MLResults learnSupervised() throws UnsupportedMLImplementationException {
+        SupervisedMLAlgorithm wombatSimple = MLAlgorithmFactory.createMLAlgorithm(WombatSimple.class,
+                MLImplementationType.SUPERVISED_BATCH).asSupervised();
+        wombatSimple.init(null, sc, tc);
+        return wombatSimple.learn(trainingMap);
+    }
+
+    /**
+     * Exposes the protected state of WOMBAT to the tests.
+     */
+    private static class ExposedWombat extends WombatSimple {
+
+        void index(Tree<RefinementNode> parent, Tree<RefinementNode> child) {
+            addChild(parent, child);
+        }
+
+        void unindex(Tree<RefinementNode> subtree) {
+            removeFromRefinementTree(subtree);
+        }
+
+        boolean isIndexed(String metricExpression) {
+            return inRefinementTree(metricExpression);
+        }
+
+        AMapping lookup(String metricExpression) {
+            return getMappingOfMetricExpression(metricExpression);
+        }
+
+        void useTrainingData(AMapping trainingData) {
+            this.trainingData = trainingData;
+            isUnsupervised = false;
+        }
+
+        void usePseudoFMeasure(PseudoFMeasure pfm) {
+            pseudoFMeasure = pfm;
+            isUnsupervised = true;
+        }
+
+        List<ExtendedClassifier> initialClassifiers() {
+            return findInitialClassifiers();
+        }
+
+        /**
+         * Runs the mapper once per threshold of the sweep.
+         */
+        List<ExtendedClassifier> sequentialInitialClassifiers() {
+            List<ExtendedClassifier> classifiers = new ArrayList<>();
+            for (String p : sourcePropertiesCoverageMap.keySet()) {
+                for (String q : targetPropertiesCoverageMap.keySet()) {
+                    for (String m : getAtomicMeasures()) {
+                        double maxOverlap = 0;
+                        double theta = 1.0;
+                        AMapping bestMapping = MappingFactory.createDefaultMapping();
+                        for (double threshold = 1d; threshold > 0.4d; threshold = threshold * getPropertyLearningRate()) {
+                            LinkSpecification ls = new LinkSpecification(m + "(x." + p + ",y." + q + ")", threshold);
+                            AMapping mapping = new SimpleExecutionEngine(sourceCache, targetCache, "?x", "?y")
+                                    .execute(ls, new CanonicalPlanner());
+                            double overlap = fMeasure(mapping);
+                            if (maxOverlap < overlap) {
+                                theta = threshold;
+                                maxOverlap = overlap;
+                                bestMapping = mapping;
+                            }
+                        }
+                        ExtendedClassifier cp = new ExtendedClassifier(m, theta, p, q);
+                        cp.setfMeasure(maxOverlap);
+                        cp.setMapping(bestMapping);
+                        classifiers.add(cp);
+                    }
+                }
+            }
+            return classifiers;
+        }
+    }
+
     private AMapping oracleFeedback(AMapping predictionMapping, AMapping referenceMapping) {
         AMapping result = MappingFactory.createDefaultMapping();
 
@@ -0,0 +1,134 @@
+package org.aksw.limes.core.ml.algorithm.eagle.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aksw.limes.core.evaluation.qualititativeMeasures.FMeasure;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.config.KBInfo;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.ml.algorithm.eagle.util.PropertyMapping;
+import org.jgap.FitnessFunction;
+import org.jgap.gp.IGPProgram;
+import org.jgap.gp.impl.GPGenotype;
+import org.jgap.gp.impl.GPPopulation;
+import org.junit.Test;
+
+public class IGPFitnessFunctionTest {
+
+    /**
+     * Counts the link specifications that are actually evaluated.
+     */
+    private static class CountingFitnessFunction extends ExpressionFitnessFunction {
+        private static final long serialVersionUID = 1L;
+
+        final AtomicInteger evaluations = new AtomicInteger();
+
+        CountingFitnessFunction(LinkSpecGeneticLearnerConfig config, AMapping reference) {
+            super(config, new FMeasure(), reference);
+        }
+
+        @Override
+        protected double calculateFitness(LinkSpecification spec) {
+            evaluations.incrementAndGet();
+            return super.calculateFitness(spec);
+        }
+    }
+
+    @Test
+    public void testCanonicalForm() {
+        LinkSpecification ab = new LinkSpecification(
+                "AND(trigrams(x.name,y.name)|0.5,cosine(x.surname,y.surname)|0.6)", 0.7);
+        LinkSpecification ba = new LinkSpecification(
+                "AND(cosine(x.surname,y.surname)|0.6,trigrams(x.name,y.name)|0.5)", 0.7);
+        assertEquals(IGPFitnessFunction.getCanonicalForm(ab), IGPFitnessFunction.getCanonicalForm(ba));
+
+        LinkSpecification max = new LinkSpecification(
+                "MAX(trigrams(x.name,y.name),cosine(x.surname,y.surname))", 0.7);
+        LinkSpecification swappedMax = new LinkSpecification(
+                "MAX(cosine(x.surname,y.surname),trigrams(x.name,y.name))", 0.7);
+        assertEquals(IGPFitnessFunction.getCanonicalForm(max), IGPFitnessFunction.getCanonicalForm(swappedMax));
+
+        LinkSpecification minus = new LinkSpecification(
+                "MINUS(trigrams(x.name,y.name)|0.5,cosine(x.surname,y.surname)|0.6)", 0.7);
+        LinkSpecification swappedMinus = new LinkSpecification(
+                "MINUS(cosine(x.surname,y.surname)|0.6,trigrams(x.name,y.name)|0.5)", 0.7);
+        assertNotEquals(IGPFitnessFunction.getCanonicalForm(minus),
+                IGPFitnessFunction.getCanonicalForm(swappedMinus));
+
+        LinkSpecification other = new LinkSpecification(
+                "AND(trigrams(x.name,y.name)|0.5,cosine(x.surname,y.surname)|0.8)", 0.7);
+        assertNotEquals(IGPFitnessFunction.getCanonicalForm(ab), IGPFitnessFunction.getCanonicalForm(other));
+    }
+
+    @Test
+    public void testDuplicateSpecsAreEvaluatedOnce() throws Exception {
+        List<String> props = new LinkedList<String>();
+        props.add("name");
+        props.add("surname");
+        KBInfo si = new KBInfo();
+        si.setVar("?x");
+        si.setProperties(props);
+        KBInfo ti = new KBInfo();
+        ti.setVar("?y");
+        ti.setProperties(props);
+        PropertyMapping pm = new PropertyMapping();
+        pm.addStringPropertyMatch("name", "name");
+        pm.addStringPropertyMatch("surname", "surname");
+
+        ACache sc = new MemoryCache();
+        ACache tc = new MemoryCache();
+        String[][] people = { { "ex:i1", "Klaus", "Lyko" }, { "ex:i2", "John", "Doe" },
+                { "ex:i3", "Claus", "Stadler" }, { "ex:i4", "Claus", "Lyko" } };
+        for (String[] person : people) {
+            Instance i = new Instance(person[0]);
+            i.addProperty("name", person[1]);
+            i.addProperty("surname", person[2]);
+            sc.addInstance(i);
+            tc.addInstance(i);
+        }
+        AMapping reference = MappingFactory.createDefaultMapping();
+        reference.add("ex:i1", "ex:i1", 1d);
+        reference.add("ex:i3", "ex:i3", 1d);
+
+        LinkSpecGeneticLearnerConfig config = new LinkSpecGeneticLearnerConfig(si, ti, pm);
+        config.sC = sc;
+        config.tC = tc;
+        config.setPopulationSize(20);
+        CountingFitnessFunction fitness = new CountingFitnessFunction(config, reference);
+        org.jgap.Configuration.reset();
+        config.setFitnessFunction(fitness);
+        GPGenotype gp = new ExpressionProblem(config).create();
+
+        GPPopulation population = gp.getGPPopulation();
+        int size = population.getGPPrograms().length;
+        for (int i = size / 2; i < size; i++) {
+            population.setGPProgram(i, population.getGPProgram(i - size / 2));
+        }
+        Set<String> distinct = new HashSet<>();
+        for (IGPProgram p : population.getGPPrograms()) {
+            p.setFitnessValue(FitnessFunction.NO_FITNESS_VALUE);
+            distinct.add(IGPFitnessFunction.getCanonicalForm(fitness.getLinkSpecification(p)));
+        }
+
+        fitness.evaluate(population);
+        assertEquals(distinct.size(), fitness.evaluations.get());
+        assertTrue(fitness.evaluations.get() < size);
+
+        CountingFitnessFunction sequential = new CountingFitnessFunction(config, reference);
+        for (IGPProgram p : population.getGPPrograms()) {
+            assertEquals(sequential.calculateRawFitness(p), p.getFitnessValueDirectly(), 0d);
+        }
+    }
+}